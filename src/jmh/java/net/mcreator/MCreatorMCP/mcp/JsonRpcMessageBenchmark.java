@@ -0,0 +1,70 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks JSON-RPC message parsing and serialization for a typical tool call
+ * request and a large resource read response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonRpcMessageBenchmark {
+
+    private ObjectMapper objectMapper;
+    private String toolCallJson;
+    private JsonRpcMessage toolCall;
+    private String elementsResponseJson;
+    private JsonRpcMessage elementsResponse;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("elementType", "block");
+        arguments.put("elementName", "RubyOre");
+        Map<String, Object> params = new HashMap<>();
+        params.put("name", "createElement");
+        params.put("arguments", arguments);
+        toolCall = new JsonRpcMessage("tools/call", params);
+        toolCall.setId(42);
+        toolCallJson = objectMapper.writeValueAsString(toolCall);
+
+        McpServer mcpServer = SyntheticWorkspace.createServer(1000);
+        Map<String, Object> readParams = new HashMap<>();
+        readParams.put("uri", "workspace://elements");
+        JsonRpcMessage read = new JsonRpcMessage("resources/read", readParams);
+        read.setId(43);
+        elementsResponse = mcpServer.processMessage(read);
+        elementsResponseJson = objectMapper.writeValueAsString(elementsResponse);
+    }
+
+    @Benchmark
+    public JsonRpcMessage parseToolCall() throws Exception {
+        return objectMapper.readValue(toolCallJson, JsonRpcMessage.class);
+    }
+
+    @Benchmark
+    public String serializeToolCall() throws Exception {
+        return objectMapper.writeValueAsString(toolCall);
+    }
+
+    @Benchmark
+    public JsonRpcMessage parseElementsResponse() throws Exception {
+        return objectMapper.readValue(elementsResponseJson, JsonRpcMessage.class);
+    }
+
+    @Benchmark
+    public String serializeElementsResponse() throws Exception {
+        return objectMapper.writeValueAsString(elementsResponse);
+    }
+}
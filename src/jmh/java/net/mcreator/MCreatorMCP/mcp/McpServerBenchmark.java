@@ -0,0 +1,75 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks McpServer.processMessage for the core protocol methods against
+ * synthetic workspaces of different sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class McpServerBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int elementCount;
+
+    private McpServer mcpServer;
+    private JsonRpcMessage initialize;
+    private JsonRpcMessage toolsList;
+    private JsonRpcMessage resourcesList;
+    private JsonRpcMessage readOverview;
+    private JsonRpcMessage readElements;
+
+    @Setup
+    public void setUp() {
+        mcpServer = SyntheticWorkspace.createServer(elementCount);
+
+        Map<String, Object> initParams = new HashMap<>();
+        initParams.put("protocolVersion", "2025-06-18");
+        initParams.put("capabilities", new HashMap<>());
+        initialize = request(1, "initialize", initParams);
+        toolsList = request(2, "tools/list", new HashMap<>());
+        resourcesList = request(3, "resources/list", new HashMap<>());
+        readOverview = request(4, "resources/read", Map.of("uri", "workspace://overview"));
+        readElements = request(5, "resources/read", Map.of("uri", "workspace://elements"));
+    }
+
+    @Benchmark
+    public JsonRpcMessage initialize() {
+        return mcpServer.processMessage(initialize);
+    }
+
+    @Benchmark
+    public JsonRpcMessage toolsList() {
+        return mcpServer.processMessage(toolsList);
+    }
+
+    @Benchmark
+    public JsonRpcMessage resourcesList() {
+        return mcpServer.processMessage(resourcesList);
+    }
+
+    @Benchmark
+    public JsonRpcMessage resourcesReadOverview() {
+        return mcpServer.processMessage(readOverview);
+    }
+
+    @Benchmark
+    public JsonRpcMessage resourcesReadElements() {
+        return mcpServer.processMessage(readElements);
+    }
+
+    static JsonRpcMessage request(int id, String method, Map<String, Object> params) {
+        JsonRpcMessage message = new JsonRpcMessage(method, params);
+        message.setId(id);
+        return message;
+    }
+}
@@ -0,0 +1,66 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks tools/call dispatch of the read tools of MCPToolsService against
+ * synthetic workspaces of different sizes, both in-process and through the full
+ * parse/process/serialize pipeline a transport runs for each request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ToolDispatchBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int elementCount;
+
+    private McpServer mcpServer;
+    private ObjectMapper objectMapper;
+    private JsonRpcMessage workspaceInfo;
+    private JsonRpcMessage listAll;
+    private JsonRpcMessage listFiltered;
+    private String listAllJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        mcpServer = SyntheticWorkspace.createServer(elementCount);
+        objectMapper = new ObjectMapper();
+
+        workspaceInfo = McpServerBenchmark.request(1, "tools/call",
+            Map.of("name", "getWorkspaceInfo", "arguments", Map.of()));
+        listAll = McpServerBenchmark.request(2, "tools/call",
+            Map.of("name", "listModElements", "arguments", Map.of()));
+        listFiltered = McpServerBenchmark.request(3, "tools/call",
+            Map.of("name", "listModElements", "arguments", Map.of("elementType", "block")));
+        listAllJson = objectMapper.writeValueAsString(listAll);
+    }
+
+    @Benchmark
+    public JsonRpcMessage getWorkspaceInfo() {
+        return mcpServer.processMessage(workspaceInfo);
+    }
+
+    @Benchmark
+    public JsonRpcMessage listModElements() {
+        return mcpServer.processMessage(listAll);
+    }
+
+    @Benchmark
+    public JsonRpcMessage listModElementsFiltered() {
+        return mcpServer.processMessage(listFiltered);
+    }
+
+    @Benchmark
+    public String listModElementsPipeline() throws Exception {
+        JsonRpcMessage request = objectMapper.readValue(listAllJson, JsonRpcMessage.class);
+        return objectMapper.writeValueAsString(mcpServer.processMessage(request));
+    }
+}
@@ -0,0 +1,79 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encode and decode cost of the wire formats for a large element list
+ * response and a resource carrying a binary blob. Payload sizes are printed during
+ * setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    public McpWireFormat format;
+
+    private ObjectMapper mapper;
+    private JsonRpcMessage elementsResponse;
+    private byte[] elementsResponseBytes;
+    private JsonRpcMessage blobResponse;
+    private byte[] blobResponseBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        mapper = format.mapper();
+
+        McpServer mcpServer = SyntheticWorkspace.createServer(1000);
+        Map<String, Object> params = new HashMap<>();
+        params.put("name", "listModElements");
+        params.put("arguments", new HashMap<>());
+        JsonRpcMessage call = new JsonRpcMessage("tools/call", params);
+        call.setId(1);
+        elementsResponse = mcpServer.processMessage(call);
+        elementsResponseBytes = mapper.writeValueAsBytes(elementsResponse);
+
+        McpTypes.ResourceContent blob = new McpTypes.ResourceContent();
+        blob.setUri("workspace://textures/block/ruby_ore.png");
+        blob.setMimeType("image/png");
+        byte[] data = new byte[64 * 1024];
+        new Random(42).nextBytes(data);
+        blob.setBlob(data);
+        blobResponse = new JsonRpcMessage(2, Map.of("contents", List.of(blob)));
+        blobResponseBytes = mapper.writeValueAsBytes(blobResponse);
+
+        System.out.printf("%n%s payload sizes: elements response %d bytes, 64 KB blob response %d bytes%n",
+            format, elementsResponseBytes.length, blobResponseBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeElementsResponse() throws Exception {
+        return mapper.writeValueAsBytes(elementsResponse);
+    }
+
+    @Benchmark
+    public JsonRpcMessage decodeElementsResponse() throws Exception {
+        return mapper.readValue(elementsResponseBytes, JsonRpcMessage.class);
+    }
+
+    @Benchmark
+    public byte[] encodeBlobResponse() throws Exception {
+        return mapper.writeValueAsBytes(blobResponse);
+    }
+
+    @Benchmark
+    public JsonRpcMessage decodeBlobResponse() throws Exception {
+        return mapper.readValue(blobResponseBytes, JsonRpcMessage.class);
+    }
+}
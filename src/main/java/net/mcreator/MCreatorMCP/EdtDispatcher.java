@@ -0,0 +1,65 @@
+package net.mcreator.MCreatorMCP;
+
+import net.mcreator.MCreatorMCP.mcp.McpMetrics;
+import net.mcreator.MCreatorMCP.mcp.McpTracer;
+
+import javax.swing.*;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Runs MCP tool work on the Swing EDT and records how long each call waited in
+ * the EDT queue and how long the work itself took, both as metrics and as stages
+ * of the calling request's trace.
+ */
+public class EdtDispatcher {
+
+    private final McpMetrics metrics;
+    private final McpTracer tracer;
+
+    public EdtDispatcher(McpMetrics metrics, McpTracer tracer) {
+        this.metrics = metrics;
+        this.tracer = tracer;
+    }
+
+    /**
+     * Run the given work on the EDT and wait for it to complete
+     */
+    public void invokeAndWait(String tool, Runnable work) throws InterruptedException, InvocationTargetException {
+        if (SwingUtilities.isEventDispatchThread()) {
+            long runStart = System.nanoTime();
+            try {
+                work.run();
+            } finally {
+                recordRun(tool, runStart, System.nanoTime());
+            }
+            return;
+        }
+
+        long queuedAt = System.nanoTime();
+        long[] runTimes = new long[2];
+        try {
+            SwingUtilities.invokeAndWait(() -> {
+                runTimes[0] = System.nanoTime();
+                try {
+                    work.run();
+                } finally {
+                    runTimes[1] = System.nanoTime();
+                }
+            });
+        } finally {
+            // Spans are added on the calling thread, which the request trace is bound to
+            if (runTimes[0] != 0) {
+                metrics.histogram("mcp_edt_wait_seconds", "Time tool work waited in the EDT queue", "tool", tool)
+                    .record(runTimes[0] - queuedAt);
+                tracer.addSpan("edt.queue", queuedAt, runTimes[0]);
+                recordRun(tool, runTimes[0], runTimes[1]);
+            }
+        }
+    }
+
+    private void recordRun(String tool, long runStart, long runEnd) {
+        metrics.histogram("mcp_edt_run_seconds", "Time spent running tool work on the EDT", "tool", tool)
+            .record(runEnd - runStart);
+        tracer.addSpan("edt.run", runStart, runEnd);
+    }
+}
@@ -0,0 +1,98 @@
+package net.mcreator.MCreatorMCP;
+
+import net.mcreator.MCreatorMCP.mcp.McpSettings;
+import net.mcreator.ui.MCreator;
+import net.mcreator.workspace.Workspace;
+import net.mcreator.workspace.elements.ModElement;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.gradle.tooling.GradleConnectionException;
+import org.gradle.tooling.GradleConnector;
+import org.gradle.tooling.ProjectConnection;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Workspace loaded without the MCreator UI. Changes are applied on the calling thread,
+ * which for mutating tools is the mutation lane of the workspace, code is regenerated
+ * through the generator and builds run through the Gradle tooling API.
+ */
+public class HeadlessWorkspaceHost implements WorkspaceHost {
+
+    private static final Logger LOG = LogManager.getLogger("MCP-Headless");
+
+    private static final int BUILD_OUTPUT_LINES = 40;
+
+    private final Workspace workspace;
+    private final IncrementalRegenerator regenerator = new IncrementalRegenerator();
+    private final Object lock = new Object();
+
+    public HeadlessWorkspaceHost(Workspace workspace) {
+        this.workspace = workspace;
+    }
+
+    @Override public Workspace getWorkspace() { return workspace; }
+
+    @Override public MCreator getMCreator() { return null; }
+
+    @Override
+    public void apply(String tool, Runnable change) {
+        // Lanes already serialize mutating tools; this also covers build/run tools touching the workspace
+        synchronized (lock) {
+            change.run();
+        }
+    }
+
+    @Override
+    public String build() throws Exception {
+        String[] tasks = McpSettings.getString("headless.buildTasks", "build").split(",");
+        LOG.info("Running Gradle {} in {}", Arrays.toString(tasks), workspace.getWorkspaceFolder());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ProjectConnection connection = GradleConnector.newConnector()
+            .forProjectDirectory(workspace.getWorkspaceFolder())
+            .connect();
+        try {
+            connection.newBuild()
+                .forTasks(tasks)
+                .setStandardOutput(output)
+                .setStandardError(output)
+                .run();
+        } catch (GradleConnectionException e) {
+            throw new IllegalStateException(e.getMessage() + "\n" + tail(output), e);
+        } finally {
+            connection.close();
+        }
+        return "Workspace built successfully:\n" + tail(output);
+    }
+
+    @Override
+    public String regenerateCode() {
+        synchronized (lock) {
+            List<String> elementNames = new ArrayList<>();
+            for (ModElement element : workspace.getModElements()) {
+                elementNames.add(element.getName());
+            }
+
+            IncrementalRegenerator.Result result = regenerator.regenerate(workspace, elementNames, true);
+            if (result.hasFailures()) {
+                throw new IllegalStateException("Regeneration failed for " + result.getFailed());
+            }
+            return "Regenerated " + result.getRegenerated().size() + " elements, wrote "
+                + result.getFilesWritten().size() + " files";
+        }
+    }
+
+    /**
+     * Last lines of the Gradle output, which hold the build result and any failure
+     */
+    private static String tail(ByteArrayOutputStream output) {
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\r?\n");
+        int from = Math.max(0, lines.length - BUILD_OUTPUT_LINES);
+        return String.join("\n", Arrays.copyOfRange(lines, from, lines.length));
+    }
+}
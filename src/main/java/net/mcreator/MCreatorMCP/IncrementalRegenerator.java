@@ -0,0 +1,131 @@
+package net.mcreator.MCreatorMCP;
+
+import net.mcreator.element.GeneratableElement;
+import net.mcreator.generator.Generator;
+import net.mcreator.generator.GeneratorFile;
+import net.mcreator.workspace.Workspace;
+import net.mcreator.workspace.elements.ModElement;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+
+/**
+ * Regenerates code only for a given set of mod elements plus the shared base files
+ * (registries, mod class, lang files) that reference them, instead of running the
+ * full workspace regeneration. Only the files the generator reports for the elements
+ * are listed as written; the base generator does not report its files.
+ */
+public class IncrementalRegenerator {
+
+    private static final Logger LOG = LogManager.getLogger("MCP-Regen");
+
+    /**
+     * Regenerate the given elements and, if requested, the workspace base files.
+     * This must not be called on the EDT as generation can take a while.
+     */
+    public Result regenerate(Workspace workspace, Collection<String> elementNames, boolean regenerateBase) {
+        Result result = new Result();
+        Generator generator = workspace.getGenerator();
+        long startTime = System.currentTimeMillis();
+
+        for (String elementName : elementNames) {
+            ModElement element = workspace.getModElementByName(elementName);
+            if (element == null) {
+                result.skipped.put(elementName, "element no longer exists");
+                continue;
+            }
+
+            if (element.isCodeLocked()) {
+                result.skipped.put(elementName, "code is locked");
+                continue;
+            }
+
+            GeneratableElement generatableElement = element.getGeneratableElement();
+            if (generatableElement == null) {
+                // Elements created through MCP have no definition until they are edited in MCreator
+                result.unsupported.put(elementName, "element has no definition yet; define it in MCreator first");
+                continue;
+            }
+
+            try {
+                List<GeneratorFile> files = generator.generateElement(generatableElement, true);
+                if (files != null) {
+                    for (GeneratorFile file : files) {
+                        result.filesWritten.add(file.getFile().getAbsolutePath());
+                    }
+                }
+                result.regenerated.add(elementName);
+            } catch (Exception e) {
+                LOG.error("Failed to regenerate element: " + elementName, e);
+                result.failed.put(elementName, e.getMessage());
+            }
+        }
+
+        if (regenerateBase) {
+            try {
+                result.baseRegenerated = generator.generateBase();
+            } catch (Exception e) {
+                LOG.error("Failed to regenerate workspace base files", e);
+                result.failed.put("<base>", e.getMessage());
+            }
+        }
+
+        result.durationMs = System.currentTimeMillis() - startTime;
+        LOG.info("Incremental regeneration finished in {} ms: {} elements, {} files written",
+                result.durationMs, result.regenerated.size(), result.filesWritten.size());
+        return result;
+    }
+
+    /**
+     * Delete the generated files and translations of an element about to be removed
+     * from the workspace, so its code does not outlive it
+     */
+    public void removeElementFiles(Workspace workspace, ModElement element) {
+        if (element.getGeneratableElement() == null || element.isCodeLocked()) {
+            return;
+        }
+        try {
+            workspace.getGenerator().removeElementFilesAndLangKeys(element);
+        } catch (Exception e) {
+            LOG.warn("Failed to remove generated files of element: " + element.getName(), e);
+        }
+    }
+
+    /**
+     * Outcome of an incremental regeneration
+     */
+    public static class Result {
+        private final List<String> regenerated = new ArrayList<>();
+        private final Map<String, String> skipped = new LinkedHashMap<>();
+        private final Map<String, String> unsupported = new LinkedHashMap<>();
+        private final Map<String, String> failed = new LinkedHashMap<>();
+        private final Set<String> filesWritten = new LinkedHashSet<>();
+        private boolean baseRegenerated;
+        private long durationMs;
+
+        public List<String> getRegenerated() { return regenerated; }
+        public Map<String, String> getSkipped() { return skipped; }
+        public Map<String, String> getUnsupported() { return unsupported; }
+        public Map<String, String> getFailed() { return failed; }
+        public Set<String> getFilesWritten() { return filesWritten; }
+        public boolean isBaseRegenerated() { return baseRegenerated; }
+        public long getDurationMs() { return durationMs; }
+
+        public boolean hasFailures() {
+            return !failed.isEmpty();
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("regenerated", regenerated);
+            map.put("skipped", skipped);
+            map.put("unsupported", unsupported);
+            map.put("failed", failed);
+            map.put("baseRegenerated", baseRegenerated);
+            map.put("filesWritten", filesWritten);
+            map.put("durationMs", durationMs);
+            return map;
+        }
+    }
+}
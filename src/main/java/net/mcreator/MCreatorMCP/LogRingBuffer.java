@@ -0,0 +1,73 @@
+package net.mcreator.MCreatorMCP;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded buffer of log lines addressed by monotonically increasing offsets.
+ * When the buffer is full the oldest lines are dropped, and readers asking for
+ * an offset that is no longer available are told how many lines they missed.
+ */
+public class LogRingBuffer {
+
+    private final String[] lines;
+    private long nextOffset = 0;
+
+    public LogRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.lines = new String[capacity];
+    }
+
+    /**
+     * Append a line and return its offset
+     */
+    public synchronized long append(String line) {
+        long offset = nextOffset++;
+        lines[(int) (offset % lines.length)] = line;
+        notifyAll();
+        return offset;
+    }
+
+    /**
+     * Read up to maxLines lines starting at the given offset
+     */
+    public synchronized Chunk read(long fromOffset, int maxLines) {
+        long firstAvailable = getFirstAvailableOffset();
+        long start = Math.max(Math.max(fromOffset, 0), firstAvailable);
+        long end = Math.min(nextOffset, start + Math.max(maxLines, 0));
+
+        List<String> result = new ArrayList<>((int) (end - start));
+        for (long offset = start; offset < end; offset++) {
+            result.add(lines[(int) (offset % lines.length)]);
+        }
+
+        long dropped = Math.max(0, start - Math.max(fromOffset, 0));
+        return new Chunk(result, start, end, dropped);
+    }
+
+    /**
+     * Offset of the oldest line that is still in the buffer
+     */
+    public synchronized long getFirstAvailableOffset() {
+        return Math.max(0, nextOffset - lines.length);
+    }
+
+    /**
+     * Offset the next appended line will get
+     */
+    public synchronized long getNextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * A contiguous range of lines read from the buffer
+     *
+     * @param lines       lines in the range
+     * @param startOffset offset of the first returned line
+     * @param nextOffset  offset to pass to the next read to continue streaming
+     * @param droppedLines lines between the requested offset and startOffset that were already evicted
+     */
+    public record Chunk(List<String> lines, long startOffset, long nextOffset, long droppedLines) {}
+}
@@ -1,7 +1,14 @@
 package net.mcreator.MCreatorMCP;
 
+import net.mcreator.MCreatorMCP.mcp.McpParam;
 import net.mcreator.MCreatorMCP.mcp.McpServer;
+import net.mcreator.MCreatorMCP.mcp.McpSettings;
+import net.mcreator.MCreatorMCP.mcp.McpTool;
+import net.mcreator.MCreatorMCP.mcp.McpToolClass;
 import net.mcreator.MCreatorMCP.mcp.McpTypes;
+import net.mcreator.MCreatorMCP.mcp.McpWorkspaceRegistry;
+import net.mcreator.MCreatorMCP.mcp.McpWorkspaceView;
+import net.mcreator.MCreatorMCP.mcp.WorkspaceSnapshot;
 import net.mcreator.element.ModElementType;
 import net.mcreator.element.ModElementTypeLoader;
 import net.mcreator.workspace.Workspace;
@@ -11,58 +18,133 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import javax.swing.Timer;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
  * Service that implements MCreator tools for the MCP server.
  * This replaces the old IPC-based communication with direct integration.
+ * Tools act on the workspace the server routed the call to; state such as tracked
+ * changes and run sessions is kept per workspace. Workspaces are reached through their
+ * {@link WorkspaceHost}, either an MCreator window or a headless process.
  */
 public class MCPToolsService {
 
     private static final Logger LOG = LogManager.getLogger("MCP-Tools");
+    private static final String RUNS_UNAVAILABLE = "Client and server runs need the MCreator UI and are not available headless";
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final IncrementalRegenerator incrementalRegenerator = new IncrementalRegenerator();
+    private final Map<String, WorkspaceTools> workspaces = new ConcurrentHashMap<>();
+    private McpServer mcpServer;
+    private EdtDispatcher edtDispatcher;
+    private Timer snapshotTimer;
 
     /**
-     * Register all MCreator tools with the MCP server
+     * Register all MCreator tools with the MCP server. Workspaces are added separately
+     * as their windows open.
      */
-    public void registerTools(McpServer mcpServer, MCreator mcreator) {
+    public void registerTools(McpServer mcpServer) {
         LOG.info("Registering MCreator tools with MCP server");
 
-        // Workspace management tools
-        mcpServer.registerHandler("buildWorkspace", params -> executeBuildWorkspace(mcreator));
-        mcpServer.registerHandler("getWorkspaceInfo", params -> getWorkspaceInfo(mcreator));
-        mcpServer.registerHandler("regenerateCode", params -> executeRegenerateCode(mcreator));
+        this.mcpServer = mcpServer;
+        edtDispatcher = new EdtDispatcher(mcpServer.getMetrics(), mcpServer.getTracer());
 
-        // Element operations
-        mcpServer.registerHandler("listModElements", params -> listModElements(mcreator, params));
-        mcpServer.registerHandler("createElement", params -> createElement(mcreator, params));
-        mcpServer.registerHandler("deleteElement", params -> deleteElement(mcreator, params));
+        // Definitions, schemas and argument binders are generated from the @McpTool methods below.
+        // Tools are classified so admission control can limit workspace mutations and builds separately from queries.
+        MCPToolsService_McpTools.register(mcpServer, this);
 
-        // Testing tools
-        mcpServer.registerHandler("runClient", params -> executeRunClient(mcreator));
-        mcpServer.registerHandler("runServer", params -> executeRunServer(mcreator));
+        LOG.info("Registered {} MCreator tools", MCPToolsService_McpTools.TOOL_COUNT);
+    }
+
+    /**
+     * Serve the workspace of an MCreator window and make it the default. Must be called
+     * on the EDT.
+     *
+     * @return the id clients use to target the workspace
+     */
+    public String addWorkspace(MCreator mcreator) {
+        return addWorkspace(new WindowWorkspaceHost(mcreator, edtDispatcher));
+    }
+
+    /**
+     * Serve a workspace and make it the default. For a window this must be called on the EDT.
+     *
+     * @return the id clients use to target the workspace
+     */
+    public String addWorkspace(WorkspaceHost host) {
+        McpWorkspaceRegistry.Entry entry = host.register(mcpServer);
+        // Runs are started and followed through the window's Gradle console
+        RunSessionManager runSessionManager = host.getMCreator() != null ? new RunSessionManager(edtDispatcher) : null;
+        workspaces.put(entry.getId(), new WorkspaceTools(host, entry, runSessionManager));
+
+        // Tools refresh the workspace snapshot after their own changes; this picks up
+        // changes made in the MCreator UI. The timer fires on the EDT and only captures
+        // workspaces whose change stamp moved.
+        if (host.getMCreator() != null && snapshotTimer == null) {
+            snapshotTimer = new Timer(McpSettings.getInt("snapshot.refreshMs", 2000),
+                e -> mcpServer.refreshWorkspaceSnapshots());
+            snapshotTimer.start();
+        }
+        return entry.getId();
+    }
+
+    /**
+     * Stop serving a workspace whose window was closed, stopping its run sessions. For a
+     * window this must be called on the EDT.
+     */
+    public void removeWorkspace(String id) {
+        WorkspaceTools removed = workspaces.remove(id);
+        if (removed != null && removed.runSessionManager != null) {
+            removed.runSessionManager.shutdown();
+        }
+        mcpServer.removeWorkspace(id);
+        if (workspaces.isEmpty() && snapshotTimer != null) {
+            snapshotTimer.stop();
+            snapshotTimer = null;
+        }
+    }
+
+    /**
+     * Tool state of the workspace the current call was routed to, or null if none is open
+     */
+    private WorkspaceTools currentWorkspace() {
+        McpWorkspaceRegistry.Entry entry = mcpServer.getCurrentWorkspace();
+        return entry != null ? workspaces.get(entry.getId()) : null;
+    }
 
-        LOG.info("Registered {} MCreator tools", 8);
+    /**
+     * List open workspaces tool
+     */
+    @McpTool(name = "listWorkspaces",
+        description = "List the open workspaces with the ids other tools accept as their 'workspace' argument",
+        toolClass = McpToolClass.READ_ONLY, output = McpWorkspaceView.WorkspaceList.class, workspaceScoped = false)
+    McpTypes.ToolResult listWorkspaces() {
+        McpWorkspaceRegistry.Entry current = mcpServer.getWorkspaces().getDefault();
+        List<McpWorkspaceView.WorkspaceSummary> summaries = new ArrayList<>();
+        for (McpWorkspaceRegistry.Entry entry : mcpServer.getWorkspaces().list()) {
+            summaries.add(McpWorkspaceView.WorkspaceSummary.of(entry.getId(), entry.getSnapshot()));
+        }
+        return createStructuredResult("Found " + summaries.size() + " open workspaces",
+            new McpWorkspaceView.WorkspaceList(summaries, current != null ? current.getId() : null));
     }
 
     /**
      * Build workspace tool
      */
-    private McpTypes.ToolResult executeBuildWorkspace(MCreator mcreator) {
+    @McpTool(name = "buildWorkspace", description = "Build the current MCreator workspace",
+        toolClass = McpToolClass.BUILD_RUN)
+    McpTypes.ToolResult executeBuildWorkspace() {
         LOG.info("Executing buildWorkspace tool");
 
         try {
-            if (mcreator.getWorkspace() == null) {
+            WorkspaceTools workspace = currentWorkspace();
+            if (workspace == null) {
                 return createErrorResult("No workspace loaded");
             }
 
-            // Execute build on EDT
-            javax.swing.SwingUtilities.invokeAndWait(() -> {
-                mcreator.getActionRegistry().buildWorkspace.doAction();
-            });
-
-            return createSuccessResult("Workspace build initiated successfully");
+            return createSuccessResult(workspace.host.build());
 
         } catch (Exception e) {
             LOG.error("Error building workspace", e);
@@ -73,26 +155,19 @@ public class MCPToolsService {
     /**
      * Get workspace information
      */
-    private McpTypes.ToolResult getWorkspaceInfo(MCreator mcreator) {
+    @McpTool(name = "getWorkspaceInfo", description = "Get detailed workspace information",
+        toolClass = McpToolClass.READ_ONLY, output = McpWorkspaceView.WorkspaceInfo.class)
+    McpTypes.ToolResult getWorkspaceInfo() {
         LOG.info("Executing getWorkspaceInfo tool");
 
         try {
-            Workspace workspace = mcreator.getWorkspace();
-            if (workspace == null) {
+            WorkspaceSnapshot snapshot = mcpServer.getWorkspaceView();
+            if (snapshot == null) {
                 return createErrorResult("No workspace loaded");
             }
 
-            Map<String, Object> info = new HashMap<>();
-            info.put("name", workspace.getWorkspaceSettings().getModName());
-            info.put("version", workspace.getWorkspaceSettings().getVersion());
-            info.put("author", workspace.getWorkspaceSettings().getAuthor());
-            info.put("description", workspace.getWorkspaceSettings().getDescription());
-            info.put("mcreatorVersion", String.valueOf(workspace.getMCreatorVersion()));
-            info.put("elementCount", workspace.getModElements().size());
-            info.put("workspaceFolder", workspace.getWorkspaceFolder().getAbsolutePath());
-
-            String infoJson = objectMapper.writeValueAsString(info);
-            return createSuccessResult("Workspace information retrieved:\n" + infoJson);
+            return createStructuredResult("Workspace information retrieved for " + snapshot.getModName(),
+                McpWorkspaceView.WorkspaceInfo.of(snapshot));
 
         } catch (Exception e) {
             LOG.error("Error getting workspace info", e);
@@ -103,20 +178,23 @@ public class MCPToolsService {
     /**
      * Regenerate code tool
      */
-    private McpTypes.ToolResult executeRegenerateCode(MCreator mcreator) {
+    @McpTool(name = "regenerateCode", description = "Regenerate code without building",
+        toolClass = McpToolClass.BUILD_RUN)
+    McpTypes.ToolResult executeRegenerateCode() {
         LOG.info("Executing regenerateCode tool");
 
         try {
-            if (mcreator.getWorkspace() == null) {
+            WorkspaceTools workspace = currentWorkspace();
+            if (workspace == null) {
                 return createErrorResult("No workspace loaded");
             }
 
-            // Execute regenerate code on EDT
-            javax.swing.SwingUtilities.invokeAndWait(() -> {
-                mcreator.getActionRegistry().regenerateCode.doAction();
-            });
+            String outcome = workspace.host.regenerateCode();
 
-            return createSuccessResult("Code regeneration initiated successfully");
+            // A full regeneration covers everything that was tracked so far
+            workspace.changeTracker.reset();
+
+            return createSuccessResult(outcome);
 
         } catch (Exception e) {
             LOG.error("Error regenerating code", e);
@@ -125,38 +203,80 @@ public class MCPToolsService {
     }
 
     /**
-     * List mod elements tool
+     * Regenerate code only for elements created or modified through MCP tools
      */
-    private McpTypes.ToolResult listModElements(MCreator mcreator, Map<String, Object> params) {
-        LOG.info("Executing listModElements tool");
+    @McpTool(name = "regenerateChangedCode",
+        description = "Regenerate code only for elements created or modified through MCP since the last regeneration, "
+            + "plus the shared registries that depend on them, and report the files written",
+        toolClass = McpToolClass.BUILD_RUN)
+    McpTypes.ToolResult executeRegenerateChangedCode(RegenerateChangedCodeArgs args) {
+        LOG.info("Executing regenerateChangedCode tool");
 
         try {
-            Workspace workspace = mcreator.getWorkspace();
-            if (workspace == null) {
+            WorkspaceTools current = currentWorkspace();
+            if (current == null) {
                 return createErrorResult("No workspace loaded");
             }
+            Workspace workspace = current.host.getWorkspace();
+            ModElementChangeTracker changeTracker = current.changeTracker;
 
-            String elementType = (String) params.get("elementType");
-            Collection<ModElement> elements = workspace.getModElements();
+            Set<String> elementNames = new LinkedHashSet<>(changeTracker.getChangedElements());
 
-            // Filter by type if specified
-            if (elementType != null && !elementType.trim().isEmpty()) {
-                elements = elements.stream()
-                    .filter(element -> element.getType().getRegistryName().equalsIgnoreCase(elementType.trim()))
-                    .collect(Collectors.toList());
+            // Explicitly requested elements are regenerated even if not changed through MCP
+            if (args.elementNames() != null) {
+                for (String name : args.elementNames()) {
+                    if (!name.trim().isEmpty()) {
+                        elementNames.add(name.trim());
+                    }
+                }
             }
 
-            List<Map<String, Object>> elementList = elements.stream()
-                .map(this::modElementToMap)
-                .collect(Collectors.toList());
+            boolean regenerateBase = args.includeBase() && (!elementNames.isEmpty() || changeTracker.hasChanges());
 
-            Map<String, Object> result = new HashMap<>();
-            result.put("elements", elementList);
-            result.put("count", elementList.size());
-            result.put("filteredBy", elementType);
+            if (elementNames.isEmpty() && !regenerateBase) {
+                return createSuccessResult("No changed elements to regenerate");
+            }
+
+            IncrementalRegenerator.Result result =
+                incrementalRegenerator.regenerate(workspace, elementNames, regenerateBase);
+            // Elements without a definition are reported once rather than on every call
+            List<String> handled = new ArrayList<>(result.getRegenerated());
+            handled.addAll(result.getUnsupported().keySet());
+            changeTracker.clear(handled, result.isBaseRegenerated());
+
+            String resultJson = objectMapper.writeValueAsString(result.toMap());
+            if (result.hasFailures()) {
+                return createErrorResult("Regeneration finished with failures:\n" + resultJson);
+            }
+            return createSuccessResult("Regenerated " + result.getRegenerated().size() + " elements, wrote "
+                + result.getFilesWritten().size() + " element files"
+                + (result.getUnsupported().isEmpty() ? "" : ", " + result.getUnsupported().size() + " elements unsupported")
+                + ":\n" + resultJson);
+
+        } catch (Exception e) {
+            LOG.error("Error regenerating changed code", e);
+            return createErrorResult("Failed to regenerate changed code: " + e.getMessage());
+        }
+    }
+
+    /**
+     * List mod elements tool
+     */
+    @McpTool(name = "listModElements", description = "List mod elements with optional filtering",
+        toolClass = McpToolClass.READ_ONLY, output = McpWorkspaceView.ElementList.class)
+    McpTypes.ToolResult listModElements(ListModElementsArgs args) {
+        LOG.info("Executing listModElements tool");
+
+        try {
+            WorkspaceSnapshot snapshot = mcpServer.getWorkspaceView();
+            if (snapshot == null) {
+                return createErrorResult("No workspace loaded");
+            }
+
+            String elementType = args.elementType();
 
-            String resultJson = objectMapper.writeValueAsString(result);
-            return createSuccessResult("Found " + elementList.size() + " mod elements:\n" + resultJson);
+            // The listing only changes with the snapshot, so it is built once per snapshot and filter
+            return snapshot.derive("listModElements " + elementType, s -> createElementListResult(s, elementType));
 
         } catch (Exception e) {
             LOG.error("Error listing mod elements", e);
@@ -164,20 +284,34 @@ public class MCPToolsService {
         }
     }
 
+    private McpTypes.ToolResult createElementListResult(WorkspaceSnapshot snapshot, String elementType) {
+        // Filter by type if specified
+        List<McpWorkspaceView.ElementInfo> elements = elementType != null && !elementType.trim().isEmpty()
+            ? snapshot.getElementsOfType(elementType)
+            : snapshot.getElements();
+
+        McpWorkspaceView.ElementList result = McpWorkspaceView.ElementList.of(elements, elementType);
+
+        // Serialized once here and embedded raw in every response for this snapshot
+        return createStructuredResult("Found " + result.count() + " mod elements", mcpServer.toCachedJson(result));
+    }
+
     /**
      * Create element tool
      */
-    private McpTypes.ToolResult createElement(MCreator mcreator, Map<String, Object> params) {
-        String elementType = (String) params.get("elementType");
-        String elementName = (String) params.get("elementName");
+    @McpTool(name = "createElement", description = "Create new mod element")
+    McpTypes.ToolResult createElement(CreateElementArgs args) {
+        String elementType = args.elementType();
+        String elementName = args.elementName();
 
         LOG.info("Executing createElement tool: {} of type {}", elementName, elementType);
 
         try {
-            Workspace workspace = mcreator.getWorkspace();
-            if (workspace == null) {
+            WorkspaceTools current = currentWorkspace();
+            if (current == null) {
                 return createErrorResult("No workspace loaded");
             }
+            Workspace workspace = current.host.getWorkspace();
 
             if (elementName == null || elementName.trim().isEmpty()) {
                 return createErrorResult("Element name is required");
@@ -205,15 +339,17 @@ public class MCPToolsService {
                 return createErrorResult("Element with name '" + elementName.trim() + "' already exists");
             }
 
-            // Create the element on EDT
+            // Create the element on the EDT, or directly when headless
             final ModElementType finalType = type;
             final String finalName = elementName.trim();
             
-            javax.swing.SwingUtilities.invokeAndWait(() -> {
+            current.host.apply("createElement", () -> {
                 ModElement element = new ModElement(workspace, finalName, finalType);
                 workspace.addModElement(element);
                 workspace.markDirty();
+                current.entry.refreshSnapshot();
             });
+            current.changeTracker.markChanged(finalName);
 
             return createSuccessResult("Element '" + elementName + "' of type '" + elementType + "' created successfully");
 
@@ -226,16 +362,18 @@ public class MCPToolsService {
     /**
      * Delete element tool
      */
-    private McpTypes.ToolResult deleteElement(MCreator mcreator, Map<String, Object> params) {
-        String elementName = (String) params.get("elementName");
+    @McpTool(name = "deleteElement", description = "Delete mod element")
+    McpTypes.ToolResult deleteElement(DeleteElementArgs args) {
+        String elementName = args.elementName();
 
         LOG.info("Executing deleteElement tool: {}", elementName);
 
         try {
-            Workspace workspace = mcreator.getWorkspace();
-            if (workspace == null) {
+            WorkspaceTools current = currentWorkspace();
+            if (current == null) {
                 return createErrorResult("No workspace loaded");
             }
+            Workspace workspace = current.host.getWorkspace();
 
             if (elementName == null || elementName.trim().isEmpty()) {
                 return createErrorResult("Element name is required");
@@ -246,11 +384,14 @@ public class MCPToolsService {
                 return createErrorResult("Element '" + elementName + "' not found");
             }
 
-            // Delete the element on EDT
-            javax.swing.SwingUtilities.invokeAndWait(() -> {
+            // Delete the element on the EDT, or directly when headless
+            current.host.apply("deleteElement", () -> {
+                incrementalRegenerator.removeElementFiles(workspace, element);
                 workspace.removeModElement(element);
                 workspace.markDirty();
+                current.entry.refreshSnapshot();
             });
+            current.changeTracker.markRemoved(element.getName());
 
             return createSuccessResult("Element '" + elementName + "' deleted successfully");
 
@@ -263,61 +404,171 @@ public class MCPToolsService {
     /**
      * Run client tool
      */
-    private McpTypes.ToolResult executeRunClient(MCreator mcreator) {
-        LOG.info("Executing runClient tool");
+    @McpTool(name = "runClient", description = "Start Minecraft client as a tracked run session",
+        toolClass = McpToolClass.BUILD_RUN)
+    McpTypes.ToolResult runClient(RunArgs args) {
+        return executeRun(RunSessionManager.RunKind.CLIENT, args.waitForReadySeconds());
+    }
+
+    /**
+     * Run server tool
+     */
+    @McpTool(name = "runServer", description = "Start Minecraft server as a tracked run session",
+        toolClass = McpToolClass.BUILD_RUN)
+    McpTypes.ToolResult runServer(RunArgs args) {
+        return executeRun(RunSessionManager.RunKind.SERVER, args.waitForReadySeconds());
+    }
+
+    /**
+     * Run client/server tool. Starts a tracked run session and optionally waits
+     * until the game log reports that it is ready.
+     */
+    private McpTypes.ToolResult executeRun(RunSessionManager.RunKind kind, int waitSeconds) {
+        LOG.info("Executing run tool: {}", kind);
 
         try {
-            if (mcreator.getWorkspace() == null) {
+            WorkspaceTools workspace = currentWorkspace();
+            if (workspace == null) {
                 return createErrorResult("No workspace loaded");
             }
+            if (workspace.runSessionManager == null) {
+                return createErrorResult(RUNS_UNAVAILABLE);
+            }
 
-            // Execute run client on EDT
-            javax.swing.SwingUtilities.invokeAndWait(() -> {
-                mcreator.getActionRegistry().runClient.doAction();
-            });
+            RunSessionManager.RunSession session = workspace.runSessionManager.start(workspace.host.getMCreator(), kind);
+
+            if (waitSeconds > 0) {
+                session.awaitReady(waitSeconds * 1000L);
+            }
 
-            return createSuccessResult("Minecraft client started successfully");
+            return createSuccessResult("Run session started:\n"
+                + objectMapper.writeValueAsString(session.toMap()));
 
         } catch (Exception e) {
-            LOG.error("Error running client", e);
-            return createErrorResult("Failed to run client: " + e.getMessage());
+            LOG.error("Error starting " + kind + " run", e);
+            return createErrorResult("Failed to start run: " + e.getMessage());
         }
     }
 
     /**
-     * Run server tool
+     * Run status tool, optionally waiting for the run to become ready
      */
-    private McpTypes.ToolResult executeRunServer(MCreator mcreator) {
-        LOG.info("Executing runServer tool");
+    @McpTool(name = "getRunStatus",
+        description = "Get the state of one or all run sessions, optionally waiting for readiness",
+        toolClass = McpToolClass.WAITING)
+    McpTypes.ToolResult getRunStatus(RunStatusArgs args) {
+        try {
+            WorkspaceTools workspace = currentWorkspace();
+            if (workspace == null) {
+                return createErrorResult("No workspace loaded");
+            }
+            if (workspace.runSessionManager == null) {
+                return createErrorResult(RUNS_UNAVAILABLE);
+            }
 
+            if (args.sessionId() == null) {
+                List<Map<String, Object>> sessions = workspace.runSessionManager.getSessions().stream()
+                    .map(RunSessionManager.RunSession::toMap)
+                    .collect(Collectors.toList());
+                return createSuccessResult("Run sessions:\n" + objectMapper.writeValueAsString(sessions));
+            }
+
+            RunSessionManager.RunSession session = workspace.runSessionManager.getSession(args.sessionId());
+            if (args.waitForReadySeconds() > 0) {
+                session.awaitReady(args.waitForReadySeconds() * 1000L);
+            }
+
+            return createSuccessResult("Run session status:\n" + objectMapper.writeValueAsString(session.toMap()));
+
+        } catch (Exception e) {
+            LOG.error("Error getting run status", e);
+            return createErrorResult("Failed to get run status: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Run log streaming tool. Returns lines from the given offset and the offset to continue from.
+     */
+    @McpTool(name = "getRunLogs", description = "Read game log lines of a run session starting at an offset",
+        toolClass = McpToolClass.READ_ONLY)
+    McpTypes.ToolResult getRunLogs(RunLogsArgs args) {
         try {
-            if (mcreator.getWorkspace() == null) {
+            WorkspaceTools workspace = currentWorkspace();
+            if (workspace == null) {
                 return createErrorResult("No workspace loaded");
             }
+            if (workspace.runSessionManager == null) {
+                return createErrorResult(RUNS_UNAVAILABLE);
+            }
 
-            // Execute run server on EDT
-            javax.swing.SwingUtilities.invokeAndWait(() -> {
-                mcreator.getActionRegistry().runServer.doAction();
-            });
+            RunSessionManager.RunSession session = workspace.runSessionManager.getSession(args.sessionId());
+            LogRingBuffer.Chunk chunk = session.getOutput().read(args.fromOffset(), args.maxLines());
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("sessionId", session.getId());
+            result.put("state", session.getState().name().toLowerCase(Locale.ROOT));
+            result.put("startOffset", chunk.startOffset());
+            result.put("nextOffset", chunk.nextOffset());
+            result.put("droppedLines", chunk.droppedLines());
+            result.put("lines", chunk.lines());
+
+            return createSuccessResult("Run logs:\n" + objectMapper.writeValueAsString(result));
+
+        } catch (Exception e) {
+            LOG.error("Error reading run logs", e);
+            return createErrorResult("Failed to read run logs: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stop run tool
+     */
+    @McpTool(name = "stopRun", description = "Stop a run session")
+    McpTypes.ToolResult stopRun(SessionArgs args) {
+        try {
+            WorkspaceTools workspace = currentWorkspace();
+            if (workspace == null) {
+                return createErrorResult("No workspace loaded");
+            }
+            if (workspace.runSessionManager == null) {
+                return createErrorResult(RUNS_UNAVAILABLE);
+            }
 
-            return createSuccessResult("Minecraft server started successfully");
+            RunSessionManager.RunSession session = workspace.runSessionManager.stop(workspace.host.getMCreator(), args.sessionId());
+            return createSuccessResult("Run session stopped:\n" + objectMapper.writeValueAsString(session.toMap()));
 
         } catch (Exception e) {
-            LOG.error("Error running server", e);
-            return createErrorResult("Failed to run server: " + e.getMessage());
+            LOG.error("Error stopping run", e);
+            return createErrorResult("Failed to stop run: " + e.getMessage());
         }
     }
 
     /**
-     * Helper method to convert ModElement to Map
+     * Restart run tool
      */
-    private Map<String, Object> modElementToMap(ModElement element) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("name", element.getName());
-        map.put("type", element.getType().getRegistryName());
-        map.put("isLocked", element.isCodeLocked());
-        map.put("sortIndex", element.getName());
-        return map;
+    @McpTool(name = "restartRun", description = "Stop a run session and start a new one of the same kind",
+        toolClass = McpToolClass.BUILD_RUN)
+    McpTypes.ToolResult restartRun(RestartRunArgs args) {
+        try {
+            WorkspaceTools workspace = currentWorkspace();
+            if (workspace == null) {
+                return createErrorResult("No workspace loaded");
+            }
+            if (workspace.runSessionManager == null) {
+                return createErrorResult(RUNS_UNAVAILABLE);
+            }
+
+            RunSessionManager.RunSession session = workspace.runSessionManager.restart(workspace.host.getMCreator(), args.sessionId());
+            if (args.waitForReadySeconds() > 0) {
+                session.awaitReady(args.waitForReadySeconds() * 1000L);
+            }
+
+            return createSuccessResult("Run session restarted:\n" + objectMapper.writeValueAsString(session.toMap()));
+
+        } catch (Exception e) {
+            LOG.error("Error restarting run", e);
+            return createErrorResult("Failed to restart run: " + e.getMessage());
+        }
     }
 
     /**
@@ -330,6 +581,17 @@ public class MCPToolsService {
         return new McpTypes.ToolResult(content, false);
     }
 
+    /**
+     * Helper method to create a success result carrying structured content, with a short
+     * summary as its text block
+     */
+    private McpTypes.ToolResult createStructuredResult(String summary, Object structuredContent) {
+        List<McpTypes.ToolContent> content = List.of(
+            new McpTypes.ToolContent("text", summary)
+        );
+        return new McpTypes.ToolResult(content, structuredContent, false);
+    }
+
     /**
      * Helper method to create error result
      */
@@ -339,4 +601,55 @@ public class MCPToolsService {
         );
         return new McpTypes.ToolResult(content, true);
     }
-}
\ No newline at end of file
+
+    /**
+     * Tool state of one open workspace
+     */
+    private static final class WorkspaceTools {
+        private final WorkspaceHost host;
+        private final McpWorkspaceRegistry.Entry entry;
+        private final ModElementChangeTracker changeTracker = new ModElementChangeTracker();
+        private final RunSessionManager runSessionManager;
+
+        WorkspaceTools(WorkspaceHost host, McpWorkspaceRegistry.Entry entry, RunSessionManager runSessionManager) {
+            this.host = host;
+            this.entry = entry;
+            this.runSessionManager = runSessionManager;
+        }
+    }
+
+    // Tool arguments, bound and validated by the generated MCPToolsService_McpTools
+
+    record RegenerateChangedCodeArgs(
+        @McpParam(description = "Additional elements to regenerate") List<String> elementNames,
+        @McpParam(description = "Also regenerate shared registries and base files", defaultValue = "true") boolean includeBase) {}
+
+    record ListModElementsArgs(
+        @McpParam(description = "Filter by element type") String elementType) {}
+
+    record CreateElementArgs(
+        @McpParam(description = "Type of element to create", required = true) String elementType,
+        @McpParam(description = "Name of the new element", required = true) String elementName) {}
+
+    record DeleteElementArgs(
+        @McpParam(description = "Name of element to delete", required = true) String elementName) {}
+
+    record RunArgs(
+        @McpParam(description = "Seconds to wait for the run to report readiness in its log", min = 0, max = 300) int waitForReadySeconds) {}
+
+    record RunStatusArgs(
+        @McpParam(description = "Run session ID") String sessionId,
+        @McpParam(description = "Seconds to wait for the run to report readiness in its log", min = 0, max = 300) int waitForReadySeconds) {}
+
+    record RunLogsArgs(
+        @McpParam(description = "Run session ID", required = true) String sessionId,
+        @McpParam(description = "Offset to read from (nextOffset of the previous read)", min = 0) long fromOffset,
+        @McpParam(description = "Maximum number of lines to return", defaultValue = "500", min = 1, max = 5000) int maxLines) {}
+
+    record SessionArgs(
+        @McpParam(description = "Run session ID", required = true) String sessionId) {}
+
+    record RestartRunArgs(
+        @McpParam(description = "Run session ID", required = true) String sessionId,
+        @McpParam(description = "Seconds to wait for the run to report readiness in its log", min = 0, max = 300) int waitForReadySeconds) {}
+}
@@ -2,10 +2,16 @@ package net.mcreator.MCreatorMCP;
 
 import net.mcreator.MCreatorMCP.mcp.McpServer;
 import net.mcreator.MCreatorMCP.mcp.McpHttpTransport;
+import net.mcreator.MCreatorMCP.mcp.McpSettings;
+import net.mcreator.MCreatorMCP.mcp.McpStartup;
 import net.mcreator.MCreatorMCP.mcp.McpStdioTransport;
+import net.mcreator.MCreatorMCP.mcp.McpUnixSocketTransport;
+import net.mcreator.MCreatorMCP.mcp.McpWebSocketTransport;
+import net.mcreator.MCreatorMCP.mcp.McpWorkspaceRegistry;
 import net.mcreator.plugin.JavaPlugin;
 import net.mcreator.plugin.Plugin;
 import net.mcreator.plugin.events.workspace.MCreatorLoadedEvent;
+import net.mcreator.ui.MCreator;
 import net.mcreator.ui.action.BasicAction;
 import net.mcreator.ui.init.L10N;
 import net.mcreator.ui.init.UIRES;
@@ -13,29 +19,43 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.swing.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.IOException;
-import java.net.ServerSocket;
+import java.net.BindException;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 public class MCreatorMCP extends JavaPlugin {
 
     private static final Logger LOG = LogManager.getLogger("MCreatorMCP");
     
     private McpServer mcpServer;
-    private McpHttpTransport httpTransport;
-    private McpStdioTransport stdioTransport;
+    // Set by the startup threads
+    private volatile McpHttpTransport httpTransport;
+    private volatile McpStdioTransport stdioTransport;
+    private volatile McpUnixSocketTransport unixTransport;
+    private volatile McpWebSocketTransport webSocketTransport;
     private MCPToolsService toolsService;
     private volatile int currentHttpPort = 5175;
+    // Port the HTTP transport was started for, which differs from the bound one after a fallback
+    private volatile int preferredHttpPort = -1;
+    private volatile boolean started;
 
     public MCreatorMCP(Plugin plugin) {
         super(plugin);
 
-        // Initialize MCP server
+        // Initialize MCP server, shared by all open workspaces
         mcpServer = new McpServer("MCreator MCP Server", "2.0.0");
         toolsService = new MCPToolsService();
+        toolsService.registerTools(mcpServer);
 
         addListener(MCreatorLoadedEvent.class, event -> SwingUtilities.invokeLater(() -> {
-            // Start MCP server
-            startMCPServer(event);
+            // Serve this window's workspace; the transports are started with the first one
+            addWorkspace(event.getMCreator());
+            if (!started) {
+                startMCPServer();
+            }
 
             // Create demo action (keep existing functionality)
             BasicAction demoAction = new BasicAction(event.getMCreator().getActionRegistry(),
@@ -52,7 +72,7 @@ public class MCreatorMCP extends JavaPlugin {
             // Create MCP restart action
             BasicAction mcpRestartAction = new BasicAction(event.getMCreator().getActionRegistry(),
                     "Restart MCP Server",
-                    e -> restartMCPServer(event));
+                    e -> restartMCPServer());
             mcpRestartAction.setIcon(UIRES.get("16px.reset"));
 
             // Build menu
@@ -66,88 +86,235 @@ public class MCreatorMCP extends JavaPlugin {
             event.getMCreator().getToolBar().addToRightToolbar(demoAction);
         }));
 
+        // MCreator has no plugin unload event; flush the audit log and close sockets on exit
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdownMCPServer, "MCP-Shutdown"));
+
         LOG.info("MCreator MCP Plugin loaded - ready to start MCP server");
     }
 
-    private void startMCPServer(MCreatorLoadedEvent event) {
-        try {
-            // Stop existing server if running
-            stopMCPServer();
-
-            // Find free port for HTTP transport
-            int httpPort = findFreePort(5175);
-            currentHttpPort = httpPort;
-
-            // Set workspace in MCP server
-            mcpServer.setWorkspace(event.getMCreator().getWorkspace());
-            
-            // Register tools with MCP server
-            toolsService.registerTools(mcpServer, event.getMCreator());
-
-            // Start HTTP transport
-            httpTransport = new McpHttpTransport(mcpServer, httpPort);
-            httpTransport.start();
-
-            // Start stdio transport for traditional MCP clients
-            stdioTransport = new McpStdioTransport(mcpServer);
-            stdioTransport.start();
-
-            LOG.info("MCP server started successfully");
-            showInfoDialog("MCP Server Started", 
-                "MCP server is running:\n" +
-                "HTTP: http://localhost:" + httpPort + "/mcp\n" +
-                "SSE (legacy): http://localhost:" + httpPort + "/mcp/sse\n" +
-                "Stdio: Available for traditional MCP clients\n" +
-                "Health: http://localhost:" + httpPort + "/health");
+    /**
+     * Serve the workspace of a window until it is closed. The workspace of the window
+     * focused last is the one requests without a workspace id go to.
+     */
+    private void addWorkspace(MCreator mcreator) {
+        String workspaceId = toolsService.addWorkspace(mcreator);
+        LOG.info("Serving workspace {} over MCP", workspaceId);
 
-        } catch (IOException e) {
-            LOG.error("Failed to start MCP server", e);
-            showErrorDialog("MCP Server Startup Failed", 
-                "Failed to start MCP server: " + e.getMessage());
+        mcreator.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowActivated(WindowEvent e) {
+                mcpServer.getWorkspaces().setDefault(workspaceId);
+            }
+
+            @Override
+            public void windowClosed(WindowEvent e) {
+                LOG.info("Workspace {} closed, no longer serving it over MCP", workspaceId);
+                toolsService.removeWorkspace(workspaceId);
+            }
+        });
+    }
+
+    /**
+     * Bring the transports up and warm up the server in the background, so loading the
+     * workspace is not held up. Progress is shown by the status action and under
+     * startup in /health.
+     */
+    private synchronized void startMCPServer() {
+        started = true;
+        McpStartup startup = mcpServer.getStartup();
+        startup.begin();
+
+        // Transports bind in parallel; a taken port falls back to a free one instead of probing first
+        startup.run("http", this::startHttpTransport);
+
+        // Stdio transport for traditional MCP clients
+        startup.run("stdio", this::startStdioTransport);
+
+        // Unix socket transport for local clients; the others remain available if it fails
+        if (McpSettings.getBoolean("unix.enabled", true)) {
+            startup.run("unix", this::startUnixTransport);
+        }
+
+        // WebSocket transport for full-duplex clients
+        if (McpSettings.getBoolean("ws.enabled", true)) {
+            startup.run("websocket", this::startWebSocketTransport);
         }
+
+        // Build codecs and resource caches before the first client asks for them
+        startup.run("warmup", mcpServer::warmUp);
+
+        startup.whenDone().thenRun(this::reportStartup);
     }
 
-    private void stopMCPServer() {
-        if (httpTransport != null) {
-            LOG.info("Stopping MCP HTTP transport...");
-            httpTransport.stop();
-            httpTransport = null;
+    private void startHttpTransport() throws IOException {
+        int preferredPort = McpSettings.getInt("http.port", 5175);
+        McpHttpTransport transport = new McpHttpTransport(mcpServer, preferredPort);
+        try {
+            transport.start();
+        } catch (BindException e) {
+            LOG.info("Port {} is in use, starting HTTP transport on a free port", preferredPort);
+            transport.stop();
+            transport = new McpHttpTransport(mcpServer, 0);
+            transport.start();
         }
+        currentHttpPort = transport.getPort();
+        preferredHttpPort = preferredPort;
+        httpTransport = transport;
+    }
+
+    private void startStdioTransport() throws IOException {
+        McpStdioTransport transport = new McpStdioTransport(mcpServer);
+        transport.start();
+        stdioTransport = transport;
+    }
+
+    private void startUnixTransport() throws IOException {
+        McpUnixSocketTransport transport =
+            new McpUnixSocketTransport(mcpServer, McpUnixSocketTransport.defaultSocketPath());
+        transport.start();
+        unixTransport = transport;
+    }
 
-        if (stdioTransport != null) {
-            LOG.info("Stopping MCP stdio transport...");
-            stdioTransport.stop();
-            stdioTransport = null;
+    private void startWebSocketTransport() throws IOException {
+        int preferredPort = McpSettings.getInt("ws.port", 5176);
+        McpWebSocketTransport transport = new McpWebSocketTransport(mcpServer, preferredPort);
+        try {
+            transport.start();
+        } catch (BindException e) {
+            LOG.info("Port {} is in use, starting WebSocket transport on a free port", preferredPort);
+            transport = new McpWebSocketTransport(mcpServer, 0);
+            transport.start();
         }
+        webSocketTransport = transport;
+    }
 
-        LOG.info("MCP server stopped");
+    private void reportStartup() {
+        McpStartup startup = mcpServer.getStartup();
+        LOG.info("MCP server startup finished: {}", startup.toHealth());
+        if (httpTransport == null) {
+            showErrorDialog("MCP Server Startup Failed",
+                "Failed to start MCP server: " + startup.getFailures());
+        } else if (!startup.getFailures().isEmpty()) {
+            LOG.warn("MCP server started without: {}", startup.getFailures().keySet());
+        }
     }
 
-    private void restartMCPServer(MCreatorLoadedEvent event) {
+    /**
+     * Restart with the current settings without dropping requests. A new HTTP transport
+     * takes over the port while requests in flight complete on the old one; client
+     * sessions are kept by the server, so clients carry on with the same session id.
+     * With the nio engine no connection is refused in between; the jdk engine cannot
+     * hand over its socket, so it stops accepting and the port is bound again right
+     * away, refusing connections for a few milliseconds.
+     * Stdio, unix socket and WebSocket clients hold long-lived connections, so those
+     * transports keep running; only missing ones are started and disabled ones stopped.
+     */
+    private void restartMCPServer() {
         LOG.info("Restarting MCP server...");
-        stopMCPServer();
-        
-        // Small delay to ensure cleanup
-        SwingUtilities.invokeLater(() -> {
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+        // Off the EDT, as the old HTTP transport is drained
+        CompletableFuture.runAsync(this::restartTransports);
+    }
+
+    private synchronized void restartTransports() {
+        McpStartup startup = mcpServer.getStartup();
+        startup.whenDone().join();
+        startup.begin();
+
+        McpHttpTransport previousHttp = httpTransport;
+        // Compare with the port asked for, as a fallback port is kept as long as the setting is unchanged
+        if (previousHttp != null && preferredHttpPort == McpSettings.getInt("http.port", 5175)) {
+            startup.run("http", () -> takeOverHttpTransport(previousHttp));
+        } else {
+            if (previousHttp != null) {
+                LOG.info("HTTP port setting changed, moving HTTP transport from port {}", previousHttp.getPort());
+                previousHttp.stop();
+                httpTransport = null;
             }
-            startMCPServer(event);
-        });
+            startup.run("http", this::startHttpTransport);
+        }
+
+        if (stdioTransport == null) {
+            startup.run("stdio", this::startStdioTransport);
+        }
+
+        boolean unixEnabled = McpSettings.getBoolean("unix.enabled", true);
+        if (unixEnabled && unixTransport == null) {
+            startup.run("unix", this::startUnixTransport);
+        } else if (!unixEnabled && unixTransport != null) {
+            LOG.info("Stopping MCP unix socket transport...");
+            unixTransport.stop();
+            unixTransport = null;
+        }
+
+        boolean webSocketEnabled = McpSettings.getBoolean("ws.enabled", true);
+        if (webSocketEnabled && webSocketTransport == null) {
+            startup.run("websocket", this::startWebSocketTransport);
+        } else if (!webSocketEnabled && webSocketTransport != null) {
+            LOG.info("Stopping MCP WebSocket transport...");
+            webSocketTransport.stop();
+            webSocketTransport = null;
+        }
+
+        startup.run("warmup", mcpServer::warmUp);
+        startup.whenDone().thenRun(this::reportStartup);
+    }
+
+    private void takeOverHttpTransport(McpHttpTransport previous) throws IOException {
+        McpHttpTransport transport = new McpHttpTransport(mcpServer, previous.getPort());
+        try {
+            transport.takeOver(previous);
+        } catch (IOException e) {
+            httpTransport = null;
+            throw e;
+        }
+        currentHttpPort = transport.getPort();
+        httpTransport = transport;
+        LOG.info("HTTP transport on port {} restarted", currentHttpPort);
+    }
+
+    /**
+     * Stop all transports and the server when MCreator exits
+     */
+    private void shutdownMCPServer() {
+        McpHttpTransport http = httpTransport;
+        if (http != null) {
+            http.stop();
+        }
+        McpWebSocketTransport webSocket = webSocketTransport;
+        if (webSocket != null) {
+            webSocket.stop();
+        }
+        McpUnixSocketTransport unix = unixTransport;
+        if (unix != null) {
+            unix.stop();
+        }
+        McpStdioTransport stdio = stdioTransport;
+        if (stdio != null) {
+            stdio.stop();
+        }
+        mcpServer.stop();
     }
 
     private void showMCPStatus() {
+        McpStartup startup = mcpServer.getStartup();
+        McpStartup.State state = startup.getState();
         String status;
-        
-        if (mcpServer != null && mcpServer.isInitialized()) {
-            status = "MCP Server Status: RUNNING\n" +
-                    "HTTP Endpoint: http://localhost:" + currentHttpPort + "/mcp\n" +
-                    "SSE Endpoint: http://localhost:" + currentHttpPort + "/mcp/sse\n" +
-                    "Health Check: http://localhost:" + currentHttpPort + "/health\n" +
-                    "Stdio: Available\n" +
-                    "Workspace: " + (mcpServer.getWorkspace() != null ? "Loaded" : "None");
+
+        if (state != McpStartup.State.IDLE) {
+            McpHttpTransport http = httpTransport;
+            McpUnixSocketTransport unix = unixTransport;
+            McpWebSocketTransport webSocket = webSocketTransport;
+            status = "MCP Server Status: " + state + "\n" +
+                    (http != null ? "HTTP Endpoint: http://localhost:" + currentHttpPort + "/mcp\n" +
+                        "SSE Endpoint: http://localhost:" + currentHttpPort + "/mcp/sse\n" +
+                        "Health Check: http://localhost:" + currentHttpPort + "/health\n" : "") +
+                    (stdioTransport != null ? "Stdio: Available\n" : "") +
+                    (unix != null ? "Unix socket: " + unix.getSocketPath() + "\n" : "") +
+                    (webSocket != null ? "WebSocket: " + webSocketUrl(webSocket) + "\n" : "") +
+                    (state == McpStartup.State.STARTING ? "Still starting: " + String.join(", ", startup.getSteps(McpStartup.State.STARTING)) + "\n" : "") +
+                    (!startup.getFailures().isEmpty() ? "Failed: " + startup.getFailures() + "\n" : "") +
+                    "Client sessions: " + mcpServer.getSessions().size() + "\n" +
+                    "Workspaces: " + describeWorkspaces();
         } else {
             status = "MCP Server Status: NOT RUNNING";
         }
@@ -155,6 +322,18 @@ public class MCreatorMCP extends JavaPlugin {
         showInfoDialog("MCP Server Status", status);
     }
 
+    private String describeWorkspaces() {
+        McpWorkspaceRegistry.Entry current = mcpServer.getWorkspaces().getDefault();
+        String ids = mcpServer.getWorkspaces().list().stream()
+            .map(entry -> entry == current ? entry.getId() + " (default)" : entry.getId())
+            .collect(Collectors.joining(", "));
+        return ids.isEmpty() ? "None" : ids;
+    }
+
+    private static String webSocketUrl(McpWebSocketTransport transport) {
+        return "ws://localhost:" + transport.getPort() + McpWebSocketTransport.PATH;
+    }
+
     private void showErrorDialog(String title, String message) {
         SwingUtilities.invokeLater(() -> 
             JOptionPane.showMessageDialog(null, message, title, JOptionPane.ERROR_MESSAGE));
@@ -164,25 +343,4 @@ public class MCreatorMCP extends JavaPlugin {
         SwingUtilities.invokeLater(() -> 
             JOptionPane.showMessageDialog(null, message, title, JOptionPane.INFORMATION_MESSAGE));
     }
-
-    /**
-     * Find a free port, starting with the preferred port
-     * @param preferredPort The port to try first
-     * @return A free port number
-     */
-    private static int findFreePort(int preferredPort) {
-        // Try preferred port first
-        try (ServerSocket s = new ServerSocket(preferredPort)) {
-            return preferredPort;
-        } catch (IOException ignored) {
-            // Preferred port is busy, find any free port
-        }
-        
-        // Find any free port
-        try (ServerSocket s = new ServerSocket(0)) {
-            return s.getLocalPort();
-        } catch (IOException e) {
-            throw new RuntimeException("No free port available", e);
-        }
-    }
 }
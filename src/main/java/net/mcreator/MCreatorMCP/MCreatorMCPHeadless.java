@@ -0,0 +1,178 @@
+package net.mcreator.MCreatorMCP;
+
+import net.mcreator.MCreatorMCP.mcp.McpHttpTransport;
+import net.mcreator.MCreatorMCP.mcp.McpServer;
+import net.mcreator.MCreatorMCP.mcp.McpStartup;
+import net.mcreator.MCreatorMCP.mcp.McpStdioTransport;
+import net.mcreator.blockly.data.BlocklyLoader;
+import net.mcreator.element.ModElementTypeLoader;
+import net.mcreator.generator.Generator;
+import net.mcreator.generator.GeneratorConfiguration;
+import net.mcreator.minecraft.DataListLoader;
+import net.mcreator.plugin.PluginLoader;
+import net.mcreator.plugin.modapis.ModAPIManager;
+import net.mcreator.preferences.PreferencesManager;
+import net.mcreator.ui.init.L10N;
+import net.mcreator.workspace.Workspace;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the MCP server without the MCreator UI, e.g. on CI agents without a display.
+ * Workspaces are loaded straight from their .mcreator files and served over stdio and
+ * HTTP; tools work through the workspace and generator APIs instead of window actions.
+ * Only what the generator needs is initialized, so no Swing windows, themes or UI
+ * resources are loaded.
+ *
+ * <p>Run with {@code ./gradlew runHeadless -PheadlessArgs="--workspace=/path/to/mod.mcreator"}.
+ * Options: --workspace (.mcreator file, comma separated for several), --http-port
+ * (0 picks a free port, -1 disables HTTP) and --stdio (true or false).</p>
+ */
+public class MCreatorMCPHeadless {
+
+    private static final Logger LOG = LogManager.getLogger("MCP-Headless");
+
+    private final McpServer mcpServer = new McpServer("MCreator MCP Server", "2.0.0");
+    private final MCPToolsService toolsService = new MCPToolsService();
+    private final List<Workspace> workspaces = new ArrayList<>();
+    private McpHttpTransport httpTransport;
+    private McpStdioTransport stdioTransport;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        long startTime = System.currentTimeMillis();
+
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        if (!options.containsKey("workspace")) {
+            System.err.println("Usage: MCreatorMCPHeadless --workspace=<file.mcreator>[,...] [--http-port=5175] [--stdio=true]");
+            System.exit(2);
+        }
+
+        // With stdio enabled, stdout carries the protocol; anything else printed goes to stderr
+        PrintStream protocolOutput = System.out;
+        boolean stdio = Boolean.parseBoolean(options.getOrDefault("stdio", "true"));
+        if (stdio) {
+            System.setOut(System.err);
+        }
+
+        initMCreator();
+
+        MCreatorMCPHeadless headless = new MCreatorMCPHeadless();
+        for (String file : options.get("workspace").split(",")) {
+            headless.addWorkspace(new File(file.trim()));
+        }
+        headless.start(Integer.parseInt(options.getOrDefault("http-port", "5175")), stdio ? protocolOutput : null);
+        Runtime.getRuntime().addShutdownHook(new Thread(headless::stop, "MCP-Headless-Shutdown"));
+
+        LOG.info("Headless MCP server ready in {} ms", System.currentTimeMillis() - startTime);
+        new CountDownLatch(1).await();
+    }
+
+    /**
+     * Load what MCreator needs to open a workspace and generate code: preferences, plugins,
+     * translations, data lists, element types, Blockly definitions, mod APIs and generators
+     */
+    private static void initMCreator() {
+        PreferencesManager.init();
+        PluginLoader.initInstance();
+        L10N.initTranslations();
+        DataListLoader.preloadCache();
+        ModElementTypeLoader.loadModElements();
+        BlocklyLoader.init();
+        ModAPIManager.initAPIs();
+
+        for (String file : PluginLoader.INSTANCE.getResources(Pattern.compile("generator\\.yaml"))) {
+            String generator = file.replace("/generator.yaml", "");
+            try {
+                Generator.GENERATOR_CACHE.put(generator, new GeneratorConfiguration(generator));
+            } catch (Exception e) {
+                LOG.error("Failed to load generator: " + generator, e);
+            }
+        }
+    }
+
+    MCreatorMCPHeadless() {
+        toolsService.registerTools(mcpServer);
+    }
+
+    /**
+     * Open a workspace from its .mcreator file and serve it
+     */
+    void addWorkspace(File workspaceFile) throws Exception {
+        Workspace workspace = Workspace.readFromFS(workspaceFile, null);
+        workspaces.add(workspace);
+        String workspaceId = addWorkspace(new HeadlessWorkspaceHost(workspace));
+        LOG.info("Serving workspace {} from {}", workspaceId, workspaceFile);
+    }
+
+    /**
+     * Serve the workspace of a host, e.g. a synthetic workspace in tests
+     *
+     * @return the id clients use to target the workspace
+     */
+    String addWorkspace(WorkspaceHost host) {
+        return toolsService.addWorkspace(host);
+    }
+
+    /**
+     * Start the transports; a negative HTTP port or a null output disables HTTP or stdio
+     */
+    void start(int httpPort, PrintStream stdioOutput) {
+        McpStartup startup = mcpServer.getStartup();
+        startup.begin();
+        if (httpPort >= 0) {
+            startup.run("http", () -> {
+                httpTransport = new McpHttpTransport(mcpServer, httpPort);
+                httpTransport.start();
+                LOG.info("HTTP: http://localhost:{}/mcp", httpTransport.getPort());
+            });
+        }
+        if (stdioOutput != null) {
+            startup.run("stdio", () -> {
+                stdioTransport = new McpStdioTransport(mcpServer, System.in, stdioOutput);
+                stdioTransport.start();
+            });
+        }
+        startup.run("warmup", mcpServer::warmUp);
+
+        startup.whenDone().join();
+        if (!startup.getFailures().isEmpty()) {
+            throw new IllegalStateException("MCP server failed to start: " + startup.getFailures());
+        }
+    }
+
+    /**
+     * Port the HTTP transport listens on, or -1 if it is disabled
+     */
+    int getHttpPort() {
+        return httpTransport != null ? httpTransport.getPort() : -1;
+    }
+
+    void stop() {
+        if (httpTransport != null) {
+            httpTransport.stop();
+        }
+        if (stdioTransport != null) {
+            stdioTransport.stop();
+        }
+        mcpServer.stop();
+        for (Workspace workspace : workspaces) {
+            workspace.close();
+        }
+        LOG.info("Headless MCP server stopped");
+    }
+}
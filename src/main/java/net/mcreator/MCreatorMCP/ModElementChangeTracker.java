@@ -0,0 +1,65 @@
+package net.mcreator.MCreatorMCP;
+
+import java.util.*;
+
+/**
+ * Tracks which mod elements were created, modified or removed through MCP tools
+ * since the last targeted regeneration, so only those need their code regenerated.
+ */
+public class ModElementChangeTracker {
+
+    private final Set<String> changedElements = new LinkedHashSet<>();
+    private final Set<String> removedElements = new LinkedHashSet<>();
+
+    /**
+     * Record that an element was created or modified
+     */
+    public synchronized void markChanged(String elementName) {
+        removedElements.remove(elementName);
+        changedElements.add(elementName);
+    }
+
+    /**
+     * Record that an element was removed from the workspace
+     */
+    public synchronized void markRemoved(String elementName) {
+        changedElements.remove(elementName);
+        removedElements.add(elementName);
+    }
+
+    /**
+     * Names of elements that were created or modified since the last regeneration
+     */
+    public synchronized List<String> getChangedElements() {
+        return new ArrayList<>(changedElements);
+    }
+
+    /**
+     * Names of elements that were removed since the last regeneration
+     */
+    public synchronized List<String> getRemovedElements() {
+        return new ArrayList<>(removedElements);
+    }
+
+    public synchronized boolean hasChanges() {
+        return !changedElements.isEmpty() || !removedElements.isEmpty();
+    }
+
+    /**
+     * Forget the given elements once their code has been regenerated
+     */
+    public synchronized void clear(Collection<String> regeneratedElements, boolean baseRegenerated) {
+        changedElements.removeAll(regeneratedElements);
+        if (baseRegenerated) {
+            removedElements.clear();
+        }
+    }
+
+    /**
+     * Forget all tracked changes, e.g. when a different workspace is bound
+     */
+    public synchronized void reset() {
+        changedElements.clear();
+        removedElements.clear();
+    }
+}
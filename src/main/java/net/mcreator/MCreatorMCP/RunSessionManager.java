@@ -0,0 +1,355 @@
+package net.mcreator.MCreatorMCP;
+
+import net.mcreator.ui.MCreator;
+import net.mcreator.ui.gradle.GradleConsole;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Tracks Minecraft client/server runs launched through MCP tools. MCreator starts
+ * runs as Gradle tasks in its console, so each session follows the game log of the
+ * workspace run folder, detects readiness and crashes from log lines and keeps the
+ * output in a bounded buffer that agents can stream by offset.
+ */
+public class RunSessionManager {
+
+    private static final Logger LOG = LogManager.getLogger("MCP-Run");
+
+    private static final int LOG_BUFFER_LINES = 10000;
+    private static final long POLL_INTERVAL_MS = 250;
+    private static final long GRADLE_START_GRACE_MS = 15000;
+    private static final int MAX_READ_BYTES = 1 << 20;
+    /** Longest a tool call may wait for a run to become ready */
+    static final long MAX_READY_WAIT_MS = 300_000;
+
+    private static final Pattern CLIENT_READY = Pattern.compile(
+        "Sound engine started|Created: \\d+x\\d+x\\d+ minecraft:textures/atlas/gui\\.png-atlas");
+    private static final Pattern SERVER_READY = Pattern.compile(
+        "Done \\(\\d+[.,]\\d+s\\)! For help, type \"help\"");
+    private static final Pattern CRASHED = Pattern.compile(
+        "This crash report has been saved to|Crash report saved to|Preparing crash report");
+
+    private final EdtDispatcher edtDispatcher;
+    private final Map<String, RunSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong sessionCounter = new AtomicLong(1);
+
+    public RunSessionManager(EdtDispatcher edtDispatcher) {
+        this.edtDispatcher = edtDispatcher;
+    }
+
+    /**
+     * Run type, with the log line that signals the run is ready
+     */
+    public enum RunKind {
+        CLIENT(CLIENT_READY), SERVER(SERVER_READY);
+
+        private final Pattern readyPattern;
+
+        RunKind(Pattern readyPattern) {
+            this.readyPattern = readyPattern;
+        }
+    }
+
+    public enum RunState {
+        STARTING, READY, STOPPED, CRASHED
+    }
+
+    /**
+     * Start a new run session. Any active session is stopped first, as MCreator
+     * only runs one Gradle task at a time.
+     */
+    public RunSession start(MCreator mcreator, RunKind kind) throws Exception {
+        for (RunSession session : sessions.values()) {
+            if (session.isActive()) {
+                stop(mcreator, session.getId());
+            }
+        }
+
+        File logFile = new File(mcreator.getWorkspace().getWorkspaceFolder(), "run/logs/latest.log");
+        return start(kind, logFile, () -> {
+            if (kind == RunKind.CLIENT) {
+                mcreator.getActionRegistry().runClient.doAction();
+            } else {
+                mcreator.getActionRegistry().runServer.doAction();
+            }
+        }, mcreator::getGradleConsole);
+    }
+
+    /**
+     * Launch a run on the EDT and track it. The session is only registered once the
+     * launch succeeded, so a failed launch leaves no session waiting forever to start.
+     */
+    RunSession start(RunKind kind, File logFile, Runnable launch, Supplier<GradleConsole> console) throws Exception {
+        RunSession session = new RunSession("run-" + sessionCounter.getAndIncrement(), kind, logFile);
+        edtDispatcher.invokeAndWait(kind == RunKind.CLIENT ? "runClient" : "runServer", launch);
+
+        sessions.put(session.getId(), session);
+        session.startMonitor(console.get());
+        LOG.info("Started {} run session {}", kind, session.getId());
+        return session;
+    }
+
+    /**
+     * Stop a run session by cancelling its Gradle task
+     */
+    public RunSession stop(MCreator mcreator, String sessionId) throws Exception {
+        RunSession session = getSession(sessionId);
+        if (session.isActive()) {
+            edtDispatcher.invokeAndWait("stopRun", () -> mcreator.getGradleConsole().cancelTask());
+            session.finish(RunState.STOPPED);
+            LOG.info("Stopped run session {}", sessionId);
+        }
+        return session;
+    }
+
+    /**
+     * Stop a run session and start a new one of the same kind
+     */
+    public RunSession restart(MCreator mcreator, String sessionId) throws Exception {
+        RunSession session = stop(mcreator, sessionId);
+        return start(mcreator, session.getKind());
+    }
+
+    public RunSession getSession(String sessionId) {
+        RunSession session = sessionId != null ? sessions.get(sessionId) : null;
+        if (session == null) {
+            throw new IllegalArgumentException("Unknown run session: " + sessionId);
+        }
+        return session;
+    }
+
+    public Collection<RunSession> getSessions() {
+        return Collections.unmodifiableCollection(sessions.values());
+    }
+
+    /**
+     * Stop monitoring all sessions, e.g. when the tools are bound to another workspace.
+     * This does not stop the runs themselves.
+     */
+    public void shutdown() {
+        for (RunSession session : sessions.values()) {
+            session.finish(RunState.STOPPED);
+        }
+        sessions.clear();
+    }
+
+    /**
+     * A single client or server run
+     */
+    public static class RunSession {
+        private final String id;
+        private final RunKind kind;
+        private final File logFile;
+        private final long startedAt = System.currentTimeMillis();
+        private final LogRingBuffer output = new LogRingBuffer(LOG_BUFFER_LINES);
+        private final Object stateLock = new Object();
+
+        private volatile RunState state = RunState.STARTING;
+        private volatile long readyAt = -1;
+        private volatile long endedAt = -1;
+        private Thread monitorThread;
+
+        RunSession(String id, RunKind kind, File logFile) {
+            this.id = id;
+            this.kind = kind;
+            this.logFile = logFile;
+        }
+
+        public String getId() { return id; }
+        public RunKind getKind() { return kind; }
+        public RunState getState() { return state; }
+        public LogRingBuffer getOutput() { return output; }
+
+        public boolean isActive() {
+            return state == RunState.STARTING || state == RunState.READY;
+        }
+
+        /**
+         * Block until the run is ready or has ended, or the timeout elapses. The timeout
+         * is clamped to between zero and {@link #MAX_READY_WAIT_MS}.
+         */
+        public RunState awaitReady(long timeoutMs) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + Math.max(0, Math.min(timeoutMs, MAX_READY_WAIT_MS));
+            synchronized (stateLock) {
+                while (state == RunState.STARTING) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    stateLock.wait(remaining);
+                }
+                return state;
+            }
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("sessionId", id);
+            map.put("kind", kind.name().toLowerCase(Locale.ROOT));
+            map.put("state", state.name().toLowerCase(Locale.ROOT));
+            map.put("startedAt", startedAt);
+            map.put("readyAfterMs", readyAt > 0 ? readyAt - startedAt : null);
+            map.put("endedAt", endedAt > 0 ? endedAt : null);
+            map.put("logFile", logFile.getAbsolutePath());
+            map.put("nextOffset", output.getNextOffset());
+            return map;
+        }
+
+        private void transition(RunState newState) {
+            synchronized (stateLock) {
+                if (!isActive() || state == newState) {
+                    return;
+                }
+                state = newState;
+                if (newState == RunState.READY) {
+                    readyAt = System.currentTimeMillis();
+                } else {
+                    endedAt = System.currentTimeMillis();
+                }
+                stateLock.notifyAll();
+            }
+            LOG.info("Run session {} is now {}", id, newState);
+        }
+
+        void finish(RunState endState) {
+            transition(endState);
+            if (monitorThread != null) {
+                monitorThread.interrupt();
+            }
+        }
+
+        void startMonitor(GradleConsole gradleConsole) {
+            monitorThread = new Thread(() -> monitor(gradleConsole), "MCP-Run-Monitor-" + id);
+            monitorThread.setDaemon(true);
+            monitorThread.start();
+        }
+
+        /**
+         * Follow the game log and the Gradle console state until the run ends
+         */
+        private void monitor(GradleConsole gradleConsole) {
+            LogStamp initialStamp = LogStamp.of(logFile);
+            boolean followingNewLog = initialStamp == null;
+            boolean gradleSeenRunning = false;
+            long position = 0;
+
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    // Minecraft rolls latest.log over on startup, so wait for a new file
+                    if (!followingNewLog) {
+                        LogStamp currentStamp = LogStamp.of(logFile);
+                        followingNewLog = currentStamp != null && currentStamp.isNewerLogThan(initialStamp);
+                    }
+
+                    if (followingNewLog && logFile.isFile()) {
+                        if (logFile.length() < position) {
+                            position = 0;
+                        }
+                        position = readNewLines(position);
+                    }
+
+                    // Keep following the log after a crash until Gradle has finished
+                    int gradleStatus = gradleConsole.getStatus();
+                    if (gradleStatus == GradleConsole.RUNNING) {
+                        gradleSeenRunning = true;
+                    } else if (gradleSeenRunning
+                            || System.currentTimeMillis() - startedAt > GRADLE_START_GRACE_MS) {
+                        transition(gradleStatus == GradleConsole.ERROR ? RunState.CRASHED : RunState.STOPPED);
+                        break;
+                    }
+
+                    Thread.sleep(POLL_INTERVAL_MS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                LOG.warn("Run session monitor for " + id + " failed", e);
+            }
+        }
+
+        /**
+         * Read complete lines appended since the given position and return the new position
+         */
+        private long readNewLines(long position) throws IOException {
+            try (RandomAccessFile file = new RandomAccessFile(logFile, "r")) {
+                long length = file.length();
+                if (length <= position) {
+                    return position;
+                }
+
+                file.seek(position);
+                byte[] bytes = new byte[(int) Math.min(length - position, MAX_READ_BYTES)];
+                file.readFully(bytes);
+
+                // Only consume up to the last line break so lines are never split
+                int consumed = bytes.length;
+                while (consumed > 0 && bytes[consumed - 1] != '\n') {
+                    consumed--;
+                }
+                if (consumed == 0) {
+                    if (bytes.length < MAX_READ_BYTES) {
+                        return position;
+                    }
+                    consumed = bytes.length;
+                }
+
+                String text = new String(bytes, 0, consumed, StandardCharsets.UTF_8);
+                for (String line : text.split("\r?\n")) {
+                    onLine(line);
+                }
+                return position + consumed;
+            }
+        }
+
+        private void onLine(String line) {
+            output.append(line);
+            if (state == RunState.STARTING && kind.readyPattern.matcher(line).find()) {
+                transition(RunState.READY);
+            } else if (CRASHED.matcher(line).find()) {
+                transition(RunState.CRASHED);
+            }
+        }
+    }
+
+    /**
+     * Identity of the log file at one point in time. Where the file system has file keys
+     * (inodes) a recreated log has a new key. Elsewhere, e.g. on Windows, the creation
+     * time cannot be used, as NTFS tunneling gives a file recreated under the same name
+     * the creation time of the old one; a changed size or modification time is taken
+     * instead, as the log of the previous run is no longer written to.
+     */
+    record LogStamp(Object fileKey, long size, FileTime lastModified) {
+
+        static LogStamp of(File file) {
+            try {
+                if (!file.isFile()) {
+                    return null;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+                return new LogStamp(attributes.fileKey(), attributes.size(), attributes.lastModifiedTime());
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        boolean isNewerLogThan(LogStamp initial) {
+            if (fileKey != null && initial.fileKey != null) {
+                return !fileKey.equals(initial.fileKey);
+            }
+            return size != initial.size || !lastModified.equals(initial.lastModified);
+        }
+    }
+}
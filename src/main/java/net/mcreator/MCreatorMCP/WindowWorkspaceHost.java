@@ -0,0 +1,72 @@
+package net.mcreator.MCreatorMCP;
+
+import net.mcreator.MCreatorMCP.mcp.McpSettings;
+import net.mcreator.ui.MCreator;
+import net.mcreator.ui.gradle.GradleConsole;
+import net.mcreator.workspace.Workspace;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Workspace open in an MCreator window. Changes run on the EDT and builds use the
+ * window's actions, so they show up in its UI and Gradle console.
+ */
+public class WindowWorkspaceHost implements WorkspaceHost {
+
+    private static final long POLL_INTERVAL_MS = 250;
+    private static final long GRADLE_START_GRACE_MS = 5000;
+
+    private final MCreator mcreator;
+    private final EdtDispatcher edtDispatcher;
+
+    public WindowWorkspaceHost(MCreator mcreator, EdtDispatcher edtDispatcher) {
+        this.mcreator = mcreator;
+        this.edtDispatcher = edtDispatcher;
+    }
+
+    @Override public Workspace getWorkspace() { return mcreator.getWorkspace(); }
+
+    @Override public MCreator getMCreator() { return mcreator; }
+
+    @Override
+    public void apply(String tool, Runnable change) throws Exception {
+        edtDispatcher.invokeAndWait(tool, change);
+    }
+
+    @Override
+    public String build() throws Exception {
+        edtDispatcher.invokeAndWait("buildWorkspace", () -> mcreator.getActionRegistry().buildWorkspace.doAction());
+        return awaitGradle("Workspace build");
+    }
+
+    @Override
+    public String regenerateCode() throws Exception {
+        edtDispatcher.invokeAndWait("regenerateCode", () -> mcreator.getActionRegistry().regenerateCode.doAction());
+        return "Code regeneration initiated successfully";
+    }
+
+    /**
+     * Wait for the task started in the Gradle console to finish, so the build holds its
+     * admission permit and lane for as long as Gradle runs. Gives up after
+     * mcreator.mcp.build.timeoutSeconds and leaves the task running.
+     */
+    private String awaitGradle(String task) throws InterruptedException {
+        GradleConsole gradleConsole = mcreator.getGradleConsole();
+        long startedAt = System.currentTimeMillis();
+        long deadline = startedAt + TimeUnit.SECONDS.toMillis(McpSettings.getLong("build.timeoutSeconds", 1800));
+        boolean seenRunning = false;
+        while (System.currentTimeMillis() < deadline) {
+            int status = gradleConsole.getStatus();
+            if (status == GradleConsole.RUNNING) {
+                seenRunning = true;
+            } else if (seenRunning || System.currentTimeMillis() - startedAt > GRADLE_START_GRACE_MS) {
+                if (status == GradleConsole.ERROR) {
+                    throw new IllegalStateException(task + " failed, see the Gradle console");
+                }
+                return task + " finished successfully";
+            }
+            Thread.sleep(POLL_INTERVAL_MS);
+        }
+        return task + " is still running in the Gradle console";
+    }
+}
@@ -0,0 +1,48 @@
+package net.mcreator.MCreatorMCP;
+
+import net.mcreator.MCreatorMCP.mcp.McpServer;
+import net.mcreator.MCreatorMCP.mcp.McpWorkspaceRegistry;
+import net.mcreator.ui.MCreator;
+import net.mcreator.workspace.Workspace;
+
+/**
+ * What the MCP tools need from the environment a workspace is open in: an MCreator
+ * window, where changes go through the EDT and the window's actions, or a headless
+ * process that drives the workspace and generator APIs directly.
+ */
+public interface WorkspaceHost {
+
+    Workspace getWorkspace();
+
+    /**
+     * Start serving the workspace from the given server and return its registry entry
+     */
+    default McpWorkspaceRegistry.Entry register(McpServer server) {
+        return server.addWorkspace(getWorkspace());
+    }
+
+    /**
+     * The window showing the workspace, or null when running headless
+     */
+    MCreator getMCreator();
+
+    /**
+     * Apply a change to the workspace and wait for it. For a window this runs on the EDT.
+     */
+    void apply(String tool, Runnable change) throws Exception;
+
+    /**
+     * Build the workspace and wait for it to finish. A window runs the build in its Gradle
+     * console.
+     *
+     * @return a short description of the outcome
+     */
+    String build() throws Exception;
+
+    /**
+     * Regenerate the code of the whole workspace
+     *
+     * @return a short description of the outcome
+     */
+    String regenerateCode() throws Exception;
+}
@@ -0,0 +1,89 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A value serialized to JSON once and reused, e.g. a resource body derived from a
+ * workspace snapshot. It is written as raw JSON wherever it appears in a message,
+ * and its compressed form is computed on first use so HTTP responses embedding it
+ * do not compress it again. Binary wire formats cannot embed raw JSON, so there the
+ * original value is serialized instead.
+ */
+public final class CachedJson implements JsonSerializable {
+
+    private final String json;
+    private volatile Object value;
+    private volatile HttpCompression.Segment compressed;
+
+    private CachedJson(String json, Object value) {
+        this.json = json;
+        this.value = value;
+    }
+
+    public static CachedJson of(ObjectMapper objectMapper, Object value) throws JsonProcessingException {
+        return new CachedJson(objectMapper.writeValueAsString(value), value);
+    }
+
+    /**
+     * Wrap JSON that is already serialized, e.g. a tool definition generated at compile time
+     */
+    public static CachedJson ofJson(String json) {
+        return new CachedJson(json, null);
+    }
+
+    public String getJson() {
+        return json;
+    }
+
+    /**
+     * Length of the JSON in characters
+     */
+    public int length() {
+        return json.length();
+    }
+
+    /**
+     * The JSON as raw deflate data ending on a sync flush, with its checksums
+     */
+    HttpCompression.Segment getCompressed() {
+        HttpCompression.Segment segment = compressed;
+        if (segment == null) {
+            segment = HttpCompression.segment(json.getBytes(StandardCharsets.UTF_8));
+            compressed = segment;
+        }
+        return segment;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        if (gen.canWriteBinaryNatively()) {
+            Object original = value;
+            if (original == null) {
+                original = McpWireFormat.JSON.mapper().readTree(json);
+                value = original;
+            }
+            serializers.defaultSerializeValue(original, gen);
+        } else {
+            gen.writeRawValue(json);
+        }
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+
+    @Override
+    public String toString() {
+        return json;
+    }
+}
@@ -0,0 +1,261 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.*;
+
+/**
+ * Content-Encoding negotiation and gzip/deflate output for the HTTP transport.
+ *
+ * <p>Besides plain streaming compression, this can splice a response together from
+ * separately compressed parts: raw deflate data that ends on a sync flush can be
+ * concatenated, and the gzip CRC-32 and zlib Adler-32 checksums of the parts can be
+ * combined. This lets a cached body be compressed once and embedded into JSON-RPC
+ * envelopes with different ids without compressing it again.</p>
+ */
+final class HttpCompression {
+
+    enum Encoding {
+        IDENTITY(null), GZIP("gzip"), DEFLATE("deflate");
+
+        final String headerValue;
+
+        Encoding(String headerValue) {
+            this.headerValue = headerValue;
+        }
+    }
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final byte[] ZLIB_HEADER = {0x78, (byte) 0x9c};
+
+    private HttpCompression() {
+    }
+
+    /**
+     * Pick the encoding for an Accept-Encoding header, preferring gzip over deflate
+     * and honouring q-values (including q=0 to refuse an encoding)
+     */
+    static Encoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return Encoding.IDENTITY;
+        }
+        // -1 while a coding is not listed, so an explicit q=0 still wins over the wildcard
+        double gzip = -1;
+        double deflate = -1;
+        double wildcard = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            switch (coding) {
+                case "gzip", "x-gzip" -> gzip = quality;
+                case "deflate" -> deflate = quality;
+                case "*" -> wildcard = quality;
+                default -> { }
+            }
+        }
+        gzip = gzip >= 0 ? gzip : wildcard;
+        deflate = deflate >= 0 ? deflate : wildcard;
+        if (gzip > 0 && gzip >= deflate) {
+            return Encoding.GZIP;
+        }
+        return deflate > 0 ? Encoding.DEFLATE : Encoding.IDENTITY;
+    }
+
+    /**
+     * Wrap a response stream so everything written to it is compressed on the fly
+     */
+    static OutputStream compressingStream(OutputStream out, Encoding encoding) throws IOException {
+        return switch (encoding) {
+            case GZIP -> new GZIPOutputStream(out, 8192);
+            case DEFLATE -> new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION), 8192, false) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        def.end();
+                    }
+                }
+            };
+            case IDENTITY -> out;
+        };
+    }
+
+    /**
+     * Compressed part of a spliced response
+     */
+    record Segment(byte[] rawDeflate, long crc32, long adler32, long length) {}
+
+    /**
+     * Compress data as raw deflate ending on a sync flush, so more data can follow it
+     */
+    static Segment segment(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        Adler32 adler = new Adler32();
+        adler.update(data);
+        return new Segment(rawDeflate(data, false), crc.getValue(), adler.getValue(), data.length);
+    }
+
+    /**
+     * Write prefix, a precompressed segment and suffix as one gzip or zlib stream
+     */
+    static void writeSpliced(OutputStream out, Encoding encoding, byte[] prefix, Segment middle, byte[] suffix)
+            throws IOException {
+        Segment head = segment(prefix);
+        byte[] tail = rawDeflate(suffix, true);
+
+        if (encoding == Encoding.GZIP) {
+            CRC32 suffixCrc = new CRC32();
+            suffixCrc.update(suffix);
+            long crc = crc32Combine(crc32Combine(head.crc32, middle.crc32, middle.length), suffixCrc.getValue(),
+                suffix.length);
+            long size = head.length + middle.length + suffix.length;
+
+            out.write(GZIP_HEADER);
+            out.write(head.rawDeflate);
+            out.write(middle.rawDeflate);
+            out.write(tail);
+            writeIntLittleEndian(out, crc);
+            writeIntLittleEndian(out, size);
+        } else {
+            Adler32 suffixAdler = new Adler32();
+            suffixAdler.update(suffix);
+            long adler = adler32Combine(adler32Combine(head.adler32, middle.adler32, middle.length),
+                suffixAdler.getValue(), suffix.length);
+
+            out.write(ZLIB_HEADER);
+            out.write(head.rawDeflate);
+            out.write(middle.rawDeflate);
+            out.write(tail);
+            out.write((int) (adler >>> 24));
+            out.write((int) (adler >>> 16));
+            out.write((int) (adler >>> 8));
+            out.write((int) adler);
+        }
+    }
+
+    private static byte[] rawDeflate(byte[] data, boolean finish) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(data);
+            if (finish) {
+                deflater.finish();
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            byte[] buffer = new byte[8192];
+            int flush = finish ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH;
+            while (true) {
+                int count = deflater.deflate(buffer, 0, buffer.length, flush);
+                out.write(buffer, 0, count);
+                if (finish ? deflater.finished() : count < buffer.length) {
+                    break;
+                }
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeIntLittleEndian(OutputStream out, long value) throws IOException {
+        out.write((int) value);
+        out.write((int) (value >>> 8));
+        out.write((int) (value >>> 16));
+        out.write((int) (value >>> 24));
+    }
+
+    /**
+     * CRC-32 of the concatenation of two blocks, given their CRCs and the second length (zlib's crc32_combine)
+     */
+    static long crc32Combine(long crc1, long crc2, long length2) {
+        if (length2 <= 0) {
+            return crc1;
+        }
+        long[] even = new long[32];
+        long[] odd = new long[32];
+
+        // Operator for one zero bit
+        odd[0] = 0xedb88320L;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        gf2MatrixSquare(even, odd); // two zero bits
+        gf2MatrixSquare(odd, even); // four zero bits
+
+        // Apply length2 zero bytes to crc1, squaring the operator for each bit of length2
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((length2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(even, crc1);
+            }
+            length2 >>= 1;
+            if (length2 == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((length2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(odd, crc1);
+            }
+            length2 >>= 1;
+        } while (length2 != 0);
+
+        return crc1 ^ crc2;
+    }
+
+    private static long gf2MatrixTimes(long[] matrix, long vector) {
+        long sum = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(long[] square, long[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(matrix, matrix[n]);
+        }
+    }
+
+    /**
+     * Adler-32 of the concatenation of two blocks, given their checksums and the second length (zlib's adler32_combine)
+     */
+    static long adler32Combine(long adler1, long adler2, long length2) {
+        final long base = 65521;
+        long remainder = length2 % base;
+        long sum1 = adler1 & 0xffff;
+        long sum2 = (remainder * sum1) % base;
+        sum1 += (adler2 & 0xffff) + base - 1;
+        sum2 += ((adler1 >>> 16) & 0xffff) + ((adler2 >>> 16) & 0xffff) + base - remainder;
+        if (sum1 >= base) {
+            sum1 -= base;
+        }
+        if (sum1 >= base) {
+            sum1 -= base;
+        }
+        if (sum2 >= (base << 1)) {
+            sum2 -= (base << 1);
+        }
+        if (sum2 >= base) {
+            sum2 -= base;
+        }
+        return sum1 | (sum2 << 16);
+    }
+}
@@ -0,0 +1,266 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP engine on the JDK com.sun.net.httpserver server, using a thread per exchange
+ */
+class JdkHttpEngine implements McpHttpEngine {
+
+    private static final Logger LOG = LogManager.getLogger("MCP-HTTP");
+    private static final int MAX_TRACKED_CONNECTIONS = 4096;
+
+    private final McpTransportConfig config;
+    private final McpMetrics metrics;
+    private final Map<InetSocketAddress, Long> knownConnections = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean draining;
+    private HttpServer httpServer;
+    private ExecutorService executor;
+    private Thread stopper;
+    private long drainTimeoutMs;
+
+    JdkHttpEngine(McpTransportConfig config, McpMetrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void start(InetSocketAddress address, Map<String, Handler> routes) throws IOException {
+        List<String> nioOnly = config.getChangedNioOnlySettings();
+        if (config.isJdkSystemProperties()) {
+            config.applyJdkServerProperties();
+            if (!nioOnly.isEmpty()) {
+                LOG.warn("{} only apply to the jdk engine if no HttpServer was created earlier in this JVM;"
+                    + " use mcreator.mcp.http.engine=nio to apply them reliably", nioOnly);
+            }
+        } else if (!nioOnly.isEmpty()) {
+            LOG.warn("{} are ignored by the jdk engine; use mcreator.mcp.http.engine=nio"
+                + " or mcreator.mcp.http.jdk.setSystemProperties=true", nioOnly);
+        }
+        httpServer = HttpServer.create(address, config.getBacklog());
+        for (Map.Entry<String, Handler> route : routes.entrySet()) {
+            Handler handler = route.getValue();
+            HttpContext context = httpServer.createContext(route.getKey(),
+                exchange -> handler.handle(new JdkExchange(exchange)));
+            context.getFilters().add(new ConnectionFilter());
+        }
+        executor = createExecutor(config.getThreads());
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        drainTimeoutMs = config.getDrainTimeoutMs();
+    }
+
+    /**
+     * HttpServer.stop closes the listening socket right away and then waits for the
+     * exchanges in flight, so it runs on a thread of its own while the caller goes on,
+     * e.g. to bind the port again
+     */
+    @Override
+    public synchronized void stopAccepting() {
+        if (httpServer == null || stopper != null) {
+            return;
+        }
+        draining = true;
+        HttpServer server = httpServer;
+        int delaySeconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(drainTimeoutMs + 999));
+        stopper = new Thread(() -> server.stop(delaySeconds), "MCP-HTTP-Drain");
+        stopper.setDaemon(true);
+        stopper.start();
+    }
+
+    @Override
+    public boolean drain(long timeoutMs) {
+        stopAccepting();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        boolean drained = inFlight.get() == 0;
+        stop();
+        return drained;
+    }
+
+    @Override
+    public void stop() {
+        Thread draining;
+        synchronized (this) {
+            draining = stopper;
+        }
+        if (httpServer != null) {
+            // After draining, nothing is left to wait for; this also ends the stop started by
+            // stopAccepting, which would otherwise wait out its whole delay
+            httpServer.stop(draining != null ? 0 : 1);
+        }
+        if (draining != null) {
+            try {
+                draining.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        knownConnections.clear();
+    }
+
+    @Override
+    public InetSocketAddress getAddress() {
+        return httpServer != null ? httpServer.getAddress() : null;
+    }
+
+    @Override
+    public String getName() {
+        return "jdk";
+    }
+
+    /**
+     * Handler thread pool shared by the engines: fixed when a thread count is configured,
+     * otherwise growing with demand
+     */
+    static ExecutorService createExecutor(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "MCP-HTTP-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return threads > 0
+            ? Executors.newFixedThreadPool(threads, threadFactory)
+            : Executors.newCachedThreadPool(threadFactory);
+    }
+
+    /**
+     * Counts connections and exchanges, and closes every exchange once its handler
+     * returns, also on error paths, so the server can drain the unread request body
+     * and reuse the connection for the client's next request
+     */
+    private class ConnectionFilter extends Filter {
+        @Override
+        public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+            trackConnection(exchange.getRemoteAddress());
+            if (!config.isKeepAlive() || draining) {
+                exchange.getResponseHeaders().set("Connection", "close");
+            }
+            inFlight.incrementAndGet();
+            try {
+                chain.doFilter(exchange);
+            } finally {
+                exchange.close();
+                inFlight.decrementAndGet();
+            }
+        }
+
+        @Override
+        public String description() {
+            return "Connection accounting and cleanup";
+        }
+    }
+
+    /**
+     * Count requests and the connections they arrive on. The JDK server does not report
+     * new connections, so one is identified by its remote address and port, which the
+     * client does not reuse while it is open.
+     */
+    private void trackConnection(InetSocketAddress remote) {
+        metrics.increment("mcp_http_exchanges_total", "HTTP requests received on any endpoint");
+        long now = System.nanoTime();
+        if (knownConnections.put(remote, now) == null) {
+            metrics.increment("mcp_http_connections_total", "HTTP connections opened by clients");
+            if (knownConnections.size() > MAX_TRACKED_CONNECTIONS) {
+                // Connections idle for longer than the timeout have been closed by the server
+                long idleNanos = TimeUnit.SECONDS.toNanos(config.getIdleTimeoutSeconds());
+                knownConnections.values().removeIf(lastSeen -> now - lastSeen > idleNanos);
+            }
+        }
+    }
+
+    /**
+     * Adapts a JDK HttpExchange
+     */
+    private static class JdkExchange implements McpHttpExchange {
+        private final HttpExchange exchange;
+
+        JdkExchange(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return exchange.getRequestMethod();
+        }
+
+        @Override
+        public String getRequestPath() {
+            return exchange.getRequestURI().getPath();
+        }
+
+        @Override
+        public String getRawQuery() {
+            return exchange.getRequestURI().getRawQuery();
+        }
+
+        @Override
+        public String getRequestHeader(String name) {
+            return exchange.getRequestHeaders().getFirst(name);
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return exchange.getRemoteAddress();
+        }
+
+        @Override
+        public InputStream getRequestBody() {
+            return exchange.getRequestBody();
+        }
+
+        @Override
+        public void setResponseHeader(String name, String value) {
+            exchange.getResponseHeaders().set(name, value);
+        }
+
+        @Override
+        public void sendResponseHeaders(int status, long length) throws IOException {
+            exchange.sendResponseHeaders(status, length);
+        }
+
+        @Override
+        public OutputStream getResponseBody() {
+            return exchange.getResponseBody();
+        }
+
+        @Override
+        public void close() {
+            exchange.close();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package net.mcreator.MCreatorMCP.mcp;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -66,14 +67,17 @@ public class JsonRpcMessage {
     public JsonRpcError getError() { return error; }
     public void setError(JsonRpcError error) { this.error = error; }
 
+    @JsonIgnore
     public boolean isRequest() {
         return method != null && error == null && result == null;
     }
 
+    @JsonIgnore
     public boolean isResponse() {
         return method == null && (result != null || error != null);
     }
 
+    @JsonIgnore
     public boolean isNotification() {
         return method != null && id == null;
     }
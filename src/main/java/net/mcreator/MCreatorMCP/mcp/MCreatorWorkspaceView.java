@@ -0,0 +1,51 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import net.mcreator.workspace.Workspace;
+import net.mcreator.workspace.elements.ModElement;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Workspace view that reads directly from an MCreator workspace
+ */
+public class MCreatorWorkspaceView implements McpWorkspaceView {
+
+    private final Workspace workspace;
+
+    public MCreatorWorkspaceView(Workspace workspace) {
+        this.workspace = workspace;
+    }
+
+    @Override public String getModName() { return workspace.getWorkspaceSettings().getModName(); }
+
+    @Override public String getVersion() { return workspace.getWorkspaceSettings().getVersion(); }
+
+    @Override public String getAuthor() { return workspace.getWorkspaceSettings().getAuthor(); }
+
+    @Override public String getDescription() { return workspace.getWorkspaceSettings().getDescription(); }
+
+    @Override public String getMCreatorVersion() { return String.valueOf(workspace.getMCreatorVersion()); }
+
+    @Override public String getMinecraftDependencies() {
+        return workspace.getWorkspaceSettings().getMCreatorDependencies().toString();
+    }
+
+    @Override public String getWorkspaceFolder() { return workspace.getWorkspaceFolder().getAbsolutePath(); }
+
+    @Override public List<ElementInfo> getElements() {
+        return workspace.getModElements().stream()
+            .map(element -> new ElementInfo(element.getName(), element.getType().getRegistryName(),
+                element.isCodeLocked()))
+            .collect(Collectors.toList());
+    }
+
+    @Override public long getChangeStamp() {
+        long stamp = McpWorkspaceView.metadataStamp(this);
+        for (ModElement element : workspace.getModElements()) {
+            int hash = 31 * element.getName().hashCode() + element.getType().getRegistryName().hashCode();
+            stamp = 31 * stamp + 31 * hash + Boolean.hashCode(element.isCodeLocked());
+        }
+        return stamp;
+    }
+}
@@ -0,0 +1,268 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control for MCP requests, so one runaway client cannot flood the server
+ * and starve the EDT. Every request of a client draws from a token bucket of the
+ * client, and tool calls also draw from a client bucket of their tool class. Buckets
+ * belong to the {@link McpSession#getClientIdentity() client identity}, not the session,
+ * so opening new sessions does not bypass them. Tools that run on the EDT or wait are
+ * additionally capped in how many may run at once across all clients, per workspace.
+ *
+ * <p>Messages processed directly in-process ({@link McpRequestContext#DIRECT}) are not limited.</p>
+ */
+public class McpAdmissionController {
+
+    /** JSON-RPC error code of rejected requests (implementation-defined server error range) */
+    public static final int ERROR_CODE = -32029;
+
+    /** Admissions between sweeps of the buckets of clients that went quiet */
+    private static final int SWEEP_INTERVAL = 1024;
+
+    private final boolean enabled;
+    private final McpMetrics metrics;
+    private final Limit clientLimit;
+    private final Map<McpToolClass, Limit> classLimits = new EnumMap<>(McpToolClass.class);
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong bucketAccesses = new AtomicLong();
+    private final Map<String, Semaphore> concurrencyLimits = new ConcurrentHashMap<>();
+    private final Map<McpToolClass, Integer> concurrencyCaps = new EnumMap<>(McpToolClass.class);
+    private final LongAdder admitted = new LongAdder();
+    private final Map<String, LongAdder> rejected = new ConcurrentHashMap<>();
+
+    public McpAdmissionController(boolean enabled, Limit clientLimit, Map<McpToolClass, Limit> classLimits,
+            Map<McpToolClass, Integer> concurrencyCaps, McpMetrics metrics) {
+        this.enabled = enabled;
+        this.metrics = metrics;
+        this.clientLimit = clientLimit;
+        this.classLimits.putAll(classLimits);
+        for (Map.Entry<McpToolClass, Integer> cap : concurrencyCaps.entrySet()) {
+            if (cap.getValue() > 0) {
+                this.concurrencyCaps.put(cap.getKey(), cap.getValue());
+            }
+        }
+    }
+
+    /**
+     * Create a controller configured from the mcreator.mcp.admission.* system properties
+     */
+    public static McpAdmissionController fromSettings(McpMetrics metrics) {
+        Map<McpToolClass, Limit> classLimits = new EnumMap<>(McpToolClass.class);
+        classLimits.put(McpToolClass.READ_ONLY, Limit.fromSettings("admission.read-only", 100, 200));
+        classLimits.put(McpToolClass.WAITING, Limit.fromSettings("admission.waiting", 10, 20));
+        classLimits.put(McpToolClass.MUTATING, Limit.fromSettings("admission.mutating", 10, 20));
+        classLimits.put(McpToolClass.BUILD_RUN, Limit.fromSettings("admission.build-run", 0.1, 3));
+
+        Map<McpToolClass, Integer> concurrencyCaps = new EnumMap<>(McpToolClass.class);
+        concurrencyCaps.put(McpToolClass.MUTATING, McpSettings.getInt("admission.mutating.maxConcurrent", 2));
+        concurrencyCaps.put(McpToolClass.BUILD_RUN, McpSettings.getInt("admission.build-run.maxConcurrent", 1));
+        concurrencyCaps.put(McpToolClass.WAITING, McpSettings.getInt("admission.waiting.maxConcurrent", 4));
+
+        return new McpAdmissionController(McpSettings.getBoolean("admission.enabled", true),
+            Limit.fromSettings("admission.client", 200, 400), classLimits, concurrencyCaps, metrics);
+    }
+
+    /**
+     * Admit a message of the given session that is not bound to a workspace
+     *
+     * @throws RejectedException if a rate or concurrency limit is exceeded
+     */
+    public Permit admit(McpSession session, McpToolClass toolClass) throws RejectedException {
+        return admit(session, toolClass, null);
+    }
+
+    /**
+     * Admit a message of the given session. For tool calls, toolClass is the class of the
+     * called tool, otherwise null, and workspaceId the workspace it runs in. The returned
+     * permit must be released once the message has been processed.
+     *
+     * @throws RejectedException if a rate or concurrency limit is exceeded
+     */
+    public Permit admit(McpSession session, McpToolClass toolClass, String workspaceId) throws RejectedException {
+        if (!enabled || session.isDirect()) {
+            return Permit.NONE;
+        }
+
+        long now = System.nanoTime();
+        if (bucketAccesses.incrementAndGet() % SWEEP_INTERVAL == 0) {
+            // A full bucket admits exactly like a new one, so dropping it loses nothing
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+        checkRate(session, "client", clientLimit, "client", null, now);
+        if (toolClass == null) {
+            admitted.increment();
+            return Permit.NONE;
+        }
+
+        Limit classLimit = classLimits.get(toolClass);
+        if (classLimit != null) {
+            checkRate(session, toolClass.label(), classLimit, "tool-class", toolClass, now);
+        }
+
+        Integer cap = concurrencyCaps.get(toolClass);
+        Semaphore concurrency = cap != null
+            ? concurrencyLimits.computeIfAbsent(concurrencyKey(workspaceId, toolClass), k -> new Semaphore(cap))
+            : null;
+        if (concurrency != null && !concurrency.tryAcquire()) {
+            // Nothing to measure a wait against, so suggest a short back-off
+            throw reject("concurrency", toolClass, 1000,
+                "Too many concurrent " + toolClass.label() + " tool calls");
+        }
+        admitted.increment();
+        return concurrency != null ? concurrency::release : Permit.NONE;
+    }
+
+    private void checkRate(McpSession session, String key, Limit limit, String reason, McpToolClass toolClass,
+            long now) throws RejectedException {
+        if (limit == null || limit.ratePerSecond <= 0) {
+            return;
+        }
+        TokenBucket bucket = buckets.computeIfAbsent(session.getClientIdentity() + "|" + key,
+            k -> new TokenBucket(limit, now));
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos > 0) {
+            long retryAfterMs = Math.max(1, (waitNanos + 999_999) / 1_000_000);
+            throw reject(reason, toolClass, retryAfterMs, toolClass == null
+                ? "Request rate limit exceeded"
+                : "Rate limit for " + toolClass.label() + " tools exceeded");
+        }
+    }
+
+    private RejectedException reject(String reason, McpToolClass toolClass, long retryAfterMs, String message) {
+        String classLabel = toolClass != null ? toolClass.label() : "any";
+        rejected.computeIfAbsent(reason, r -> new LongAdder()).increment();
+        metrics.increment("mcp_admission_rejected_total", "Requests rejected by admission control",
+            "reason", reason, "class", classLabel);
+        return new RejectedException(message, reason, classLabel, retryAfterMs);
+    }
+
+    private static String concurrencyKey(String workspaceId, McpToolClass toolClass) {
+        return (workspaceId != null ? workspaceId : "") + "|" + toolClass.label();
+    }
+
+    /**
+     * Drop the concurrency limits of a closed workspace
+     */
+    public void removeWorkspace(String workspaceId) {
+        concurrencyLimits.keySet().removeIf(key -> key.startsWith(workspaceId + "|"));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Counters and current usage for the health endpoint
+     */
+    public Map<String, Object> toHealth() {
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("enabled", enabled);
+        health.put("admitted", admitted.sum());
+        Map<String, Long> rejectedCounts = new LinkedHashMap<>();
+        rejected.forEach((reason, count) -> rejectedCounts.put(reason, count.sum()));
+        health.put("rejected", rejectedCounts);
+
+        Map<String, Object> inFlight = new TreeMap<>();
+        Map<String, Integer> caps = new LinkedHashMap<>();
+        concurrencyCaps.forEach((toolClass, cap) -> caps.put(toolClass.label(), cap));
+        concurrencyLimits.forEach((key, semaphore) -> {
+            String label = key.substring(key.indexOf('|') + 1);
+            inFlight.put(key.startsWith("|") ? label : key.replace('|', '/'),
+                caps.get(label) - semaphore.availablePermits());
+        });
+        health.put("inFlight", inFlight);
+        health.put("maxConcurrentPerWorkspace", caps);
+        return health;
+    }
+
+    /**
+     * Token bucket rate and burst size
+     */
+    public record Limit(double ratePerSecond, double burst) {
+        static Limit fromSettings(String prefix, double defaultRate, double defaultBurst) {
+            return new Limit(McpSettings.getDouble(prefix + ".rate", defaultRate),
+                McpSettings.getDouble(prefix + ".burst", defaultBurst));
+        }
+    }
+
+    /**
+     * Held while an admitted message is processed
+     */
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+        Permit NONE = () -> {};
+
+        @Override
+        void close();
+    }
+
+    /**
+     * Thrown when a message is not admitted
+     */
+    public static class RejectedException extends Exception {
+        private final String reason;
+        private final String toolClass;
+        private final long retryAfterMs;
+
+        RejectedException(String message, String reason, String toolClass, long retryAfterMs) {
+            super(message, null, false, false);
+            this.reason = reason;
+            this.toolClass = toolClass;
+            this.retryAfterMs = retryAfterMs;
+        }
+
+        public String getReason() { return reason; }
+
+        public long getRetryAfterMs() { return retryAfterMs; }
+
+        /**
+         * Data of the JSON-RPC error returned to the client
+         */
+        public Map<String, Object> toErrorData() {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("reason", reason);
+            data.put("toolClass", toolClass);
+            data.put("retryAfterMs", retryAfterMs);
+            return data;
+        }
+    }
+
+    static final class TokenBucket {
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(Limit limit, long now) {
+            this.tokensPerNano = limit.ratePerSecond / 1_000_000_000.0;
+            this.capacity = Math.max(limit.burst, 1);
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        /**
+         * Take a token, returning 0 on success or the nanoseconds until one is available
+         */
+        synchronized long tryAcquire(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+
+        synchronized boolean isFull(long now) {
+            return tokens + (now - lastRefill) * tokensPerNano >= capacity;
+        }
+    }
+}
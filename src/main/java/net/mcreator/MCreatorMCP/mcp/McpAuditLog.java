@@ -0,0 +1,213 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Audit log of all MCP traffic, kept separate from the application log. Transports
+ * only enqueue the message into a bounded queue; a background thread formats and
+ * writes it, so request threads never block on disk. When the queue is full the
+ * entry is dropped and counted in mcp_audit_dropped_total.
+ *
+ * <p>Entries are written either as JSON lines ({"ts", "dir", "transport", "client",
+ * "size", "body", "truncated"}) or in a compact binary format: the header "MCPA" and
+ * a version byte, followed by records of (long ts, byte dir, UTF transport, UTF client,
+ * int length, UTF-8 body bytes). Bodies are stored as received, without redaction.</p>
+ */
+public class McpAuditLog {
+
+    private static final Logger LOG = LogManager.getLogger("MCP-Audit");
+
+    private static final byte[] BINARY_MAGIC = {'M', 'C', 'P', 'A'};
+    private static final byte BINARY_VERSION = 1;
+
+    public enum Direction { IN, OUT }
+
+    public enum Format { JSONL, BINARY }
+
+    private static final Entry CLOSE = new Entry(0, Direction.IN, McpRequestContext.DIRECT, "");
+
+    private final Path file;
+    private final Format format;
+    private final int maxBodyChars;
+    private final McpMetrics metrics;
+    private final BlockingQueue<Entry> queue;
+    private final OutputStream output;
+    private final Thread writerThread;
+    private volatile boolean closed = false;
+
+    public McpAuditLog(Path file, Format format, int queueCapacity, int maxBodyChars, McpMetrics metrics) throws IOException {
+        this.file = file;
+        this.format = format;
+        this.maxBodyChars = maxBodyChars;
+        this.metrics = metrics;
+        this.queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 16));
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        boolean newFile = !Files.exists(file) || Files.size(file) == 0;
+        this.output = new BufferedOutputStream(Files.newOutputStream(file,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+        if (format == Format.BINARY && newFile) {
+            output.write(BINARY_MAGIC);
+            output.write(BINARY_VERSION);
+        }
+
+        this.writerThread = new Thread(this::writeLoop, "MCP-Audit-Writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+        LOG.info("Writing MCP audit log ({}) to {}", format, file.toAbsolutePath());
+    }
+
+    /**
+     * Create the audit log configured by mcreator.mcp.audit.file, or null if auditing is disabled
+     */
+    public static McpAuditLog fromSettings(McpMetrics metrics) {
+        String file = McpSettings.getString("audit.file", null);
+        if (file == null) {
+            return null;
+        }
+        try {
+            Format format = Format.valueOf(McpSettings.getString("audit.format", "jsonl").toUpperCase(Locale.ROOT));
+            return new McpAuditLog(Paths.get(file), format,
+                McpSettings.getInt("audit.queueSize", 8192),
+                McpSettings.getInt("audit.maxBodyChars", 1024 * 1024),
+                metrics);
+        } catch (IllegalArgumentException | IOException e) {
+            LOG.error("Failed to open MCP audit log {}, auditing disabled", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Queue a message for the audit log without blocking
+     */
+    public void append(Direction direction, McpRequestContext context, String body) {
+        if (closed) {
+            return;
+        }
+        if (!queue.offer(new Entry(System.currentTimeMillis(), direction, context, body))) {
+            metrics.increment("mcp_audit_dropped_total", "Audit log entries dropped because the queue was full");
+        }
+    }
+
+    /**
+     * Write all queued entries and close the file
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(CLOSE);
+            writerThread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Path getFile() { return file; }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(256);
+        try (OutputStream out = output;
+             JsonGenerator json = new JsonFactory().createGenerator(new NonClosingOutputStream(out), JsonEncoding.UTF8);
+             DataOutputStream binary = new DataOutputStream(new NonClosingOutputStream(out))) {
+            json.setRootValueSeparator(null);
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, 255);
+                for (Entry entry : batch) {
+                    if (entry == CLOSE) {
+                        json.flush();
+                        binary.flush();
+                        return;
+                    }
+                    if (format == Format.JSONL) {
+                        writeJson(json, entry);
+                    } else {
+                        writeBinary(binary, entry);
+                    }
+                }
+                batch.clear();
+                // Flush only once the queue is drained, so bursts are written in large blocks
+                if (queue.isEmpty()) {
+                    json.flush();
+                    binary.flush();
+                    out.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            closed = true;
+            LOG.error("Failed to write MCP audit log {}, auditing disabled", file, e);
+        }
+    }
+
+    private void writeJson(JsonGenerator json, Entry entry) throws IOException {
+        boolean truncated = entry.body.length() > maxBodyChars;
+        json.writeStartObject();
+        json.writeNumberField("ts", entry.epochMillis);
+        json.writeStringField("dir", entry.direction == Direction.IN ? "in" : "out");
+        json.writeStringField("transport", entry.context.getTransport());
+        json.writeStringField("client", entry.context.getClientId());
+        json.writeNumberField("size", entry.body.length());
+        json.writeStringField("body", truncated ? entry.body.substring(0, maxBodyChars) : entry.body);
+        if (truncated) {
+            json.writeBooleanField("truncated", true);
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private void writeBinary(DataOutputStream binary, Entry entry) throws IOException {
+        String body = entry.body.length() > maxBodyChars ? entry.body.substring(0, maxBodyChars) : entry.body;
+        byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+        binary.writeLong(entry.epochMillis);
+        binary.writeByte(entry.direction.ordinal());
+        binary.writeUTF(entry.context.getTransport());
+        binary.writeUTF(entry.context.getClientId());
+        binary.writeInt(bodyBytes.length);
+        binary.write(bodyBytes);
+    }
+
+    private record Entry(long epochMillis, Direction direction, McpRequestContext context, String body) {}
+
+    /**
+     * Lets the JSON generator and data stream share the file stream, which is closed once by the writer loop
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
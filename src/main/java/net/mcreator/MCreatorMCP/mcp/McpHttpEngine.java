@@ -0,0 +1,88 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * HTTP server implementation behind {@link McpHttpTransport}. The engine is chosen by
+ * the mcreator.mcp.http.engine setting: "jdk" for the JDK HttpServer (default) or
+ * "nio" for the built-in non-blocking selector engine.
+ */
+public interface McpHttpEngine {
+
+    /**
+     * Handles the requests of one route
+     */
+    @FunctionalInterface
+    interface Handler {
+        void handle(McpHttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * Start serving the given routes. A request is handled by the route with the
+     * longest path prefix matching its path.
+     */
+    void start(InetSocketAddress address, Map<String, Handler> routes) throws IOException;
+
+    /**
+     * Close the listening socket, so new connections are refused and the port can be
+     * bound again, while requests in flight carry on until {@link #drain} finishes them.
+     * Returns right away; the socket may close shortly after.
+     */
+    void stopAccepting();
+
+    /**
+     * Stop accepting, then finish in-flight requests, answering them and any request still arriving with
+     * "Connection: close", then stop. Waits at most the given time.
+     *
+     * @return whether all in-flight requests completed in time
+     */
+    boolean drain(long timeoutMs);
+
+    /**
+     * Stop accepting requests and close all connections
+     */
+    void stop();
+
+    /**
+     * Address the engine listens on, including the actual port once started
+     */
+    InetSocketAddress getAddress();
+
+    String getName();
+
+    /**
+     * Engine that can hand its listening socket to another one, so a restart keeps
+     * serving the port without refusing connections
+     */
+    interface ListenerHandover extends McpHttpEngine {
+
+        /**
+         * Start serving the given routes on a listening socket released by another
+         * engine, see {@link #releaseListener()}
+         */
+        void start(ServerSocketChannel listener, Map<String, Handler> routes) throws IOException;
+
+        /**
+         * Stop accepting connections without closing the listening socket and return it,
+         * so another engine can keep serving the port without a gap. Connections arriving
+         * in between wait in the socket's backlog. Returns null if the socket could not
+         * be released; the engine then keeps listening until it is drained.
+         */
+        ServerSocketChannel releaseListener();
+    }
+
+    /**
+     * Create the engine selected in the configuration
+     */
+    static McpHttpEngine create(McpTransportConfig config, McpMetrics metrics) {
+        return switch (config.getEngine().toLowerCase(Locale.ROOT)) {
+            case "jdk" -> new JdkHttpEngine(config, metrics);
+            case "nio" -> new NioHttpEngine(config, metrics);
+            default -> throw new IllegalArgumentException("Unknown HTTP engine: " + config.getEngine());
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+
+/**
+ * One HTTP request and its response, as seen by the handlers of {@link McpHttpTransport}
+ * independently of the {@link McpHttpEngine} serving it. Follows the conventions of
+ * the JDK HttpExchange.
+ */
+public interface McpHttpExchange {
+
+    String getRequestMethod();
+
+    /**
+     * Path of the request URI, without the query
+     */
+    String getRequestPath();
+
+    /**
+     * Raw query string of the request URI, or null if there is none
+     */
+    String getRawQuery();
+
+    /**
+     * First value of a request header (case-insensitive), or null if absent
+     */
+    String getRequestHeader(String name);
+
+    InetSocketAddress getRemoteAddress();
+
+    InputStream getRequestBody();
+
+    /**
+     * Set a response header, replacing any earlier value. Must be called before
+     * {@link #sendResponseHeaders}.
+     */
+    void setResponseHeader(String name, String value);
+
+    /**
+     * Start the response. A length of -1 means no body, 0 means a body of unknown length.
+     */
+    void sendResponseHeaders(int status, long length) throws IOException;
+
+    OutputStream getResponseBody();
+
+    /**
+     * Finish the exchange, completing the response
+     */
+    void close();
+}
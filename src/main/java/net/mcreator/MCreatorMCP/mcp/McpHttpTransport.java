@@ -2,16 +2,19 @@ package net.mcreator.MCreatorMCP.mcp;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
-import com.sun.net.httpserver.HttpServer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.*;
+import java.net.BindException;
 import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.charset.StandardCharsets;
-import java.util.concurrent.Executors;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * HTTP transport for MCP communication.
@@ -22,99 +25,243 @@ public class McpHttpTransport {
 
     private static final Logger LOG = LogManager.getLogger("MCP-HTTP");
 
+    /** Header carrying the id of the client's session, as in the MCP Streamable HTTP transport */
+    public static final String SESSION_HEADER = "Mcp-Session-Id";
+
     private final McpServer mcpServer;
+    private final McpMetrics metrics;
+    private final McpTracer tracer;
+    private final McpRequestLogger requestLogger;
     private final ObjectMapper objectMapper;
-    private HttpServer httpServer;
+    private final boolean compressionEnabled;
+    private final int compressionMinBytes;
+    private final McpTransportConfig config;
+    private McpHttpEngine engine;
     private final int port;
 
     public McpHttpTransport(McpServer mcpServer, int port) {
+        this(mcpServer, port, McpTransportConfig.fromSettings());
+    }
+
+    public McpHttpTransport(McpServer mcpServer, int port, McpTransportConfig config) {
         this.mcpServer = mcpServer;
         this.port = port;
-        this.objectMapper = new ObjectMapper();
+        this.config = config;
+        this.metrics = mcpServer.getMetrics();
+        this.tracer = mcpServer.getTracer();
+        this.requestLogger = mcpServer.getRequestLogger();
+        this.objectMapper = McpWireFormat.JSON.mapper();
+        this.compressionEnabled = McpSettings.getBoolean("http.compression.enabled", true);
+        this.compressionMinBytes = McpSettings.getInt("http.compression.minBytes", 1024);
     }
 
     /**
      * Start the HTTP server
      */
     public void start() throws IOException {
-        httpServer = HttpServer.create(new InetSocketAddress("localhost", port), 0);
-        
+        engine = McpHttpEngine.create(config, metrics);
+        engine.start(new InetSocketAddress("localhost", port), createRoutes());
+        logStarted();
+    }
+
+    /**
+     * Take over serving the port of a running transport, e.g. when the server restarts
+     * with new settings. Requests in flight on the previous transport are completed
+     * before it stops. When both engines support {@link McpHttpEngine.ListenerHandover},
+     * as the nio engine does, the port is never closed and no connection is refused.
+     * Otherwise, e.g. with the jdk engine, the previous transport stops accepting and the
+     * port is bound again as soon as it is free, while its requests in flight complete;
+     * connections arriving in the few milliseconds in between are refused.
+     */
+    public void takeOver(McpHttpTransport previous) throws IOException {
+        engine = McpHttpEngine.create(config, metrics);
+        Map<String, McpHttpEngine.Handler> routes = createRoutes();
+        if (engine instanceof McpHttpEngine.ListenerHandover adopting
+                && previous.engine instanceof McpHttpEngine.ListenerHandover releasing) {
+            ServerSocketChannel listener = releasing.releaseListener();
+            if (listener != null) {
+                adopting.start(listener, routes);
+                logStarted();
+                previous.drain("handover");
+                return;
+            }
+        }
+        int previousPort = previous.getPort();
+        previous.engine.stopAccepting();
+        bindWhenFree(new InetSocketAddress("localhost", previousPort), routes);
+        logStarted();
+        previous.drain("rebind");
+    }
+
+    /**
+     * Start the engine on an address whose previous listener is closing, retrying until
+     * it is released or the drain timeout passes
+     */
+    private void bindWhenFree(InetSocketAddress address, Map<String, McpHttpEngine.Handler> routes) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(1000, config.getDrainTimeoutMs()));
+        while (true) {
+            try {
+                engine.start(address, routes);
+                return;
+            } catch (BindException e) {
+                engine.stop();
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                engine = McpHttpEngine.create(config, metrics);
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Map<String, McpHttpEngine.Handler> createRoutes() {
+        Map<String, McpHttpEngine.Handler> routes = new LinkedHashMap<>();
+
         // Standard MCP HTTP endpoint
-        httpServer.createContext("/mcp", new McpHttpHandler());
+        routes.put("/mcp", new McpHttpHandler());
         
         // Server-Sent Events endpoint for legacy compatibility
-        httpServer.createContext("/mcp/sse", new McpSseHandler());
+        routes.put("/mcp/sse", new McpSseHandler());
         
         // Health check endpoint
-        httpServer.createContext("/health", new HealthHandler());
+        routes.put("/health", new HealthHandler());
         
-        httpServer.setExecutor(Executors.newCachedThreadPool());
-        httpServer.start();
+        // Prometheus metrics endpoint
+        routes.put("/metrics", new MetricsHandler());
         
-        LOG.info("MCP HTTP transport started on port {} with endpoints:", port);
-        LOG.info("  - Standard HTTP: http://localhost:{}/mcp", port);
-        LOG.info("  - SSE (legacy): http://localhost:{}/mcp/sse", port);
-        LOG.info("  - Health check: http://localhost:{}/health", port);
+        // Slowest recent request traces
+        routes.put("/debug/traces", new TracesHandler());
+        return routes;
+    }
+
+    private void logStarted() {
+        int boundPort = getPort();
+        LOG.info("MCP HTTP transport started on port {} ({} engine) with endpoints:", boundPort, engine.getName());
+        LOG.info("  - Standard HTTP: http://localhost:{}/mcp", boundPort);
+        LOG.info("  - SSE (legacy): http://localhost:{}/mcp/sse", boundPort);
+        LOG.info("  - Health check: http://localhost:{}/health", boundPort);
+        LOG.info("  - Metrics: http://localhost:{}/metrics", boundPort);
+        LOG.info("  - Traces: http://localhost:{}/debug/traces", boundPort);
+        LOG.debug("HTTP connection settings: backlog {}, idle timeout {}s, max connections {}, keep-alive {}",
+            config.getBacklog(), config.getIdleTimeoutSeconds(), config.getMaxConnections(), config.isKeepAlive());
     }
 
+
     /**
-     * Stop the HTTP server
+     * Stop the HTTP server once in-flight requests completed, waiting at most the
+     * configured drain timeout
      */
     public void stop() {
-        if (httpServer != null) {
-            httpServer.stop(1);
+        if (engine != null) {
+            drain("stop");
             LOG.info("MCP HTTP transport stopped");
         }
     }
 
+    private void drain(String reason) {
+        long startTime = System.nanoTime();
+        boolean drained = engine.drain(config.getDrainTimeoutMs());
+        metrics.increment("mcp_http_drains_total", "HTTP transports drained on stop or restart",
+            "reason", reason, "outcome", drained ? "drained" : "timeout");
+        if (!drained) {
+            LOG.warn("HTTP requests still in flight after {} ms, closed them", config.getDrainTimeoutMs());
+        } else {
+            LOG.debug("HTTP transport drained in {} ms", (System.nanoTime() - startTime) / 1_000_000);
+        }
+    }
+
     /**
      * HTTP handler for standard MCP requests
      */
-    private class McpHttpHandler implements HttpHandler {
+    private class McpHttpHandler implements McpHttpEngine.Handler {
         @Override
-        public void handle(HttpExchange exchange) throws IOException {
+        public void handle(McpHttpExchange exchange) throws IOException {
             // Add CORS headers
-            exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
-            exchange.getResponseHeaders().add("Access-Control-Allow-Methods", "POST, OPTIONS");
-            exchange.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type");
+            exchange.setResponseHeader("Access-Control-Allow-Origin", "*");
+            exchange.setResponseHeader("Access-Control-Allow-Methods", "POST, DELETE, OPTIONS");
+            exchange.setResponseHeader("Access-Control-Allow-Headers", "Content-Type, Accept, " + SESSION_HEADER);
+            exchange.setResponseHeader("Access-Control-Expose-Headers", SESSION_HEADER);
 
             if ("OPTIONS".equals(exchange.getRequestMethod())) {
                 exchange.sendResponseHeaders(200, -1);
                 return;
             }
 
+            if ("DELETE".equals(exchange.getRequestMethod())) {
+                closeSession(exchange);
+                return;
+            }
+
             if (!"POST".equals(exchange.getRequestMethod())) {
                 sendError(exchange, 405, "Method not allowed");
                 return;
             }
 
+            McpTracer.Trace trace = null;
             try {
                 // Read request body
-                String requestBody = readRequestBody(exchange);
-                LOG.debug("Received MCP request: {}", requestBody);
+                McpRequestContext context = createContext(exchange, "http");
+                McpWireFormat requestFormat = McpWireFormat.fromContentType(exchange.getRequestHeader("Content-Type"));
+                long readStart = System.nanoTime();
+                byte[] requestBody = readRequestBody(exchange, "http");
+                if (!requestFormat.isBinary()) {
+                    requestLogger.inbound(context, new String(requestBody, StandardCharsets.UTF_8));
+                }
 
                 // Parse JSON-RPC message
-                JsonRpcMessage request = objectMapper.readValue(requestBody, JsonRpcMessage.class);
+                long parseStart = System.nanoTime();
+                JsonRpcMessage request = (requestFormat.isBinary() ? requestFormat.mapper() : objectMapper)
+                    .readValue(requestBody, JsonRpcMessage.class);
+                recordSerialization("http", "parse", parseStart);
+                if (requestFormat.isBinary() && requestLogger.isActive()) {
+                    requestLogger.inbound(context, objectMapper.writeValueAsString(request));
+                }
+
+                context = resolveSession(exchange, context);
+                if (context == null) {
+                    sendError(exchange, 404, "Session not found");
+                    return;
+                }
+
+                trace = tracer.begin(request, context, readStart);
+                tracer.addSpan("read", readStart, parseStart);
+                tracer.addSpan("parse", parseStart, System.nanoTime());
 
                 // Process message
-                JsonRpcMessage response = mcpServer.processMessage(request);
+                JsonRpcMessage response = mcpServer.processMessage(request, context);
+                offerSession(exchange, request, context, response);
 
                 // Send response (if not a notification)
                 if (response != null) {
-                    String responseBody = objectMapper.writeValueAsString(response);
-                    sendJsonResponse(exchange, 200, responseBody);
-                    LOG.debug("Sent MCP response: {}", responseBody);
+                    addRetryAfterHeader(exchange, response);
+                    McpWireFormat responseFormat = McpWireFormat.negotiate(exchange.getRequestHeader("Accept"), requestFormat);
+                    recordWireFormat(requestFormat, responseFormat);
+                    if (responseFormat.isBinary()) {
+                        sendBinaryRpcResponse(exchange, context, response, responseFormat);
+                    } else {
+                        sendJsonRpcResponse(exchange, context, response);
+                    }
                 } else {
                     // Notification - send empty response
                     exchange.sendResponseHeaders(204, -1);
                 }
 
+            } catch (RequestTooLargeException e) {
+                LOG.warn("Rejected HTTP request: {}", e.getMessage());
+                sendError(exchange, 413, e.getMessage());
             } catch (JsonProcessingException e) {
-                LOG.error("Invalid JSON in request", e);
+                LOG.error("Invalid message in request", e);
                 sendError(exchange, 400, "Invalid JSON: " + e.getMessage());
             } catch (Exception e) {
                 LOG.error("Error processing MCP request", e);
                 sendError(exchange, 500, "Internal server error: " + e.getMessage());
+            } finally {
+                tracer.finish(trace);
             }
         }
     }
@@ -122,14 +269,14 @@ public class McpHttpTransport {
     /**
      * SSE handler for legacy MCP clients that expect Server-Sent Events
      */
-    private class McpSseHandler implements HttpHandler {
+    private class McpSseHandler implements McpHttpEngine.Handler {
         @Override
-        public void handle(HttpExchange exchange) throws IOException {
+        public void handle(McpHttpExchange exchange) throws IOException {
             // Add SSE headers
-            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
-            exchange.getResponseHeaders().add("Cache-Control", "no-cache");
-            exchange.getResponseHeaders().add("Connection", "keep-alive");
-            exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+            exchange.setResponseHeader("Content-Type", "text/event-stream");
+            exchange.setResponseHeader("Cache-Control", "no-cache");
+            exchange.setResponseHeader("Connection", "keep-alive");
+            exchange.setResponseHeader("Access-Control-Allow-Origin", "*");
 
             if ("OPTIONS".equals(exchange.getRequestMethod())) {
                 exchange.sendResponseHeaders(200, -1);
@@ -141,39 +288,60 @@ public class McpHttpTransport {
                 return;
             }
 
+            McpTracer.Trace trace = null;
             try {
                 // Read request body
-                String requestBody = readRequestBody(exchange);
-                LOG.debug("Received MCP SSE request: {}", requestBody);
+                McpRequestContext context = createContext(exchange, "sse");
+                long readStart = System.nanoTime();
+                String requestBody = new String(readRequestBody(exchange, "sse"), StandardCharsets.UTF_8);
+                requestLogger.inbound(context, requestBody);
 
                 // Parse JSON-RPC message
+                long parseStart = System.nanoTime();
                 JsonRpcMessage request = objectMapper.readValue(requestBody, JsonRpcMessage.class);
+                recordSerialization("sse", "parse", parseStart);
+
+                trace = tracer.begin(request, context, readStart);
+                tracer.addSpan("read", readStart, parseStart);
+                tracer.addSpan("parse", parseStart, System.nanoTime());
 
                 // Process message
-                JsonRpcMessage response = mcpServer.processMessage(request);
+                JsonRpcMessage response = mcpServer.processMessage(request, context);
 
                 // Send SSE response
                 exchange.sendResponseHeaders(200, 0);
                 
                 if (response != null) {
                     try (OutputStreamWriter writer = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)) {
+                        long serializeStart = System.nanoTime();
                         String responseBody = objectMapper.writeValueAsString(response);
+                        recordSerialization("sse", "serialize", serializeStart);
+
+                        long writeStart = System.nanoTime();
+                        tracer.addSpan("serialize", serializeStart, writeStart);
                         writer.write("data: " + responseBody + "\n\n");
                         writer.flush();
-                        LOG.debug("Sent MCP SSE response: {}", responseBody);
+                        recordIo("sse", "write", writeStart, responseBody.length());
+                        tracer.addSpan("write", writeStart, System.nanoTime());
+                        requestLogger.outbound(context, responseBody);
                     }
                 }
 
+            } catch (RequestTooLargeException e) {
+                LOG.warn("Rejected SSE request: {}", e.getMessage());
+                sendError(exchange, 413, e.getMessage());
             } catch (JsonProcessingException e) {
                 LOG.error("Invalid JSON in SSE request", e);
                 sendSseError(exchange, "Invalid JSON: " + e.getMessage());
             } catch (Exception e) {
                 LOG.error("Error processing MCP SSE request", e);
                 sendSseError(exchange, "Internal server error: " + e.getMessage());
+            } finally {
+                tracer.finish(trace);
             }
         }
 
-        private void sendSseError(HttpExchange exchange, String error) throws IOException {
+        private void sendSseError(McpHttpExchange exchange, String error) throws IOException {
             JsonRpcMessage.JsonRpcError jsonRpcError = new JsonRpcMessage.JsonRpcError(-32603, error);
             JsonRpcMessage errorResponse = new JsonRpcMessage(null, jsonRpcError);
             
@@ -189,63 +357,368 @@ public class McpHttpTransport {
     /**
      * Health check handler
      */
-    private class HealthHandler implements HttpHandler {
+    private class HealthHandler implements McpHttpEngine.Handler {
         @Override
-        public void handle(HttpExchange exchange) throws IOException {
-            exchange.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+        public void handle(McpHttpExchange exchange) throws IOException {
+            exchange.setResponseHeader("Access-Control-Allow-Origin", "*");
             
             if ("OPTIONS".equals(exchange.getRequestMethod())) {
                 exchange.sendResponseHeaders(200, -1);
                 return;
             }
 
-            String health = "{\n" +
-                "  \"status\": \"healthy\",\n" +
-                "  \"service\": \"MCreator MCP Server\",\n" +
-                "  \"initialized\": " + mcpServer.isInitialized() + ",\n" +
-                "  \"workspace\": " + (mcpServer.getWorkspace() != null ? "\"loaded\"" : "null") + "\n" +
-                "}";
+            // Other transports and the warm-up may still be starting while HTTP already answers
+            boolean ready = mcpServer.getStartup().getState() != McpStartup.State.STARTING;
+            Map<String, Object> health = new LinkedHashMap<>();
+            health.put("status", ready ? "healthy" : "starting");
+            health.put("ready", ready);
+            health.put("service", "MCreator MCP Server");
+            health.put("initialized", mcpServer.isInitialized());
+            health.put("workspace", mcpServer.getWorkspaceView() != null ? "loaded" : null);
+            health.put("workspaces", mcpServer.getWorkspaces().toHealth());
+            health.put("sessions", mcpServer.getSessions().toHealth());
+            health.put("admission", mcpServer.getAdmissionController().toHealth());
+            health.put("lanes", mcpServer.getScheduler().toHealth());
+            health.put("startup", mcpServer.getStartup().toHealth());
             
-            sendJsonResponse(exchange, 200, health);
+            sendJsonResponse(exchange, 200, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(health));
+        }
+    }
+
+    /**
+     * Prometheus metrics handler
+     */
+    private class MetricsHandler implements McpHttpEngine.Handler {
+        @Override
+        public void handle(McpHttpExchange exchange) throws IOException {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+
+            byte[] response = metrics.toPrometheusText().getBytes(StandardCharsets.UTF_8);
+            sendBytes(exchange, 200, "text/plain; version=0.0.4; charset=utf-8", response, negotiateEncoding(exchange));
         }
     }
 
     /**
-     * Read request body as string
+     * Handler returning the slowest recent request traces. Supports the query
+     * parameters limit (default 20) and format=otlp for OpenTelemetry JSON export.
      */
-    private String readRequestBody(HttpExchange exchange) throws IOException {
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
-            StringBuilder body = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                body.append(line);
+    private class TracesHandler implements McpHttpEngine.Handler {
+        @Override
+        public void handle(McpHttpExchange exchange) throws IOException {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
             }
-            return body.toString();
+
+            Map<String, String> query = parseQuery(exchange.getRawQuery());
+            int limit;
+            try {
+                limit = Integer.parseInt(query.getOrDefault("limit", "20"));
+            } catch (NumberFormatException e) {
+                sendError(exchange, 400, "Invalid limit");
+                return;
+            }
+
+            Object traces = "otlp".equals(query.get("format"))
+                ? tracer.toOtlp(limit, mcpServer.getServerName())
+                : Map.of("traces", tracer.toSummaries(limit));
+            sendJsonResponse(exchange, 200, objectMapper.writeValueAsString(traces));
+        }
+    }
+
+    /**
+     * Tell HTTP clients when to retry a request rejected by admission control
+     */
+    private static void addRetryAfterHeader(McpHttpExchange exchange, JsonRpcMessage response) {
+        JsonRpcMessage.JsonRpcError error = response.getError();
+        if (error != null && error.getCode() == McpAdmissionController.ERROR_CODE
+                && error.getData() instanceof Map<?, ?> data && data.get("retryAfterMs") instanceof Long retryAfterMs) {
+            exchange.setResponseHeader("Retry-After", String.valueOf((retryAfterMs + 999) / 1000));
+        }
+    }
+
+    /**
+     * Parse a URL query string into a map
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            String key = separator >= 0 ? pair.substring(0, separator) : pair;
+            String value = separator >= 0 ? pair.substring(separator + 1) : "";
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    /**
+     * Read the request body, rejecting bodies above the configured size limit before
+     * buffering them where the client declares the length up front
+     */
+    private byte[] readRequestBody(McpHttpExchange exchange, String transport) throws IOException {
+        long readStart = System.nanoTime();
+        long limit = config.getMaxRequestBodyBytes();
+        String contentLength = exchange.getRequestHeader("Content-Length");
+        if (contentLength != null) {
+            try {
+                if (Long.parseLong(contentLength.trim()) > limit) {
+                    throw new RequestTooLargeException(limit);
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid Content-Length: " + contentLength);
+            }
+        }
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes((int) Math.min(limit + 1, Integer.MAX_VALUE - 8));
+            if (body.length > limit) {
+                throw new RequestTooLargeException(limit);
+            }
+            recordIo(transport, "read", readStart, body.length);
+            return body;
+        }
+    }
+
+    /**
+     * Thrown when a request body exceeds the configured limit
+     */
+    private static class RequestTooLargeException extends IOException {
+        RequestTooLargeException(long limit) {
+            super("Request body exceeds " + limit + " bytes");
+        }
+    }
+
+    /**
+     * Send a JSON-RPC response. Results cached as {@link CachedJson} are written from
+     * their precompressed form when the response is compressed.
+     */
+    private void sendJsonRpcResponse(McpHttpExchange exchange, McpRequestContext context, JsonRpcMessage response)
+            throws IOException {
+        HttpCompression.Encoding encoding = negotiateEncoding(exchange);
+        long serializeStart = System.nanoTime();
+
+        if (encoding != HttpCompression.Encoding.IDENTITY && response.getError() == null
+                && response.getResult() instanceof CachedJson cached && cached.length() >= compressionMinBytes) {
+            byte[] prefix = ("{\"jsonrpc\":\"2.0\",\"id\":" + objectMapper.writeValueAsString(response.getId())
+                + ",\"result\":").getBytes(StandardCharsets.UTF_8);
+            byte[] suffix = {'}'};
+            HttpCompression.Segment segment = cached.getCompressed();
+            recordSerialization("http", "serialize", serializeStart);
+
+            long writeStart = System.nanoTime();
+            tracer.addSpan("serialize", serializeStart, writeStart);
+            setCompressionHeaders(exchange, "application/json", encoding);
+            exchange.sendResponseHeaders(200, 0);
+            CountingOutputStream counter = new CountingOutputStream(exchange.getResponseBody());
+            try (OutputStream os = counter) {
+                HttpCompression.writeSpliced(os, encoding, prefix, segment, suffix);
+            }
+            recordIo("http", "write", writeStart, counter.getCount());
+            tracer.addSpan("write", writeStart, System.nanoTime());
+            metrics.increment("mcp_http_compressed_responses_total", "HTTP responses sent compressed",
+                "encoding", encoding.headerValue, "source", "cache");
+            if (requestLogger.isActive()) {
+                requestLogger.outbound(context, objectMapper.writeValueAsString(response));
+            }
+            return;
+        }
+
+        byte[] body = objectMapper.writeValueAsBytes(response);
+        recordSerialization("http", "serialize", serializeStart);
+        long writeStart = System.nanoTime();
+        tracer.addSpan("serialize", serializeStart, writeStart);
+        sendBytes(exchange, 200, "application/json", body, encoding);
+        tracer.addSpan("write", writeStart, System.nanoTime());
+        if (requestLogger.isActive()) {
+            requestLogger.outbound(context, new String(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Send a JSON-RPC response in a negotiated binary format
+     */
+    private void sendBinaryRpcResponse(McpHttpExchange exchange, McpRequestContext context, JsonRpcMessage response,
+            McpWireFormat format) throws IOException {
+        long serializeStart = System.nanoTime();
+        byte[] body = format.mapper().writeValueAsBytes(response);
+        recordSerialization("http", "serialize", serializeStart);
+        long writeStart = System.nanoTime();
+        tracer.addSpan("serialize", serializeStart, writeStart);
+        sendBytes(exchange, 200, format.getMediaType(), body, negotiateEncoding(exchange));
+        tracer.addSpan("write", writeStart, System.nanoTime());
+        if (requestLogger.isActive()) {
+            requestLogger.outbound(context, objectMapper.writeValueAsString(response));
+        }
+    }
+
+    private void recordWireFormat(McpWireFormat requestFormat, McpWireFormat responseFormat) {
+        if (requestFormat.isBinary() || responseFormat.isBinary()) {
+            metrics.increment("mcp_wire_format_messages_total", "Messages exchanged in a binary wire format",
+                "transport", "http", "request", requestFormat.getName(), "response", responseFormat.getName());
         }
     }
 
     /**
      * Send JSON response
      */
-    private void sendJsonResponse(HttpExchange exchange, int statusCode, String json) throws IOException {
-        byte[] response = json.getBytes(StandardCharsets.UTF_8);
-        exchange.getResponseHeaders().set("Content-Type", "application/json");
-        exchange.sendResponseHeaders(statusCode, response.length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(response);
+    private void sendJsonResponse(McpHttpExchange exchange, int statusCode, String json) throws IOException {
+        sendBytes(exchange, statusCode, "application/json", json.getBytes(StandardCharsets.UTF_8),
+            negotiateEncoding(exchange));
+    }
+
+    /**
+     * Send a response body, compressing it on the fly when an encoding was negotiated
+     * and the body is above the size threshold
+     */
+    private void sendBytes(McpHttpExchange exchange, int statusCode, String contentType, byte[] body,
+            HttpCompression.Encoding encoding) throws IOException {
+        long writeStart = System.nanoTime();
+        if (encoding == HttpCompression.Encoding.IDENTITY || body.length < compressionMinBytes) {
+            exchange.setResponseHeader("Content-Type", contentType);
+            exchange.sendResponseHeaders(statusCode, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+            recordIo("http", "write", writeStart, body.length);
+            return;
+        }
+
+        setCompressionHeaders(exchange, contentType, encoding);
+        exchange.sendResponseHeaders(statusCode, 0);
+        CountingOutputStream counter = new CountingOutputStream(exchange.getResponseBody());
+        try (OutputStream os = HttpCompression.compressingStream(counter, encoding)) {
+            os.write(body);
+        }
+        recordIo("http", "write", writeStart, counter.getCount());
+        metrics.increment("mcp_http_compressed_responses_total", "HTTP responses sent compressed",
+            "encoding", encoding.headerValue, "source", "stream");
+    }
+
+    private HttpCompression.Encoding negotiateEncoding(McpHttpExchange exchange) {
+        exchange.setResponseHeader("Vary", "Accept-Encoding");
+        if (!compressionEnabled) {
+            return HttpCompression.Encoding.IDENTITY;
         }
+        return HttpCompression.negotiate(exchange.getRequestHeader("Accept-Encoding"));
+    }
+
+    private static void setCompressionHeaders(McpHttpExchange exchange, String contentType,
+            HttpCompression.Encoding encoding) {
+        exchange.setResponseHeader("Content-Type", contentType);
+        exchange.setResponseHeader("Content-Encoding", encoding.headerValue);
+    }
+
+    /**
+     * Counts the bytes written through it, i.e. the compressed size on the wire
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Pick the session of a request. Requests carrying the session header belong to that
+     * session, and null is returned if it does not exist (anymore), so the client knows to
+     * initialize again. Requests without it, initialize included, share the session of
+     * the client's address, as clients predating the header expect.
+     */
+    private McpRequestContext resolveSession(McpHttpExchange exchange, McpRequestContext addressContext) {
+        String sessionId = exchange.getRequestHeader(SESSION_HEADER);
+        if (sessionId == null) {
+            return addressContext;
+        }
+        if (mcpServer.getSessions().find("http", sessionId) == null) {
+            return null;
+        }
+        return new McpRequestContext("http", addressContext.getClientId(), sessionId);
+    }
+
+    /**
+     * Offer a session of its own to a client that initialized without the session header.
+     * It only takes effect once the client sends the id back; clients that ignore the
+     * header keep using the address session they initialized.
+     */
+    private void offerSession(McpHttpExchange exchange, JsonRpcMessage request, McpRequestContext context,
+            JsonRpcMessage response) {
+        if ("initialize".equals(request.getMethod()) && exchange.getRequestHeader(SESSION_HEADER) == null
+                && response != null && response.getError() == null) {
+            exchange.setResponseHeader(SESSION_HEADER, mcpServer.getSessions().fork(context));
+        }
+    }
+
+    /**
+     * End the session named by the session header, on the client's request
+     */
+    private void closeSession(McpHttpExchange exchange) throws IOException {
+        String sessionId = exchange.getRequestHeader(SESSION_HEADER);
+        if (sessionId == null) {
+            sendError(exchange, 400, "Missing " + SESSION_HEADER + " header");
+            return;
+        }
+        if (mcpServer.getSessions().find("http", sessionId) == null) {
+            sendError(exchange, 404, "Session not found");
+            return;
+        }
+        mcpServer.getSessions().close(new McpRequestContext("http", "", sessionId));
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    /**
+     * Build the request context identifying the calling client by its address
+     */
+    private static McpRequestContext createContext(McpHttpExchange exchange, String transport) {
+        return new McpRequestContext(transport, exchange.getRemoteAddress().getAddress().getHostAddress());
+    }
+
+    private void recordSerialization(String transport, String operation, long startNanos) {
+        metrics.recordSince("mcp_serialization_seconds", "JSON-RPC parse and serialize latency", startNanos,
+            "transport", transport, "operation", operation);
+    }
+
+    private void recordIo(String transport, String direction, long startNanos, long bytes) {
+        metrics.recordSince("mcp_transport_io_seconds", "Transport read and write latency", startNanos,
+            "transport", transport, "direction", direction);
+        metrics.counter("mcp_transport_bytes_total", "Bytes read and written by transports",
+            "transport", transport, "direction", direction).add(bytes);
     }
 
     /**
      * Send error response
      */
-    private void sendError(HttpExchange exchange, int statusCode, String message) throws IOException {
+    private void sendError(McpHttpExchange exchange, int statusCode, String message) throws IOException {
         String error = "{\"error\": \"" + message.replace("\"", "\\\"") + "\"}";
         sendJsonResponse(exchange, statusCode, error);
     }
 
+    /**
+     * Get the port the server listens on, which is only known after start when port 0 was requested
+     */
     public int getPort() {
-        return port;
+        InetSocketAddress address = engine != null ? engine.getAddress() : null;
+        return address != null ? address.getPort() : port;
     }
 }
\ No newline at end of file
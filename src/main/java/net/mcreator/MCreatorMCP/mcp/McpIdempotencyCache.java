@@ -0,0 +1,172 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Responses of tool calls sent with an idempotency key, so a client retrying a call
+ * after a timeout gets the original response instead of running the tool again, e.g.
+ * creating an element twice or starting a second build. A retry arriving while the
+ * first call still runs waits for it. Responses expire after the configured time and
+ * the oldest ones are dropped once the cache is full. Calls that never finish, e.g.
+ * because their work was lost, are forgotten after the running timeout, so their key
+ * can be used again.
+ */
+public class McpIdempotencyCache {
+
+    /** Error code of a key reused for a different call */
+    public static final int CONFLICT_ERROR_CODE = -32602;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final long ttlNanos;
+    private final long runningTimeoutNanos;
+    private final int maxEntries;
+    private final McpMetrics metrics;
+
+    public McpIdempotencyCache(long ttlMillis, long runningTimeoutMillis, int maxEntries, McpMetrics metrics) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.runningTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(runningTimeoutMillis);
+        this.maxEntries = Math.max(1, maxEntries);
+        this.metrics = metrics;
+        metrics.gauge("mcp_idempotency_entries", "Tool call responses held for retries", this::size);
+    }
+
+    /**
+     * Create a cache configured from the mcreator.mcp.idempotency.* system properties
+     */
+    public static McpIdempotencyCache fromSettings(McpMetrics metrics) {
+        return new McpIdempotencyCache(TimeUnit.SECONDS.toMillis(McpSettings.getLong("idempotency.ttlSeconds", 600)),
+            TimeUnit.SECONDS.toMillis(McpSettings.getLong("idempotency.runningTimeoutSeconds", 3600)),
+            McpSettings.getInt("idempotency.maxEntries", 1024), metrics);
+    }
+
+    /**
+     * Look up a call by its key. The first call with a key becomes the owner of the
+     * entry and must run the call and pass its response to {@link Entry#complete};
+     * later calls get the entry of the first one.
+     *
+     * @param key         idempotency key, scoped to the client identity
+     * @param fingerprint identifies the call, e.g. tool name and arguments
+     * @param tool        tool label for the metrics
+     * @throws ConflictException if the key was used for a different call
+     */
+    public synchronized Entry acquire(String key, String fingerprint, String tool) throws ConflictException {
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.isExpired(now)) {
+            entries.remove(key);
+            entry = null;
+        }
+
+        if (entry == null) {
+            makeRoom(now);
+            entry = new Entry(key, fingerprint, now);
+            entries.put(key, entry);
+            record(tool, "executed");
+            return entry;
+        }
+        if (!entry.fingerprint.equals(fingerprint)) {
+            record(tool, "conflict");
+            throw new ConflictException("Idempotency key was already used for a different tool call");
+        }
+        record(tool, entry.response.isDone() ? "replayed" : "joined");
+        return new Entry(entry);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void finish(Entry entry, boolean keep) {
+        if (keep) {
+            entry.completedAt = System.nanoTime();
+        } else {
+            entries.remove(entry.key, entry);
+        }
+    }
+
+    /**
+     * Drop expired responses and calls running past the timeout, then the oldest
+     * responses while the cache is full. Other calls still running are kept, as retries
+     * of them must wait rather than run again.
+     */
+    private void makeRoom(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.isExpired(now) || (entries.size() >= maxEntries && entry.completedAt != 0)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void record(String tool, String outcome) {
+        metrics.increment("mcp_idempotency_requests_total", "Tool calls sent with an idempotency key",
+            "tool", tool, "outcome", outcome);
+    }
+
+    /**
+     * Response of a call with an idempotency key, shared by the call and its retries
+     */
+    public final class Entry {
+        private final String key;
+        private final String fingerprint;
+        private final CompletableFuture<JsonRpcMessage> response;
+        private final boolean owner;
+        private final long startedAt;
+        private volatile long completedAt;
+
+        private Entry(String key, String fingerprint, long now) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.response = new CompletableFuture<>();
+            this.owner = true;
+            this.startedAt = now;
+        }
+
+        private Entry(Entry first) {
+            this.key = first.key;
+            this.fingerprint = first.fingerprint;
+            this.response = first.response;
+            this.owner = false;
+            this.startedAt = first.startedAt;
+        }
+
+        /**
+         * Whether this is the first call with the key, which has to run the tool
+         */
+        public boolean isOwner() { return owner; }
+
+        /**
+         * Response of the first call, completed once it ran
+         */
+        public CompletableFuture<JsonRpcMessage> getResponse() { return response; }
+
+        /**
+         * Complete the first call with its response. A response without a result, e.g. a
+         * rejected or invalid call, is passed to the retries waiting for it but not kept,
+         * so the next retry runs the tool.
+         */
+        public void complete(JsonRpcMessage response) {
+            finish(this, response != null && response.getError() == null);
+            this.response.complete(response);
+        }
+
+        private boolean isExpired(long now) {
+            long completed = completedAt;
+            return completed != 0 ? now - completed > ttlNanos : now - startedAt > runningTimeoutNanos;
+        }
+    }
+
+    /**
+     * Thrown when an idempotency key is reused for a call with another tool or arguments
+     */
+    public static class ConflictException extends Exception {
+        public ConflictException(String message) {
+            super(message);
+        }
+    }
+}
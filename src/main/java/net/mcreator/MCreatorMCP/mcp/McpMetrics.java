@@ -0,0 +1,182 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of latency histograms, counters and gauges for the MCP server, keyed by metric
+ * name and label values, with Prometheus text format export.
+ */
+public class McpMetrics {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final Map<String, Family<LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+    private final Map<String, Family<LongAdder>> counters = new ConcurrentHashMap<>();
+    private final Map<String, Family<LongSupplier>> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * Get or create the latency histogram for the given metric and label key/value pairs
+     */
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        return histograms.computeIfAbsent(name, n -> new Family<>(help))
+            .series.computeIfAbsent(new LabelSet(labels), l -> new LatencyHistogram());
+    }
+
+    /**
+     * Get or create the counter for the given metric and label key/value pairs
+     */
+    public LongAdder counter(String name, String help, String... labels) {
+        return counters.computeIfAbsent(name, n -> new Family<>(help))
+            .series.computeIfAbsent(new LabelSet(labels), l -> new LongAdder());
+    }
+
+    /**
+     * Record the time elapsed since startNanos into the given histogram
+     */
+    public void recordSince(String name, String help, long startNanos, String... labels) {
+        histogram(name, help, labels).record(System.nanoTime() - startNanos);
+    }
+
+    public void increment(String name, String help, String... labels) {
+        counter(name, help, labels).increment();
+    }
+
+    /**
+     * Register a gauge whose value is read from the supplier at export time
+     */
+    public void gauge(String name, String help, LongSupplier value, String... labels) {
+        gauges.computeIfAbsent(name, n -> new Family<>(help)).series.put(new LabelSet(labels), value);
+    }
+
+    /**
+     * Write all metrics in Prometheus text exposition format. Histograms are
+     * exported as summaries with quantiles in seconds.
+     */
+    public String toPrometheusText() {
+        StringBuilder out = new StringBuilder(4096);
+
+        for (Map.Entry<String, Family<LongAdder>> family : new TreeMap<>(counters).entrySet()) {
+            String name = family.getKey();
+            out.append("# HELP ").append(name).append(' ').append(family.getValue().help).append('\n');
+            out.append("# TYPE ").append(name).append(" counter\n");
+            for (Map.Entry<LabelSet, LongAdder> series : family.getValue().sortedSeries()) {
+                out.append(name);
+                series.getKey().appendTo(out, null);
+                out.append(' ').append(series.getValue().sum()).append('\n');
+            }
+        }
+
+        for (Map.Entry<String, Family<LongSupplier>> family : new TreeMap<>(gauges).entrySet()) {
+            String name = family.getKey();
+            out.append("# HELP ").append(name).append(' ').append(family.getValue().help).append('\n');
+            out.append("# TYPE ").append(name).append(" gauge\n");
+            for (Map.Entry<LabelSet, LongSupplier> series : family.getValue().sortedSeries()) {
+                out.append(name);
+                series.getKey().appendTo(out, null);
+                out.append(' ').append(series.getValue().getAsLong()).append('\n');
+            }
+        }
+
+        for (Map.Entry<String, Family<LatencyHistogram>> family : new TreeMap<>(histograms).entrySet()) {
+            String name = family.getKey();
+            out.append("# HELP ").append(name).append(' ').append(family.getValue().help).append('\n');
+            out.append("# TYPE ").append(name).append(" summary\n");
+            for (Map.Entry<LabelSet, LatencyHistogram> series : family.getValue().sortedSeries()) {
+                LatencyHistogram histogram = series.getValue();
+                for (double quantile : QUANTILES) {
+                    out.append(name);
+                    series.getKey().appendTo(out, String.valueOf(quantile));
+                    out.append(' ').append(toSeconds(histogram.getValueAtQuantile(quantile))).append('\n');
+                }
+                out.append(name).append("_sum");
+                series.getKey().appendTo(out, null);
+                out.append(' ').append(toSeconds(histogram.getSum())).append('\n');
+                out.append(name).append("_count");
+                series.getKey().appendTo(out, null);
+                out.append(' ').append(histogram.getCount()).append('\n');
+            }
+        }
+
+        return out.toString();
+    }
+
+    private static String toSeconds(long nanos) {
+        return String.valueOf(nanos / 1_000_000_000.0);
+    }
+
+    private static class Family<T> {
+        private final String help;
+        private final Map<LabelSet, T> series = new ConcurrentHashMap<>();
+
+        Family(String help) {
+            this.help = help;
+        }
+
+        List<Map.Entry<LabelSet, T>> sortedSeries() {
+            List<Map.Entry<LabelSet, T>> sorted = new ArrayList<>(series.entrySet());
+            sorted.sort(Comparator.comparing(entry -> entry.getKey().toString()));
+            return sorted;
+        }
+    }
+
+    /**
+     * Label key/value pairs identifying one series of a metric
+     */
+    private static final class LabelSet {
+        private final String[] labels;
+        private final int hash;
+
+        LabelSet(String[] labels) {
+            if (labels.length % 2 != 0) {
+                throw new IllegalArgumentException("Labels must be key/value pairs");
+            }
+            this.labels = labels;
+            this.hash = Arrays.hashCode(labels);
+        }
+
+        void appendTo(StringBuilder out, String quantile) {
+            if (labels.length == 0 && quantile == null) {
+                return;
+            }
+            out.append('{');
+            for (int i = 0; i < labels.length; i += 2) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+            }
+            if (quantile != null) {
+                if (labels.length > 0) {
+                    out.append(',');
+                }
+                out.append("quantile=\"").append(quantile).append('"');
+            }
+            out.append('}');
+        }
+
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof LabelSet other && Arrays.equals(labels, other.labels);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return String.join(",", labels);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Describes a tool argument declared as a component of a tool's argument record.
+ * Supported types are String, boolean, int, long, double (primitive or boxed) and
+ * List&lt;String&gt;. Absent optional arguments bind to the default value, or to null
+ * (zero for primitives) if there is none.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.RECORD_COMPONENT)
+public @interface McpParam {
+
+    String description() default "";
+
+    boolean required() default false;
+
+    /**
+     * Value used when the argument is absent, e.g. {@code "500"} or {@code "true"}
+     */
+    String defaultValue() default "";
+
+    /**
+     * Smallest accepted value of a numeric argument
+     */
+    long min() default Long.MIN_VALUE;
+
+    /**
+     * Largest accepted value of a numeric argument
+     */
+    long max() default Long.MAX_VALUE;
+}
@@ -0,0 +1,40 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+/**
+ * Describes where an MCP message came from, so the server can attribute
+ * metrics and per-client state to the right transport and client. The session id
+ * selects the {@link McpSession}; it is the client id unless the transport has
+ * its own notion of a session, like the Mcp-Session-Id header of HTTP.
+ */
+public class McpRequestContext {
+
+    /**
+     * Context for messages passed to the server directly, e.g. from tests
+     */
+    public static final McpRequestContext DIRECT = new McpRequestContext("direct", "direct");
+
+    private final String transport;
+    private final String clientId;
+    private final String sessionId;
+
+    public McpRequestContext(String transport, String clientId) {
+        this(transport, clientId, clientId);
+    }
+
+    public McpRequestContext(String transport, String clientId, String sessionId) {
+        this.transport = transport;
+        this.clientId = clientId;
+        this.sessionId = sessionId;
+    }
+
+    public String getTransport() { return transport; }
+
+    public String getClientId() { return clientId; }
+
+    public String getSessionId() { return sessionId; }
+
+    @Override
+    public String toString() {
+        return transport + ":" + clientId;
+    }
+}
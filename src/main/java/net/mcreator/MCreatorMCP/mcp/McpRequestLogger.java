@@ -0,0 +1,199 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Logs MCP traffic without paying for it on the request path. Message bodies are
+ * only formatted when debug logging is enabled and the message is sampled, and are
+ * then truncated and have secret-looking values redacted. Every message is also
+ * handed to the audit log when one is configured, which writes it asynchronously.
+ */
+public class McpRequestLogger {
+
+    private static final Logger LOG = LogManager.getLogger("MCP-Traffic");
+
+    private static final Pattern JSON_STRING_FIELD = Pattern.compile("\"([^\"\\\\]{1,64})\"\\s*:\\s*\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final String REDACTED = "***";
+
+    private final int maxBodyChars;
+    private final int sampleEvery;
+    private final Set<String> redactedKeys;
+    private final McpAuditLog auditLog;
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    public McpRequestLogger(int maxBodyChars, int sampleEvery, Collection<String> redactedKeys, McpAuditLog auditLog) {
+        this.maxBodyChars = Math.max(maxBodyChars, 16);
+        this.sampleEvery = Math.max(sampleEvery, 1);
+        this.redactedKeys = new HashSet<>();
+        for (String key : redactedKeys) {
+            this.redactedKeys.add(key.trim().toLowerCase(Locale.ROOT));
+        }
+        this.auditLog = auditLog;
+    }
+
+    /**
+     * Create a logger configured from the mcreator.mcp.log.* and mcreator.mcp.audit.* system properties
+     */
+    public static McpRequestLogger fromSettings(McpMetrics metrics) {
+        List<String> redactedKeys = Arrays.asList(McpSettings.getString("log.redactKeys",
+            "password,passwd,secret,token,accessToken,refreshToken,apiKey,api_key,authorization,cookie").split(","));
+        return new McpRequestLogger(
+            McpSettings.getInt("log.maxBodyChars", 2048),
+            McpSettings.getInt("log.sampleEvery", 1),
+            redactedKeys,
+            McpAuditLog.fromSettings(metrics));
+    }
+
+    /**
+     * Whether messages are currently recorded at all, so transports can skip building
+     * message text that would be discarded
+     */
+    public boolean isActive() {
+        return auditLog != null || LOG.isDebugEnabled();
+    }
+
+    /**
+     * Record a message received by a transport
+     */
+    public void inbound(McpRequestContext context, String body) {
+        record(McpAuditLog.Direction.IN, context, body);
+    }
+
+    /**
+     * Record a message sent by a transport
+     */
+    public void outbound(McpRequestContext context, String body) {
+        record(McpAuditLog.Direction.OUT, context, body);
+    }
+
+    private void record(McpAuditLog.Direction direction, McpRequestContext context, String body) {
+        if (auditLog != null) {
+            auditLog.append(direction, context, body);
+        }
+        if (LOG.isDebugEnabled() && isSampled()) {
+            LOG.debug("{} {} ({} chars): {}", direction == McpAuditLog.Direction.IN ? "Received" : "Sent",
+                context, body.length(), summarizeBody(body));
+        }
+    }
+
+    /**
+     * Log the arguments of a tool call at debug level, bounded and redacted
+     */
+    public void toolCall(String toolName, Map<String, Object> arguments) {
+        if (LOG.isDebugEnabled() && isSampled()) {
+            StringBuilder summary = new StringBuilder();
+            appendBounded(summary, arguments);
+            LOG.debug("Tool call {} arguments: {}", toolName, summary);
+        }
+    }
+
+    private boolean isSampled() {
+        return sampleEvery == 1 || sampleCounter.getAndIncrement() % sampleEvery == 0;
+    }
+
+    /**
+     * Redact secret string fields of a JSON body, then truncate it to the configured length.
+     * Redacting the whole body first means a secret cut by the limit is still found.
+     */
+    String summarizeBody(String body) {
+        String redacted = redact(body);
+        if (redacted.length() <= maxBodyChars) {
+            return redacted;
+        }
+        return redacted.substring(0, maxBodyChars) + "...(" + (redacted.length() - maxBodyChars) + " more chars)";
+    }
+
+    private String redact(String body) {
+        Matcher matcher = JSON_STRING_FIELD.matcher(body);
+        StringBuilder redacted = null;
+        int copied = 0;
+        while (matcher.find()) {
+            if (redactedKeys.contains(matcher.group(1).toLowerCase(Locale.ROOT))) {
+                if (redacted == null) {
+                    redacted = new StringBuilder(body.length());
+                }
+                redacted.append(body, copied, matcher.start(2)).append(REDACTED);
+                copied = matcher.end(2);
+            }
+        }
+        if (redacted == null) {
+            return body;
+        }
+        return redacted.append(body, copied, body.length()).toString();
+    }
+
+    /**
+     * Append a bounded rendering of a value, stopping once the configured length is reached,
+     * so large argument values are never fully converted to strings
+     */
+    void appendBounded(StringBuilder out, Object value) {
+        if (out.length() >= maxBodyChars) {
+            return;
+        }
+        if (value instanceof Map<?, ?> map) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (out.length() >= maxBodyChars) {
+                    out.append("...");
+                    break;
+                }
+                if (!first) {
+                    out.append(", ");
+                }
+                first = false;
+                String key = String.valueOf(entry.getKey());
+                out.append(key).append('=');
+                if (redactedKeys.contains(key.toLowerCase(Locale.ROOT))) {
+                    out.append(REDACTED);
+                } else {
+                    appendBounded(out, entry.getValue());
+                }
+            }
+            out.append('}');
+        } else if (value instanceof Collection<?> collection) {
+            out.append('[');
+            boolean first = true;
+            for (Object item : collection) {
+                if (out.length() >= maxBodyChars) {
+                    out.append("...");
+                    break;
+                }
+                if (!first) {
+                    out.append(", ");
+                }
+                first = false;
+                appendBounded(out, item);
+            }
+            out.append(']');
+        } else if (value instanceof CharSequence text) {
+            int remaining = maxBodyChars - out.length();
+            if (text.length() > remaining) {
+                out.append(text, 0, remaining).append("...(").append(text.length()).append(" chars)");
+            } else {
+                out.append(text);
+            }
+        } else {
+            out.append(value);
+        }
+    }
+
+    public McpAuditLog getAuditLog() {
+        return auditLog;
+    }
+
+    /**
+     * Flush and close the audit log, if any
+     */
+    public void close() {
+        if (auditLog != null) {
+            auditLog.close();
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Schedules MCP requests on lanes by tool class, so cheap queries never wait behind
+ * workspace changes or builds:
+ * <ul>
+ *   <li>read-only tools and protocol methods run directly on the calling transport thread,
+ *       without locks or queues</li>
+ *   <li>tools that may wait, e.g. for a run to become ready, run on a small pool shared by
+ *       all workspaces, so they hold neither a transport thread nor a workspace lane</li>
+ *   <li>mutating tools run one at a time on the mutation lane of their workspace</li>
+ *   <li>builds, regeneration and runs take the single slot of the heavy lane of their workspace</li>
+ * </ul>
+ * Each workspace has its own lanes, created when it is added, so a build in one open
+ * workspace does not hold up changes or builds in another. Work for a workspace that is
+ * not open is rejected, and work still queued when a workspace closes fails rather than
+ * leaving its caller waiting. The trace of a request follows it onto its lane.
+ */
+public class McpScheduler {
+
+    private static final Logger LOG = LogManager.getLogger("MCP-Scheduler");
+
+    // Lane key of work not bound to a workspace, which cannot clash with workspace ids
+    private static final String NO_WORKSPACE = "(none)";
+
+    private final McpMetrics metrics;
+    private final McpTracer tracer;
+    private final ConcurrentHashMap<String, WorkspaceLanes> lanes = new ConcurrentHashMap<>();
+    private final Lane waiting;
+    private volatile boolean shutdown;
+
+    public McpScheduler(McpMetrics metrics, McpTracer tracer) {
+        this(McpSettings.getInt("scheduler.waitingThreads", 8), metrics, tracer);
+    }
+
+    public McpScheduler(int waitingThreads, McpMetrics metrics, McpTracer tracer) {
+        this.metrics = metrics;
+        this.tracer = tracer;
+        this.waiting = new Lane("waiting", NO_WORKSPACE, Math.max(1, waitingThreads));
+        lanes.put(NO_WORKSPACE, new WorkspaceLanes(NO_WORKSPACE));
+    }
+
+    /**
+     * Create the lanes of a workspace that was opened
+     */
+    public void addWorkspace(String workspaceId) {
+        WorkspaceLanes workspaceLanes = lanes.computeIfAbsent(workspaceId, WorkspaceLanes::new);
+        if (shutdown) {
+            // Lanes created after shutdown are stopped right away, so their work is rejected
+            workspaceLanes.shutdown();
+        }
+    }
+
+    /**
+     * Run work on the lane of the given tool class, for requests not bound to a workspace
+     */
+    public <T> CompletableFuture<T> submit(McpToolClass toolClass, Supplier<T> work) {
+        return submit(toolClass, null, work);
+    }
+
+    /**
+     * Run work on the lane of the given tool class in the given workspace. Read-only work
+     * (or null, for non-tool requests) completes on the calling thread before this method
+     * returns.
+     */
+    public <T> CompletableFuture<T> submit(McpToolClass toolClass, String workspaceId, Supplier<T> work) {
+        Lane lane;
+        try {
+            lane = laneFor(toolClass, workspaceId);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (lane == null) {
+            try {
+                return CompletableFuture.completedFuture(work.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return lane.submit(work);
+    }
+
+    private Lane laneFor(McpToolClass toolClass, String workspaceId) {
+        if (toolClass == null || toolClass == McpToolClass.READ_ONLY) {
+            return null;
+        }
+        if (toolClass == McpToolClass.WAITING) {
+            return waiting;
+        }
+        WorkspaceLanes workspaceLanes = lanes.get(workspaceId != null ? workspaceId : NO_WORKSPACE);
+        if (workspaceLanes == null) {
+            throw new RejectedExecutionException("Workspace " + workspaceId + " is not open");
+        }
+        return toolClass == McpToolClass.MUTATING ? workspaceLanes.mutation : workspaceLanes.heavy;
+    }
+
+    /**
+     * Stop the lanes of a workspace that was closed; work queued on them fails
+     */
+    public void removeWorkspace(String workspaceId) {
+        WorkspaceLanes removed = lanes.remove(workspaceId);
+        if (removed != null) {
+            removed.shutdown();
+        }
+    }
+
+    /**
+     * Queued and running work per workspace and lane for the health endpoint
+     */
+    public Map<String, Object> toHealth() {
+        Map<String, Object> health = new TreeMap<>();
+        lanes.forEach((workspaceId, workspaceLanes) -> health.put(workspaceId, Map.of(
+            workspaceLanes.mutation.name, workspaceLanes.mutation.toHealth(),
+            workspaceLanes.heavy.name, workspaceLanes.heavy.toHealth())));
+        health.put(waiting.name, waiting.toHealth());
+        return health;
+    }
+
+    /**
+     * Stop the lane threads; queued work fails
+     */
+    public void shutdown() {
+        shutdown = true;
+        lanes.values().forEach(WorkspaceLanes::shutdown);
+        waiting.shutdown();
+    }
+
+    /**
+     * The mutation and heavy lanes of one workspace
+     */
+    private class WorkspaceLanes {
+        private final Lane mutation;
+        private final Lane heavy;
+
+        WorkspaceLanes(String workspaceId) {
+            this.mutation = new Lane("mutation", workspaceId, 1);
+            this.heavy = new Lane("heavy", workspaceId, 1);
+        }
+
+        void shutdown() {
+            mutation.shutdown();
+            heavy.shutdown();
+        }
+    }
+
+    /**
+     * A lane with a fixed number of threads; work on a single-threaded lane is serialized
+     */
+    private class Lane {
+        private final String name;
+        private final String workspaceId;
+        private final ExecutorService executor;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+
+        Lane(String name, String workspaceId, int threads) {
+            this.name = name;
+            this.workspaceId = workspaceId;
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "MCP-Lane-" + name + "-" + workspaceId
+                        + (threads > 1 ? "-" + threadCount.incrementAndGet() : ""));
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            pool.allowCoreThreadTimeOut(threads > 1);
+            this.executor = pool;
+        }
+
+        <T> CompletableFuture<T> submit(Supplier<T> work) {
+            McpTracer.Trace trace = tracer.current();
+            long queuedAt = System.nanoTime();
+            queued.incrementAndGet();
+            CompletableFuture<T> future = new CompletableFuture<>();
+            try {
+                executor.execute(new Task(future, () -> {
+                    queued.decrementAndGet();
+                    running.incrementAndGet();
+                    long runStart = System.nanoTime();
+                    metrics.histogram("mcp_lane_wait_seconds", "Time requests waited for their scheduling lane",
+                        "lane", name, "workspace", workspaceId).record(runStart - queuedAt);
+                    tracer.attach(trace);
+                    tracer.addSpan("lane.queue", queuedAt, runStart);
+                    try {
+                        future.complete(work.get());
+                    } catch (Throwable e) {
+                        LOG.error("Error running work on {} lane of {}", name, workspaceId, e);
+                        future.completeExceptionally(e);
+                    } finally {
+                        tracer.attach(null);
+                        running.decrementAndGet();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                queued.decrementAndGet();
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+
+        /**
+         * Interrupt the running work and fail the queued work, whose callers would
+         * otherwise wait for it forever
+         */
+        void shutdown() {
+            for (Runnable abandoned : executor.shutdownNow()) {
+                queued.decrementAndGet();
+                if (abandoned instanceof Task task) {
+                    task.future.completeExceptionally(new RejectedExecutionException(
+                        "The " + name + " lane of " + workspaceId + " was stopped"));
+                }
+            }
+        }
+
+        Map<String, Object> toHealth() {
+            return Map.of("queued", queued.get(), "running", running.get());
+        }
+    }
+
+    /**
+     * Work queued on a lane together with the future its caller waits on
+     */
+    private record Task(CompletableFuture<?> future, Runnable work) implements Runnable {
+        @Override
+        public void run() {
+            work.run();
+        }
+    }
+}
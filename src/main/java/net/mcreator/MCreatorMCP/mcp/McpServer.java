@@ -1,10 +1,16 @@
 package net.mcreator.MCreatorMCP.mcp;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import net.mcreator.workspace.Workspace;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import org.apache.logging.log4j.LogManager;
@@ -19,28 +25,70 @@ public class McpServer {
 
     private static final Logger LOG = LogManager.getLogger("MCP-Server");
 
+    private static final String WORKSPACE_URI_PREFIX = "workspace://";
+    private static final Set<String> WORKSPACE_RESOURCE_SECTIONS = Set.of("overview", "elements", "structure");
+    // Protocol methods without side effects, whose identical concurrent requests share one computation
+    private static final Set<String> SINGLE_FLIGHT_METHODS = Set.of("tools/list", "resources/list", "resources/read");
+
+    /** Key in the _meta of a tools/call request under which a client may send an idempotency key */
+    public static final String IDEMPOTENCY_KEY = "idempotencyKey";
+
+    /** Tool argument naming the workspace a tool call targets */
+    public static final String WORKSPACE_ARGUMENT = "workspace";
+
+    // Protocol versions this server speaks, latest first
+    static final List<String> SUPPORTED_PROTOCOL_VERSIONS = List.of("2025-06-18", "2025-03-26", "2024-11-05");
+    // First protocol version with structuredContent in tool results
+    private static final String STRUCTURED_CONTENT_VERSION = "2025-06-18";
+
+    private static final ThreadLocal<McpSession> CURRENT_SESSION = new ThreadLocal<>();
+    private static final ThreadLocal<McpWorkspaceRegistry.Entry> CURRENT_WORKSPACE = new ThreadLocal<>();
+
     private final ObjectMapper objectMapper;
+    // Writes params with sorted keys, so equal params give equal single-flight keys
+    private final ObjectWriter canonicalWriter;
     private final Map<String, McpHandler> handlers;
     private final AtomicLong requestIdCounter;
-    private volatile boolean initialized = false;
+    private final McpMetrics metrics;
+    private final McpTracer tracer;
+    private final McpRequestLogger requestLogger;
+    private final McpAdmissionController admissionController;
+    private final McpSessionStore sessions;
+    private final McpScheduler scheduler;
+    private final McpStartup startup;
+    private final McpSingleFlight singleFlight;
+    private final McpIdempotencyCache idempotencyCache;
+    private final Map<String, McpToolClass> toolClasses = new ConcurrentHashMap<>();
+    // Definitions listed by tools/list, in registration order
+    private final Map<String, Object> toolDefinitions = new LinkedHashMap<>();
     
     // Server information
     private final String serverName;
     private final String serverVersion;
     
     // MCreator integration
-    private volatile Workspace currentWorkspace;
+    private final McpWorkspaceRegistry workspaces;
     
     // Capabilities
     private McpTypes.ServerCapabilities serverCapabilities;
-    private McpTypes.ClientCapabilities clientCapabilities;
 
     public McpServer(String serverName, String serverVersion) {
         this.serverName = serverName;
         this.serverVersion = serverVersion;
-        this.objectMapper = new ObjectMapper();
+        this.objectMapper = McpWireFormat.JSON.mapper();
+        this.canonicalWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
         this.handlers = new ConcurrentHashMap<>();
         this.requestIdCounter = new AtomicLong(1);
+        this.metrics = new McpMetrics();
+        this.tracer = new McpTracer();
+        this.requestLogger = McpRequestLogger.fromSettings(metrics);
+        this.admissionController = McpAdmissionController.fromSettings(metrics);
+        this.sessions = McpSessionStore.fromSettings(metrics);
+        this.workspaces = new McpWorkspaceRegistry(metrics);
+        this.scheduler = new McpScheduler(metrics, tracer);
+        this.startup = new McpStartup(metrics);
+        this.singleFlight = McpSingleFlight.fromSettings(metrics);
+        this.idempotencyCache = McpIdempotencyCache.fromSettings(metrics);
         
         initializeCapabilities();
         registerDefaultHandlers();
@@ -54,7 +102,7 @@ public class McpServer {
         
         // Resource capabilities
         McpTypes.ResourceCapabilities resourceCaps = new McpTypes.ResourceCapabilities();
-        resourceCaps.setSubscribe(false); // Simple implementation without subscriptions for now
+        resourceCaps.setSubscribe(false); // Subscriptions are recorded per session, but updates are not sent yet
         resourceCaps.setListChanged(true);
         serverCapabilities.setResources(resourceCaps);
         
@@ -81,6 +129,8 @@ public class McpServer {
         // Resource handlers
         handlers.put("resources/list", this::handleResourcesList);
         handlers.put("resources/read", this::handleResourceRead);
+        handlers.put("resources/subscribe", this::handleResourceSubscribe);
+        handlers.put("resources/unsubscribe", this::handleResourceUnsubscribe);
         
         LOG.info("Default MCP handlers registered: {}", handlers.keySet());
     }
@@ -89,6 +139,188 @@ public class McpServer {
      * Process an incoming MCP message
      */
     public JsonRpcMessage processMessage(JsonRpcMessage message) {
+        return processMessage(message, McpRequestContext.DIRECT);
+    }
+
+    /**
+     * Process an incoming MCP message received through the given transport context
+     */
+    public JsonRpcMessage processMessage(JsonRpcMessage message, McpRequestContext context) {
+        return processMessageAsync(message, context).join();
+    }
+
+    /**
+     * Process an incoming MCP message on the scheduling lane of its tool class. Read-only
+     * tools and protocol methods complete on the calling thread; mutating and heavy tools
+     * complete on their lane, so transports that can respond asynchronously need not wait.
+     */
+    public CompletableFuture<JsonRpcMessage> processMessageAsync(JsonRpcMessage message, McpRequestContext context) {
+        long startTime = System.nanoTime();
+        
+        // Transports start the trace themselves to include parsing and writing
+        McpTracer.Trace trace = tracer.current();
+        boolean ownsTrace = trace == null;
+        if (ownsTrace) {
+            trace = tracer.begin(message, context, startTime);
+        }
+        McpTracer.Trace ownedTrace = ownsTrace ? trace : null;
+        
+        McpSession session = sessions.get(context);
+        CompletableFuture<JsonRpcMessage> pending;
+        McpIdempotencyCache.Entry idempotent = null;
+        boolean rejected = false;
+        try {
+            McpToolClass toolClass = getRequestToolClass(message);
+            idempotent = acquireIdempotencyEntry(message, session);
+            if (idempotent != null && !idempotent.isOwner()) {
+                // A retry: answer with the response of the first call once it has one
+                pending = idempotent.getResponse().thenApply(first -> replay(message, first));
+            } else {
+                McpWorkspaceRegistry.Entry workspace = getRequestWorkspace(message);
+                String workspaceId = workspace != null ? workspace.getId() : null;
+                McpAdmissionController.Permit permit = message.isRequest()
+                    ? admissionController.admit(session, toolClass, workspaceId)
+                    : McpAdmissionController.Permit.NONE;
+                pending = scheduler.submit(toolClass, workspaceId, () -> dispatchMessage(message, session, workspace))
+                    .whenComplete((response, error) -> permit.close());
+            }
+        } catch (McpToolArguments.InvalidArgumentsException e) {
+            pending = CompletableFuture.completedFuture(createErrorResponse(message.getId(),
+                -32602, "Invalid params", e.getMessage()));
+        } catch (McpAdmissionController.RejectedException e) {
+            rejected = true;
+            pending = CompletableFuture.completedFuture(createErrorResponse(message.getId(),
+                McpAdmissionController.ERROR_CODE, e.getMessage(), e.toErrorData()));
+        } catch (McpIdempotencyCache.ConflictException e) {
+            pending = CompletableFuture.completedFuture(createErrorResponse(message.getId(),
+                McpIdempotencyCache.CONFLICT_ERROR_CODE, "Invalid params", e.getMessage()));
+        }
+
+        boolean wasRejected = rejected;
+        CompletableFuture<JsonRpcMessage> result = pending.handle((response, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                LOG.error("Error scheduling MCP message", cause);
+                response = createErrorResponse(message.getId(), -32603, "Internal error", cause.getMessage());
+            }
+            tracer.finish(ownedTrace);
+            recordRequest(message, context, startTime, response, wasRejected);
+            return response;
+        });
+        if (idempotent != null && idempotent.isOwner()) {
+            // Retries see the response no later than the client of the first call
+            McpIdempotencyCache.Entry first = idempotent;
+            result = result.thenApply(response -> {
+                first.complete(response);
+                return response;
+            });
+        }
+
+        // A trace owned here is finished with the response, not bound to the caller
+        if (ownsTrace && tracer.current() == trace) {
+            tracer.attach(null);
+        }
+        return result;
+    }
+
+    /**
+     * Entry of a tools/call request sent with an idempotency key in its _meta, or null if
+     * it has none. Keys are scoped to the client identity rather than the session, so a
+     * retry over a new connection still finds the first call, and bound to the tool and
+     * arguments of the first call.
+     */
+    private McpIdempotencyCache.Entry acquireIdempotencyEntry(JsonRpcMessage message, McpSession session)
+            throws McpIdempotencyCache.ConflictException, McpToolArguments.InvalidArgumentsException {
+        if (!message.isRequest() || !"tools/call".equals(message.getMethod()) || message.getParams() == null
+                || !(message.getParams().get("_meta") instanceof Map<?, ?> meta)
+                || !(meta.get(IDEMPOTENCY_KEY) instanceof String key) || key.isEmpty()) {
+            return null;
+        }
+        String toolName = getToolName(message.getParams());
+        String fingerprint;
+        try {
+            fingerprint = toolName + ' ' + canonicalWriter.writeValueAsString(message.getParams().get("arguments"));
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+        String toolLabel = handlers.containsKey(toolName) ? toolName : "unknown";
+        return idempotencyCache.acquire(session.getClientIdentity() + ' ' + key, fingerprint, toolLabel);
+    }
+
+    /**
+     * Answer a retried call with the response of the first one, under the retry's id
+     */
+    private static JsonRpcMessage replay(JsonRpcMessage message, JsonRpcMessage first) {
+        return first.getError() != null
+            ? new JsonRpcMessage(message.getId(), first.getError())
+            : new JsonRpcMessage(message.getId(), first.getResult());
+    }
+
+    private void recordRequest(JsonRpcMessage message, McpRequestContext context, long startTime,
+            JsonRpcMessage response, boolean rejected) {
+        String method = message.getMethod() != null && handlers.containsKey(message.getMethod())
+            ? message.getMethod() : "unknown";
+        String outcome = rejected ? "rejected" : response != null && response.getError() != null ? "error" : "ok";
+        metrics.recordSince("mcp_request_duration_seconds", "MCP message processing latency", startTime,
+            "method", method, "transport", context.getTransport());
+        metrics.increment("mcp_requests_total", "MCP messages processed",
+            "method", method, "transport", context.getTransport(), "outcome", outcome);
+    }
+
+    /**
+     * Get the tool class of a tools/call request, or null for other messages
+     *
+     * @throws McpToolArguments.InvalidArgumentsException if the request names no tool
+     */
+    private McpToolClass getRequestToolClass(JsonRpcMessage message) throws McpToolArguments.InvalidArgumentsException {
+        if (message.isRequest() && "tools/call".equals(message.getMethod())) {
+            return getToolClass(getToolName(message.getParams()));
+        }
+        return null;
+    }
+
+    /**
+     * Get the tool name of tools/call params
+     *
+     * @throws McpToolArguments.InvalidArgumentsException if the name is missing or not a string
+     */
+    private static String getToolName(Map<String, Object> params) throws McpToolArguments.InvalidArgumentsException {
+        if (params == null || !(params.get("name") instanceof String name)) {
+            throw new McpToolArguments.InvalidArgumentsException("'name' must be a string");
+        }
+        return name;
+    }
+
+    /**
+     * Get the workspace a message targets: the one named by the workspace argument of a
+     * tool call, otherwise the default workspace. Resources name their workspace in the
+     * URI and are resolved when read.
+     *
+     * @throws McpToolArguments.InvalidArgumentsException if the named workspace is not open
+     */
+    private McpWorkspaceRegistry.Entry getRequestWorkspace(JsonRpcMessage message)
+            throws McpToolArguments.InvalidArgumentsException {
+        if ("tools/call".equals(message.getMethod()) && message.getParams() != null
+                && message.getParams().get("arguments") instanceof Map<?, ?> arguments
+                && arguments.get(WORKSPACE_ARGUMENT) != null) {
+            if (!(arguments.get(WORKSPACE_ARGUMENT) instanceof String id)) {
+                throw new McpToolArguments.InvalidArgumentsException("'" + WORKSPACE_ARGUMENT + "' must be a string");
+            }
+            McpWorkspaceRegistry.Entry workspace = workspaces.get(id);
+            if (workspace == null) {
+                throw new McpToolArguments.InvalidArgumentsException("Unknown workspace '" + id + "'");
+            }
+            return workspace;
+        }
+        return workspaces.getDefault();
+    }
+
+    private JsonRpcMessage dispatchMessage(JsonRpcMessage message, McpSession session,
+            McpWorkspaceRegistry.Entry workspace) {
+        McpSession previous = CURRENT_SESSION.get();
+        McpWorkspaceRegistry.Entry previousWorkspace = CURRENT_WORKSPACE.get();
+        CURRENT_SESSION.set(session);
+        CURRENT_WORKSPACE.set(workspace);
         try {
             if (message.isRequest()) {
                 return handleRequest(message);
@@ -103,6 +335,9 @@ public class McpServer {
         } catch (Exception e) {
             LOG.error("Error processing MCP message", e);
             return createErrorResponse(message.getId(), -32603, "Internal error", e.getMessage());
+        } finally {
+            CURRENT_SESSION.set(previous);
+            CURRENT_WORKSPACE.set(previousWorkspace);
         }
     }
 
@@ -111,7 +346,9 @@ public class McpServer {
      */
     private JsonRpcMessage handleRequest(JsonRpcMessage message) {
         String method = message.getMethod();
+        long lookupStart = System.nanoTime();
         McpHandler handler = handlers.get(method);
+        tracer.addSpan("lookup", lookupStart, System.nanoTime());
         
         if (handler == null) {
             return createErrorResponse(message.getId(), -32601, "Method not found", 
@@ -119,14 +356,52 @@ public class McpServer {
         }
 
         try {
-            Object result = handler.handle(message.getParams());
+            long handleStart = System.nanoTime();
+            String singleFlightKey = getSingleFlightKey(message);
+            Object result = singleFlightKey != null
+                ? singleFlight.execute(singleFlightKey, method, () -> handler.handle(message.getParams()))
+                : handler.handle(message.getParams());
+            tracer.addSpan("handle", handleStart, System.nanoTime());
             return new JsonRpcMessage(message.getId(), result);
+        } catch (McpToolArguments.InvalidArgumentsException e) {
+            LOG.debug(e.getMessage());
+            return createErrorResponse(message.getId(), -32602, "Invalid params", e.getMessage());
         } catch (Exception e) {
             LOG.error("Error handling method: " + method, e);
             return createErrorResponse(message.getId(), -32603, "Internal error", e.getMessage());
         }
     }
 
+    /**
+     * Key under which identical concurrent requests share one computation, or null if the
+     * request may have side effects. Requests are identical when they have the same method
+     * and params, apart from _meta such as progress tokens, and target the same snapshot
+     * of the same workspace. Tool results also depend on whether the session understands
+     * structuredContent.
+     */
+    private String getSingleFlightKey(JsonRpcMessage message) throws McpToolArguments.InvalidArgumentsException {
+        String method = message.getMethod();
+        Map<String, Object> params = message.getParams() != null ? message.getParams() : Map.of();
+        boolean toolCall = "tools/call".equals(method);
+        if (!SINGLE_FLIGHT_METHODS.contains(method)
+                && !(toolCall && getToolClass(getToolName(params)) == McpToolClass.READ_ONLY)) {
+            return null;
+        }
+
+        Map<String, Object> normalized = new TreeMap<>(params);
+        normalized.remove("_meta");
+        McpWorkspaceRegistry.Entry workspace = getCurrentWorkspace();
+        WorkspaceSnapshot snapshot = workspace != null ? workspace.getSnapshot() : null;
+        try {
+            return method + ' ' + (workspace != null ? workspace.getId() : "") + '@'
+                + (snapshot != null ? snapshot.getSnapshotVersion() : -1)
+                + (toolCall && supportsStructuredContent(CURRENT_SESSION.get()) ? " structured " : " ")
+                + canonicalWriter.writeValueAsString(normalized);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
     /**
      * Handle incoming notifications
      */
@@ -135,31 +410,46 @@ public class McpServer {
         LOG.debug("Received notification: {}", method);
         
         // Handle notifications that don't require responses
-        if ("initialized".equals(method)) {
+        if ("initialized".equals(method) || "notifications/initialized".equals(method)) {
             handleInitialized(message.getParams());
         }
     }
 
     /**
-     * Handle initialize request
+     * Handle initialize request. What the client negotiates is kept in its session only.
      */
     private Map<String, Object> handleInitialize(Map<String, Object> params) {
-        LOG.info("Handling MCP initialize request");
+        McpSession session = requireCurrentSession();
+        LOG.info("Handling MCP initialize request of session {}", session);
+        if (params == null) {
+            params = Map.of();
+        }
         
         // Extract client capabilities if provided
         @SuppressWarnings("unchecked")
         Map<String, Object> capabilities = (Map<String, Object>) params.get("capabilities");
         if (capabilities != null) {
             try {
-                clientCapabilities = objectMapper.convertValue(capabilities, McpTypes.ClientCapabilities.class);
+                session.setClientCapabilities(objectMapper.convertValue(capabilities, McpTypes.ClientCapabilities.class));
                 LOG.info("Client capabilities received: {}", capabilities);
             } catch (Exception e) {
                 LOG.warn("Failed to parse client capabilities", e);
             }
         }
+        if (params.get("clientInfo") instanceof Map<?, ?> clientInfo) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> info = (Map<String, Object>) clientInfo;
+            session.setClientInfo(info);
+        }
+
+        // Answer with the requested version if supported, otherwise with the latest one
+        Object requested = params.get("protocolVersion");
+        String protocolVersion = requested instanceof String version && SUPPORTED_PROTOCOL_VERSIONS.contains(version)
+            ? version : SUPPORTED_PROTOCOL_VERSIONS.get(0);
+        session.setProtocolVersion(protocolVersion);
 
         Map<String, Object> response = new HashMap<>();
-        response.put("protocolVersion", "2025-06-18");
+        response.put("protocolVersion", protocolVersion);
         response.put("capabilities", serverCapabilities);
         
         Map<String, Object> serverInfo = new HashMap<>();
@@ -167,8 +457,8 @@ public class McpServer {
         serverInfo.put("version", serverVersion);
         response.put("serverInfo", serverInfo);
         
-        initialized = true;
-        LOG.info("MCP server initialized successfully");
+        session.setInitialized(true);
+        LOG.info("MCP session {} initialized with protocol version {}", session, protocolVersion);
         
         return response;
     }
@@ -187,46 +477,10 @@ public class McpServer {
     private Map<String, Object> handleToolsList(Map<String, Object> params) {
         LOG.debug("Handling tools/list request");
         
-        List<McpTypes.Tool> tools = new ArrayList<>();
-        
-        // Workspace management tools
-        tools.add(createTool("buildWorkspace", "Build the current MCreator workspace", 
-            Map.of("type", "object", "properties", Map.of())));
-        
-        tools.add(createTool("getWorkspaceInfo", "Get detailed workspace information",
-            Map.of("type", "object", "properties", Map.of())));
-        
-        tools.add(createTool("regenerateCode", "Regenerate code without building",
-            Map.of("type", "object", "properties", Map.of())));
-        
-        // Element operations
-        tools.add(createTool("listModElements", "List mod elements with optional filtering",
-            Map.of("type", "object", 
-                   "properties", Map.of(
-                       "elementType", Map.of("type", "string", "description", "Filter by element type")
-                   ))));
-        
-        tools.add(createTool("createElement", "Create new mod element",
-            Map.of("type", "object",
-                   "properties", Map.of(
-                       "elementType", Map.of("type", "string", "description", "Type of element to create"),
-                       "elementName", Map.of("type", "string", "description", "Name of the new element")
-                   ),
-                   "required", List.of("elementType", "elementName"))));
-        
-        tools.add(createTool("deleteElement", "Delete mod element",
-            Map.of("type", "object",
-                   "properties", Map.of(
-                       "elementName", Map.of("type", "string", "description", "Name of element to delete")
-                   ),
-                   "required", List.of("elementName"))));
-        
-        // Testing tools
-        tools.add(createTool("runClient", "Start Minecraft client",
-            Map.of("type", "object", "properties", Map.of())));
-        
-        tools.add(createTool("runServer", "Start Minecraft server",
-            Map.of("type", "object", "properties", Map.of())));
+        List<Object> tools;
+        synchronized (toolDefinitions) {
+            tools = new ArrayList<>(toolDefinitions.values());
+        }
         
         Map<String, Object> response = new HashMap<>();
         response.put("tools", tools);
@@ -238,33 +492,59 @@ public class McpServer {
     /**
      * Handle tools/call request
      */
-    private Map<String, Object> handleToolCall(Map<String, Object> params) {
-        String toolName = (String) params.get("name");
+    private Map<String, Object> handleToolCall(Map<String, Object> params) throws McpToolArguments.InvalidArgumentsException {
+        String toolName = getToolName(params);
+        Object rawArguments = params.get("arguments");
+        if (rawArguments != null && !(rawArguments instanceof Map)) {
+            throw new McpToolArguments.InvalidArgumentsException("'arguments' must be an object");
+        }
         @SuppressWarnings("unchecked")
-        Map<String, Object> arguments = (Map<String, Object>) params.get("arguments");
+        Map<String, Object> arguments = (Map<String, Object>) rawArguments;
         
-        LOG.info("Handling tool call: {} with arguments: {}", toolName, arguments);
+        LOG.info("Handling tool call: {}", toolName);
+        requestLogger.toolCall(toolName, arguments);
         
+        McpTracer.Trace trace = tracer.current();
+        if (trace != null) {
+            trace.setTool(toolName);
+        }
+        
+        long startTime = System.nanoTime();
+        String toolLabel = handlers.containsKey(toolName) ? toolName : "unknown";
+        Map<String, Object> response;
+        try {
+            response = executeTool(toolName, arguments);
+        } catch (McpToolArguments.InvalidArgumentsException e) {
+            metrics.increment("mcp_tool_calls_total", "MCP tool calls", "tool", toolLabel, "outcome", "invalid");
+            throw e;
+        }
+        
+        metrics.recordSince("mcp_tool_duration_seconds", "MCP tool call latency", startTime, "tool", toolLabel);
+        metrics.increment("mcp_tool_calls_total", "MCP tool calls",
+            "tool", toolLabel, "outcome", Boolean.TRUE.equals(response.get("isError")) ? "error" : "ok");
+        return response;
+    }
+
+    private Map<String, Object> executeTool(String toolName, Map<String, Object> arguments)
+            throws McpToolArguments.InvalidArgumentsException {
         try {
             // Check if we have a custom handler for this tool
+            long lookupStart = System.nanoTime();
             McpHandler handler = handlers.get(toolName);
+            tracer.addSpan("tool.lookup", lookupStart, System.nanoTime());
             if (handler != null) {
+                long toolStart = System.nanoTime();
                 Object handlerResult = handler.handle(arguments);
+                tracer.addSpan("tool.execute", toolStart, System.nanoTime());
                 if (handlerResult instanceof McpTypes.ToolResult) {
-                    McpTypes.ToolResult result = (McpTypes.ToolResult) handlerResult;
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("content", result.getContent());
-                    response.put("isError", result.getIsError());
-                    return response;
+                    return createToolCallResponse((McpTypes.ToolResult) handlerResult);
                 }
             }
             
             // Fallback to default tool execution
-            McpTypes.ToolResult result = executeToolCall(toolName, arguments);
-            Map<String, Object> response = new HashMap<>();
-            response.put("content", result.getContent());
-            response.put("isError", result.getIsError());
-            return response;
+            return createToolCallResponse(executeToolCall(toolName, arguments));
+        } catch (McpToolArguments.InvalidArgumentsException e) {
+            throw e;
         } catch (Exception e) {
             LOG.error("Error executing tool: " + toolName, e);
             List<McpTypes.ToolContent> errorContent = List.of(
@@ -277,6 +557,47 @@ public class McpServer {
         }
     }
 
+    /**
+     * Build a tools/call result. Clients that understand structuredContent get it embedded
+     * as is, so it is serialized once with the response; other clients get it as a
+     * serialized JSON text block instead.
+     */
+    private Map<String, Object> createToolCallResponse(McpTypes.ToolResult result) {
+        Map<String, Object> response = new HashMap<>();
+        List<McpTypes.ToolContent> content = result.getContent();
+        Object structured = result.getStructuredContent();
+        if (structured != null) {
+            CachedJson json = structured instanceof CachedJson cached ? cached : toCachedJson(structured);
+            if (supportsStructuredContent(CURRENT_SESSION.get())) {
+                response.put("structuredContent", json);
+            } else {
+                content = new ArrayList<>(content != null ? content : List.of());
+                content.add(new McpTypes.ToolContent("text", json.getJson()));
+            }
+        }
+        response.put("content", content != null ? content : List.of());
+        response.put("isError", result.getIsError());
+        return response;
+    }
+
+    /**
+     * Whether the client of the session understands structuredContent: it negotiated a
+     * protocol version that has it, or it is an in-process call. Sessions without a
+     * version, e.g. clients that never initialized, are treated as legacy clients.
+     */
+    private static boolean supportsStructuredContent(McpSession session) {
+        if (session == null) {
+            return false;
+        }
+        if (session.isDirect()) {
+            return true;
+        }
+        String version = session.getProtocolVersion();
+        // Protocol versions are dates, so they compare lexicographically
+        return version != null && SUPPORTED_PROTOCOL_VERSIONS.contains(version)
+            && version.compareTo(STRUCTURED_CONTENT_VERSION) >= 0;
+    }
+
     /**
      * Handle resources/list request
      */
@@ -285,52 +606,159 @@ public class McpServer {
         
         List<McpTypes.Resource> resources = new ArrayList<>();
         
+        // Resources of the default workspace
+        addWorkspaceResources(resources, WORKSPACE_URI_PREFIX, "");
+        
+        // With several workspaces open, also the resources of each by its id
+        List<McpWorkspaceRegistry.Entry> open = workspaces.list();
+        if (open.size() > 1) {
+            for (McpWorkspaceRegistry.Entry workspace : open) {
+                addWorkspaceResources(resources, WORKSPACE_URI_PREFIX + workspace.getId() + "/",
+                    " (" + workspace.getId() + ")");
+            }
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("resources", resources);
+        
+        LOG.debug("Returning {} resources", resources.size());
+        return response;
+    }
+
+    private static void addWorkspaceResources(List<McpTypes.Resource> resources, String uriPrefix, String suffix) {
         // Workspace overview resource
-        McpTypes.Resource workspaceOverview = new McpTypes.Resource("workspace://overview", "Workspace Overview");
-        workspaceOverview.setTitle("📁 Workspace Overview");
+        McpTypes.Resource workspaceOverview = new McpTypes.Resource(uriPrefix + "overview", "Workspace Overview" + suffix);
+        workspaceOverview.setTitle("📁 Workspace Overview" + suffix);
         workspaceOverview.setDescription("Complete overview of the MCreator workspace including metadata, settings, and statistics");
         workspaceOverview.setMimeType("application/json");
         resources.add(workspaceOverview);
         
         // Elements resource
-        McpTypes.Resource elements = new McpTypes.Resource("workspace://elements", "Mod Elements");
-        elements.setTitle("🧩 Mod Elements");
+        McpTypes.Resource elements = new McpTypes.Resource(uriPrefix + "elements", "Mod Elements" + suffix);
+        elements.setTitle("🧩 Mod Elements" + suffix);
         elements.setDescription("All mod elements with properties and metadata");
         elements.setMimeType("application/json");
         resources.add(elements);
         
         // Project structure resource
-        McpTypes.Resource structure = new McpTypes.Resource("workspace://structure", "Project Structure");
-        structure.setTitle("📂 Project Structure");
+        McpTypes.Resource structure = new McpTypes.Resource(uriPrefix + "structure", "Project Structure" + suffix);
+        structure.setTitle("📂 Project Structure" + suffix);
         structure.setDescription("Project directory structure and file organization");
         structure.setMimeType("application/json");
         resources.add(structure);
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("resources", resources);
-        
-        LOG.debug("Returning {} resources", resources.size());
-        return response;
     }
 
     /**
      * Handle resources/read request
      */
-    private Map<String, Object> handleResourceRead(Map<String, Object> params) {
+    private Object handleResourceRead(Map<String, Object> params) {
         String uri = (String) params.get("uri");
         LOG.debug("Handling resources/read request for URI: {}", uri);
         
+        // workspace://<section> reads the default workspace, workspace://<id>/<section> the given one
+        String section = uri;
+        WorkspaceSnapshot snapshot = getWorkspaceView();
+        if (uri != null && uri.startsWith(WORKSPACE_URI_PREFIX)) {
+            section = uri.substring(WORKSPACE_URI_PREFIX.length());
+            int slash = section.indexOf('/');
+            if (slash > 0) {
+                McpWorkspaceRegistry.Entry workspace = workspaces.get(section.substring(0, slash));
+                section = workspace != null ? section.substring(slash + 1) : null;
+                snapshot = workspace != null ? workspace.getSnapshot() : null;
+            }
+        }
+        String resourceSection = section;
         try {
-            McpTypes.ResourceContent content = readResourceContent(uri);
-            Map<String, Object> response = new HashMap<>();
-            response.put("contents", List.of(content));
-            return response;
+            // Workspace resources only change with the snapshot, so serialize them once per snapshot
+            if (snapshot != null && WORKSPACE_RESOURCE_SECTIONS.contains(section)) {
+                return snapshot.derive("resources/read " + uri,
+                    s -> toCachedJson(createResourceReadResult(uri, resourceSection, s)));
+            }
+            return createResourceReadResult(uri, section, snapshot);
         } catch (Exception e) {
             LOG.error("Error reading resource: " + uri, e);
             throw new RuntimeException("Failed to read resource: " + e.getMessage());
         }
     }
 
+    /**
+     * Handle resources/subscribe request by recording the URI in the client's session
+     */
+    private Object handleResourceSubscribe(Map<String, Object> params) throws McpToolArguments.InvalidArgumentsException {
+        String uri = McpToolArguments.string(params, "resources/subscribe", "uri", true);
+        McpSession session = requireCurrentSession();
+        if (session.subscribe(uri)) {
+            LOG.debug("Session {} subscribed to {}", session, uri);
+        }
+        return Map.of();
+    }
+
+    /**
+     * Handle resources/unsubscribe request
+     */
+    private Object handleResourceUnsubscribe(Map<String, Object> params) throws McpToolArguments.InvalidArgumentsException {
+        String uri = McpToolArguments.string(params, "resources/unsubscribe", "uri", true);
+        requireCurrentSession().unsubscribe(uri);
+        return Map.of();
+    }
+
+    private McpSession requireCurrentSession() {
+        McpSession session = CURRENT_SESSION.get();
+        if (session == null) {
+            throw new IllegalStateException("No MCP session bound to this thread");
+        }
+        return session;
+    }
+
+    private Map<String, Object> createResourceReadResult(String uri, String section, McpWorkspaceView view) {
+        McpTypes.ResourceContent content = readResourceContent(uri, section, view);
+        Map<String, Object> response = new HashMap<>();
+        response.put("contents", List.of(content));
+        return response;
+    }
+
+    /**
+     * Serialize a value once for reuse in responses
+     */
+    public CachedJson toCachedJson(Object value) {
+        try {
+            return CachedJson.of(objectMapper, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Prepare for the first client requests: serialize the workspace resources into the
+     * snapshot caches and let Jackson build its serializers and deserializers for protocol
+     * messages in every wire format. Run in the background during startup.
+     */
+    public void warmUp() throws IOException {
+        List<JsonRpcMessage> samples = new ArrayList<>();
+        samples.add(new JsonRpcMessage(0, handleToolsList(Map.of())));
+        samples.add(new JsonRpcMessage(0, handleResourcesList(Map.of())));
+        samples.add(createErrorResponse(0, -32603, "Internal error", null));
+
+        List<McpWorkspaceRegistry.Entry> open = workspaces.list();
+        if (!open.isEmpty()) {
+            for (String section : WORKSPACE_RESOURCE_SECTIONS) {
+                samples.add(new JsonRpcMessage(0, handleResourceRead(Map.of("uri", WORKSPACE_URI_PREFIX + section))));
+                // Workspaces are only listed by id when several are open
+                for (McpWorkspaceRegistry.Entry workspace : open.size() > 1 ? open : List.<McpWorkspaceRegistry.Entry>of()) {
+                    samples.add(new JsonRpcMessage(0, handleResourceRead(
+                        Map.of("uri", WORKSPACE_URI_PREFIX + workspace.getId() + "/" + section))));
+                }
+            }
+        }
+
+        for (McpWireFormat format : McpWireFormat.values()) {
+            for (JsonRpcMessage sample : samples) {
+                format.mapper().readValue(format.mapper().writeValueAsBytes(sample), JsonRpcMessage.class);
+            }
+        }
+        LOG.debug("Warmed up {} sample messages", samples.size());
+    }
+
     /**
      * Execute a tool call
      */
@@ -339,7 +767,7 @@ public class McpServer {
         // For now, return a placeholder
         String resultText = "Tool '" + toolName + "' executed successfully";
         
-        if (currentWorkspace == null) {
+        if (getWorkspaceView() == null) {
             resultText = "No workspace loaded. Please open a MCreator workspace first.";
         }
         
@@ -353,25 +781,25 @@ public class McpServer {
     /**
      * Read resource content
      */
-    private McpTypes.ResourceContent readResourceContent(String uri) {
+    private McpTypes.ResourceContent readResourceContent(String uri, String section, McpWorkspaceView view) {
         McpTypes.ResourceContent content = new McpTypes.ResourceContent();
         content.setUri(uri);
         content.setMimeType("application/json");
         
-        if ("workspace://overview".equals(uri)) {
+        if ("overview".equals(section)) {
             content.setName("Workspace Overview");
             content.setTitle("📁 Workspace Overview");
             
-            if (currentWorkspace != null) {
+            if (view != null) {
                 Map<String, Object> overview = new HashMap<>();
-                overview.put("name", currentWorkspace.getWorkspaceSettings().getModName());
-                overview.put("version", currentWorkspace.getWorkspaceSettings().getVersion());
-                overview.put("author", currentWorkspace.getWorkspaceSettings().getAuthor());
-                overview.put("description", currentWorkspace.getWorkspaceSettings().getDescription());
-                overview.put("mcreatorVersion", String.valueOf(currentWorkspace.getMCreatorVersion()));
-                overview.put("elementCount", currentWorkspace.getModElements().size());
-                overview.put("workspaceFolder", currentWorkspace.getWorkspaceFolder().getAbsolutePath());
-                overview.put("minecraftVersion", currentWorkspace.getWorkspaceSettings().getMCreatorDependencies().toString());
+                overview.put("name", view.getModName());
+                overview.put("version", view.getVersion());
+                overview.put("author", view.getAuthor());
+                overview.put("description", view.getDescription());
+                overview.put("mcreatorVersion", view.getMCreatorVersion());
+                overview.put("elementCount", view.getElements().size());
+                overview.put("workspaceFolder", view.getWorkspaceFolder());
+                overview.put("minecraftVersion", view.getMinecraftDependencies());
                 
                 try {
                     content.setText(objectMapper.writeValueAsString(overview));
@@ -381,18 +809,18 @@ public class McpServer {
             } else {
                 content.setText("{\"error\":\"No workspace loaded\"}");
             }
-        } else if ("workspace://elements".equals(uri)) {
+        } else if ("elements".equals(section)) {
             content.setName("Mod Elements");
             content.setTitle("🧩 Mod Elements");
             
-            if (currentWorkspace != null) {
-                List<Map<String, Object>> elements = currentWorkspace.getModElements().stream()
+            if (view != null) {
+                List<Map<String, Object>> elements = view.getElements().stream()
                     .map(element -> {
                         Map<String, Object> elementMap = new HashMap<>();
-                        elementMap.put("name", element.getName());
-                        elementMap.put("type", element.getType().getRegistryName());
-                        elementMap.put("isLocked", element.isCodeLocked());
-                        elementMap.put("sortIndex", element.getName());
+                        elementMap.put("name", element.name());
+                        elementMap.put("type", element.type());
+                        elementMap.put("isLocked", element.locked());
+                        elementMap.put("sortIndex", element.name());
                         return elementMap;
                     })
                     .collect(java.util.stream.Collectors.toList());
@@ -409,16 +837,17 @@ public class McpServer {
             } else {
                 content.setText("{\"error\":\"No workspace loaded\"}");
             }
-        } else if ("workspace://structure".equals(uri)) {
+        } else if ("structure".equals(section)) {
             content.setName("Project Structure");
             content.setTitle("📂 Project Structure");
             
-            if (currentWorkspace != null) {
+            if (view != null) {
+                String workspaceFolder = view.getWorkspaceFolder();
                 Map<String, Object> structure = new HashMap<>();
-                structure.put("workspaceFolder", currentWorkspace.getWorkspaceFolder().getAbsolutePath());
-                structure.put("srcFolder", currentWorkspace.getWorkspaceFolder().getAbsolutePath() + "/src");
-                structure.put("elementsFolder", currentWorkspace.getWorkspaceFolder().getAbsolutePath() + "/elements");
-                structure.put("resourcesFolder", currentWorkspace.getWorkspaceFolder().getAbsolutePath() + "/src/main/resources");
+                structure.put("workspaceFolder", workspaceFolder);
+                structure.put("srcFolder", workspaceFolder + "/src");
+                structure.put("elementsFolder", workspaceFolder + "/elements");
+                structure.put("resourcesFolder", workspaceFolder + "/src/main/resources");
                 
                 try {
                     content.setText(objectMapper.writeValueAsString(structure));
@@ -435,13 +864,6 @@ public class McpServer {
         return content;
     }
 
-    /**
-     * Helper method to create tool definitions
-     */
-    private McpTypes.Tool createTool(String name, String description, Map<String, Object> inputSchema) {
-        return new McpTypes.Tool(name, description, inputSchema);
-    }
-
     /**
      * Helper method to create error responses
      */
@@ -451,25 +873,193 @@ public class McpServer {
     }
 
     /**
-     * Set the current MCreator workspace
+     * Serve an MCreator workspace and make it the default. Must be called on the EDT,
+     * as it captures the first workspace snapshot.
+     *
+     * @return the registered workspace, whose id clients use to target it
+     */
+    public McpWorkspaceRegistry.Entry addWorkspace(Workspace workspace) {
+        String modId = workspace.getWorkspaceSettings().getModID();
+        McpWorkspaceRegistry.Entry entry = workspaces.add(modId != null ? modId
+            : workspace.getWorkspaceSettings().getModName(), workspace, new MCreatorWorkspaceView(workspace));
+        scheduler.addWorkspace(entry.getId());
+        return entry;
+    }
+
+    /**
+     * Serve a workspace through a custom view, e.g. a synthetic workspace in benchmarks,
+     * and make it the default
+     */
+    public McpWorkspaceRegistry.Entry addWorkspaceView(String id, McpWorkspaceView view) {
+        McpWorkspaceRegistry.Entry entry = workspaces.add(id, null, view);
+        scheduler.addWorkspace(entry.getId());
+        return entry;
+    }
+
+    /**
+     * Expose a workspace through a custom view, replacing all workspaces added before
+     */
+    public void setWorkspaceView(McpWorkspaceView view) {
+        for (McpWorkspaceRegistry.Entry workspace : workspaces.list()) {
+            removeWorkspace(workspace.getId());
+        }
+        addWorkspaceView(view.getModName(), view);
+    }
+
+    /**
+     * Stop serving a workspace, e.g. when its window was closed
+     */
+    public void removeWorkspace(String id) {
+        if (workspaces.remove(id) != null) {
+            scheduler.removeWorkspace(id);
+            admissionController.removeWorkspace(id);
+        }
+    }
+
+    /**
+     * Get the registry of workspaces served by this server
+     */
+    public McpWorkspaceRegistry getWorkspaces() {
+        return workspaces;
+    }
+
+    /**
+     * Get the workspace the message handled on this thread targets, or the default
+     * workspace outside of message handling; null if none is open
      */
-    public void setWorkspace(Workspace workspace) {
-        this.currentWorkspace = workspace;
-        LOG.info("Workspace set: {}", workspace != null ? workspace.getWorkspaceSettings().getModName() : "null");
+    public McpWorkspaceRegistry.Entry getCurrentWorkspace() {
+        McpWorkspaceRegistry.Entry workspace = CURRENT_WORKSPACE.get();
+        return workspace != null ? workspace : workspaces.getDefault();
     }
 
     /**
-     * Get current workspace
+     * Get the MCreator workspace of the current workspace, if it is one
      */
     public Workspace getWorkspace() {
-        return currentWorkspace;
+        McpWorkspaceRegistry.Entry workspace = getCurrentWorkspace();
+        return workspace != null ? workspace.getWorkspace() : null;
+    }
+
+    /**
+     * Capture new snapshots of all workspaces, picking up changes made outside of MCP.
+     * For MCreator workspaces this must be called on the EDT.
+     */
+    public void refreshWorkspaceSnapshots() {
+        workspaces.refreshSnapshots();
+    }
+
+    /**
+     * Get the latest published snapshot of the current workspace used to serve resources
+     * and read tools, or null if no workspace is loaded
+     */
+    public WorkspaceSnapshot getWorkspaceView() {
+        McpWorkspaceRegistry.Entry workspace = getCurrentWorkspace();
+        return workspace != null ? workspace.getSnapshot() : null;
+    }
+
+    /**
+     * Release what the server holds once no transport serves it anymore, flushing and
+     * closing the audit log
+     */
+    public void stop() {
+        scheduler.shutdown();
+        requestLogger.close();
+        LOG.info("MCP server stopped");
+    }
+
+    /**
+     * Get the server name reported to clients
+     */
+    public String getServerName() {
+        return serverName;
+    }
+
+    /**
+     * Get the metrics registry of this server
+     */
+    public McpMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the request tracer of this server
+     */
+    public McpTracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Get the request logger of this server
+     */
+    public McpRequestLogger getRequestLogger() {
+        return requestLogger;
+    }
+
+    /**
+     * Get the admission controller limiting request rates of this server
+     */
+    public McpAdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
+    /**
+     * Get the store of client sessions of this server
+     */
+    public McpSessionStore getSessions() {
+        return sessions;
+    }
+
+    /**
+     * Get the session of the message being handled on this thread, e.g. from a tool
+     * handler, or null outside of message handling
+     */
+    public static McpSession getCurrentSession() {
+        return CURRENT_SESSION.get();
+    }
+
+    /**
+     * Get the background startup of the transports, reported in /health
+     */
+    public McpStartup getStartup() {
+        return startup;
+    }
+
+    /**
+     * Get the cache replaying responses of tool calls retried with the same idempotency key
+     */
+    public McpIdempotencyCache getIdempotencyCache() {
+        return idempotencyCache;
+    }
+
+    /**
+     * Get the layer sharing computations between identical concurrent read requests
+     */
+    public McpSingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * Get the scheduler running tool calls on lanes by tool class
+     */
+    public McpScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Get the class of a tool. Tools registered without a class are treated as mutating.
+     */
+    public McpToolClass getToolClass(String toolName) {
+        if (toolName == null || !handlers.containsKey(toolName)) {
+            return McpToolClass.READ_ONLY;
+        }
+        return toolClasses.getOrDefault(toolName, McpToolClass.MUTATING);
     }
 
     /**
-     * Check if server is initialized
+     * Check if any client session is initialized
      */
     public boolean isInitialized() {
-        return initialized;
+        return sessions.anyInitialized();
     }
 
     /**
@@ -480,6 +1070,25 @@ public class McpServer {
         LOG.debug("Registered handler for method: {}", method);
     }
 
+    /**
+     * Register a tool handler together with its cost and side-effect class
+     */
+    public void registerHandler(String toolName, McpToolClass toolClass, McpHandler handler) {
+        toolClasses.put(toolName, toolClass);
+        registerHandler(toolName, handler);
+    }
+
+    /**
+     * Register a tool with the definition listed by tools/list, e.g. one generated from
+     * an {@link McpTool} method, replacing any earlier tool of the same name
+     */
+    public void registerTool(String toolName, McpToolClass toolClass, Object definition, McpHandler handler) {
+        synchronized (toolDefinitions) {
+            toolDefinitions.put(toolName, definition);
+        }
+        registerHandler(toolName, toolClass, handler);
+    }
+
     /**
      * Functional interface for MCP handlers
      */
@@ -0,0 +1,156 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Protocol state of one MCP client: what it negotiated in initialize and the resources
+ * it subscribed to. Sessions are kept by {@link McpSessionStore},
+ * keyed by transport and session id, so clients sharing the server do not see each
+ * other's state.
+ */
+public final class McpSession {
+
+    private final String key;
+    private final String transport;
+    private final String id;
+    private final String clientId;
+    private final long createdNanos;
+    private volatile long lastActiveNanos;
+    private volatile boolean connectionBound;
+
+    private volatile boolean initialized;
+    private volatile String protocolVersion;
+    private volatile McpTypes.ClientCapabilities clientCapabilities;
+    private volatile Map<String, Object> clientInfo;
+    private final Set<String> subscriptions = ConcurrentHashMap.newKeySet();
+
+    McpSession(String transport, String id, String clientId, long now) {
+        this.key = keyOf(transport, id);
+        this.transport = transport;
+        this.id = id;
+        this.clientId = clientId;
+        this.createdNanos = now;
+        this.lastActiveNanos = now;
+    }
+
+    /**
+     * Session for the given context, not held by any store, e.g. in tests
+     */
+    public McpSession(McpRequestContext context) {
+        this(context.getTransport(), context.getSessionId(), context.getClientId(), System.nanoTime());
+    }
+
+    /**
+     * New session with the given id holding what this session negotiated, but none of
+     * its subscriptions
+     */
+    McpSession fork(String id, long now) {
+        McpSession fork = new McpSession(transport, id, clientId, now);
+        fork.initialized = initialized;
+        fork.protocolVersion = protocolVersion;
+        fork.clientCapabilities = clientCapabilities;
+        fork.clientInfo = clientInfo;
+        return fork;
+    }
+
+    static String keyOf(String transport, String id) {
+        return transport + ":" + id;
+    }
+
+    public String getKey() { return key; }
+
+    public String getTransport() { return transport; }
+
+    public String getId() { return id; }
+
+    /**
+     * Identifies the client behind the session across its sessions and connections:
+     * transport, client address and, once initialized, the client's name. A client
+     * opening new sessions or reconnecting keeps its identity.
+     */
+    public String getClientIdentity() {
+        Map<String, Object> info = clientInfo;
+        Object name = info != null ? info.get("name") : null;
+        return transport + ":" + clientId + (name != null ? "/" + name : "");
+    }
+
+    /**
+     * Whether this session belongs to in-process calls, which are not rate limited
+     */
+    public boolean isDirect() {
+        return McpRequestContext.DIRECT.getTransport().equals(transport);
+    }
+
+    void touch(long now) {
+        lastActiveNanos = now;
+    }
+
+    long getLastActiveNanos() { return lastActiveNanos; }
+
+    /**
+     * Sessions bound to a connection end with it and are never evicted for idleness
+     */
+    public boolean isConnectionBound() { return connectionBound; }
+
+    void setConnectionBound(boolean connectionBound) { this.connectionBound = connectionBound; }
+
+    public boolean isInitialized() { return initialized; }
+
+    void setInitialized(boolean initialized) { this.initialized = initialized; }
+
+    /**
+     * Protocol version agreed in initialize, or null before
+     */
+    public String getProtocolVersion() { return protocolVersion; }
+
+    void setProtocolVersion(String protocolVersion) { this.protocolVersion = protocolVersion; }
+
+    public McpTypes.ClientCapabilities getClientCapabilities() { return clientCapabilities; }
+
+    void setClientCapabilities(McpTypes.ClientCapabilities clientCapabilities) { this.clientCapabilities = clientCapabilities; }
+
+    public Map<String, Object> getClientInfo() { return clientInfo; }
+
+    void setClientInfo(Map<String, Object> clientInfo) { this.clientInfo = clientInfo; }
+
+    /**
+     * Resource URIs the client subscribed to
+     */
+    public Set<String> getSubscriptions() {
+        return Collections.unmodifiableSet(subscriptions);
+    }
+
+    boolean subscribe(String uri) {
+        return subscriptions.add(uri);
+    }
+
+    boolean unsubscribe(String uri) {
+        return subscriptions.remove(uri);
+    }
+
+    /**
+     * Summary for the health endpoint
+     */
+    Map<String, Object> toHealth(long now) {
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("transport", transport);
+        health.put("initialized", initialized);
+        health.put("protocolVersion", protocolVersion);
+        Map<String, Object> info = clientInfo;
+        health.put("client", info != null ? info.get("name") : null);
+        health.put("subscriptions", subscriptions.size());
+        health.put("ageSeconds", TimeUnit.NANOSECONDS.toSeconds(now - createdNanos));
+        health.put("idleSeconds", TimeUnit.NANOSECONDS.toSeconds(now - lastActiveNanos));
+        return health;
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
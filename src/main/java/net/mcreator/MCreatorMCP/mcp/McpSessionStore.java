@@ -0,0 +1,243 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent store of client sessions keyed by transport and session id. Sessions are
+ * created on a client's first message, closed when their connection ends, and evicted
+ * after being idle for the configured time or when the store is full. Sessions handed
+ * out by {@link #fork} wait aside until the client first uses them, so clients that
+ * never do cannot push live sessions out.
+ */
+public class McpSessionStore {
+
+    private static final Logger LOG = LogManager.getLogger("MCP-Sessions");
+
+    private static final int SWEEP_INTERVAL = 1024;
+
+    private final ConcurrentHashMap<String, McpSession> sessions = new ConcurrentHashMap<>();
+    // Forked sessions not used yet, oldest first
+    private final Map<String, McpSession> unused = new LinkedHashMap<>();
+    private final long idleTimeoutNanos;
+    private final int maxSessions;
+    private final McpMetrics metrics;
+    private final AtomicLong accesses = new AtomicLong();
+    private final SecureRandom random = new SecureRandom();
+
+    public McpSessionStore(long idleTimeoutMillis, int maxSessions, McpMetrics metrics) {
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.maxSessions = Math.max(1, maxSessions);
+        this.metrics = metrics;
+        metrics.gauge("mcp_sessions_active", "Client sessions currently held", sessions::size);
+    }
+
+    /**
+     * Create a store configured from the mcreator.mcp.sessions.* system properties
+     */
+    public static McpSessionStore fromSettings(McpMetrics metrics) {
+        return new McpSessionStore(TimeUnit.MINUTES.toMillis(McpSettings.getLong("sessions.idleTimeoutMinutes", 30)),
+            McpSettings.getInt("sessions.max", 1024), metrics);
+    }
+
+    /**
+     * Session of the given context, created on first use
+     */
+    public McpSession get(McpRequestContext context) {
+        long now = System.nanoTime();
+        if (accesses.incrementAndGet() % SWEEP_INTERVAL == 0) {
+            evictIdle(now);
+        }
+
+        String key = McpSession.keyOf(context.getTransport(), context.getSessionId());
+        McpSession session = sessions.get(key);
+        if (session == null) {
+            if (sessions.size() >= maxSessions) {
+                makeRoom(now);
+            }
+            session = sessions.computeIfAbsent(key, k -> {
+                metrics.increment("mcp_sessions_created_total", "Client sessions created",
+                    "transport", context.getTransport());
+                return new McpSession(context.getTransport(), context.getSessionId(), context.getClientId(), now);
+            });
+        }
+        session.touch(now);
+        return session;
+    }
+
+    /**
+     * Session of a connection-oriented transport, kept until {@link #close} is called
+     */
+    public McpSession open(McpRequestContext context) {
+        McpSession session = get(context);
+        session.setConnectionBound(true);
+        return session;
+    }
+
+    /**
+     * Existing session with the given id, or null if there is none or it expired. A
+     * forked session is taken into the store on its first use.
+     */
+    public McpSession find(String transport, String sessionId) {
+        String key = McpSession.keyOf(transport, sessionId);
+        McpSession forked;
+        synchronized (unused) {
+            forked = unused.remove(key);
+        }
+        if (forked != null && System.nanoTime() - forked.getLastActiveNanos() <= idleTimeoutNanos) {
+            if (sessions.size() >= maxSessions) {
+                makeRoom(System.nanoTime());
+            }
+            if (sessions.putIfAbsent(key, forked) == null) {
+                metrics.increment("mcp_sessions_created_total", "Client sessions created", "transport", transport);
+            }
+        }
+        McpSession session = sessions.get(key);
+        if (session != null && !session.isConnectionBound()
+                && System.nanoTime() - session.getLastActiveNanos() > idleTimeoutNanos) {
+            remove(session, "idle");
+            return null;
+        }
+        return session;
+    }
+
+    /**
+     * Start a session for the client of the given context with what its current session
+     * negotiated, and return its id. The session only joins the store once the client
+     * uses the id, until then it is dropped first when too many wait or it idles out.
+     */
+    public String fork(McpRequestContext context) {
+        long now = System.nanoTime();
+        String id = newSessionId();
+        McpSession session = get(context).fork(id, now);
+        synchronized (unused) {
+            Iterator<McpSession> iterator = unused.values().iterator();
+            while (iterator.hasNext()) {
+                McpSession oldest = iterator.next();
+                if (unused.size() < maxSessions && now - oldest.getLastActiveNanos() <= idleTimeoutNanos) {
+                    break;
+                }
+                iterator.remove();
+            }
+            unused.put(session.getKey(), session);
+        }
+        return id;
+    }
+
+    /**
+     * A new unguessable session id
+     */
+    public String newSessionId() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    /**
+     * End the session of the given context, e.g. when its connection closed
+     */
+    public void close(McpRequestContext context) {
+        McpSession session = sessions.get(McpSession.keyOf(context.getTransport(), context.getSessionId()));
+        if (session != null) {
+            remove(session, "closed");
+        }
+    }
+
+    /**
+     * Evict sessions idle for longer than the timeout
+     */
+    public void evictIdle(long now) {
+        for (McpSession session : sessions.values()) {
+            if (!session.isConnectionBound() && now - session.getLastActiveNanos() > idleTimeoutNanos) {
+                remove(session, "idle");
+            }
+        }
+    }
+
+    /**
+     * Evict idle sessions, and if the store is still full the least recently active one
+     */
+    private void makeRoom(long now) {
+        evictIdle(now);
+        if (sessions.size() < maxSessions) {
+            return;
+        }
+        McpSession oldest = null;
+        for (McpSession session : sessions.values()) {
+            if (!session.isConnectionBound()
+                    && (oldest == null || session.getLastActiveNanos() < oldest.getLastActiveNanos())) {
+                oldest = session;
+            }
+        }
+        if (oldest != null) {
+            remove(oldest, "capacity");
+        }
+    }
+
+    private void remove(McpSession session, String reason) {
+        if (sessions.remove(session.getKey(), session)) {
+            LOG.debug("Session {} ended ({})", session, reason);
+            metrics.increment("mcp_sessions_ended_total", "Client sessions ended",
+                "transport", session.getTransport(), "reason", reason);
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Whether any client completed initialize
+     */
+    public boolean anyInitialized() {
+        for (McpSession session : sessions.values()) {
+            if (session.isInitialized()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Session counts and details for the health endpoint
+     */
+    public Map<String, Object> toHealth() {
+        long now = System.nanoTime();
+        evictIdle(now);
+
+        Map<String, Integer> byTransport = new TreeMap<>();
+        Map<String, Object> details = new TreeMap<>();
+        int initialized = 0;
+        for (McpSession session : sessions.values()) {
+            byTransport.merge(session.getTransport(), 1, Integer::sum);
+            if (session.isInitialized()) {
+                initialized++;
+            }
+            // Ids of HTTP sessions authorize requests, so only a prefix is shown
+            String id = session.getId();
+            details.put(session.getTransport() + ":" + (id.length() > 8 ? id.substring(0, 8) + "…" : id),
+                session.toHealth(now));
+        }
+
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("active", sessions.size());
+        health.put("initialized", initialized);
+        health.put("max", maxSessions);
+        synchronized (unused) {
+            health.put("unused", unused.size());
+        }
+        health.put("byTransport", byTransport);
+        health.put("sessions", details);
+        return health;
+    }
+}
@@ -0,0 +1,59 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Tuning options of the MCP server, read from system properties prefixed with
+ * {@code mcreator.mcp.} (e.g. {@code -Dmcreator.mcp.log.maxBodyChars=4096}).
+ * Invalid values are logged and replaced by the default.
+ */
+public final class McpSettings {
+
+    private static final Logger LOG = LogManager.getLogger("MCP-Settings");
+
+    public static final String PREFIX = "mcreator.mcp.";
+
+    private McpSettings() {
+    }
+
+    public static String getString(String key, String defaultValue) {
+        String value = System.getProperty(PREFIX + key);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        return (int) getLong(key, defaultValue);
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            LOG.warn("Invalid value '{}' for {}{}, using {}", value, PREFIX, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static double getDouble(String key, double defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            LOG.warn("Invalid value '{}' for {}{}, using {}", value, PREFIX, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
@@ -0,0 +1,92 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lets identical requests that arrive while one of them is being computed share that
+ * computation instead of each repeating it, e.g. when several agents start together and
+ * all read the same workspace resources. Only requests without side effects may share.
+ * Nothing is kept once a computation finishes; caching results is left to the
+ * workspace snapshot.
+ */
+public class McpSingleFlight {
+
+    /**
+     * Computation shared by the requests of one flight
+     */
+    @FunctionalInterface
+    public interface Computation<T> {
+        T compute() throws Exception;
+    }
+
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final McpMetrics metrics;
+    private final boolean enabled;
+
+    public McpSingleFlight(boolean enabled, McpMetrics metrics) {
+        this.enabled = enabled;
+        this.metrics = metrics;
+        metrics.gauge("mcp_singleflight_in_flight", "Shared computations currently running", flights::size);
+    }
+
+    /**
+     * Create a single-flight layer configured from the mcreator.mcp.singleFlight.* system properties
+     */
+    public static McpSingleFlight fromSettings(McpMetrics metrics) {
+        return new McpSingleFlight(McpSettings.getBoolean("singleFlight.enabled", true), metrics);
+    }
+
+    /**
+     * Compute the result for the given key, or wait for the computation of an identical
+     * request already in flight and return its result or rethrow its exception
+     *
+     * @param key    identifies identical requests, e.g. method and normalized params
+     * @param method method label for the metrics
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, String method, Computation<T> computation) throws Exception {
+        if (!enabled) {
+            return computation.compute();
+        }
+
+        Flight flight = new Flight();
+        Flight running = flights.putIfAbsent(key, flight);
+        if (running != null && running.leader != Thread.currentThread()) {
+            if (running.followers.getAndIncrement() == 0) {
+                metrics.increment("mcp_singleflight_merges_total",
+                    "Computations shared by more than one identical request", "method", method);
+            }
+            metrics.increment("mcp_singleflight_hits_total",
+                "Requests answered by the computation of an identical request in flight", "method", method);
+            try {
+                return (T) running.result.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+        if (running != null) {
+            // The computation itself asked for the same thing; waiting would never end
+            return computation.compute();
+        }
+
+        try {
+            T result = computation.compute();
+            flight.result.complete(result);
+            return result;
+        } catch (Exception | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    private static final class Flight {
+        private final Thread leader = Thread.currentThread();
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final AtomicInteger followers = new AtomicInteger();
+    }
+}
@@ -0,0 +1,186 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Brings the MCP server up in the background. Steps such as binding a transport or
+ * warming up the codecs run in parallel on daemon threads, so the thread starting the
+ * server (e.g. the EDT while a workspace loads) never waits for them. Progress is
+ * reported per step under {@code startup} in /health and in the plugin status.
+ */
+public class McpStartup {
+
+    private static final Logger LOG = LogManager.getLogger("MCP-Startup");
+
+    /**
+     * State of a step, or of the startup as a whole: ready once every step finished,
+     * degraded if some of them failed
+     */
+    public enum State {
+        IDLE, STARTING, READY, DEGRADED, FAILED
+    }
+
+    /**
+     * Work of a startup step
+     */
+    @FunctionalInterface
+    public interface Step {
+        void run() throws Exception;
+    }
+
+    private final McpMetrics metrics;
+    private final ExecutorService executor;
+    private final Map<String, StepStatus> steps = new LinkedHashMap<>();
+    private final List<CompletableFuture<Void>> pending = new ArrayList<>();
+    private long startedAt;
+
+    public McpStartup(McpMetrics metrics) {
+        this.metrics = metrics;
+        AtomicInteger threadCounter = new AtomicInteger(1);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "MCP-Startup-" + threadCounter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        metrics.gauge("mcp_startup_ready", "1 once every startup step has finished", () -> isDone() ? 1 : 0);
+    }
+
+    /**
+     * Begin a new startup, forgetting the steps of the previous one
+     */
+    public synchronized void begin() {
+        steps.clear();
+        pending.clear();
+        startedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Run a step in the background, in parallel with the other steps. A failed step is
+     * logged and reported; it does not stop the others.
+     */
+    public synchronized CompletableFuture<Void> run(String name, Step step) {
+        StepStatus status = new StepStatus();
+        steps.put(name, status);
+        CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+            long startTime = System.nanoTime();
+            try {
+                step.run();
+                status.finish(State.READY, null);
+            } catch (Exception e) {
+                LOG.error("Startup step " + name + " failed", e);
+                status.finish(State.FAILED, e.getMessage());
+                throw new CompletionException(e);
+            } finally {
+                metrics.recordSince("mcp_startup_step_seconds", "Time taken by each step of the MCP server startup",
+                    startTime, "step", name);
+            }
+        }, executor);
+        pending.add(future);
+        return future;
+    }
+
+    /**
+     * Completes once every step started so far has finished, whether it failed or not
+     */
+    public synchronized CompletableFuture<Void> whenDone() {
+        return CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).handle((result, error) -> null);
+    }
+
+    public synchronized State getState() {
+        if (steps.isEmpty()) {
+            return State.IDLE;
+        }
+        boolean failed = false;
+        boolean ready = false;
+        for (StepStatus status : steps.values()) {
+            if (status.state == State.STARTING) {
+                return State.STARTING;
+            }
+            failed |= status.state == State.FAILED;
+            ready |= status.state == State.READY;
+        }
+        return !failed ? State.READY : ready ? State.DEGRADED : State.FAILED;
+    }
+
+    /**
+     * Whether every step has finished, successfully or not
+     */
+    public boolean isDone() {
+        State state = getState();
+        return state == State.READY || state == State.DEGRADED || state == State.FAILED;
+    }
+
+    /**
+     * Names of the steps currently in the given state
+     */
+    public synchronized List<String> getSteps(State state) {
+        List<String> names = new ArrayList<>();
+        steps.forEach((name, status) -> {
+            if (status.state == state) {
+                names.add(name);
+            }
+        });
+        return names;
+    }
+
+    /**
+     * Failed steps with their error, e.g. for showing the user what did not start
+     */
+    public synchronized Map<String, String> getFailures() {
+        Map<String, String> failures = new LinkedHashMap<>();
+        steps.forEach((name, status) -> {
+            if (status.state == State.FAILED) {
+                failures.put(name, status.error);
+            }
+        });
+        return failures;
+    }
+
+    /**
+     * Overall state and the state and duration of each step, for the health endpoint
+     */
+    public synchronized Map<String, Object> toHealth() {
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("state", getState().name().toLowerCase(Locale.ROOT));
+        health.put("startedAt", startedAt > 0 ? startedAt : null);
+        Map<String, Object> stepHealth = new LinkedHashMap<>();
+        steps.forEach((name, status) -> stepHealth.put(name, status.toHealth()));
+        health.put("steps", stepHealth);
+        return health;
+    }
+
+    private static final class StepStatus {
+        private final long startedAt = System.nanoTime();
+        private volatile State state = State.STARTING;
+        private volatile long durationMs = -1;
+        private volatile String error;
+
+        void finish(State state, String error) {
+            this.durationMs = (System.nanoTime() - startedAt) / 1_000_000;
+            this.error = error;
+            this.state = state;
+        }
+
+        Map<String, Object> toHealth() {
+            Map<String, Object> health = new LinkedHashMap<>();
+            health.put("state", state.name().toLowerCase(Locale.ROOT));
+            health.put("durationMs", durationMs >= 0 ? durationMs : null);
+            if (error != null) {
+                health.put("error", error);
+            }
+            return health;
+        }
+    }
+}
@@ -7,25 +7,59 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Standard input/output transport for MCP communication.
  * This is the traditional MCP transport method where messages are exchanged
  * via stdin/stdout using JSON-RPC over stdio.
+ * <p>
+ * Messages are newline-delimited JSON. A client may send a {@value #SET_ENCODING_METHOD}
+ * request with params {"encoding": "smile"|"cbor"|"json"}; after the JSON response to
+ * it, both directions switch to that encoding, each message framed by a 4-byte
+ * big-endian length (or back to JSON lines).
  */
 public class McpStdioTransport {
 
     private static final Logger LOG = LogManager.getLogger("MCP-STDIO");
 
+    private static final McpRequestContext STDIO_CONTEXT = new McpRequestContext("stdio", "stdio");
+
+    public static final String SET_ENCODING_METHOD = "mcreator/setEncoding";
+
+    private static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+
     private final McpServer mcpServer;
+    private final McpMetrics metrics;
+    private final McpTracer tracer;
+    private final McpRequestLogger requestLogger;
     private final ObjectMapper objectMapper;
     private final AtomicBoolean running;
+    private final InputStream input;
+    private final PrintStream output;
+    private volatile McpWireFormat inputFormat = McpWireFormat.JSON;
+    private McpWireFormat outputFormat = McpWireFormat.JSON;
     private Thread readerThread;
 
     public McpStdioTransport(McpServer mcpServer) {
+        this(mcpServer, System.in, System.out);
+    }
+
+    /**
+     * Create a transport that exchanges messages over the given streams instead of
+     * stdin/stdout, e.g. pipes in load tests
+     */
+    public McpStdioTransport(McpServer mcpServer, InputStream input, PrintStream output) {
+        this.input = input;
+        this.output = output;
         this.mcpServer = mcpServer;
-        this.objectMapper = new ObjectMapper();
+        this.metrics = mcpServer.getMetrics();
+        this.tracer = mcpServer.getTracer();
+        this.requestLogger = mcpServer.getRequestLogger();
+        this.objectMapper = McpWireFormat.JSON.mapper();
         this.running = new AtomicBoolean(false);
     }
 
@@ -39,6 +73,7 @@ public class McpStdioTransport {
         }
 
         running.set(true);
+        mcpServer.getSessions().open(STDIO_CONTEXT);
         
         // Start reader thread to process stdin
         readerThread = new Thread(this::processStdin, "MCP-Stdio-Reader");
@@ -57,6 +92,7 @@ public class McpStdioTransport {
         }
 
         running.set(false);
+        mcpServer.getSessions().close(STDIO_CONTEXT);
         
         if (readerThread != null && readerThread.isAlive()) {
             readerThread.interrupt();
@@ -69,19 +105,24 @@ public class McpStdioTransport {
      * Process incoming messages from stdin
      */
     private void processStdin() {
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
-            
-            String line;
-            while (running.get() && (line = reader.readLine()) != null) {
-                if (line.trim().isEmpty()) {
+        try (InputStream in = input) {
+            MessageReader reader = new MessageReader(in);
+            while (running.get()) {
+                McpWireFormat format = inputFormat;
+                byte[] message = format.isBinary() ? reader.readFrame() : reader.readLine();
+                if (message == null) {
+                    break;
+                }
+                metrics.counter("mcp_transport_bytes_total", "Bytes read and written by transports",
+                    "transport", "stdio", "direction", "read").add(message.length + (format.isBinary() ? 4 : 1));
+                if (!format.isBinary() && isBlank(message)) {
                     continue;
                 }
                 
                 try {
-                    processMessage(line);
+                    processMessage(message, format);
                 } catch (Exception e) {
-                    LOG.error("Error processing stdin message: " + line, e);
+                    LOG.error("Error processing stdin message", e);
                     sendErrorToStdout(null, -32603, "Internal error", e.getMessage());
                 }
             }
@@ -94,30 +135,76 @@ public class McpStdioTransport {
         }
     }
 
+    private static boolean isBlank(byte[] line) {
+        for (byte b : line) {
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Process a single JSON-RPC message
      */
-    private void processMessage(String messageJson) {
-        LOG.debug("Received stdio message: {}", messageJson);
+    private void processMessage(byte[] message, McpWireFormat format) {
+        if (!format.isBinary()) {
+            requestLogger.inbound(STDIO_CONTEXT, new String(message, StandardCharsets.UTF_8));
+        }
         
+        McpTracer.Trace trace = null;
         try {
             // Parse JSON-RPC message
-            JsonRpcMessage request = objectMapper.readValue(messageJson, JsonRpcMessage.class);
+            long parseStart = System.nanoTime();
+            JsonRpcMessage request = (format.isBinary() ? format.mapper() : objectMapper)
+                .readValue(message, JsonRpcMessage.class);
+            recordSerialization("parse", parseStart);
+            if (format.isBinary() && requestLogger.isActive()) {
+                requestLogger.inbound(STDIO_CONTEXT, objectMapper.writeValueAsString(request));
+            }
+
+            if (SET_ENCODING_METHOD.equals(request.getMethod())) {
+                switchEncoding(request);
+                return;
+            }
             
-            // Process message
-            JsonRpcMessage response = mcpServer.processMessage(request);
+            trace = tracer.begin(request, STDIO_CONTEXT, parseStart);
+            tracer.addSpan("parse", parseStart, System.nanoTime());
             
-            // Send response to stdout (if not a notification)
-            if (response != null) {
-                sendResponseToStdout(response);
-            }
+            // Process message; mutating and heavy tools complete on their lane, so the
+            // reader can go on with the next message while they run
+            McpTracer.Trace requestTrace = trace;
+            trace = null;
+            mcpServer.processMessageAsync(request, STDIO_CONTEXT)
+                .whenComplete((response, error) -> completeMessage(requestTrace, request, response, error));
+            tracer.attach(null);
             
         } catch (JsonProcessingException e) {
-            LOG.error("Invalid JSON in stdio message", e);
+            LOG.error("Invalid message on stdio", e);
             sendErrorToStdout(null, -32700, "Parse error", "Invalid JSON: " + e.getMessage());
         } catch (Exception e) {
             LOG.error("Error processing stdio message", e);
             sendErrorToStdout(null, -32603, "Internal error", e.getMessage());
+        } finally {
+            tracer.finish(trace);
+        }
+    }
+
+    /**
+     * Send the response of a processed message to stdout (if not a notification) and finish its trace
+     */
+    private void completeMessage(McpTracer.Trace trace, JsonRpcMessage request, JsonRpcMessage response,
+            Throwable error) {
+        tracer.attach(trace);
+        try {
+            if (error != null) {
+                LOG.error("Error processing stdio message", error);
+                sendErrorToStdout(request.getId(), -32603, "Internal error", error.getMessage());
+            } else if (response != null) {
+                sendResponseToStdout(response);
+            }
+        } finally {
+            tracer.finish(trace);
         }
     }
 
@@ -126,14 +213,39 @@ public class McpStdioTransport {
      */
     private void sendResponseToStdout(JsonRpcMessage response) {
         try {
-            String responseJson = objectMapper.writeValueAsString(response);
-            
-            synchronized (System.out) {
-                System.out.println(responseJson);
-                System.out.flush();
+            long written;
+            long serializeStart;
+            long writeStart;
+            synchronized (output) {
+                // Serialized under the lock so the format cannot change in between
+                McpWireFormat format = outputFormat;
+                serializeStart = System.nanoTime();
+                byte[] body = (format.isBinary() ? format.mapper() : objectMapper).writeValueAsBytes(response);
+                recordSerialization("serialize", serializeStart);
+
+                writeStart = System.nanoTime();
+                if (format.isBinary()) {
+                    output.write(new byte[] {(byte) (body.length >>> 24), (byte) (body.length >>> 16),
+                        (byte) (body.length >>> 8), (byte) body.length}, 0, 4);
+                    output.write(body, 0, body.length);
+                    written = body.length + 4;
+                } else {
+                    output.write(body, 0, body.length);
+                    output.write('\n');
+                    written = body.length + 1;
+                }
+                output.flush();
+                if (requestLogger.isActive()) {
+                    requestLogger.outbound(STDIO_CONTEXT, format.isBinary()
+                        ? objectMapper.writeValueAsString(response) : new String(body, StandardCharsets.UTF_8));
+                }
             }
-            
-            LOG.debug("Sent stdio response: {}", responseJson);
+            tracer.addSpan("serialize", serializeStart, writeStart);
+            tracer.addSpan("write", writeStart, System.nanoTime());
+            metrics.recordSince("mcp_transport_io_seconds", "Transport read and write latency", writeStart,
+                "transport", "stdio", "direction", "write");
+            metrics.counter("mcp_transport_bytes_total", "Bytes read and written by transports",
+                "transport", "stdio", "direction", "write").add(written);
             
         } catch (JsonProcessingException e) {
             LOG.error("Error serializing response to JSON", e);
@@ -169,6 +281,123 @@ public class McpStdioTransport {
         }
     }
 
+    /**
+     * Answer an encoding handshake in the current encoding, then switch both directions
+     */
+    private void switchEncoding(JsonRpcMessage request) {
+        Object requested = request.getParams() != null ? request.getParams().get("encoding") : null;
+        McpWireFormat format = requested instanceof String name ? McpWireFormat.byName(name) : null;
+        if (format == null) {
+            sendErrorToStdout(request.getId(), -32602, "Invalid params",
+                "encoding must be one of json, smile, cbor");
+            return;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("encoding", format.getName());
+        result.put("framing", format.isBinary() ? "length-prefixed" : "newline");
+        synchronized (output) {
+            sendResponseToStdout(new JsonRpcMessage(request.getId(), result));
+            outputFormat = format;
+        }
+        inputFormat = format;
+        metrics.increment("mcp_wire_format_switches_total", "Stdio encoding handshakes", "format", format.getName());
+        LOG.info("Stdio transport switched to {} encoding", format.getName());
+    }
+
+    private void recordSerialization(String operation, long startNanos) {
+        metrics.recordSince("mcp_serialization_seconds", "JSON-RPC parse and serialize latency", startNanos,
+            "transport", "stdio", "operation", operation);
+    }
+
+    /**
+     * Reads newline-delimited or length-prefixed messages from a stream through one buffer
+     */
+    private static final class MessageReader {
+        private final InputStream in;
+        private byte[] buffer = new byte[64 * 1024];
+        private int position;
+        private int limit;
+
+        MessageReader(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * Next line without its terminator, or null at the end of the stream
+         */
+        byte[] readLine() throws IOException {
+            int scanned = 0;
+            while (true) {
+                for (int i = position + scanned; i < limit; i++) {
+                    if (buffer[i] == '\n') {
+                        int end = i > position && buffer[i - 1] == '\r' ? i - 1 : i;
+                        byte[] line = Arrays.copyOfRange(buffer, position, end);
+                        position = i + 1;
+                        return line;
+                    }
+                }
+                scanned = limit - position;
+                if (!fill(scanned + 1)) {
+                    if (limit > position) {
+                        byte[] line = Arrays.copyOfRange(buffer, position, limit);
+                        position = limit;
+                        return line;
+                    }
+                    return null;
+                }
+            }
+        }
+
+        /**
+         * Next length-prefixed frame, or null at the end of the stream
+         */
+        byte[] readFrame() throws IOException {
+            if (!fill(4)) {
+                if (limit > position) {
+                    throw new EOFException("Stream ended inside a frame header");
+                }
+                return null;
+            }
+            int length = ((buffer[position] & 0xFF) << 24) | ((buffer[position + 1] & 0xFF) << 16)
+                | ((buffer[position + 2] & 0xFF) << 8) | (buffer[position + 3] & 0xFF);
+            if (length < 0 || length > MAX_FRAME_BYTES) {
+                throw new IOException("Invalid frame length " + length);
+            }
+            if (!fill(4 + length)) {
+                throw new EOFException("Stream ended inside a frame");
+            }
+            byte[] frame = Arrays.copyOfRange(buffer, position + 4, position + 4 + length);
+            position += 4 + length;
+            return frame;
+        }
+
+        /**
+         * Make at least the given number of bytes available after the position, reading
+         * as needed. Returns false if the stream ends first.
+         */
+        private boolean fill(int needed) throws IOException {
+            while (limit - position < needed) {
+                if (position > 0) {
+                    System.arraycopy(buffer, position, buffer, 0, limit - position);
+                    limit -= position;
+                    position = 0;
+                }
+                if (needed > buffer.length) {
+                    buffer = Arrays.copyOf(buffer, Math.max(needed, buffer.length * 2));
+                } else if (limit == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int count = in.read(buffer, limit, buffer.length - limit);
+                if (count < 0) {
+                    return false;
+                }
+                limit += count;
+            }
+            return true;
+        }
+    }
+
     /**
      * Check if transport is running
      */
@@ -0,0 +1,39 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a method as an MCP tool. Tool methods return {@link McpTypes.ToolResult} and
+ * take either no parameters or a single record whose components are the tool's arguments
+ * (see {@link McpParam}). At compile time the tool processor generates a
+ * {@code <Class>_McpTools} class next to the declaring class, holding the tool
+ * definitions with their schemas and the argument binders, and a {@code register}
+ * method that registers them without reflection.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface McpTool {
+
+    /**
+     * Tool name, the method name if empty
+     */
+    String name() default "";
+
+    String description();
+
+    McpToolClass toolClass() default McpToolClass.MUTATING;
+
+    /**
+     * Record the tool returns as structuredContent, described by its outputSchema
+     */
+    Class<?> output() default void.class;
+
+    /**
+     * Whether the tool acts on a workspace, so its input schema gets the optional
+     * {@code workspace} argument naming which one
+     */
+    boolean workspaceScoped() default true;
+}
@@ -0,0 +1,126 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checked access to tool arguments, used by the binders generated from {@link McpTool}
+ * methods. Values are returned as parsed from the request, so binding a valid request
+ * allocates nothing beyond the argument record; messages are only built on failure.
+ */
+public final class McpToolArguments {
+
+    private McpToolArguments() {
+    }
+
+    public static String string(Map<String, Object> params, String tool, String name, boolean required)
+            throws InvalidArgumentsException {
+        Object value = get(params, tool, name, required);
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        throw invalid(tool, name, "must be a string");
+    }
+
+    public static Boolean bool(Map<String, Object> params, String tool, String name, boolean required)
+            throws InvalidArgumentsException {
+        Object value = get(params, tool, name, required);
+        if (value == null || value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        throw invalid(tool, name, "must be a boolean");
+    }
+
+    /**
+     * An integral argument within [min, max], or null if absent
+     */
+    public static Number integer(Map<String, Object> params, String tool, String name, boolean required,
+                                 long min, long max) throws InvalidArgumentsException {
+        Object value = get(params, tool, name, required);
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Number number) || !isIntegral(number)) {
+            throw invalid(tool, name, "must be an integer");
+        }
+        long longValue = number.longValue();
+        if (longValue < min || longValue > max) {
+            throw invalid(tool, name, "must be between " + min + " and " + max);
+        }
+        return number;
+    }
+
+    /**
+     * A numeric argument within [min, max], or null if absent
+     */
+    public static Number number(Map<String, Object> params, String tool, String name, boolean required,
+                                double min, double max) throws InvalidArgumentsException {
+        Object value = get(params, tool, name, required);
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Number number)) {
+            throw invalid(tool, name, "must be a number");
+        }
+        double doubleValue = number.doubleValue();
+        if (!(doubleValue >= min && doubleValue <= max)) {
+            throw invalid(tool, name, "must be between " + min + " and " + max);
+        }
+        return number;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<String> stringList(Map<String, Object> params, String tool, String name, boolean required)
+            throws InvalidArgumentsException {
+        Object value = get(params, tool, name, required);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof List<?> list) {
+            for (Object item : list) {
+                if (!(item instanceof String)) {
+                    throw invalid(tool, name, "must be an array of strings");
+                }
+            }
+            return (List<String>) list;
+        }
+        throw invalid(tool, name, "must be an array of strings");
+    }
+
+    private static Object get(Map<String, Object> params, String tool, String name, boolean required)
+            throws InvalidArgumentsException {
+        Object value = params != null ? params.get(name) : null;
+        if (value == null && required) {
+            throw invalid(tool, name, "is required");
+        }
+        return value;
+    }
+
+    private static boolean isIntegral(Number number) {
+        if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+            return true;
+        } else if (number instanceof BigInteger bigInteger) {
+            return bigInteger.bitLength() < 64;
+        } else if (number instanceof BigDecimal bigDecimal) {
+            return bigDecimal.stripTrailingZeros().scale() <= 0 && bigDecimal.abs().compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) <= 0;
+        }
+        double value = number.doubleValue();
+        return value == Math.rint(value) && Math.abs(value) <= Long.MAX_VALUE;
+    }
+
+    private static InvalidArgumentsException invalid(String tool, String name, String problem) {
+        return new InvalidArgumentsException("Invalid arguments for tool '" + tool + "': '" + name + "' " + problem);
+    }
+
+    /**
+     * Thrown when tool arguments do not match the tool's input schema. It is answered
+     * with JSON-RPC error -32602 before the tool runs.
+     */
+    public static class InvalidArgumentsException extends Exception {
+        public InvalidArgumentsException(String message) {
+            super(message);
+        }
+    }
+}
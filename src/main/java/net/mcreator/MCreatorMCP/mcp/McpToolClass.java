@@ -0,0 +1,29 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import java.util.Locale;
+
+/**
+ * Cost and side-effect class of a tool, used to apply different limits to cheap
+ * queries, workspace mutations and long-running build or run jobs.
+ */
+public enum McpToolClass {
+
+    /** Queries that do not change the workspace */
+    READ_ONLY,
+
+    /** Queries that may wait a while, e.g. for a run to become ready; they run on a shared pool */
+    WAITING,
+
+    /** Tools that change the workspace, usually on the EDT */
+    MUTATING,
+
+    /** Gradle builds, full regeneration and client/server runs */
+    BUILD_RUN;
+
+    /**
+     * Label used in metrics, health output and configuration keys
+     */
+    public String label() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
@@ -0,0 +1,256 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lightweight request tracing. Each MCP message gets a trace with one span per
+ * processing stage (parse, handler lookup, EDT queueing, tool action, serialization,
+ * write). Completed traces are kept in a fixed-size ring buffer so the slowest recent
+ * requests can be inspected, or exported as OpenTelemetry (OTLP/JSON) spans.
+ *
+ * <p>The trace being processed is bound to the current thread, so stages deep in the
+ * call chain can add spans without the trace being passed around.</p>
+ */
+public class McpTracer {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final AtomicReferenceArray<Trace> completed;
+    private final AtomicLong writeIndex = new AtomicLong();
+    private final ThreadLocal<Trace> currentTrace = new ThreadLocal<>();
+    private volatile boolean enabled = true;
+
+    public McpTracer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public McpTracer(int capacity) {
+        this.completed = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Start a trace for a message and bind it to the current thread. The trace
+     * starts at startNanos so stages that ran before the message was known, such
+     * as parsing, can be included.
+     */
+    public Trace begin(JsonRpcMessage message, McpRequestContext context, long startNanos) {
+        if (!enabled) {
+            return null;
+        }
+        Trace trace = new Trace(message.getId(), message.getMethod(), context, startNanos);
+        currentTrace.set(trace);
+        return trace;
+    }
+
+    /**
+     * Get the trace bound to the current thread, or null if none
+     */
+    public Trace current() {
+        return currentTrace.get();
+    }
+
+    /**
+     * Bind a trace to the current thread, e.g. when its request moves to another
+     * thread. Passing null unbinds the current trace without finishing it.
+     */
+    public void attach(Trace trace) {
+        if (trace != null) {
+            currentTrace.set(trace);
+        } else {
+            currentTrace.remove();
+        }
+    }
+
+    /**
+     * Add a completed stage to the trace of the current thread, if any
+     */
+    public void addSpan(String stage, long startNanos, long endNanos) {
+        Trace trace = currentTrace.get();
+        if (trace != null) {
+            trace.addSpan(stage, startNanos, endNanos);
+        }
+    }
+
+    /**
+     * Complete a trace, unbind it from the current thread and store it in the ring buffer
+     */
+    public void finish(Trace trace) {
+        if (trace == null) {
+            return;
+        }
+        if (currentTrace.get() == trace) {
+            currentTrace.remove();
+        }
+        trace.endNanos = System.nanoTime();
+        int slot = (int) (writeIndex.getAndIncrement() % completed.length());
+        completed.set(slot, trace);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Get the slowest traces currently held in the ring buffer, slowest first
+     */
+    public List<Trace> getSlowest(int limit) {
+        List<Trace> traces = new ArrayList<>(completed.length());
+        for (int i = 0; i < completed.length(); i++) {
+            Trace trace = completed.get(i);
+            if (trace != null) {
+                traces.add(trace);
+            }
+        }
+        traces.sort(Comparator.comparingLong(Trace::getDurationNanos).reversed());
+        return traces.subList(0, Math.min(Math.max(limit, 0), traces.size()));
+    }
+
+    /**
+     * Summaries of the slowest recent traces with their stage breakdown
+     */
+    public List<Map<String, Object>> toSummaries(int limit) {
+        List<Map<String, Object>> summaries = new ArrayList<>();
+        for (Trace trace : getSlowest(limit)) {
+            summaries.add(trace.toSummary());
+        }
+        return summaries;
+    }
+
+    /**
+     * Export the slowest recent traces in OpenTelemetry OTLP/JSON format, as accepted
+     * by OTLP/HTTP collectors and trace viewers
+     */
+    public Map<String, Object> toOtlp(int limit, String serviceName) {
+        List<Map<String, Object>> spans = new ArrayList<>();
+        for (Trace trace : getSlowest(limit)) {
+            trace.appendOtlpSpans(spans);
+        }
+
+        Map<String, Object> resource = Map.of("attributes",
+            List.of(otlpAttribute("service.name", serviceName)));
+        Map<String, Object> scopeSpans = Map.of(
+            "scope", Map.of("name", "net.mcreator.MCreatorMCP"),
+            "spans", spans);
+        return Map.of("resourceSpans", List.of(Map.of(
+            "resource", resource,
+            "scopeSpans", List.of(scopeSpans))));
+    }
+
+    private static Map<String, Object> otlpAttribute(String key, Object value) {
+        return Map.of("key", key, "value", Map.of("stringValue", String.valueOf(value)));
+    }
+
+    private static String randomHex(int bytes) {
+        StringBuilder hex = new StringBuilder(bytes * 2);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < bytes; i++) {
+            int value = random.nextInt(256);
+            hex.append(Character.forDigit(value >> 4, 16));
+            hex.append(Character.forDigit(value & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Trace of a single MCP message
+     */
+    public static class Trace {
+        private final String traceId = randomHex(16);
+        private final String rootSpanId = randomHex(8);
+        private final Object rpcId;
+        private final String method;
+        private final McpRequestContext context;
+        private final long startNanos;
+        private final long startEpochNanos;
+        private final List<Span> spans = new ArrayList<>(8);
+        private volatile String tool;
+        private volatile long endNanos;
+
+        Trace(Object rpcId, String method, McpRequestContext context, long startNanos) {
+            this.rpcId = rpcId;
+            this.method = method;
+            this.context = context;
+            this.startNanos = startNanos;
+            this.startEpochNanos = System.currentTimeMillis() * 1_000_000L - (System.nanoTime() - startNanos);
+        }
+
+        public synchronized void addSpan(String stage, long spanStartNanos, long spanEndNanos) {
+            spans.add(new Span(stage, spanStartNanos, spanEndNanos));
+        }
+
+        public void setTool(String tool) {
+            this.tool = tool;
+        }
+
+        public String getTraceId() { return traceId; }
+
+        public long getDurationNanos() {
+            return endNanos - startNanos;
+        }
+
+        synchronized Map<String, Object> toSummary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("traceId", traceId);
+            summary.put("rpcId", rpcId);
+            summary.put("method", method);
+            summary.put("tool", tool);
+            summary.put("transport", context.getTransport());
+            summary.put("clientId", context.getClientId());
+            summary.put("startTimeMillis", startEpochNanos / 1_000_000L);
+            summary.put("durationMs", getDurationNanos() / 1_000_000.0);
+
+            List<Map<String, Object>> stages = new ArrayList<>();
+            for (Span span : spans) {
+                Map<String, Object> stage = new LinkedHashMap<>();
+                stage.put("stage", span.stage);
+                stage.put("offsetMs", (span.startNanos - startNanos) / 1_000_000.0);
+                stage.put("durationMs", (span.endNanos - span.startNanos) / 1_000_000.0);
+                stages.add(stage);
+            }
+            summary.put("stages", stages);
+            return summary;
+        }
+
+        synchronized void appendOtlpSpans(List<Map<String, Object>> out) {
+            List<Map<String, Object>> attributes = new ArrayList<>();
+            attributes.add(otlpAttribute("rpc.system", "jsonrpc"));
+            attributes.add(otlpAttribute("rpc.method", method));
+            attributes.add(otlpAttribute("rpc.jsonrpc.request_id", rpcId));
+            attributes.add(otlpAttribute("mcp.transport", context.getTransport()));
+            attributes.add(otlpAttribute("mcp.client_id", context.getClientId()));
+            if (tool != null) {
+                attributes.add(otlpAttribute("mcp.tool", tool));
+            }
+            out.add(otlpSpan(rootSpanId, null, method != null ? method : "message", startNanos, endNanos, attributes));
+
+            for (Span span : spans) {
+                out.add(otlpSpan(randomHex(8), rootSpanId, span.stage, span.startNanos, span.endNanos, List.of()));
+            }
+        }
+
+        private Map<String, Object> otlpSpan(String spanId, String parentSpanId, String name, long spanStart,
+                long spanEnd, List<Map<String, Object>> attributes) {
+            Map<String, Object> span = new LinkedHashMap<>();
+            span.put("traceId", traceId);
+            span.put("spanId", spanId);
+            if (parentSpanId != null) {
+                span.put("parentSpanId", parentSpanId);
+            }
+            span.put("name", name);
+            span.put("kind", parentSpanId == null ? 2 : 1); // SERVER for the root span, INTERNAL for stages
+            span.put("startTimeUnixNano", String.valueOf(startEpochNanos + (spanStart - startNanos)));
+            span.put("endTimeUnixNano", String.valueOf(startEpochNanos + (spanEnd - startNanos)));
+            span.put("attributes", attributes);
+            return span;
+        }
+    }
+
+    private record Span(String stage, long startNanos, long endNanos) {}
+}
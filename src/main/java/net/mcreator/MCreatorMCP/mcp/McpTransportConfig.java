@@ -0,0 +1,133 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Connection settings of the HTTP transport, read from mcreator.mcp.http.* system
+ * properties by {@link #fromSettings()}.
+ */
+public class McpTransportConfig {
+
+    private static final Logger LOG = LogManager.getLogger("MCP-HTTP");
+
+    private String engine = "jdk";
+    private int backlog = 128;
+    private int idleTimeoutSeconds = 30;
+    private int maxConnections = 512;
+    private int maxIdleConnections = 200;
+    private long maxRequestBodyBytes = 16L * 1024 * 1024;
+    private boolean keepAlive = true;
+    private boolean tcpNoDelay = true;
+    private int threads = 0;
+    private long drainTimeoutMs = 10_000;
+    private boolean jdkSystemProperties = false;
+
+    /**
+     * Create a configuration from the mcreator.mcp.http.* system properties
+     */
+    public static McpTransportConfig fromSettings() {
+        McpTransportConfig config = new McpTransportConfig();
+        config.setEngine(McpSettings.getString("http.engine", config.engine));
+        config.setBacklog(McpSettings.getInt("http.backlog", config.backlog));
+        config.setIdleTimeoutSeconds(McpSettings.getInt("http.idleTimeoutSeconds", config.idleTimeoutSeconds));
+        config.setMaxConnections(McpSettings.getInt("http.maxConnections", config.maxConnections));
+        config.setMaxIdleConnections(McpSettings.getInt("http.maxIdleConnections", config.maxIdleConnections));
+        config.setMaxRequestBodyBytes(McpSettings.getLong("http.maxRequestBodyBytes", config.maxRequestBodyBytes));
+        config.setKeepAlive(McpSettings.getBoolean("http.keepAlive", config.keepAlive));
+        config.setTcpNoDelay(McpSettings.getBoolean("http.tcpNoDelay", config.tcpNoDelay));
+        config.setThreads(McpSettings.getInt("http.threads", config.threads));
+        config.setDrainTimeoutMs(McpSettings.getLong("http.drainTimeoutMs", config.drainTimeoutMs));
+        config.setJdkSystemProperties(McpSettings.getBoolean("http.jdk.setSystemProperties", config.jdkSystemProperties));
+        return config;
+    }
+
+    /**
+     * Pass the connection settings to the JDK HTTP engine, which reads them from system
+     * properties once per JVM when its first server is created. This changes every JDK
+     * HttpServer in the MCreator process, so it is only done when enabled with
+     * {@link #setJdkSystemProperties}. Properties set explicitly on the command line take
+     * precedence.
+     */
+    void applyJdkServerProperties() {
+        setPropertyIfAbsent("sun.net.httpserver.idleInterval", idleTimeoutSeconds);
+        setPropertyIfAbsent("jdk.httpserver.maxConnections", maxConnections > 0 ? maxConnections : -1);
+        setPropertyIfAbsent("sun.net.httpserver.maxIdleConnections", keepAlive ? maxIdleConnections : 0);
+        setPropertyIfAbsent("sun.net.httpserver.nodelay", tcpNoDelay);
+        // Let the server drain unread request bodies up to the limit instead of closing the connection
+        setPropertyIfAbsent("sun.net.httpserver.drainAmount", Math.max(64 * 1024, Math.min(maxRequestBodyBytes, 1024 * 1024)));
+    }
+
+    /**
+     * Names of the settings changed from their defaults that only the nio engine applies
+     * itself; the jdk engine can only pass them on as JVM-wide properties.
+     */
+    List<String> getChangedNioOnlySettings() {
+        McpTransportConfig defaults = new McpTransportConfig();
+        List<String> changed = new ArrayList<>();
+        if (idleTimeoutSeconds != defaults.idleTimeoutSeconds) changed.add("http.idleTimeoutSeconds");
+        if (maxConnections != defaults.maxConnections) changed.add("http.maxConnections");
+        if (maxIdleConnections != defaults.maxIdleConnections) changed.add("http.maxIdleConnections");
+        if (tcpNoDelay != defaults.tcpNoDelay) changed.add("http.tcpNoDelay");
+        return changed;
+    }
+
+    private static void setPropertyIfAbsent(String key, Object value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, String.valueOf(value));
+        } else {
+            LOG.debug("Keeping {}={} set on the command line", key, System.getProperty(key));
+        }
+    }
+
+    /** HTTP engine serving the transport: "jdk" or "nio" */
+    public String getEngine() { return engine; }
+    public void setEngine(String engine) { this.engine = engine; }
+
+    /** Pending connections the listen socket queues before refusing new ones */
+    public int getBacklog() { return backlog; }
+    public void setBacklog(int backlog) { this.backlog = backlog; }
+
+    /** Seconds an idle keep-alive connection is kept open */
+    public int getIdleTimeoutSeconds() { return idleTimeoutSeconds; }
+    public void setIdleTimeoutSeconds(int idleTimeoutSeconds) { this.idleTimeoutSeconds = Math.max(1, idleTimeoutSeconds); }
+
+    /** Open connections accepted at once, or 0 for no limit */
+    public int getMaxConnections() { return maxConnections; }
+    public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+
+    /** Idle keep-alive connections kept open at once */
+    public int getMaxIdleConnections() { return maxIdleConnections; }
+    public void setMaxIdleConnections(int maxIdleConnections) { this.maxIdleConnections = maxIdleConnections; }
+
+    /** Largest accepted request body; larger requests get 413 */
+    public long getMaxRequestBodyBytes() { return maxRequestBodyBytes; }
+    public void setMaxRequestBodyBytes(long maxRequestBodyBytes) { this.maxRequestBodyBytes = maxRequestBodyBytes; }
+
+    /** Whether connections are kept open between requests */
+    public boolean isKeepAlive() { return keepAlive; }
+    public void setKeepAlive(boolean keepAlive) { this.keepAlive = keepAlive; }
+
+    /** Whether Nagle's algorithm is disabled, so small responses are not delayed */
+    public boolean isTcpNoDelay() { return tcpNoDelay; }
+    public void setTcpNoDelay(boolean tcpNoDelay) { this.tcpNoDelay = tcpNoDelay; }
+
+    /** Request handler threads, or 0 for a pool growing with demand */
+    public int getThreads() { return threads; }
+    public void setThreads(int threads) { this.threads = threads; }
+
+    /**
+     * Whether the jdk engine may set the JVM-wide sun.net.httpserver.* properties from
+     * this configuration. Without it, the jdk engine keeps the JDK defaults and only the
+     * nio engine applies the connection settings.
+     */
+    public boolean isJdkSystemProperties() { return jdkSystemProperties; }
+    public void setJdkSystemProperties(boolean jdkSystemProperties) { this.jdkSystemProperties = jdkSystemProperties; }
+
+    /** How long stopping or handing over waits for in-flight requests to complete */
+    public long getDrainTimeoutMs() { return drainTimeoutMs; }
+    public void setDrainTimeoutMs(long drainTimeoutMs) { this.drainTimeoutMs = Math.max(0, drainTimeoutMs); }
+}
@@ -127,6 +127,9 @@ public class McpTypes {
         @JsonProperty("inputSchema")
         private Map<String, Object> inputSchema;
 
+        @JsonProperty("outputSchema")
+        private Map<String, Object> outputSchema;
+
         public Tool() {}
 
         public Tool(String name, String description, Map<String, Object> inputSchema) {
@@ -135,6 +138,11 @@ public class McpTypes {
             this.inputSchema = inputSchema;
         }
 
+        public Tool(String name, String description, Map<String, Object> inputSchema, Map<String, Object> outputSchema) {
+            this(name, description, inputSchema);
+            this.outputSchema = outputSchema;
+        }
+
         public String getName() { return name; }
         public void setName(String name) { this.name = name; }
 
@@ -143,6 +151,12 @@ public class McpTypes {
 
         public Map<String, Object> getInputSchema() { return inputSchema; }
         public void setInputSchema(Map<String, Object> inputSchema) { this.inputSchema = inputSchema; }
+
+        /**
+         * JSON schema of the tool's structuredContent, or null if it only returns content blocks
+         */
+        public Map<String, Object> getOutputSchema() { return outputSchema; }
+        public void setOutputSchema(Map<String, Object> outputSchema) { this.outputSchema = outputSchema; }
     }
 
     /**
@@ -214,8 +228,9 @@ public class McpTypes {
         @JsonProperty("text")
         private String text;
         
+        // Base64 in JSON, raw bytes in the binary wire formats
         @JsonProperty("blob")
-        private String blob;
+        private byte[] blob;
 
         public ResourceContent() {}
 
@@ -234,8 +249,8 @@ public class McpTypes {
         public String getText() { return text; }
         public void setText(String text) { this.text = text; }
 
-        public String getBlob() { return blob; }
-        public void setBlob(String blob) { this.blob = blob; }
+        public byte[] getBlob() { return blob; }
+        public void setBlob(byte[] blob) { this.blob = blob; }
     }
 
     /**
@@ -272,6 +287,9 @@ public class McpTypes {
         @JsonProperty("content")
         private List<ToolContent> content;
         
+        @JsonProperty("structuredContent")
+        private Object structuredContent;
+
         @JsonProperty("isError")
         private Boolean isError;
 
@@ -282,9 +300,21 @@ public class McpTypes {
             this.isError = isError;
         }
 
+        public ToolResult(List<ToolContent> content, Object structuredContent, Boolean isError) {
+            this(content, isError);
+            this.structuredContent = structuredContent;
+        }
+
         public List<ToolContent> getContent() { return content; }
         public void setContent(List<ToolContent> content) { this.content = content; }
 
+        /**
+         * Result as a JSON value matching the tool's output schema, e.g. a map or a
+         * {@link CachedJson}, so clients do not have to parse it out of a text block
+         */
+        public Object getStructuredContent() { return structuredContent; }
+        public void setStructuredContent(Object structuredContent) { this.structuredContent = structuredContent; }
+
         public Boolean getIsError() { return isError; }
         public void setIsError(Boolean isError) { this.isError = isError; }
     }
@@ -0,0 +1,318 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unix domain socket transport for MCP clients on the same machine. Each connected
+ * client exchanges newline-delimited JSON-RPC messages as over stdio, without the
+ * TCP stack or a port to find. The socket file is created on start, replaced if a
+ * previous process left it behind, and deleted on stop.
+ */
+public class McpUnixSocketTransport {
+
+    private static final Logger LOG = LogManager.getLogger("MCP-Unix");
+
+    private final McpServer mcpServer;
+    private final McpMetrics metrics;
+    private final McpTracer tracer;
+    private final McpRequestLogger requestLogger;
+    private final ObjectMapper objectMapper;
+    private final Path socketPath;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicInteger clientCounter = new AtomicInteger();
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private ServerSocketChannel serverChannel;
+    private Thread acceptorThread;
+
+    public McpUnixSocketTransport(McpServer mcpServer, Path socketPath) {
+        this.mcpServer = mcpServer;
+        this.socketPath = socketPath;
+        this.metrics = mcpServer.getMetrics();
+        this.tracer = mcpServer.getTracer();
+        this.requestLogger = mcpServer.getRequestLogger();
+        this.objectMapper = McpWireFormat.JSON.mapper();
+    }
+
+    /**
+     * Socket path from the mcreator.mcp.unix.path system property, by default
+     * mcreator-mcp.sock in the temporary directory
+     */
+    public static Path defaultSocketPath() {
+        return Path.of(McpSettings.getString("unix.path",
+            Path.of(System.getProperty("java.io.tmpdir"), "mcreator-mcp.sock").toString()));
+    }
+
+    /**
+     * Start listening on the socket file
+     */
+    public void start() throws IOException {
+        if (running.get()) {
+            LOG.warn("Unix socket transport already running");
+            return;
+        }
+
+        removeStaleSocket();
+        serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        serverChannel.bind(UnixDomainSocketAddress.of(socketPath));
+        try {
+            // Only the current user may connect
+            Files.setPosixFilePermissions(socketPath, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            LOG.debug("Cannot restrict permissions of {} on this file system", socketPath);
+        }
+
+        running.set(true);
+        acceptorThread = new Thread(this::acceptClients, "MCP-Unix-Acceptor");
+        acceptorThread.setDaemon(true);
+        acceptorThread.start();
+
+        LOG.info("MCP unix socket transport started on {}", socketPath);
+    }
+
+    /**
+     * Stop accepting clients, disconnect the connected ones and delete the socket file
+     */
+    public void stop() {
+        if (!running.getAndSet(false)) {
+            return;
+        }
+
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            LOG.debug("Error closing unix socket", e);
+        }
+        for (Client client : clients) {
+            client.close();
+        }
+        try {
+            Files.deleteIfExists(socketPath);
+        } catch (IOException e) {
+            LOG.warn("Could not delete socket file {}", socketPath, e);
+        }
+
+        LOG.info("MCP unix socket transport stopped");
+    }
+
+    /**
+     * Delete a socket file left behind by a process that did not shut down cleanly.
+     * A socket that still accepts connections belongs to a running server and is kept.
+     */
+    private void removeStaleSocket() throws IOException {
+        if (!Files.exists(socketPath)) {
+            return;
+        }
+        boolean live;
+        try {
+            SocketChannel.open(UnixDomainSocketAddress.of(socketPath)).close();
+            live = true;
+        } catch (IOException e) {
+            live = false;
+        }
+        if (live) {
+            throw new IOException("Another MCP server is listening on " + socketPath);
+        }
+        LOG.info("Removing stale socket file {}", socketPath);
+        Files.delete(socketPath);
+    }
+
+    private void acceptClients() {
+        while (running.get()) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                Client client = new Client(channel, clientCounter.incrementAndGet());
+                clients.add(client);
+                metrics.increment("mcp_unix_connections_total", "Unix socket connections accepted");
+                Thread reader = new Thread(client::readMessages, "MCP-Unix-Client-" + client.id);
+                reader.setDaemon(true);
+                reader.start();
+            } catch (ClosedChannelException e) {
+                break;
+            } catch (IOException e) {
+                if (running.get()) {
+                    LOG.error("Error accepting unix socket client", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Send a notification to every connected client
+     */
+    public void sendNotification(String method, Object params) {
+        JsonRpcMessage notification = new JsonRpcMessage();
+        notification.setMethod(method);
+        if (params instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> paramsMap = (Map<String, Object>) params;
+            notification.setParams(paramsMap);
+        }
+        for (Client client : clients) {
+            client.send(notification);
+        }
+    }
+
+    public Path getSocketPath() {
+        return socketPath;
+    }
+
+    /**
+     * Number of connected clients
+     */
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private void recordSerialization(String operation, long startNanos) {
+        metrics.recordSince("mcp_serialization_seconds", "JSON-RPC parse and serialize latency", startNanos,
+            "transport", "unix", "operation", operation);
+    }
+
+    /**
+     * A connected client. Messages are read on the client's own thread and handed to the
+     * server asynchronously, so the responses of concurrent requests may be written in
+     * any order, each as one line.
+     */
+    private class Client {
+        private final SocketChannel channel;
+        private final int id;
+        private final McpRequestContext context;
+        private final Writer writer;
+
+        Client(SocketChannel channel, int id) {
+            this.channel = channel;
+            this.id = id;
+            // Every client of the socket is local; the connection only names the session
+            this.context = new McpRequestContext("unix", "local", "client-" + id);
+            this.writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+        }
+
+        void readMessages() {
+            mcpServer.getSessions().open(context);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    metrics.counter("mcp_transport_bytes_total", "Bytes read and written by transports",
+                        "transport", "unix", "direction", "read").add(line.length() + 1);
+                    if (!line.isBlank()) {
+                        processMessage(line);
+                    }
+                }
+            } catch (IOException e) {
+                if (running.get() && channel.isOpen()) {
+                    LOG.debug("Unix socket client {} disconnected: {}", id, e.getMessage());
+                }
+            } finally {
+                close();
+            }
+        }
+
+        private void processMessage(String messageJson) {
+            requestLogger.inbound(context, messageJson);
+
+            McpTracer.Trace trace = null;
+            try {
+                long parseStart = System.nanoTime();
+                JsonRpcMessage request = objectMapper.readValue(messageJson, JsonRpcMessage.class);
+                recordSerialization("parse", parseStart);
+
+                trace = tracer.begin(request, context, parseStart);
+                tracer.addSpan("parse", parseStart, System.nanoTime());
+
+                McpTracer.Trace requestTrace = trace;
+                trace = null;
+                mcpServer.processMessageAsync(request, context)
+                    .whenComplete((response, error) -> completeMessage(requestTrace, request, response, error));
+                tracer.attach(null);
+
+            } catch (JsonProcessingException e) {
+                LOG.error("Invalid JSON from unix socket client {}", id, e);
+                send(new JsonRpcMessage(null, new JsonRpcMessage.JsonRpcError(-32700, "Parse error",
+                    "Invalid JSON: " + e.getMessage())));
+            } catch (Exception e) {
+                LOG.error("Error processing unix socket message", e);
+                send(new JsonRpcMessage(null, new JsonRpcMessage.JsonRpcError(-32603, "Internal error", e.getMessage())));
+            } finally {
+                tracer.finish(trace);
+            }
+        }
+
+        private void completeMessage(McpTracer.Trace trace, JsonRpcMessage request, JsonRpcMessage response,
+                Throwable error) {
+            tracer.attach(trace);
+            try {
+                if (error != null) {
+                    LOG.error("Error processing unix socket message", error);
+                    send(new JsonRpcMessage(request.getId(),
+                        new JsonRpcMessage.JsonRpcError(-32603, "Internal error", error.getMessage())));
+                } else if (response != null) {
+                    send(response);
+                }
+            } finally {
+                tracer.finish(trace);
+            }
+        }
+
+        void send(JsonRpcMessage message) {
+            try {
+                long serializeStart = System.nanoTime();
+                String json = objectMapper.writeValueAsString(message);
+                recordSerialization("serialize", serializeStart);
+
+                long writeStart = System.nanoTime();
+                tracer.addSpan("serialize", serializeStart, writeStart);
+                synchronized (writer) {
+                    writer.write(json);
+                    writer.write('\n');
+                    writer.flush();
+                }
+                tracer.addSpan("write", writeStart, System.nanoTime());
+                metrics.recordSince("mcp_transport_io_seconds", "Transport read and write latency", writeStart,
+                    "transport", "unix", "direction", "write");
+                metrics.counter("mcp_transport_bytes_total", "Bytes read and written by transports",
+                    "transport", "unix", "direction", "write").add(json.length() + 1);
+
+                requestLogger.outbound(context, json);
+            } catch (IOException e) {
+                LOG.debug("Could not write to unix socket client {}: {}", id, e.getMessage());
+                close();
+            }
+        }
+
+        void close() {
+            if (clients.remove(this)) {
+                mcpServer.getSessions().close(context);
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    LOG.debug("Error closing unix socket client", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,624 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebSocket transport for MCP communication at ws://localhost:&lt;port&gt;/mcp/ws.
+ * Each text (or binary) message carries one JSON-RPC message. Requests on a
+ * connection are processed concurrently and their responses are sent as they
+ * complete, matched to requests by id; server notifications are pushed to all
+ * connections.
+ * <p>
+ * Each connection admits a bounded number of requests in flight and stops reading
+ * beyond that, so a client sending faster than the server answers is slowed down by
+ * TCP flow control. Outgoing frames go through a bounded queue, which never blocks
+ * the thread completing a request: a client whose queue is full when a response
+ * arrives, or that leaves a write blocked for too long, is disconnected, and
+ * notifications it has no room for are dropped. Connections are pinged periodically
+ * and closed when silent.
+ * <p>
+ * Browsers let any web page open WebSocket connections to localhost, so handshakes
+ * are only accepted without an Origin header, from local origins or from origins
+ * listed in mcreator.mcp.ws.allowedOrigins. The number of open connections is capped.
+ */
+public class McpWebSocketTransport {
+
+    private static final Logger LOG = LogManager.getLogger("MCP-WebSocket");
+
+    public static final String PATH = "/mcp/ws";
+
+    private static final int MAX_HANDSHAKE_BYTES = 16 * 1024;
+
+    private final McpServer mcpServer;
+    private final McpMetrics metrics;
+    private final McpTracer tracer;
+    private final McpRequestLogger requestLogger;
+    private final ObjectMapper objectMapper;
+    private final int port;
+    private final long maxMessageBytes;
+    private final int maxInFlight;
+    private final int sendQueueSize;
+    private final long sendTimeoutMs;
+    private final int pingIntervalSeconds;
+    private final Set<String> allowedOrigins;
+    private final Semaphore connectionSlots;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicInteger connectionCounter = new AtomicInteger();
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private ServerSocket serverSocket;
+    private ScheduledExecutorService pinger;
+
+    public McpWebSocketTransport(McpServer mcpServer, int port) {
+        this.mcpServer = mcpServer;
+        this.port = port;
+        this.metrics = mcpServer.getMetrics();
+        this.tracer = mcpServer.getTracer();
+        this.requestLogger = mcpServer.getRequestLogger();
+        this.objectMapper = McpWireFormat.JSON.mapper();
+        this.maxMessageBytes = McpSettings.getLong("ws.maxMessageBytes", 16L * 1024 * 1024);
+        this.maxInFlight = Math.max(1, McpSettings.getInt("ws.maxInFlight", 64));
+        this.sendQueueSize = Math.max(4, McpSettings.getInt("ws.sendQueueSize", 256));
+        this.sendTimeoutMs = McpSettings.getLong("ws.sendTimeoutMs", 10_000);
+        this.pingIntervalSeconds = Math.max(1, McpSettings.getInt("ws.pingIntervalSeconds", 30));
+        this.allowedOrigins = new HashSet<>();
+        for (String origin : McpSettings.getString("ws.allowedOrigins", "").split(",")) {
+            if (!origin.isBlank()) {
+                allowedOrigins.add(origin.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        this.connectionSlots = new Semaphore(Math.max(1, McpSettings.getInt("ws.maxConnections", 64)));
+    }
+
+    /**
+     * Start accepting WebSocket connections
+     */
+    public void start() throws IOException {
+        if (running.get()) {
+            LOG.warn("WebSocket transport already running");
+            return;
+        }
+
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress("localhost", port));
+        running.set(true);
+
+        Thread acceptor = new Thread(this::acceptConnections, "MCP-WebSocket-Acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        pinger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MCP-WebSocket-Ping");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pinger.scheduleAtFixedRate(this::pingConnections, pingIntervalSeconds, pingIntervalSeconds, TimeUnit.SECONDS);
+        pinger.scheduleAtFixedRate(this::closeStalledConnections, 1, 1, TimeUnit.SECONDS);
+
+        LOG.info("MCP WebSocket transport started on ws://localhost:{}{}", getPort(), PATH);
+    }
+
+    /**
+     * Close all connections with a going-away frame and stop accepting new ones
+     */
+    public void stop() {
+        if (!running.getAndSet(false)) {
+            return;
+        }
+
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            LOG.debug("Error closing WebSocket server socket", e);
+        }
+        List<Connection> open = new ArrayList<>(connections);
+        for (Connection connection : open) {
+            connection.close(WebSocketCodec.CLOSE_GOING_AWAY, "Server shutting down");
+        }
+        for (Connection connection : open) {
+            connection.awaitClosed(500);
+        }
+        pinger.shutdownNow();
+
+        LOG.info("MCP WebSocket transport stopped");
+    }
+
+    private void acceptConnections() {
+        while (running.get()) {
+            try {
+                Socket socket = serverSocket.accept();
+                if (!connectionSlots.tryAcquire()) {
+                    rejectConnection(socket);
+                    continue;
+                }
+                socket.setTcpNoDelay(true);
+                Connection connection = new Connection(socket, connectionCounter.incrementAndGet());
+                Thread reader = new Thread(connection::run, "MCP-WebSocket-" + connection.id);
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (running.get()) {
+                    LOG.error("Error accepting WebSocket connection", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Turn away a connection beyond the connection limit
+     */
+    private void rejectConnection(Socket socket) {
+        metrics.increment("mcp_ws_rejected_total", "WebSocket connections rejected", "reason", "limit");
+        try (socket) {
+            socket.getOutputStream().write("HTTP/1.1 503 Service Unavailable\r\nContent-Length: 0\r\nConnection: close\r\n\r\n"
+                .getBytes(StandardCharsets.ISO_8859_1));
+        } catch (IOException e) {
+            LOG.debug("Error rejecting WebSocket connection", e);
+        }
+    }
+
+    /**
+     * Whether a handshake with the given Origin header may open a connection: clients
+     * other than browsers send none, and local pages and configured origins are allowed
+     */
+    boolean isOriginAllowed(String origin) {
+        if (origin == null || allowedOrigins.contains("*")) {
+            return true;
+        }
+        String normalized = origin.trim().toLowerCase(Locale.ROOT);
+        if (allowedOrigins.contains(normalized)) {
+            return true;
+        }
+        try {
+            URI uri = new URI(normalized);
+            String host = uri.getHost();
+            return ("http".equals(uri.getScheme()) || "https".equals(uri.getScheme()))
+                && ("localhost".equals(host) || "127.0.0.1".equals(host) || "[::1]".equals(host));
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Close connections whose writer has been blocked for longer than the send timeout
+     * on a client that does not read; closing the socket ends the blocked write
+     */
+    private void closeStalledConnections() {
+        long writeLimit = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        long now = System.nanoTime();
+        for (Connection connection : connections) {
+            long writingSince = connection.writingSince;
+            if (writingSince != 0 && now - writingSince > writeLimit) {
+                LOG.warn("Closing WebSocket connection {}: client did not read responses for {} ms",
+                    connection.id, sendTimeoutMs);
+                connection.closed.set(true);
+                connections.remove(connection);
+                connection.closeSocket();
+            }
+        }
+    }
+
+    /**
+     * Ping every connection and close those that have been silent for two intervals
+     */
+    private void pingConnections() {
+        long silenceLimit = TimeUnit.SECONDS.toNanos(2L * pingIntervalSeconds);
+        long now = System.nanoTime();
+        byte[] ping = WebSocketCodec.encode(WebSocketCodec.OP_PING, new byte[0]);
+        for (Connection connection : connections) {
+            if (now - connection.lastSeen > silenceLimit) {
+                LOG.info("Closing WebSocket connection {} after no answer to pings", connection.id);
+                connection.close(WebSocketCodec.CLOSE_GOING_AWAY, "Ping timeout");
+            } else {
+                connection.enqueue(ping, true);
+            }
+        }
+    }
+
+    /**
+     * Push a notification to every open connection
+     */
+    public void sendNotification(String method, Object params) {
+        JsonRpcMessage notification = new JsonRpcMessage();
+        notification.setMethod(method);
+        if (params instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> paramsMap = (Map<String, Object>) params;
+            notification.setParams(paramsMap);
+        }
+        for (Connection connection : connections) {
+            connection.send(notification, true);
+        }
+    }
+
+    /**
+     * Get the port the server listens on, which is only known after start when port 0 was requested
+     */
+    public int getPort() {
+        return serverSocket != null ? serverSocket.getLocalPort() : port;
+    }
+
+    /**
+     * Number of open connections
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private void recordSerialization(String operation, long startNanos) {
+        metrics.recordSince("mcp_serialization_seconds", "JSON-RPC parse and serialize latency", startNanos,
+            "transport", "websocket", "operation", operation);
+    }
+
+    private void recordBytes(String direction, long bytes) {
+        metrics.counter("mcp_transport_bytes_total", "Bytes read and written by transports",
+            "transport", "websocket", "direction", direction).add(bytes);
+    }
+
+    /**
+     * One WebSocket connection, read on its own thread and written by a writer thread
+     * draining the send queue
+     */
+    private class Connection {
+        private final Socket socket;
+        private final int id;
+        private final McpRequestContext context;
+        private final BlockingQueue<byte[]> sendQueue = new ArrayBlockingQueue<>(sendQueueSize);
+        private final Semaphore inFlight = new Semaphore(maxInFlight);
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private final CountDownLatch writerDone = new CountDownLatch(1);
+        private final AtomicBoolean slotReleased = new AtomicBoolean(false);
+        private volatile long lastSeen = System.nanoTime();
+        private volatile long writingSince;
+        private volatile Thread writer;
+
+        Connection(Socket socket, int id) {
+            this.socket = socket;
+            this.id = id;
+            // Each connection is its own session, even when clients share an address
+            this.context = new McpRequestContext("websocket", socket.getInetAddress().getHostAddress(),
+                "connection-" + id);
+        }
+
+        void run() {
+            try {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+                if (!handshake(in, out)) {
+                    closeSocket();
+                    return;
+                }
+                connections.add(this);
+                mcpServer.getSessions().open(context);
+                metrics.increment("mcp_ws_connections_total", "WebSocket connections opened");
+
+                writer = new Thread(() -> writeFrames(out), "MCP-WebSocket-Writer-" + id);
+                writer.setDaemon(true);
+                writer.start();
+
+                readMessages(in);
+            } catch (WebSocketCodec.MessageTooBigException e) {
+                close(WebSocketCodec.CLOSE_TOO_BIG, e.getMessage());
+            } catch (ProtocolException e) {
+                LOG.debug("WebSocket protocol error on connection {}: {}", id, e.getMessage());
+                close(WebSocketCodec.CLOSE_PROTOCOL_ERROR, e.getMessage());
+            } catch (EOFException | SocketException e) {
+                close(WebSocketCodec.CLOSE_GOING_AWAY, "Connection lost");
+            } catch (IOException | InterruptedException e) {
+                if (running.get()) {
+                    LOG.error("Error on WebSocket connection {}", id, e);
+                }
+                close(WebSocketCodec.CLOSE_GOING_AWAY, "Connection error");
+            }
+        }
+
+        /**
+         * Answer the opening handshake; returns false after rejecting the request
+         */
+        private boolean handshake(DataInputStream in, OutputStream out) throws IOException {
+            ByteArrayOutputStream head = new ByteArrayOutputStream(512);
+            int matched = 0;
+            while (matched < 4) {
+                int b = in.read();
+                if (b < 0 || head.size() >= MAX_HANDSHAKE_BYTES) {
+                    return false;
+                }
+                head.write(b);
+                matched = (b == (matched % 2 == 0 ? '\r' : '\n')) ? matched + 1 : (b == '\r' ? 1 : 0);
+            }
+
+            String[] lines = head.toString(StandardCharsets.ISO_8859_1).split("\r\n");
+            String[] requestLine = lines[0].split(" ");
+            Map<String, String> headers = new HashMap<>();
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                if (colon > 0) {
+                    headers.put(lines[i].substring(0, colon).trim().toLowerCase(Locale.ROOT), lines[i].substring(colon + 1).trim());
+                }
+            }
+
+            String path = requestLine.length == 3 ? requestLine[1].split("\\?", 2)[0] : "";
+            String key = headers.get("sec-websocket-key");
+            if (!"GET".equals(requestLine[0]) || !PATH.equals(path) || key == null
+                    || !headers.getOrDefault("upgrade", "").toLowerCase(Locale.ROOT).contains("websocket")) {
+                writeHandshakeError(out, "400 Bad Request", "");
+                return false;
+            }
+            if (!isOriginAllowed(headers.get("origin"))) {
+                LOG.warn("Rejected WebSocket handshake from origin {}", headers.get("origin"));
+                metrics.increment("mcp_ws_rejected_total", "WebSocket connections rejected", "reason", "origin");
+                writeHandshakeError(out, "403 Forbidden", "");
+                return false;
+            }
+            if (!"13".equals(headers.get("sec-websocket-version"))) {
+                writeHandshakeError(out, "426 Upgrade Required", "Sec-WebSocket-Version: 13\r\n");
+                return false;
+            }
+
+            StringBuilder response = new StringBuilder("HTTP/1.1 101 Switching Protocols\r\n")
+                .append("Upgrade: websocket\r\nConnection: Upgrade\r\n")
+                .append("Sec-WebSocket-Accept: ").append(WebSocketCodec.acceptKey(key)).append("\r\n");
+            for (String protocol : headers.getOrDefault("sec-websocket-protocol", "").split(",")) {
+                if (protocol.trim().equals("mcp")) {
+                    response.append("Sec-WebSocket-Protocol: mcp\r\n");
+                    break;
+                }
+            }
+            response.append("\r\n");
+            out.write(response.toString().getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+            return true;
+        }
+
+        private void writeHandshakeError(OutputStream out, String status, String extraHeaders) throws IOException {
+            out.write(("HTTP/1.1 " + status + "\r\n" + extraHeaders + "Content-Length: 0\r\nConnection: close\r\n\r\n")
+                .getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+        }
+
+        private void readMessages(DataInputStream in) throws IOException, InterruptedException {
+            ByteArrayOutputStream fragments = null;
+            while (!closed.get()) {
+                WebSocketCodec.Frame frame = WebSocketCodec.readFrame(in, maxMessageBytes);
+                lastSeen = System.nanoTime();
+                recordBytes("read", frame.payload().length);
+
+                switch (frame.opcode()) {
+                    case WebSocketCodec.OP_PING -> enqueue(WebSocketCodec.encode(WebSocketCodec.OP_PONG, frame.payload()), true);
+                    case WebSocketCodec.OP_PONG -> {
+                        // lastSeen is all a pong is needed for
+                    }
+                    case WebSocketCodec.OP_CLOSE -> {
+                        int code = frame.payload().length >= 2
+                            ? ((frame.payload()[0] & 0xFF) << 8) | (frame.payload()[1] & 0xFF)
+                            : WebSocketCodec.CLOSE_NORMAL;
+                        close(code, "");
+                        return;
+                    }
+                    case WebSocketCodec.OP_TEXT, WebSocketCodec.OP_BINARY -> {
+                        if (fragments != null) {
+                            throw new ProtocolException("New message before the previous one ended");
+                        }
+                        if (frame.fin()) {
+                            handleMessage(frame.payload());
+                        } else {
+                            fragments = new ByteArrayOutputStream();
+                            fragments.write(frame.payload());
+                        }
+                    }
+                    case WebSocketCodec.OP_CONTINUATION -> {
+                        if (fragments == null) {
+                            throw new ProtocolException("Continuation without a message");
+                        }
+                        if (fragments.size() + (long) frame.payload().length > maxMessageBytes) {
+                            throw new WebSocketCodec.MessageTooBigException(fragments.size() + (long) frame.payload().length);
+                        }
+                        fragments.write(frame.payload());
+                        if (frame.fin()) {
+                            handleMessage(fragments.toByteArray());
+                            fragments = null;
+                        }
+                    }
+                    default -> throw new ProtocolException("Unknown opcode " + frame.opcode());
+                }
+            }
+        }
+
+        /**
+         * Dispatch one JSON-RPC message without waiting for its response. Blocks while the
+         * connection has the maximum number of requests in flight.
+         */
+        private void handleMessage(byte[] payload) throws InterruptedException {
+            inFlight.acquire();
+            String messageJson = new String(payload, StandardCharsets.UTF_8);
+            requestLogger.inbound(context, messageJson);
+
+            McpTracer.Trace trace = null;
+            try {
+                long parseStart = System.nanoTime();
+                JsonRpcMessage request = objectMapper.readValue(messageJson, JsonRpcMessage.class);
+                recordSerialization("parse", parseStart);
+
+                trace = tracer.begin(request, context, parseStart);
+                tracer.addSpan("parse", parseStart, System.nanoTime());
+
+                McpTracer.Trace requestTrace = trace;
+                trace = null;
+                mcpServer.processMessageAsync(request, context)
+                    .whenComplete((response, error) -> completeMessage(requestTrace, request, response, error));
+                tracer.attach(null);
+
+            } catch (JsonProcessingException e) {
+                LOG.error("Invalid JSON on WebSocket connection {}", id, e);
+                inFlight.release();
+                send(new JsonRpcMessage(null, new JsonRpcMessage.JsonRpcError(-32700, "Parse error",
+                    "Invalid JSON: " + e.getMessage())), false);
+            } catch (Exception e) {
+                LOG.error("Error processing WebSocket message", e);
+                inFlight.release();
+                send(new JsonRpcMessage(null, new JsonRpcMessage.JsonRpcError(-32603, "Internal error", e.getMessage())), false);
+            } finally {
+                tracer.finish(trace);
+            }
+        }
+
+        private void completeMessage(McpTracer.Trace trace, JsonRpcMessage request, JsonRpcMessage response,
+                Throwable error) {
+            tracer.attach(trace);
+            try {
+                if (error != null) {
+                    LOG.error("Error processing WebSocket message", error);
+                    send(new JsonRpcMessage(request.getId(),
+                        new JsonRpcMessage.JsonRpcError(-32603, "Internal error", error.getMessage())), false);
+                } else if (response != null) {
+                    send(response, false);
+                }
+            } finally {
+                inFlight.release();
+                tracer.finish(trace);
+            }
+        }
+
+        /**
+         * Serialize a message into a text frame and queue it. Droppable messages
+         * (notifications) are discarded when the queue is full.
+         */
+        void send(JsonRpcMessage message, boolean droppable) {
+            try {
+                long serializeStart = System.nanoTime();
+                byte[] json = objectMapper.writeValueAsBytes(message);
+                recordSerialization("serialize", serializeStart);
+                tracer.addSpan("serialize", serializeStart, System.nanoTime());
+
+                if (enqueue(WebSocketCodec.encode(WebSocketCodec.OP_TEXT, json), droppable) && requestLogger.isActive()) {
+                    requestLogger.outbound(context, new String(json, StandardCharsets.UTF_8));
+                }
+            } catch (JsonProcessingException e) {
+                LOG.error("Error serializing WebSocket message", e);
+            }
+        }
+
+        /**
+         * Queue a frame for the writer without blocking, as responses are queued by the
+         * lane thread that completed the request. Returns false if the frame was dropped.
+         */
+        boolean enqueue(byte[] frame, boolean droppable) {
+            if (closed.get()) {
+                return false;
+            }
+            if (sendQueue.offer(frame)) {
+                return true;
+            }
+            if (droppable) {
+                metrics.increment("mcp_ws_dropped_frames_total", "WebSocket notifications and pings dropped for slow clients");
+            } else {
+                LOG.warn("Closing WebSocket connection {}: send queue full, client does not read its responses", id);
+                close(WebSocketCodec.CLOSE_TRY_AGAIN_LATER, "Client too slow");
+            }
+            return false;
+        }
+
+        private void writeFrames(OutputStream out) {
+            try {
+                while (true) {
+                    byte[] frame = sendQueue.poll(1, TimeUnit.SECONDS);
+                    if (frame == null) {
+                        if (closed.get()) {
+                            break;
+                        }
+                        continue;
+                    }
+                    writingSince = System.nanoTime();
+                    out.write(frame);
+                    recordBytes("write", frame.length);
+                    if (sendQueue.isEmpty()) {
+                        out.flush();
+                    }
+                    writingSince = 0;
+                    if (closed.get() && (frame[0] & 0x0F) == WebSocketCodec.OP_CLOSE) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                LOG.debug("WebSocket connection {} write failed: {}", id, e.getMessage());
+                closed.set(true);
+                connections.remove(this);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                closeSocket();
+                mcpServer.getSessions().close(context);
+                writerDone.countDown();
+            }
+        }
+
+        /**
+         * Send a close frame after the frames already queued and end the connection
+         */
+        void close(int code, String reason) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            connections.remove(this);
+            byte[] closeFrame = WebSocketCodec.encodeClose(code, reason);
+            if (!sendQueue.offer(closeFrame)) {
+                // The client is not reading, so what is queued would not arrive anyway
+                sendQueue.clear();
+                sendQueue.offer(closeFrame);
+            }
+            if (writer == null) {
+                // Failed before the handshake completed, so there is no writer to send it
+                closeSocket();
+                writerDone.countDown();
+            }
+        }
+
+        void awaitClosed(long timeoutMs) {
+            try {
+                if (!writerDone.await(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    closeSocket();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void closeSocket() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                LOG.debug("Error closing WebSocket socket", e);
+            }
+            if (slotReleased.compareAndSet(false, true)) {
+                connectionSlots.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.util.Locale;
+
+/**
+ * Encodings a JSON-RPC message can be exchanged in. JSON is the default; clients
+ * may negotiate Jackson Smile or CBOR, which are smaller and cheaper to parse, and
+ * carry binary values such as resource blobs as raw bytes instead of base64.
+ */
+public enum McpWireFormat {
+
+    JSON("json", "application/json", new ObjectMapper()),
+    SMILE("smile", "application/x-jackson-smile", new ObjectMapper(new SmileFactory())),
+    CBOR("cbor", "application/cbor", new ObjectMapper(new CBORFactory()));
+
+    private final String name;
+    private final String mediaType;
+    private final ObjectMapper mapper;
+
+    McpWireFormat(String name, String mediaType, ObjectMapper mapper) {
+        this.name = name;
+        this.mediaType = mediaType;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Short name used in settings, handshakes and metric labels
+     */
+    public String getName() { return name; }
+
+    public String getMediaType() { return mediaType; }
+
+    /**
+     * Shared mapper reading and writing this format
+     */
+    public ObjectMapper mapper() { return mapper; }
+
+    public boolean isBinary() { return this != JSON; }
+
+    /**
+     * Format of a request body by its Content-Type. Anything other than the binary
+     * media types is read as JSON, as before negotiation existed.
+     */
+    public static McpWireFormat fromContentType(String contentType) {
+        McpWireFormat format = fromMediaType(contentType);
+        return format != null ? format : JSON;
+    }
+
+    /**
+     * Pick the response format from an Accept header: the supported media type with the
+     * highest quality, or the fallback (normally the request's format) when the header
+     * is missing or only has wildcards
+     */
+    public static McpWireFormat negotiate(String accept, McpWireFormat fallback) {
+        if (accept == null || accept.isBlank()) {
+            return fallback;
+        }
+        McpWireFormat best = null;
+        double bestQuality = 0;
+        for (String part : accept.split(",")) {
+            String[] fields = part.split(";");
+            McpWireFormat format = fromMediaType(fields[0]);
+            if (format == null) {
+                continue;
+            }
+            double quality = 1.0;
+            for (int i = 1; i < fields.length; i++) {
+                String field = fields[i].trim();
+                if (field.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(field.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (quality > bestQuality || (quality == bestQuality && format == fallback)) {
+                best = format;
+                bestQuality = quality;
+            }
+        }
+        return best != null ? best : fallback;
+    }
+
+    /**
+     * Format by its short name, or null if unknown
+     */
+    public static McpWireFormat byName(String name) {
+        for (McpWireFormat format : values()) {
+            if (format.name.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    private static McpWireFormat fromMediaType(String mediaType) {
+        if (mediaType == null) {
+            return null;
+        }
+        String type = mediaType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        for (McpWireFormat format : values()) {
+            if (format.mediaType.equals(type)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
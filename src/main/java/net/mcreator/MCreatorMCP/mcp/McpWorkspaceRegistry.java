@@ -0,0 +1,226 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import net.mcreator.workspace.Workspace;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Workspaces served by one MCP server, keyed by id, e.g. one per open MCreator window.
+ * Each workspace keeps its own snapshot and therefore its own derived caches. Requests
+ * name the workspace they target; those that do not go to the default workspace, which
+ * is the one added or focused last.
+ *
+ * <p>Workspaces are added and removed rarely but looked up on every request, so the
+ * map is replaced on change and read without locks.</p>
+ */
+public class McpWorkspaceRegistry {
+
+    private static final Logger LOG = LogManager.getLogger("MCP-Workspaces");
+
+    private final McpMetrics metrics;
+    private final AtomicLong snapshotVersion = new AtomicLong();
+    private volatile Map<String, Entry> workspaces = Map.of();
+    private volatile Entry defaultWorkspace;
+
+    public McpWorkspaceRegistry(McpMetrics metrics) {
+        this.metrics = metrics;
+        metrics.gauge("mcp_workspaces_open", "Workspaces served by the MCP server", () -> workspaces.size());
+    }
+
+    /**
+     * Add a workspace and make it the default. The id is derived from the preferred id
+     * and made unique. For an MCreator workspace this must be called on the EDT, as it
+     * captures the first snapshot.
+     */
+    public synchronized Entry add(String preferredId, Workspace workspace, McpWorkspaceView view) {
+        String baseId = toId(preferredId);
+        String id = baseId;
+        for (int i = 2; workspaces.containsKey(id); i++) {
+            id = baseId + "-" + i;
+        }
+
+        Entry entry = new Entry(id, workspace, view);
+        entry.refreshSnapshot();
+
+        Map<String, Entry> updated = new LinkedHashMap<>(workspaces);
+        updated.put(id, entry);
+        workspaces = Collections.unmodifiableMap(updated);
+        defaultWorkspace = entry;
+        LOG.info("Workspace added: {} ({})", id, view.getModName());
+        return entry;
+    }
+
+    /**
+     * Remove a workspace. If it was the default, the most recently added remaining one
+     * becomes the default.
+     */
+    public synchronized Entry remove(String id) {
+        Entry entry = workspaces.get(id);
+        if (entry == null) {
+            return null;
+        }
+        Map<String, Entry> updated = new LinkedHashMap<>(workspaces);
+        updated.remove(id);
+        workspaces = Collections.unmodifiableMap(updated);
+        if (defaultWorkspace == entry) {
+            Entry last = null;
+            for (Entry remaining : updated.values()) {
+                last = remaining;
+            }
+            defaultWorkspace = last;
+        }
+        LOG.info("Workspace removed: {}", id);
+        return entry;
+    }
+
+    /**
+     * Remove all workspaces
+     */
+    public synchronized void clear() {
+        workspaces = Map.of();
+        defaultWorkspace = null;
+    }
+
+    /**
+     * Workspace with the given id, or null if there is none
+     */
+    public Entry get(String id) {
+        return workspaces.get(id);
+    }
+
+    /**
+     * Workspace that requests not naming one are routed to, or null if none is open
+     */
+    public Entry getDefault() {
+        return defaultWorkspace;
+    }
+
+    /**
+     * Make a workspace the default, e.g. when its window gains focus
+     */
+    public void setDefault(String id) {
+        Entry entry = workspaces.get(id);
+        if (entry != null) {
+            defaultWorkspace = entry;
+        }
+    }
+
+    /**
+     * Open workspaces in the order they were added
+     */
+    public List<Entry> list() {
+        return new ArrayList<>(workspaces.values());
+    }
+
+    public int size() {
+        return workspaces.size();
+    }
+
+    /**
+     * Capture new snapshots of the workspaces that changed since their last one. For
+     * MCreator workspaces this must run on the EDT.
+     */
+    public void refreshSnapshots() {
+        for (Entry entry : workspaces.values()) {
+            entry.refreshSnapshotIfChanged();
+        }
+    }
+
+    /**
+     * Workspace ids for the health endpoint, with the default marked
+     */
+    public Map<String, Object> toHealth() {
+        Map<String, Object> health = new LinkedHashMap<>();
+        Entry current = defaultWorkspace;
+        for (Entry entry : workspaces.values()) {
+            WorkspaceSnapshot snapshot = entry.getSnapshot();
+            Map<String, Object> info = new LinkedHashMap<>();
+            info.put("name", snapshot != null ? snapshot.getModName() : null);
+            info.put("elements", snapshot != null ? snapshot.getElements().size() : 0);
+            info.put("default", entry == current);
+            health.put(entry.getId(), info);
+        }
+        return health;
+    }
+
+    /**
+     * Id usable in resource URIs: lower case letters, digits, '-' and '_'
+     */
+    static String toId(String name) {
+        String id = name == null ? "" : name.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_-]+", "-")
+            .replaceAll("^-+|-+$", "");
+        return id.isEmpty() ? "workspace" : id;
+    }
+
+    /**
+     * A registered workspace with its latest snapshot
+     */
+    public final class Entry {
+        private final String id;
+        private final Workspace workspace;
+        private final McpWorkspaceView source;
+        private volatile WorkspaceSnapshot snapshot;
+
+        private Entry(String id, Workspace workspace, McpWorkspaceView source) {
+            this.id = id;
+            this.workspace = workspace;
+            this.source = source;
+        }
+
+        public String getId() { return id; }
+
+        /**
+         * The MCreator workspace, or null for custom views
+         */
+        public Workspace getWorkspace() { return workspace; }
+
+        /**
+         * Latest published snapshot used to serve resources and read tools
+         */
+        public WorkspaceSnapshot getSnapshot() { return snapshot; }
+
+        /**
+         * Capture the current state of the workspace and publish it to readers. For an
+         * MCreator workspace this must be called on the EDT, after changes are applied.
+         */
+        public void refreshSnapshot() {
+            publish(source.getChangeStamp());
+        }
+
+        /**
+         * Capture a new snapshot only if the change stamp of the workspace moved since the
+         * last one, so unchanged workspaces keep their snapshot and its derived caches.
+         * For an MCreator workspace this must be called on the EDT.
+         *
+         * @return whether a new snapshot was published
+         */
+        public boolean refreshSnapshotIfChanged() {
+            long changeStamp = source.getChangeStamp();
+            WorkspaceSnapshot current = snapshot;
+            if (current != null && current.getChangeStamp() == changeStamp) {
+                return false;
+            }
+            publish(changeStamp);
+            return true;
+        }
+
+        private void publish(long changeStamp) {
+            long startTime = System.nanoTime();
+            snapshot = WorkspaceSnapshot.capture(source, snapshotVersion.incrementAndGet(), changeStamp);
+            metrics.recordSince("mcp_snapshot_capture_seconds", "Time to capture a workspace snapshot", startTime);
+        }
+
+        @Override
+        public String toString() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Read-only view of the workspace data the MCP server exposes as resources.
+ * The plugin adapts the MCreator workspace to this view, while benchmarks and
+ * load tests can provide synthetic workspaces without starting MCreator.
+ */
+public interface McpWorkspaceView {
+
+    String getModName();
+
+    String getVersion();
+
+    String getAuthor();
+
+    String getDescription();
+
+    String getMCreatorVersion();
+
+    String getMinecraftDependencies();
+
+    /**
+     * Absolute path of the workspace folder
+     */
+    String getWorkspaceFolder();
+
+    List<ElementInfo> getElements();
+
+    /**
+     * Value that changes whenever the data of this view changes, so an unchanged
+     * workspace is not copied into a new snapshot. Views over a live workspace should
+     * compute it without copying their elements.
+     */
+    default long getChangeStamp() {
+        long stamp = metadataStamp(this);
+        for (ElementInfo element : getElements()) {
+            stamp = 31 * stamp + element.hashCode();
+        }
+        return stamp;
+    }
+
+    /**
+     * Stamp of the metadata of a view, which {@link #getChangeStamp()} extends with the elements
+     */
+    static long metadataStamp(McpWorkspaceView view) {
+        return Objects.hash(view.getModName(), view.getVersion(), view.getAuthor(), view.getDescription(),
+            view.getMCreatorVersion(), view.getMinecraftDependencies(), view.getWorkspaceFolder());
+    }
+
+    /**
+     * Summary of a single mod element
+     */
+    record ElementInfo(String name, String type, boolean locked) {}
+
+    /**
+     * Structured result of the getWorkspaceInfo tool
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record WorkspaceInfo(String name, String version, String author, String description, String mcreatorVersion,
+                         int elementCount, String workspaceFolder) {
+
+        public static WorkspaceInfo of(McpWorkspaceView view) {
+            return new WorkspaceInfo(view.getModName(), view.getVersion(), view.getAuthor(), view.getDescription(),
+                view.getMCreatorVersion(), view.getElements().size(), view.getWorkspaceFolder());
+        }
+    }
+
+    /**
+     * Structured result of the listModElements tool
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record ElementList(List<ElementEntry> elements, int count, String filteredBy) {
+
+        public static ElementList of(List<ElementInfo> elements, String filteredBy) {
+            List<ElementEntry> entries = new ArrayList<>(elements.size());
+            for (ElementInfo element : elements) {
+                entries.add(new ElementEntry(element.name(), element.type(), element.locked(), element.name()));
+            }
+            return new ElementList(entries, entries.size(), filteredBy);
+        }
+    }
+
+    /**
+     * Mod element as listed by the listModElements tool
+     */
+    record ElementEntry(String name, String type, boolean isLocked, String sortIndex) {}
+
+    /**
+     * Structured result of the listWorkspaces tool
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record WorkspaceList(List<WorkspaceSummary> workspaces, String defaultWorkspace) {}
+
+    /**
+     * Open workspace as listed by the listWorkspaces tool
+     */
+    record WorkspaceSummary(String id, String name, int elementCount, String workspaceFolder) {
+
+        public static WorkspaceSummary of(String id, McpWorkspaceView view) {
+            return new WorkspaceSummary(id, view.getModName(), view.getElements().size(), view.getWorkspaceFolder());
+        }
+    }
+}
@@ -0,0 +1,791 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * HTTP/1.1 engine on a single non-blocking selector thread. The selector accepts
+ * connections, reads and parses requests and writes responses; only the handlers run
+ * on worker threads, so idle keep-alive connections cost no thread. Requests pipelined
+ * on a connection are handled one after another and answered in order.
+ * <p>
+ * Request bodies are handed to handlers as views of the connection's read buffer and
+ * responses are written with gathering writes straight from the handler's output
+ * buffer, so neither is copied. Chunked request bodies are not supported (411).
+ */
+class NioHttpEngine implements McpHttpEngine.ListenerHandover {
+
+    private static final Logger LOG = LogManager.getLogger("MCP-HTTP");
+
+    private static final int MAX_HEADER_BYTES = 64 * 1024;
+    private static final int INITIAL_BUFFER_BYTES = 8 * 1024;
+    /** How long accepting pauses after accept failed, e.g. because the process ran out of file descriptors */
+    private static final long ACCEPT_BACKOFF_MS = 100;
+    private static final byte[] CONTINUE = "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    private final McpTransportConfig config;
+    private final McpMetrics metrics;
+    private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+    private final List<Map.Entry<String, Handler>> routes = new ArrayList<>();
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private SelectionKey serverKey;
+    private ExecutorService workers;
+    private Thread selectorThread;
+    private volatile boolean running;
+    private volatile boolean listenerReleased;
+    private volatile boolean draining;
+    private volatile boolean drained;
+    private int openConnections;
+    private long acceptPausedUntil;
+    private long lastSweep;
+
+    NioHttpEngine(McpTransportConfig config, McpMetrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void start(InetSocketAddress address, Map<String, Handler> routes) throws IOException {
+        ServerSocketChannel listener = ServerSocketChannel.open();
+        try {
+            listener.bind(address, config.getBacklog());
+        } catch (IOException e) {
+            listener.close();
+            throw e;
+        }
+        start(listener, routes);
+    }
+
+    @Override
+    public void start(ServerSocketChannel listener, Map<String, Handler> routes) throws IOException {
+        this.routes.clear();
+        this.routes.addAll(routes.entrySet());
+        this.routes.sort((a, b) -> b.getKey().length() - a.getKey().length());
+
+        selector = Selector.open();
+        serverChannel = listener;
+        serverChannel.configureBlocking(false);
+        serverKey = serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        workers = JdkHttpEngine.createExecutor(config.getThreads());
+        running = true;
+        selectorThread = new Thread(this::runSelector, "MCP-HTTP-Selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+
+    @Override
+    public ServerSocketChannel releaseListener() {
+        if (!running) {
+            return null;
+        }
+        CompletableFuture<ServerSocketChannel> released = new CompletableFuture<>();
+        selectorTasks.add(() -> {
+            serverKey.cancel();
+            listenerReleased = true;
+            released.complete(serverChannel);
+        });
+        selector.wakeup();
+        try {
+            return released.get(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void stopAccepting() {
+        if (!running) {
+            return;
+        }
+        selectorTasks.add(() -> {
+            if (!listenerReleased) {
+                serverKey.cancel();
+                try {
+                    serverChannel.close();
+                } catch (IOException e) {
+                    LOG.debug("Error closing HTTP listener", e);
+                }
+            }
+        });
+        selector.wakeup();
+    }
+
+    @Override
+    public boolean drain(long timeoutMs) {
+        if (running) {
+            // Stop accepting first, so new clients are refused rather than cut off later
+            stopAccepting();
+            draining = true;
+            selector.wakeup();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            try {
+                while (!drained && System.nanoTime() < deadline) {
+                    Thread.sleep(10);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        boolean completed = !running || drained;
+        stop();
+        return completed;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (selectorThread != null) {
+            try {
+                selectorThread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (workers != null) {
+            workers.shutdown();
+            try {
+                workers.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public InetSocketAddress getAddress() {
+        try {
+            return serverChannel != null ? (InetSocketAddress) serverChannel.getLocalAddress() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "nio";
+    }
+
+    private void runSelector() {
+        long idleNanos = TimeUnit.SECONDS.toNanos(config.getIdleTimeoutSeconds());
+        lastSweep = System.nanoTime();
+        try {
+            while (running) {
+                // A failure serving one connection or one round must not end the loop, or
+                // the server would silently stop answering
+                try {
+                    select(idleNanos);
+                } catch (ClosedSelectorException e) {
+                    throw e;
+                } catch (IOException | RuntimeException e) {
+                    LOG.error("Error in HTTP selector loop", e);
+                }
+            }
+        } catch (ClosedSelectorException e) {
+            LOG.error("HTTP selector closed unexpectedly", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection connection) {
+                    connection.close();
+                }
+            }
+            try {
+                if (!listenerReleased) {
+                    serverChannel.close();
+                }
+                selector.close();
+            } catch (IOException e) {
+                LOG.debug("Error closing HTTP selector", e);
+            }
+        }
+    }
+
+    /**
+     * One round of the selector loop: run posted tasks, serve ready connections, then
+     * close idle connections, at most once per second, or quiet ones while draining
+     */
+    private void select(long idleNanos) throws IOException {
+        selector.select(draining || acceptPausedUntil != 0 ? 10 : 1000);
+
+        Runnable task;
+        while ((task = selectorTasks.poll()) != null) {
+            task.run();
+        }
+
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                continue;
+            }
+            Connection connection = (Connection) key.attachment();
+            try {
+                if (key.isWritable()) {
+                    connection.write();
+                }
+                if (key.isValid() && key.isReadable()) {
+                    connection.read();
+                }
+            } catch (IOException | CancelledKeyException e) {
+                connection.close();
+            } catch (RuntimeException e) {
+                LOG.error("Error serving HTTP connection from {}", connection.remoteAddress, e);
+                connection.close();
+            }
+        }
+
+        long now = System.nanoTime();
+        if (acceptPausedUntil != 0 && now - acceptPausedUntil >= 0 && serverKey.isValid()) {
+            acceptPausedUntil = 0;
+            serverKey.interestOps(SelectionKey.OP_ACCEPT);
+        }
+        if (draining) {
+            drained = closeQuietConnections();
+        } else if (now - lastSweep > TimeUnit.SECONDS.toNanos(1)) {
+            lastSweep = now;
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection connection && connection.isIdle(now, idleNanos)) {
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * While draining, close connections with no request in progress so their clients
+     * reconnect to whoever listens next. Data that already arrived is read first, so a
+     * request sent just before is still answered.
+     *
+     * @return whether no connection has a request or response in progress
+     */
+    private boolean closeQuietConnections() {
+        boolean quiet = true;
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection connection && key.isValid()) {
+                try {
+                    if (connection.isQuiet()) {
+                        connection.read();
+                    }
+                } catch (IOException | CancelledKeyException e) {
+                    connection.close();
+                    continue;
+                }
+                if (connection.isQuiet()) {
+                    connection.close();
+                } else {
+                    quiet = false;
+                }
+            }
+        }
+        return quiet;
+    }
+
+    private void accept() {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (IOException e) {
+                // Typically out of file descriptors; the pending connection stays ready, so
+                // pause accepting instead of spinning on it
+                LOG.warn("Failed to accept HTTP connection, pausing for {} ms: {}", ACCEPT_BACKOFF_MS, e.getMessage());
+                serverKey.interestOps(0);
+                acceptPausedUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ACCEPT_BACKOFF_MS);
+                return;
+            }
+            if (channel == null) {
+                return;
+            }
+            if (config.getMaxConnections() > 0 && openConnections >= config.getMaxConnections()) {
+                closeQuietly(channel);
+                continue;
+            }
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, config.isTcpNoDelay());
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new Connection(channel, key));
+            } catch (IOException e) {
+                LOG.debug("Failed to set up HTTP connection: {}", e.getMessage());
+                closeQuietly(channel);
+                continue;
+            }
+            openConnections++;
+            metrics.increment("mcp_http_connections_total", "HTTP connections opened by clients");
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOG.debug("Error closing HTTP connection", e);
+        }
+    }
+
+    private Handler route(String path) {
+        for (Map.Entry<String, Handler> route : routes) {
+            if (path.startsWith(route.getKey())) {
+                return route.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Run a request's handler on a worker thread and hand the finished response back
+     * to the selector
+     */
+    private void handle(NioExchange exchange) {
+        try {
+            Handler handler = route(exchange.getRequestPath());
+            if (handler == null) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                handler.handle(exchange);
+            }
+        } catch (Throwable e) {
+            LOG.error("Error handling HTTP request {} {}", exchange.method, exchange.path, e);
+            if (exchange.status == 0) {
+                exchange.status = 500;
+                exchange.responseLength = -1;
+            } else {
+                // A partial response cannot be completed, so end the connection after it
+                exchange.keepAlive = false;
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * State of one client connection, only touched on the selector thread
+     */
+    private final class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final InetSocketAddress remoteAddress;
+        private final ArrayDeque<ByteBuffer> output = new ArrayDeque<>();
+        private final int maxBufferBytes;
+        private ByteBuffer input = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+        private int parsed;
+        private boolean busy;
+        private boolean continueSent;
+        private boolean inputClosed;
+        private boolean closeAfterWrite;
+        private long lastActive = System.nanoTime();
+
+        Connection(SocketChannel channel, SelectionKey key) throws IOException {
+            this.channel = channel;
+            this.key = key;
+            this.remoteAddress = (InetSocketAddress) channel.getRemoteAddress();
+            this.maxBufferBytes = (int) Math.min(MAX_HEADER_BYTES + config.getMaxRequestBodyBytes(), Integer.MAX_VALUE - 8);
+        }
+
+        boolean isIdle(long now, long idleNanos) {
+            return !busy && output.isEmpty() && now - lastActive > idleNanos;
+        }
+
+        /**
+         * No request is being received, handled or answered
+         */
+        boolean isQuiet() {
+            return channel.isOpen() && !busy && output.isEmpty() && parsed == input.position();
+        }
+
+        void read() throws IOException {
+            if (!input.hasRemaining() && !makeRoom()) {
+                // Buffer full of pipelined requests; resume once the current one is answered
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                return;
+            }
+            int count = channel.read(input);
+            if (count < 0) {
+                inputClosed = true;
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                if (!busy && output.isEmpty()) {
+                    close();
+                }
+                return;
+            }
+            lastActive = System.nanoTime();
+            if (!busy) {
+                dispatchNext();
+            }
+        }
+
+        /**
+         * Free space in the read buffer. Data before the unparsed part is only moved when
+         * no request is in flight, because the in-flight request body is a view of it.
+         */
+        private boolean makeRoom() {
+            int pending = input.position() - parsed;
+            if (!busy && parsed > 0) {
+                System.arraycopy(input.array(), parsed, input.array(), 0, pending);
+                input.position(pending);
+                parsed = 0;
+                return true;
+            }
+            if (input.capacity() >= maxBufferBytes) {
+                return false;
+            }
+            ByteBuffer larger = ByteBuffer.allocate((int) Math.min((long) input.capacity() * 2, maxBufferBytes));
+            larger.put(input.array(), parsed, pending);
+            input = larger;
+            parsed = 0;
+            return true;
+        }
+
+        /**
+         * Parse the next buffered request and start its handler, if it is complete
+         */
+        private void dispatchNext() {
+            byte[] data = input.array();
+            int start = parsed;
+            int end = input.position();
+            int headerEnd = indexOfHeaderEnd(data, start, Math.min(end, start + MAX_HEADER_BYTES));
+            if (headerEnd < 0) {
+                if (end - start >= MAX_HEADER_BYTES) {
+                    fail(431, "Request Header Fields Too Large");
+                } else if (inputClosed && output.isEmpty()) {
+                    close();
+                }
+                return;
+            }
+
+            String[] lines = new String(data, start, headerEnd - start, StandardCharsets.ISO_8859_1).split("\r\n");
+            String[] requestLine = lines[0].split(" ");
+            if (requestLine.length != 3 || !requestLine[2].startsWith("HTTP/1.")) {
+                fail(400, "Bad Request");
+                return;
+            }
+            Map<String, String> headers = new HashMap<>();
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                if (colon > 0) {
+                    headers.putIfAbsent(lines[i].substring(0, colon).trim().toLowerCase(Locale.ROOT),
+                        lines[i].substring(colon + 1).trim());
+                }
+            }
+
+            URI uri;
+            long length;
+            try {
+                uri = URI.create(requestLine[1]);
+                length = Long.parseLong(headers.getOrDefault("content-length", "0"));
+            } catch (IllegalArgumentException e) {
+                fail(400, "Bad Request");
+                return;
+            }
+            if (headers.containsKey("transfer-encoding")) {
+                fail(411, "Length Required");
+                return;
+            }
+            if (length < 0 || length > config.getMaxRequestBodyBytes()) {
+                fail(413, "Content Too Large");
+                return;
+            }
+
+            int bodyStart = headerEnd + 4;
+            if (end - bodyStart < length) {
+                if (!continueSent && "100-continue".equalsIgnoreCase(headers.get("expect"))) {
+                    continueSent = true;
+                    queue(ByteBuffer.wrap(CONTINUE));
+                }
+                return;
+            }
+
+            String connectionHeader = headers.getOrDefault("connection", "");
+            // While draining, each connection is closed after its response
+            boolean keepAlive = !draining && config.isKeepAlive() && (requestLine[2].equals("HTTP/1.1")
+                ? !"close".equalsIgnoreCase(connectionHeader)
+                : "keep-alive".equalsIgnoreCase(connectionHeader));
+
+            parsed = bodyStart + (int) length;
+            busy = true;
+            continueSent = false;
+            metrics.increment("mcp_http_exchanges_total", "HTTP requests received on any endpoint");
+            NioExchange exchange = new NioExchange(this, requestLine[0], uri, headers,
+                new ByteArrayInputStream(data, bodyStart, (int) length), keepAlive);
+            try {
+                workers.execute(() -> handle(exchange));
+            } catch (RejectedExecutionException e) {
+                // Workers are shutting down or saturated; refuse this request only
+                busy = false;
+                fail(503, "Service Unavailable");
+            }
+        }
+
+        /**
+         * Take a finished response from a worker, start writing it and continue with
+         * the next pipelined request
+         */
+        void complete(ByteBuffer head, ByteBuffer body, boolean keepAlive) {
+            if (!channel.isOpen()) {
+                return;
+            }
+            busy = false;
+            lastActive = System.nanoTime();
+            output.add(head);
+            if (body.hasRemaining()) {
+                output.add(body);
+            }
+            if (!keepAlive) {
+                closeAfterWrite = true;
+            } else if (parsed == input.position()) {
+                input.clear();
+                parsed = 0;
+            }
+            try {
+                write();
+                if (!closeAfterWrite && channel.isOpen()) {
+                    if ((key.interestOps() & SelectionKey.OP_READ) == 0 && !inputClosed) {
+                        key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+                    }
+                    dispatchNext();
+                }
+            } catch (IOException | CancelledKeyException e) {
+                close();
+            }
+        }
+
+        /**
+         * Answer a request that cannot be parsed or accepted, then close the connection
+         */
+        private void fail(int status, String reason) {
+            String response = "HTTP/1.1 " + status + " " + reason + "\r\nContent-Length: 0\r\nConnection: close\r\n\r\n";
+            closeAfterWrite = true;
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            queue(ByteBuffer.wrap(response.getBytes(StandardCharsets.ISO_8859_1)));
+        }
+
+        private void queue(ByteBuffer buffer) {
+            output.add(buffer);
+            try {
+                write();
+            } catch (IOException | CancelledKeyException e) {
+                close();
+            }
+        }
+
+        void write() throws IOException {
+            if (!output.isEmpty()) {
+                channel.write(output.toArray(new ByteBuffer[0]));
+                while (!output.isEmpty() && !output.peek().hasRemaining()) {
+                    output.poll();
+                }
+            }
+            if (output.isEmpty()) {
+                if (closeAfterWrite || (inputClosed && !busy && parsed == input.position())) {
+                    close();
+                    return;
+                }
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            } else {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            }
+        }
+
+        void close() {
+            if (!channel.isOpen()) {
+                return;
+            }
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.debug("Error closing HTTP connection", e);
+            }
+            openConnections--;
+        }
+    }
+
+    private static int indexOfHeaderEnd(byte[] data, int from, int to) {
+        for (int i = from; i + 3 < to; i++) {
+            if (data[i] == '\r' && data[i + 1] == '\n' && data[i + 2] == '\r' && data[i + 3] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A request and its buffered response. The response is sent when the exchange is
+     * closed, with a Content-Length, so bodies of unknown length need no chunking.
+     */
+    private final class NioExchange implements McpHttpExchange {
+        private final Connection connection;
+        private final String method;
+        private final String path;
+        private final String rawQuery;
+        private final Map<String, String> requestHeaders;
+        private final InputStream requestBody;
+        private final Map<String, String> responseHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private final ResponseBuffer responseBody = new ResponseBuffer();
+        private boolean keepAlive;
+        private int status;
+        private long responseLength;
+        private boolean closed;
+
+        NioExchange(Connection connection, String method, URI uri, Map<String, String> requestHeaders,
+                InputStream requestBody, boolean keepAlive) {
+            this.connection = connection;
+            this.method = method;
+            this.path = uri.getPath() != null ? uri.getPath() : "/";
+            this.rawQuery = uri.getRawQuery();
+            this.requestHeaders = requestHeaders;
+            this.requestBody = requestBody;
+            this.keepAlive = keepAlive;
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return method;
+        }
+
+        @Override
+        public String getRequestPath() {
+            return path;
+        }
+
+        @Override
+        public String getRawQuery() {
+            return rawQuery;
+        }
+
+        @Override
+        public String getRequestHeader(String name) {
+            return requestHeaders.get(name.toLowerCase(Locale.ROOT));
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return connection.remoteAddress;
+        }
+
+        @Override
+        public InputStream getRequestBody() {
+            return requestBody;
+        }
+
+        @Override
+        public void setResponseHeader(String name, String value) {
+            responseHeaders.put(name, value);
+        }
+
+        @Override
+        public void sendResponseHeaders(int status, long length) throws IOException {
+            if (this.status != 0) {
+                throw new IOException("Response headers already sent");
+            }
+            this.status = status;
+            this.responseLength = length;
+        }
+
+        @Override
+        public OutputStream getResponseBody() {
+            return responseBody;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (status == 0) {
+                status = 500;
+                responseLength = -1;
+            }
+            if ("close".equalsIgnoreCase(responseHeaders.get("Connection"))) {
+                keepAlive = false;
+            }
+
+            StringBuilder head = new StringBuilder(128 + responseHeaders.size() * 48);
+            head.append("HTTP/1.1 ").append(status).append(' ').append(reasonPhrase(status)).append("\r\n");
+            if (status != 204 && status >= 200) {
+                head.append("Content-Length: ").append(responseLength == -1 ? 0 : responseBody.size()).append("\r\n");
+            }
+            for (Map.Entry<String, String> header : responseHeaders.entrySet()) {
+                if (!header.getKey().equalsIgnoreCase("Content-Length") && !header.getKey().equalsIgnoreCase("Connection")) {
+                    head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+                }
+            }
+            if (!keepAlive) {
+                head.append("Connection: close\r\n");
+            }
+            head.append("\r\n");
+
+            ByteBuffer headBuffer = ByteBuffer.wrap(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+            ByteBuffer bodyBuffer = responseLength == -1 ? ByteBuffer.allocate(0) : responseBody.toByteBuffer();
+            boolean reuse = keepAlive;
+            selectorTasks.add(() -> connection.complete(headBuffer, bodyBuffer, reuse));
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Response body buffer whose content is written to the socket without copying
+     */
+    private static final class ResponseBuffer extends ByteArrayOutputStream {
+        ResponseBuffer() {
+            super(512);
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+
+    private static String reasonPhrase(int status) {
+        return switch (status) {
+            case 200 -> "OK";
+            case 204 -> "No Content";
+            case 400 -> "Bad Request";
+            case 404 -> "Not Found";
+            case 405 -> "Method Not Allowed";
+            case 413 -> "Content Too Large";
+            case 429 -> "Too Many Requests";
+            case 500 -> "Internal Server Error";
+            case 503 -> "Service Unavailable";
+            default -> "";
+        };
+    }
+}
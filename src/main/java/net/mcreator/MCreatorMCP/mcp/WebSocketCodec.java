@@ -0,0 +1,136 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * RFC 6455 handshake and framing used by {@link McpWebSocketTransport}
+ */
+final class WebSocketCodec {
+
+    static final int OP_CONTINUATION = 0x0;
+    static final int OP_TEXT = 0x1;
+    static final int OP_BINARY = 0x2;
+    static final int OP_CLOSE = 0x8;
+    static final int OP_PING = 0x9;
+    static final int OP_PONG = 0xA;
+
+    static final int CLOSE_NORMAL = 1000;
+    static final int CLOSE_GOING_AWAY = 1001;
+    static final int CLOSE_PROTOCOL_ERROR = 1002;
+    static final int CLOSE_TOO_BIG = 1009;
+    static final int CLOSE_TRY_AGAIN_LATER = 1013;
+
+    private static final String HANDSHAKE_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private WebSocketCodec() {
+    }
+
+    /**
+     * A received frame with its payload unmasked
+     */
+    record Frame(boolean fin, int opcode, byte[] payload) {
+        boolean isControl() {
+            return (opcode & 0x8) != 0;
+        }
+    }
+
+    /**
+     * Value of the Sec-WebSocket-Accept header for a client's Sec-WebSocket-Key
+     */
+    static String acceptKey(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1")
+                .digest((key.trim() + HANDSHAKE_GUID).getBytes(StandardCharsets.ISO_8859_1));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+
+    /**
+     * Read one client frame. Client frames must be masked, and control frames must be
+     * final and at most 125 bytes.
+     */
+    static Frame readFrame(DataInputStream in, long maxPayload) throws IOException {
+        int first = in.readUnsignedByte();
+        int second = in.readUnsignedByte();
+        boolean fin = (first & 0x80) != 0;
+        int opcode = first & 0x0F;
+        if ((first & 0x70) != 0) {
+            throw new ProtocolException("Reserved bits set without a negotiated extension");
+        }
+        if ((second & 0x80) == 0) {
+            throw new ProtocolException("Client frames must be masked");
+        }
+
+        long length = second & 0x7F;
+        if (length == 126) {
+            length = in.readUnsignedShort();
+        } else if (length == 127) {
+            length = in.readLong();
+        }
+        if ((opcode & 0x8) != 0 && (!fin || length > 125)) {
+            throw new ProtocolException("Invalid control frame");
+        }
+        if (length < 0 || length > maxPayload) {
+            throw new MessageTooBigException(length);
+        }
+
+        byte[] mask = new byte[4];
+        in.readFully(mask);
+        byte[] payload = new byte[(int) length];
+        in.readFully(payload);
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] ^= mask[i & 3];
+        }
+        return new Frame(fin, opcode, payload);
+    }
+
+    /**
+     * Encode an unmasked, final server frame
+     */
+    static byte[] encode(int opcode, byte[] payload) {
+        int length = payload.length;
+        int headerLength = length < 126 ? 2 : length <= 0xFFFF ? 4 : 10;
+        byte[] frame = new byte[headerLength + length];
+        frame[0] = (byte) (0x80 | opcode);
+        if (length < 126) {
+            frame[1] = (byte) length;
+        } else if (length <= 0xFFFF) {
+            frame[1] = 126;
+            frame[2] = (byte) (length >>> 8);
+            frame[3] = (byte) length;
+        } else {
+            frame[1] = 127;
+            for (int i = 0; i < 8; i++) {
+                frame[2 + i] = (byte) ((long) length >>> (56 - 8 * i));
+            }
+        }
+        System.arraycopy(payload, 0, frame, headerLength, length);
+        return frame;
+    }
+
+    static byte[] encodeClose(int code, String reason) {
+        byte[] reasonBytes = reason.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[2 + Math.min(reasonBytes.length, 123)];
+        payload[0] = (byte) (code >>> 8);
+        payload[1] = (byte) code;
+        System.arraycopy(reasonBytes, 0, payload, 2, payload.length - 2);
+        return encode(OP_CLOSE, payload);
+    }
+
+    /**
+     * Thrown when a frame or message exceeds the configured size limit
+     */
+    static class MessageTooBigException extends ProtocolException {
+        MessageTooBigException(long length) {
+            super("Message of " + length + " bytes exceeds the limit");
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Immutable copy of the workspace metadata and element list. A new snapshot is
+ * captured on the EDT after every change and published atomically, so MCP read
+ * tools and resources can query it from any thread without locks and without
+ * seeing a half-applied change. Values derived from a snapshot, such as serialized
+ * resource bodies, can be cached on it and are dropped with it.
+ */
+public final class WorkspaceSnapshot implements McpWorkspaceView {
+
+    private final long version;
+    private final long changeStamp;
+    private final String modName;
+    private final String modVersion;
+    private final String author;
+    private final String description;
+    private final String mcreatorVersion;
+    private final String minecraftDependencies;
+    private final String workspaceFolder;
+    private final List<ElementInfo> elements;
+    private final Map<String, List<ElementInfo>> elementsByType;
+    private final Map<String, Object> derived = new ConcurrentHashMap<>();
+
+    private static final int MAX_DERIVED_VALUES = 64;
+
+    private WorkspaceSnapshot(long version, long changeStamp, McpWorkspaceView source) {
+        this.version = version;
+        this.changeStamp = changeStamp;
+        this.modName = source.getModName();
+        this.modVersion = source.getVersion();
+        this.author = source.getAuthor();
+        this.description = source.getDescription();
+        this.mcreatorVersion = source.getMCreatorVersion();
+        this.minecraftDependencies = source.getMinecraftDependencies();
+        this.workspaceFolder = source.getWorkspaceFolder();
+        this.elements = List.copyOf(source.getElements());
+
+        Map<String, List<ElementInfo>> byType = new HashMap<>();
+        for (ElementInfo element : elements) {
+            byType.computeIfAbsent(typeKey(element.type()), type -> new ArrayList<>()).add(element);
+        }
+        byType.replaceAll((type, list) -> List.copyOf(list));
+        this.elementsByType = Map.copyOf(byType);
+    }
+
+    /**
+     * Copy the current state of a workspace view. For views over a live MCreator
+     * workspace this must run on the EDT.
+     */
+    public static WorkspaceSnapshot capture(McpWorkspaceView source, long version) {
+        return capture(source, version, source.getChangeStamp());
+    }
+
+    /**
+     * Copy the current state of a workspace view whose change stamp is already known
+     */
+    public static WorkspaceSnapshot capture(McpWorkspaceView source, long version, long changeStamp) {
+        return new WorkspaceSnapshot(version, changeStamp, source);
+    }
+
+    /**
+     * Number of the snapshot, increasing with every capture
+     */
+    public long getSnapshotVersion() { return version; }
+
+    /**
+     * Change stamp of the view when it was captured
+     */
+    @Override public long getChangeStamp() { return changeStamp; }
+
+    @Override public String getModName() { return modName; }
+
+    @Override public String getVersion() { return modVersion; }
+
+    @Override public String getAuthor() { return author; }
+
+    @Override public String getDescription() { return description; }
+
+    @Override public String getMCreatorVersion() { return mcreatorVersion; }
+
+    @Override public String getMinecraftDependencies() { return minecraftDependencies; }
+
+    @Override public String getWorkspaceFolder() { return workspaceFolder; }
+
+    @Override public List<ElementInfo> getElements() { return elements; }
+
+    /**
+     * Elements of the given type (registry name, case-insensitive)
+     */
+    public List<ElementInfo> getElementsOfType(String type) {
+        return elementsByType.getOrDefault(typeKey(type), List.of());
+    }
+
+    /**
+     * Get a value computed from this snapshot, computing it on first use. Once the
+     * cache is full, values are computed without being cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T derive(String key, Function<WorkspaceSnapshot, T> compute) {
+        Object value = derived.get(key);
+        if (value == null) {
+            if (derived.size() >= MAX_DERIVED_VALUES) {
+                return compute.apply(this);
+            }
+            value = derived.computeIfAbsent(key, k -> compute.apply(this));
+        }
+        return (T) value;
+    }
+
+    private static String typeKey(String type) {
+        return type == null ? "" : type.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,591 @@
+package net.mcreator.MCreatorMCP.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a {@code <Class>_McpTools} class for every class declaring
+ * {@code @McpTool} methods. It holds each tool's definition as JSON, with the input
+ * schema derived from the argument record and the output schema from the output
+ * record, an argument binder validating requests against the schema, and a
+ * {@code register} method wiring both to the server. Nothing is left to reflection
+ * or schema building at startup, and the schema cannot drift from the code.
+ */
+@SupportedAnnotationTypes(McpToolProcessor.TOOL_ANNOTATION)
+public class McpToolProcessor extends AbstractProcessor {
+
+    static final String TOOL_ANNOTATION = "net.mcreator.MCreatorMCP.mcp.McpTool";
+    private static final String PARAM_ANNOTATION = "net.mcreator.MCreatorMCP.mcp.McpParam";
+    private static final String TOOL_RESULT = "net.mcreator.MCreatorMCP.mcp.McpTypes.ToolResult";
+    // Argument the server routes workspace-scoped tool calls by
+    private static final String WORKSPACE_ARGUMENT = "workspace";
+
+    /**
+     * Argument types the binder supports
+     */
+    private enum Kind {
+        STRING("string"), BOOLEAN("boolean"), INT("integer"), LONG("integer"), DOUBLE("number"), STRING_LIST("array");
+
+        final String schemaType;
+
+        Kind(String schemaType) {
+            this.schemaType = schemaType;
+        }
+    }
+
+    private record Param(String name, Kind kind, boolean primitive, boolean required, String description,
+                         String defaultValue, long min, long max) {}
+
+    private record Tool(ExecutableElement method, String name, String description, String toolClass,
+                        TypeElement argsRecord, List<Param> params, Map<String, Object> definition) {}
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<Tool>> toolsByClass = new LinkedHashMap<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                Tool tool = readTool((ExecutableElement) element);
+                if (tool != null) {
+                    toolsByClass.computeIfAbsent((TypeElement) element.getEnclosingElement(), k -> new ArrayList<>())
+                        .add(tool);
+                }
+            }
+        }
+        for (Map.Entry<TypeElement, List<Tool>> entry : toolsByClass.entrySet()) {
+            try {
+                writeRegistry(entry.getKey(), entry.getValue());
+            } catch (IOException e) {
+                error(entry.getKey(), "Failed to write tool registry: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private Tool readTool(ExecutableElement method) {
+        TypeElement owner = (TypeElement) method.getEnclosingElement();
+        if (owner.getNestingKind() != NestingKind.TOP_LEVEL) {
+            error(method, "@McpTool methods must be declared in a top-level class");
+            return null;
+        }
+        if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) {
+            error(method, "@McpTool methods must be non-private instance methods");
+            return null;
+        }
+        if (!TOOL_RESULT.equals(method.getReturnType().toString())) {
+            error(method, "@McpTool methods must return McpTypes.ToolResult");
+            return null;
+        }
+
+        AnnotationMirror annotation = findAnnotation(method, TOOL_ANNOTATION);
+        Map<String, Object> values = annotationValues(annotation);
+        String name = (String) values.get("name");
+        if (name.isEmpty()) {
+            name = method.getSimpleName().toString();
+        }
+        String description = (String) values.get("description");
+        String toolClass = values.get("toolClass").toString();
+
+        TypeElement argsRecord = null;
+        List<Param> params = new ArrayList<>();
+        if (method.getParameters().size() > 1) {
+            error(method, "@McpTool methods take at most one argument record");
+            return null;
+        } else if (method.getParameters().size() == 1) {
+            TypeMirror type = method.getParameters().get(0).asType();
+            Element element = type.getKind() == TypeKind.DECLARED ? ((DeclaredType) type).asElement() : null;
+            if (element == null || element.getKind() != ElementKind.RECORD) {
+                error(method, "The argument of an @McpTool method must be a record");
+                return null;
+            }
+            argsRecord = (TypeElement) element;
+            for (RecordComponentElement component : argsRecord.getRecordComponents()) {
+                Param param = readParam(component);
+                if (param == null) {
+                    return null;
+                }
+                params.add(param);
+            }
+        }
+
+        Map<String, Object> definition = new LinkedHashMap<>();
+        definition.put("name", name);
+        definition.put("description", description);
+        boolean workspaceScoped = (Boolean) values.getOrDefault("workspaceScoped", true);
+        if (workspaceScoped && params.stream().anyMatch(param -> WORKSPACE_ARGUMENT.equals(param.name()))) {
+            error(method, "'" + WORKSPACE_ARGUMENT + "' is reserved for the workspace of workspace-scoped tools");
+            return null;
+        }
+        definition.put("inputSchema", inputSchema(params, workspaceScoped));
+        TypeMirror output = (TypeMirror) values.get("output");
+        if (output.getKind() != TypeKind.VOID) {
+            Map<String, Object> outputSchema = typeSchema(output, method);
+            if (outputSchema == null) {
+                return null;
+            }
+            definition.put("outputSchema", outputSchema);
+        }
+        return new Tool(method, name, description, toolClass, argsRecord, params, definition);
+    }
+
+    private Param readParam(RecordComponentElement component) {
+        String name = component.getSimpleName().toString();
+        TypeMirror type = component.asType();
+        Kind kind = kindOf(type);
+        if (kind == null) {
+            error(component, "Unsupported tool argument type " + type);
+            return null;
+        }
+
+        AnnotationMirror annotation = findAnnotation(component, PARAM_ANNOTATION);
+        Map<String, Object> values = annotation != null ? annotationValues(annotation) : Map.of();
+        String description = (String) values.getOrDefault("description", "");
+        boolean required = (Boolean) values.getOrDefault("required", false);
+        String defaultValue = (String) values.getOrDefault("defaultValue", "");
+        long min = (Long) values.getOrDefault("min", Long.MIN_VALUE);
+        long max = (Long) values.getOrDefault("max", Long.MAX_VALUE);
+
+        if (!defaultValue.isEmpty()) {
+            try {
+                switch (kind) {
+                    case BOOLEAN -> {
+                        if (!defaultValue.equals("true") && !defaultValue.equals("false")) {
+                            throw new NumberFormatException();
+                        }
+                    }
+                    case INT -> Integer.parseInt(defaultValue);
+                    case LONG -> Long.parseLong(defaultValue);
+                    case DOUBLE -> Double.parseDouble(defaultValue);
+                    case STRING_LIST -> {
+                        error(component, "List arguments cannot have a default value");
+                        return null;
+                    }
+                    default -> {
+                    }
+                }
+            } catch (NumberFormatException e) {
+                error(component, "Default value '" + defaultValue + "' does not match type " + type);
+                return null;
+            }
+        }
+        if (kind == Kind.INT) {
+            min = Math.max(min, Integer.MIN_VALUE);
+            max = Math.min(max, Integer.MAX_VALUE);
+        }
+        return new Param(name, kind, type.getKind().isPrimitive(), required, description, defaultValue, min, max);
+    }
+
+    private static Kind kindOf(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN: return Kind.BOOLEAN;
+            case INT: return Kind.INT;
+            case LONG: return Kind.LONG;
+            case DOUBLE: return Kind.DOUBLE;
+            case DECLARED:
+                switch (type.toString()) {
+                    case "java.lang.String": return Kind.STRING;
+                    case "java.lang.Boolean": return Kind.BOOLEAN;
+                    case "java.lang.Integer": return Kind.INT;
+                    case "java.lang.Long": return Kind.LONG;
+                    case "java.lang.Double": return Kind.DOUBLE;
+                    case "java.util.List<java.lang.String>": return Kind.STRING_LIST;
+                    default: return null;
+                }
+            default: return null;
+        }
+    }
+
+    private static Map<String, Object> inputSchema(List<Param> params, boolean workspaceScoped) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        if (workspaceScoped) {
+            // Read by the server to route the call, see McpServer.WORKSPACE_ARGUMENT
+            Map<String, Object> workspace = new LinkedHashMap<>();
+            workspace.put("type", "string");
+            workspace.put("description", "Id of the workspace to act on; the most recently focused one if omitted");
+            properties.put(WORKSPACE_ARGUMENT, workspace);
+        }
+        List<Object> required = new ArrayList<>();
+        for (Param param : params) {
+            Map<String, Object> property = new LinkedHashMap<>();
+            property.put("type", param.kind().schemaType);
+            if (param.kind() == Kind.STRING_LIST) {
+                property.put("items", Map.of("type", "string"));
+            }
+            if (!param.description().isEmpty()) {
+                property.put("description", param.description());
+            }
+            if (!param.defaultValue().isEmpty()) {
+                property.put("default", switch (param.kind()) {
+                    case BOOLEAN -> Boolean.parseBoolean(param.defaultValue());
+                    case INT, LONG -> Long.parseLong(param.defaultValue());
+                    case DOUBLE -> Double.parseDouble(param.defaultValue());
+                    default -> param.defaultValue();
+                });
+            }
+            if (param.min() != Long.MIN_VALUE && param.min() != Integer.MIN_VALUE) {
+                property.put("minimum", param.min());
+            }
+            if (param.max() != Long.MAX_VALUE && param.max() != Integer.MAX_VALUE) {
+                property.put("maximum", param.max());
+            }
+            properties.put(param.name(), property);
+            if (param.required()) {
+                required.add(param.name());
+            }
+        }
+
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("type", "object");
+        schema.put("properties", properties);
+        if (!required.isEmpty()) {
+            schema.put("required", required);
+        }
+        return schema;
+    }
+
+    /**
+     * JSON schema of an output type. Record components of primitive type are required;
+     * other components may be absent, as output records omit null values.
+     */
+    private Map<String, Object> typeSchema(TypeMirror type, Element source) {
+        Map<String, Object> schema = new LinkedHashMap<>();
+        switch (type.getKind()) {
+            case BOOLEAN -> schema.put("type", "boolean");
+            case INT, LONG, SHORT, BYTE -> schema.put("type", "integer");
+            case DOUBLE, FLOAT -> schema.put("type", "number");
+            case DECLARED -> {
+                DeclaredType declared = (DeclaredType) type;
+                TypeElement element = (TypeElement) declared.asElement();
+                String name = element.getQualifiedName().toString();
+                switch (name) {
+                    case "java.lang.String" -> schema.put("type", "string");
+                    case "java.lang.Boolean" -> schema.put("type", "boolean");
+                    case "java.lang.Integer", "java.lang.Long", "java.lang.Short", "java.lang.Byte" ->
+                        schema.put("type", "integer");
+                    case "java.lang.Double", "java.lang.Float" -> schema.put("type", "number");
+                    case "java.util.List", "java.util.Collection", "java.util.Set" -> {
+                        schema.put("type", "array");
+                        if (declared.getTypeArguments().size() == 1) {
+                            Map<String, Object> items = typeSchema(declared.getTypeArguments().get(0), source);
+                            if (items == null) {
+                                return null;
+                            }
+                            schema.put("items", items);
+                        }
+                    }
+                    case "java.util.Map" -> schema.put("type", "object");
+                    default -> {
+                        if (element.getKind() != ElementKind.RECORD) {
+                            error(source, "Unsupported tool output type " + type);
+                            return null;
+                        }
+                        Map<String, Object> properties = new LinkedHashMap<>();
+                        List<Object> required = new ArrayList<>();
+                        for (RecordComponentElement component : element.getRecordComponents()) {
+                            Map<String, Object> property = typeSchema(component.asType(), source);
+                            if (property == null) {
+                                return null;
+                            }
+                            properties.put(component.getSimpleName().toString(), property);
+                            if (component.asType().getKind().isPrimitive()) {
+                                required.add(component.getSimpleName().toString());
+                            }
+                        }
+                        schema.put("type", "object");
+                        schema.put("properties", properties);
+                        if (!required.isEmpty()) {
+                            schema.put("required", required);
+                        }
+                    }
+                }
+            }
+            default -> {
+                error(source, "Unsupported tool output type " + type);
+                return null;
+            }
+        }
+        return schema;
+    }
+
+    private void writeRegistry(TypeElement owner, List<Tool> tools) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(owner).getQualifiedName().toString();
+        String ownerName = owner.getSimpleName().toString();
+        String className = ownerName + "_McpTools";
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(
+            packageName.isEmpty() ? className : packageName + "." + className, owner);
+        try (Writer writer = file.openWriter(); PrintWriter out = new PrintWriter(writer)) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("import net.mcreator.MCreatorMCP.mcp.CachedJson;");
+            out.println("import net.mcreator.MCreatorMCP.mcp.McpServer;");
+            out.println("import net.mcreator.MCreatorMCP.mcp.McpToolArguments;");
+            out.println("import net.mcreator.MCreatorMCP.mcp.McpToolClass;");
+            out.println();
+            out.println("import javax.annotation.processing.Generated;");
+            out.println("import java.util.Map;");
+            out.println();
+            out.println("/**");
+            out.println(" * MCP tools declared on {@link " + ownerName + "}, generated from its @McpTool methods");
+            out.println(" */");
+            out.println("@Generated(\"" + McpToolProcessor.class.getName() + "\")");
+            out.println("final class " + className + " {");
+            out.println();
+            out.println("    static final int TOOL_COUNT = " + tools.size() + ";");
+            out.println();
+            for (Tool tool : tools) {
+                out.println("    static final String " + constantName(tool.name()) + " =");
+                out.println("        " + javaString(toJson(tool.definition())) + ";");
+                out.println();
+            }
+            out.println("    private " + className + "() {");
+            out.println("    }");
+            out.println();
+            out.println("    /**");
+            out.println("     * Register the tools of the given instance with the server");
+            out.println("     */");
+            out.println("    static void register(McpServer server, " + ownerName + " target) {");
+            for (Tool tool : tools) {
+                String call = "target." + tool.method().getSimpleName() + "("
+                    + (tool.argsRecord() != null ? binderName(tool) + "(params)" : "") + ")";
+                out.println("        server.registerTool(" + javaString(tool.name()) + ", McpToolClass." + tool.toolClass()
+                    + ", CachedJson.ofJson(" + constantName(tool.name()) + "),");
+                out.println("            params -> " + call + ");");
+            }
+            out.println("    }");
+
+            for (Tool tool : tools) {
+                if (tool.argsRecord() != null) {
+                    out.println();
+                    writeBinder(out, tool);
+                }
+            }
+            out.println("}");
+        }
+    }
+
+    private void writeBinder(PrintWriter out, Tool tool) {
+        String recordName = tool.argsRecord().getQualifiedName().toString();
+        String toolName = javaString(tool.name());
+        out.println("    /**");
+        out.println("     * Bind the arguments of " + tool.name() + ", rejecting values that do not match its input schema");
+        out.println("     */");
+        out.println("    static " + recordName + " " + binderName(tool)
+            + "(Map<String, Object> params) throws McpToolArguments.InvalidArgumentsException {");
+        List<String> names = new ArrayList<>();
+        for (Param param : tool.params()) {
+            String name = param.name();
+            String local = "arg_" + name;
+            String paramName = javaString(name);
+            String required = Boolean.toString(param.required());
+            String defaultValue = param.defaultValue();
+            switch (param.kind()) {
+                case STRING -> {
+                    out.println("        String " + local + " = McpToolArguments.string(params, " + toolName + ", "
+                        + paramName + ", " + required + ");");
+                    if (!defaultValue.isEmpty()) {
+                        out.println("        if (" + local + " == null) {");
+                        out.println("            " + local + " = " + javaString(defaultValue) + ";");
+                        out.println("        }");
+                    }
+                }
+                case STRING_LIST -> out.println("        java.util.List<String> " + local + " = McpToolArguments.stringList(params, "
+                    + toolName + ", " + paramName + ", " + required + ");");
+                case BOOLEAN -> {
+                    out.println("        Boolean " + local + " = McpToolArguments.bool(params, " + toolName + ", "
+                        + paramName + ", " + required + ");");
+                    if (!defaultValue.isEmpty() || param.primitive()) {
+                        String fallback = defaultValue.isEmpty() ? "false" : defaultValue;
+                        out.println("        if (" + local + " == null) {");
+                        out.println("            " + local + " = Boolean." + fallback.toUpperCase(Locale.ROOT) + ";");
+                        out.println("        }");
+                    }
+                }
+                case INT, LONG, DOUBLE -> {
+                    String number = "number_" + name;
+                    if (param.kind() == Kind.DOUBLE) {
+                        out.println("        Number " + number + " = McpToolArguments.number(params, " + toolName + ", "
+                            + paramName + ", " + required + ", " + doubleBound(param.min(), true) + ", "
+                            + doubleBound(param.max(), false) + ");");
+                    } else {
+                        out.println("        Number " + number + " = McpToolArguments.integer(params, " + toolName + ", "
+                            + paramName + ", " + required + ", " + param.min() + "L, " + param.max() + "L);");
+                    }
+                    String primitive = switch (param.kind()) {
+                        case INT -> "int";
+                        case LONG -> "long";
+                        default -> "double";
+                    };
+                    String value = number + "." + primitive + "Value()";
+                    String fallback;
+                    if (!defaultValue.isEmpty()) {
+                        fallback = switch (param.kind()) {
+                            case INT -> Integer.toString(Integer.parseInt(defaultValue));
+                            case LONG -> Long.parseLong(defaultValue) + "L";
+                            default -> Double.toString(Double.parseDouble(defaultValue));
+                        };
+                    } else {
+                        fallback = param.primitive() ? "0" : "null";
+                    }
+                    if (param.primitive()) {
+                        out.println("        " + primitive + " " + local + " = " + number + " != null ? " + value
+                            + " : " + fallback + ";");
+                    } else {
+                        String boxed = switch (param.kind()) {
+                            case INT -> "Integer";
+                            case LONG -> "Long";
+                            default -> "Double";
+                        };
+                        String boxedFallback = fallback.equals("null") ? "null" : boxed + ".valueOf(" + fallback + ")";
+                        out.println("        " + boxed + " " + local + " = " + number + " != null ? " + boxed
+                            + ".valueOf(" + value + ") : " + boxedFallback + ";");
+                    }
+                }
+            }
+            names.add(local);
+        }
+        out.println("        return new " + recordName + "(" + String.join(", ", names) + ");");
+        out.println("    }");
+    }
+
+    private static String doubleBound(long bound, boolean min) {
+        if (bound == (min ? Long.MIN_VALUE : Long.MAX_VALUE)) {
+            return min ? "Double.NEGATIVE_INFINITY" : "Double.POSITIVE_INFINITY";
+        }
+        return bound + ".0";
+    }
+
+    private static String binderName(Tool tool) {
+        String name = tool.name();
+        return "bind" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Constant holding a tool's definition, e.g. GET_RUN_LOGS_TOOL for getRunLogs
+     */
+    private static String constantName(String toolName) {
+        StringBuilder constant = new StringBuilder();
+        for (int i = 0; i < toolName.length(); i++) {
+            char c = toolName.charAt(i);
+            if (Character.isUpperCase(c) && i > 0) {
+                constant.append('_');
+            }
+            constant.append(Character.isLetterOrDigit(c) ? Character.toUpperCase(c) : '_');
+        }
+        return constant.append("_TOOL").toString();
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String annotationType) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (annotationType.equals(mirror.getAnnotationType().toString())) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private Map<String, Object> annotationValues(AnnotationMirror annotation) {
+        Map<String, Object> values = new HashMap<>();
+        processingEnv.getElementUtils().getElementValuesWithDefaults(annotation).forEach(
+            (method, value) -> values.put(method.getSimpleName().toString(), value.getValue()));
+        return values;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static String toJson(Object value) {
+        StringBuilder json = new StringBuilder();
+        appendJson(json, value);
+        return json.toString();
+    }
+
+    private static void appendJson(StringBuilder json, Object value) {
+        if (value instanceof Map<?, ?> map) {
+            json.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                appendJson(json, entry.getKey().toString());
+                json.append(':');
+                appendJson(json, entry.getValue());
+            }
+            json.append('}');
+        } else if (value instanceof List<?> list) {
+            json.append('[');
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                appendJson(json, list.get(i));
+            }
+            json.append(']');
+        } else if (value instanceof String string) {
+            json.append('"');
+            for (int i = 0; i < string.length(); i++) {
+                char c = string.charAt(i);
+                switch (c) {
+                    case '"' -> json.append("\\\"");
+                    case '\\' -> json.append("\\\\");
+                    case '\n' -> json.append("\\n");
+                    case '\r' -> json.append("\\r");
+                    case '\t' -> json.append("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            json.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            json.append(c);
+                        }
+                    }
+                }
+            }
+            json.append('"');
+        } else {
+            json.append(value);
+        }
+    }
+
+    private static String javaString(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> literal.append("\\\"");
+                case '\\' -> literal.append("\\\\");
+                case '\n' -> literal.append("\\n");
+                case '\r' -> literal.append("\\r");
+                case '\t' -> literal.append("\\t");
+                default -> {
+                    if (c < 0x20 || c > 0x7E) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+                }
+            }
+        }
+        return literal.append('"').toString();
+    }
+}
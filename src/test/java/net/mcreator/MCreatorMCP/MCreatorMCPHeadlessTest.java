@@ -0,0 +1,79 @@
+package net.mcreator.MCreatorMCP;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.mcreator.MCreatorMCP.mcp.SyntheticWorkspace;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * Tests for serving workspaces without the MCreator UI
+ */
+public class MCreatorMCPHeadlessTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private MCreatorMCPHeadless headless;
+
+    @BeforeEach
+    public void setUp() {
+        headless = new MCreatorMCPHeadless();
+        headless.addWorkspace(new SyntheticWorkspace.Host(new SyntheticWorkspace(12)));
+        headless.start(0, null);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        headless.stop();
+    }
+
+    @Test
+    public void testServesToolCallsWithoutTheUI() throws Exception {
+        assertTrue(headless.getHttpPort() > 0, "HTTP should be served on a free port");
+
+        JsonNode init = post("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"initialize\","
+            + "\"params\":{\"protocolVersion\":\"2025-06-18\",\"capabilities\":{}}}");
+        assertEquals("2025-06-18", init.path("result").path("protocolVersion").asText());
+
+        JsonNode info = callTool(2, "getWorkspaceInfo");
+        assertFalse(info.path("isError").asBoolean(), "Read tools should work headless");
+        assertEquals(12, info.path("structuredContent").path("elementCount").asInt());
+
+        JsonNode elements = callTool(3, "listModElements");
+        assertFalse(elements.path("isError").asBoolean());
+        assertEquals(12, elements.path("structuredContent").path("count").asInt());
+    }
+
+    @Test
+    public void testRunToolsAreUnavailable() throws Exception {
+        for (String tool : new String[] {"runClient", "runServer", "getRunStatus"}) {
+            JsonNode result = callTool(1, tool);
+            assertTrue(result.path("isError").asBoolean(), tool + " should fail headless");
+            assertTrue(result.path("content").path(0).path("text").asText().contains("not available headless"),
+                tool + " should say that runs need the UI");
+        }
+    }
+
+    private JsonNode callTool(int id, String tool) throws Exception {
+        JsonNode response = post("{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"method\":\"tools/call\","
+            + "\"params\":{\"name\":\"" + tool + "\",\"arguments\":{}}}");
+        assertTrue(response.has("result"), tool + " should answer with a result: " + response);
+        return response.path("result");
+    }
+
+    private JsonNode post(String body) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                URI.create("http://localhost:" + headless.getHttpPort() + "/mcp"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        return objectMapper.readTree(response.body());
+    }
+}
@@ -0,0 +1,25 @@
+package net.mcreator.MCreatorMCP;
+
+import net.mcreator.MCreatorMCP.mcp.McpServer;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+
+/**
+ * Tests for tracking client and server runs
+ */
+public class RunSessionManagerTest {
+
+    @Test
+    public void testFailedLaunchLeavesNoSession() {
+        McpServer server = new McpServer("Test MCP Server", "1.0.0");
+        RunSessionManager manager = new RunSessionManager(new EdtDispatcher(server.getMetrics(), server.getTracer()));
+
+        assertThrows(Exception.class, () -> manager.start(RunSessionManager.RunKind.CLIENT,
+            new File("run/logs/latest.log"), () -> {
+                throw new IllegalStateException("Gradle is busy");
+            }, () -> null));
+        assertTrue(manager.getSessions().isEmpty(), "A run that failed to launch should not be tracked");
+    }
+}
@@ -0,0 +1,103 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Tests for response compression and splicing of precompressed bodies
+ */
+public class HttpCompressionTest {
+
+    @Test
+    public void testNegotiation() {
+        assertEquals(HttpCompression.Encoding.IDENTITY, HttpCompression.negotiate(null));
+        assertEquals(HttpCompression.Encoding.GZIP, HttpCompression.negotiate("deflate, gzip"));
+        assertEquals(HttpCompression.Encoding.DEFLATE, HttpCompression.negotiate("gzip;q=0, deflate"));
+        assertEquals(HttpCompression.Encoding.DEFLATE, HttpCompression.negotiate("gzip;q=0.2, deflate;q=0.8"));
+        assertEquals(HttpCompression.Encoding.IDENTITY, HttpCompression.negotiate("br, identity"));
+        assertEquals(HttpCompression.Encoding.GZIP, HttpCompression.negotiate("*"));
+        assertEquals(HttpCompression.Encoding.DEFLATE, HttpCompression.negotiate("gzip;q=0, *"));
+        assertEquals(HttpCompression.Encoding.DEFLATE, HttpCompression.negotiate("*, gzip;q=0"));
+        assertEquals(HttpCompression.Encoding.IDENTITY, HttpCompression.negotiate("gzip;q=0, deflate;q=0, *"));
+        assertEquals(HttpCompression.Encoding.IDENTITY, HttpCompression.negotiate("*;q=0"));
+    }
+
+    @Test
+    public void testSplicedStreamsDecompress() throws Exception {
+        byte[] prefix = "{\"jsonrpc\":\"2.0\",\"id\":42,\"result\":".getBytes(StandardCharsets.UTF_8);
+        byte[] middle = "{\"elements\":[\"block\",\"item\",\"block\",\"item\"]}".repeat(500).getBytes(StandardCharsets.UTF_8);
+        byte[] suffix = "}".getBytes(StandardCharsets.UTF_8);
+        HttpCompression.Segment segment = HttpCompression.segment(middle);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(prefix);
+        expected.write(middle);
+        expected.write(suffix);
+
+        for (HttpCompression.Encoding encoding : new HttpCompression.Encoding[] {
+                HttpCompression.Encoding.GZIP, HttpCompression.Encoding.DEFLATE}) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            HttpCompression.writeSpliced(compressed, encoding, prefix, segment, suffix);
+
+            // The decoders verify the combined CRC-32 and Adler-32 trailers
+            assertArrayEquals(expected.toByteArray(), decompress(encoding, compressed.toByteArray()),
+                "Spliced " + encoding + " stream should decompress to the concatenated parts");
+            assertTrue(compressed.size() < middle.length / 10, "Repetitive JSON should compress well");
+        }
+    }
+
+    @Test
+    public void testCompressedResourceResponses() throws Exception {
+        McpServer mcpServer = SyntheticWorkspace.createServer(2000);
+        McpHttpTransport transport = new McpHttpTransport(mcpServer, 0);
+        transport.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            String request = "{\"jsonrpc\":\"2.0\",\"id\":7,\"method\":\"resources/read\",\"params\":{\"uri\":\"workspace://elements\"}}";
+            ObjectMapper objectMapper = new ObjectMapper();
+
+            HttpResponse<byte[]> plain = client.send(post(transport, request, "identity"), HttpResponse.BodyHandlers.ofByteArray());
+            JsonNode expected = objectMapper.readTree(plain.body());
+
+            // Twice, so the second response is served from the cached compressed body
+            for (int i = 0; i < 2; i++) {
+                HttpResponse<byte[]> gzip = client.send(post(transport, request, "gzip"), HttpResponse.BodyHandlers.ofByteArray());
+                assertEquals("gzip", gzip.headers().firstValue("Content-Encoding").orElse(null));
+                assertTrue(gzip.body().length < plain.body().length / 4, "Compressed response should be much smaller");
+                assertEquals(expected, objectMapper.readTree(decompress(HttpCompression.Encoding.GZIP, gzip.body())),
+                    "Compressed response should match the uncompressed one");
+            }
+        } finally {
+            transport.stop();
+        }
+    }
+
+    private static HttpRequest post(McpHttpTransport transport, String body, String acceptEncoding) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + transport.getPort() + "/mcp"))
+            .header("Content-Type", "application/json")
+            .header("Accept-Encoding", acceptEncoding)
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+
+    private static byte[] decompress(HttpCompression.Encoding encoding, byte[] data) throws Exception {
+        try (InputStream in = encoding == HttpCompression.Encoding.GZIP
+                ? new GZIPInputStream(new ByteArrayInputStream(data))
+                : new InflaterInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+/**
+ * Tests for request admission control
+ */
+public class McpAdmissionControllerTest {
+
+    private static final McpRequestContext CLIENT = new McpRequestContext("http", "10.0.0.1");
+
+    private static McpAdmissionController createController() {
+        return new McpAdmissionController(true,
+            new McpAdmissionController.Limit(1, 3),
+            Map.of(McpToolClass.MUTATING, new McpAdmissionController.Limit(100, 100)),
+            Map.of(McpToolClass.BUILD_RUN, 1),
+            new McpMetrics());
+    }
+
+    @Test
+    public void testClientRateLimit() throws Exception {
+        McpAdmissionController controller = createController();
+        McpSession session = new McpSession(CLIENT);
+        for (int i = 0; i < 3; i++) {
+            controller.admit(session, null).close();
+        }
+
+        McpAdmissionController.RejectedException rejected = assertThrows(McpAdmissionController.RejectedException.class,
+            () -> controller.admit(session, null), "Requests beyond the burst should be rejected");
+        assertEquals("client", rejected.getReason());
+        assertTrue(rejected.getRetryAfterMs() > 0 && rejected.getRetryAfterMs() <= 1000,
+            "Retry hint should be the time until the next token");
+
+        assertDoesNotThrow(() -> controller.admit(new McpSession(new McpRequestContext("http", "10.0.0.2")), null),
+            "Other clients should have their own bucket");
+        assertDoesNotThrow(() -> controller.admit(new McpSession(McpRequestContext.DIRECT), null),
+            "In-process calls should not be limited");
+    }
+
+    @Test
+    public void testNewSessionsShareTheClientBuckets() throws Exception {
+        McpAdmissionController controller = createController();
+        for (int i = 0; i < 3; i++) {
+            controller.admit(new McpSession(new McpRequestContext("http", "10.0.0.1", "session-" + i)), null).close();
+        }
+
+        assertThrows(McpAdmissionController.RejectedException.class,
+            () -> controller.admit(new McpSession(new McpRequestContext("http", "10.0.0.1", "session-new")), null),
+            "Opening another session should not reset the client's rate limit");
+    }
+
+    @Test
+    public void testConcurrencyCap() throws Exception {
+        McpAdmissionController controller = createController();
+        McpAdmissionController.Permit permit = controller.admit(new McpSession(CLIENT), McpToolClass.BUILD_RUN);
+
+        McpAdmissionController.RejectedException rejected = assertThrows(McpAdmissionController.RejectedException.class,
+            () -> controller.admit(new McpSession(new McpRequestContext("http", "10.0.0.2")), McpToolClass.BUILD_RUN),
+            "A second concurrent build should be rejected");
+        assertEquals("concurrency", rejected.getReason());
+
+        permit.close();
+        assertDoesNotThrow(() -> controller.admit(new McpSession(new McpRequestContext("http", "10.0.0.3")), McpToolClass.BUILD_RUN),
+            "Releasing the permit should admit the next build");
+    }
+
+    @Test
+    public void testServerReturnsRejectionError() {
+        McpServer mcpServer = SyntheticWorkspace.createServer(10);
+        JsonRpcMessage request = new JsonRpcMessage("tools/list", Map.of());
+        request.setId(1);
+
+        JsonRpcMessage response = null;
+        for (int i = 0; i < 1000 && (response == null || response.getError() == null); i++) {
+            response = mcpServer.processMessage(request, CLIENT);
+        }
+
+        assertNotNull(response.getError(), "Flooding a single client should eventually be rejected");
+        assertEquals(McpAdmissionController.ERROR_CODE, response.getError().getCode());
+        assertTrue(((Map<?, ?>) response.getError().getData()).containsKey("retryAfterMs"),
+            "Rejections should carry a retry hint");
+    }
+}
@@ -0,0 +1,198 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests for the connection handling of the HTTP transport on both engines
+ */
+public class McpHttpTransportTest {
+
+    private static final String[] ENGINES = {"jdk", "nio"};
+
+    @Test
+    public void testChangedNioOnlySettingsAreReported() {
+        McpTransportConfig config = new McpTransportConfig();
+        assertTrue(config.getChangedNioOnlySettings().isEmpty(), "Defaults should not be reported");
+
+        config.setMaxConnections(64);
+        config.setTcpNoDelay(false);
+        config.setMaxRequestBodyBytes(1024);
+        assertEquals(List.of("http.maxConnections", "http.tcpNoDelay"), config.getChangedNioOnlySettings(),
+            "Only settings the jdk engine cannot apply itself should be reported");
+    }
+
+    @Test
+    public void testOversizedRequestBodyIsRejected() throws Exception {
+        for (String engine : ENGINES) {
+            McpTransportConfig config = new McpTransportConfig();
+            config.setEngine(engine);
+            config.setMaxRequestBodyBytes(1024);
+            McpHttpTransport transport = new McpHttpTransport(SyntheticWorkspace.createServer(10), 0, config);
+            transport.start();
+            try {
+                HttpClient client = HttpClient.newHttpClient();
+                String params = "{\"padding\":\"" + "x".repeat(4096) + "\"}";
+                HttpResponse<String> tooLarge = client.send(post(transport,
+                    "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/list\",\"params\":" + params + "}"),
+                    HttpResponse.BodyHandlers.ofString());
+                assertEquals(413, tooLarge.statusCode(), engine + ": bodies over the limit should get 413");
+
+                HttpResponse<String> small = client.send(post(transport,
+                    "{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"tools/list\"}"), HttpResponse.BodyHandlers.ofString());
+                assertEquals(200, small.statusCode(), engine + ": requests under the limit should be served");
+            } finally {
+                transport.stop();
+            }
+        }
+    }
+
+    @Test
+    public void testSequentialRequestsReuseTheConnection() throws Exception {
+        for (String engine : ENGINES) {
+            McpTransportConfig config = new McpTransportConfig();
+            config.setEngine(engine);
+            McpServer server = SyntheticWorkspace.createServer(10);
+            McpHttpTransport transport = new McpHttpTransport(server, 0, config);
+            transport.start();
+            try {
+                HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+                for (int id = 1; id <= 50; id++) {
+                    HttpResponse<String> response = client.send(post(transport,
+                        "{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"method\":\"tools/list\"}"),
+                        HttpResponse.BodyHandlers.ofString());
+                    assertEquals(200, response.statusCode());
+                }
+
+                McpMetrics metrics = server.getMetrics();
+                assertEquals(50, metrics.counter("mcp_http_exchanges_total", "").sum(), engine);
+                assertEquals(1, metrics.counter("mcp_http_connections_total", "").sum(),
+                    engine + ": sequential requests of one client should share a keep-alive connection");
+            } finally {
+                transport.stop();
+            }
+        }
+    }
+
+    @Test
+    public void testClientsWithoutSessionHeaderKeepTheAddressSession() throws Exception {
+        for (String engine : ENGINES) {
+            McpTransportConfig config = new McpTransportConfig();
+            config.setEngine(engine);
+            McpServer server = SyntheticWorkspace.createServer(10);
+            McpHttpTransport transport = new McpHttpTransport(server, 0, config);
+            transport.start();
+            try {
+                HttpClient client = HttpClient.newHttpClient();
+                URI uri = URI.create("http://127.0.0.1:" + transport.getPort() + "/mcp");
+                String initialize = "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"initialize\","
+                    + "\"params\":{\"protocolVersion\":\"2024-11-05\",\"capabilities\":{}}}";
+                String offered = null;
+                for (int i = 0; i < 20; i++) {
+                    HttpResponse<String> init = client.send(HttpRequest.newBuilder(uri)
+                        .POST(HttpRequest.BodyPublishers.ofString(initialize)).build(), HttpResponse.BodyHandlers.ofString());
+                    offered = init.headers().firstValue(McpHttpTransport.SESSION_HEADER).orElse(null);
+                    assertNotNull(offered, engine + ": initialize should offer a session id");
+                }
+                assertEquals(1, server.getSessions().size(),
+                    engine + ": offered sessions should not be stored before the client uses them");
+                assertEquals("2024-11-05", server.getSessions().find("http", "127.0.0.1").getProtocolVersion(),
+                    engine + ": clients without the header should keep the session they initialized");
+
+                HttpResponse<String> inSession = client.send(HttpRequest.newBuilder(uri)
+                    .header(McpHttpTransport.SESSION_HEADER, offered)
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"tools/list\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+                assertEquals(200, inSession.statusCode());
+                assertEquals(2, server.getSessions().size());
+                assertEquals("2024-11-05", server.getSessions().find("http", offered).getProtocolVersion(),
+                    engine + ": a used session should start with what was negotiated");
+            } finally {
+                transport.stop();
+            }
+        }
+    }
+
+    @Test
+    public void testJdkTakeOverCompletesRequestsInFlight() throws Exception {
+        McpTransportConfig config = new McpTransportConfig();
+        config.setEngine("jdk");
+        McpServer server = SyntheticWorkspace.createServer(10);
+        CountDownLatch started = new CountDownLatch(1);
+        server.registerHandler("test/slow", params -> {
+            started.countDown();
+            Thread.sleep(300);
+            return Map.of("done", true);
+        });
+        McpHttpTransport transport = new McpHttpTransport(server, 0, config);
+        transport.start();
+        int port = transport.getPort();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            CompletableFuture<HttpResponse<String>> slow = client.sendAsync(post(transport,
+                "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"test/slow\"}"), HttpResponse.BodyHandlers.ofString());
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // Keep a client busy on the port the whole time; only refused connects may be retried
+            AtomicBoolean handedOver = new AtomicBoolean();
+            List<Integer> statuses = new CopyOnWriteArrayList<>();
+            CompletableFuture<Void> traffic = CompletableFuture.runAsync(() -> {
+                HttpRequest request = HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + port + "/mcp"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"tools/list\"}"))
+                    .build();
+                while (!handedOver.get()) {
+                    try {
+                        statuses.add(client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+                    } catch (ConnectException e) {
+                        Thread.onSpinWait();
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }
+            });
+            Thread.sleep(100);
+
+            // The jdk engine cannot hand over its socket, so it stops accepting and the port is bound again
+            long takeOverStart = System.nanoTime();
+            McpHttpTransport next = new McpHttpTransport(server, port, config);
+            next.takeOver(transport);
+            transport = next;
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - takeOverStart) < config.getDrainTimeoutMs(),
+                "The takeover should not wait for the drain timeout");
+            Thread.sleep(100);
+            handedOver.set(true);
+
+            traffic.get(5, TimeUnit.SECONDS);
+            assertFalse(statuses.isEmpty());
+            assertTrue(statuses.stream().allMatch(status -> status == 200), "No request should fail: " + statuses);
+            HttpResponse<String> slowResponse = slow.get(5, TimeUnit.SECONDS);
+            assertEquals(200, slowResponse.statusCode(), "The request in flight should complete on the old transport");
+            assertTrue(slowResponse.body().contains("\"done\":true"));
+            assertEquals(port, transport.getPort());
+        } finally {
+            transport.stop();
+        }
+    }
+
+    private static HttpRequest post(McpHttpTransport transport, String body) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + transport.getPort() + "/mcp"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+}
@@ -0,0 +1,23 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the responses kept for retried tool calls
+ */
+public class McpIdempotencyCacheTest {
+
+    @Test
+    public void testCallsRunningPastTheTimeoutAreForgotten() throws Exception {
+        McpIdempotencyCache cache = new McpIdempotencyCache(60_000, 50, 16, new McpMetrics());
+        McpIdempotencyCache.Entry lost = cache.acquire("client key", "tool {}", "tool");
+        assertTrue(lost.isOwner());
+        assertFalse(cache.acquire("client key", "tool {}", "tool").isOwner(), "A retry should join the running call");
+
+        Thread.sleep(100);
+        assertTrue(cache.acquire("client key", "tool {}", "tool").isOwner(),
+            "A call that never finished should not hold its key forever");
+        assertEquals(1, cache.size());
+    }
+}
@@ -0,0 +1,448 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import java.io.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless load generator for capacity planning. It starts an McpServer backed by a
+ * synthetic workspace behind the HTTP transport and a piped stdio transport, replays
+ * a weighted mix of MCP requests against both at fixed target rates, and reports
+ * throughput, latency percentiles, errors and GC/allocation statistics.
+ *
+ * <p>Requests are sent open-loop: latency is measured from the time a request was
+ * scheduled, not from when it was actually sent, so a stalled server shows up as
+ * latency instead of silently lowering the offered rate.</p>
+ *
+ * <p>Run with {@code ./gradlew loadTest -PloadArgs="--duration=60 --http-rate=500"}.
+ * Options: --duration, --warmup (seconds), --elements, --http-rate, --http-max-in-flight,
+ * --stdio-rate (requests per second, 0 disables a transport) and --mix, a comma separated
+ * list of request:weight pairs using the request names of {@link RequestKind}.</p>
+ */
+public class McpLoadGenerator {
+
+    /**
+     * Request types the generator can replay
+     */
+    enum RequestKind {
+        initialize("initialize", "{\"protocolVersion\":\"2025-06-18\",\"capabilities\":{}}"),
+        toolsList("tools/list", "{}"),
+        resourcesList("resources/list", "{}"),
+        readOverview("resources/read", "{\"uri\":\"workspace://overview\"}"),
+        readElements("resources/read", "{\"uri\":\"workspace://elements\"}"),
+        getWorkspaceInfo("tools/call", "{\"name\":\"getWorkspaceInfo\",\"arguments\":{}}"),
+        listModElements("tools/call", "{\"name\":\"listModElements\",\"arguments\":{}}"),
+        listBlocks("tools/call", "{\"name\":\"listModElements\",\"arguments\":{\"elementType\":\"block\"}}");
+
+        private final String suffix;
+
+        RequestKind(String method, String params) {
+            this.suffix = ",\"method\":\"" + method + "\",\"params\":" + params + "}";
+        }
+
+        String toJson(long id) {
+            return "{\"jsonrpc\":\"2.0\",\"id\":" + id + suffix;
+        }
+    }
+
+    private final Map<String, String> options;
+    private final List<RequestKind> weightedMix = new ArrayList<>();
+    private final AtomicLong idCounter = new AtomicLong(1);
+
+    McpLoadGenerator(Map<String, String> options) {
+        this.options = options;
+        String mix = options.getOrDefault("mix",
+            "toolsList:1,resourcesList:1,readOverview:2,readElements:2,getWorkspaceInfo:3,listModElements:1,listBlocks:2");
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+            for (int i = 0; i < weight; i++) {
+                weightedMix.add(RequestKind.valueOf(parts[0]));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else if (!arg.isBlank()) {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        // The generator measures the server, not its rate limits, unless asked to
+        if (System.getProperty(McpSettings.PREFIX + "admission.enabled") == null) {
+            System.setProperty(McpSettings.PREFIX + "admission.enabled", "false");
+        }
+        new McpLoadGenerator(options).run();
+        System.exit(0);
+    }
+
+    void run() throws Exception {
+        int elements = intOption("elements", 1000);
+        int duration = intOption("duration", 30);
+        int warmup = intOption("warmup", 5);
+        int httpRate = intOption("http-rate", 200);
+        int stdioRate = intOption("stdio-rate", 50);
+
+        McpServer mcpServer = SyntheticWorkspace.createServer(elements);
+
+        McpHttpTransport httpTransport = new McpHttpTransport(mcpServer, 0);
+        httpTransport.start();
+
+        PipedOutputStream toServer = new PipedOutputStream();
+        PipedInputStream serverInput = new PipedInputStream(toServer, 1 << 20);
+        PipedInputStream fromServer = new PipedInputStream(1 << 20);
+        PrintStream serverOutput = new PrintStream(new PipedOutputStream(fromServer), false, StandardCharsets.UTF_8);
+        McpStdioTransport stdioTransport = new McpStdioTransport(mcpServer, serverInput, serverOutput);
+        stdioTransport.start();
+
+        List<Driver> drivers = new ArrayList<>();
+        if (httpRate > 0) {
+            drivers.add(new HttpDriver("http", httpRate, httpTransport.getPort(), intOption("http-max-in-flight", 256)));
+        }
+        if (stdioRate > 0) {
+            drivers.add(new StdioDriver("stdio", stdioRate, toServer, fromServer));
+        }
+
+        System.out.printf("MCP load test: %d elements, warmup %ds, duration %ds, mix %s%n",
+            elements, warmup, duration, options.getOrDefault("mix", "default"));
+        for (Driver driver : drivers) {
+            System.out.printf("  %s: %d req/s%n", driver.name, driver.rate);
+        }
+
+        if (warmup > 0) {
+            runPhase(drivers, warmup);
+        }
+
+        GcSnapshot gcBefore = GcSnapshot.take();
+        long wallStart = System.nanoTime();
+        Map<Driver, Stats> results = runPhase(drivers, duration);
+        double elapsedSeconds = (System.nanoTime() - wallStart) / 1e9;
+        GcSnapshot gcAfter = GcSnapshot.take();
+
+        report(results, elapsedSeconds, gcBefore, gcAfter);
+        if (httpRate > 0) {
+            reportConnections(mcpServer.getMetrics());
+        }
+
+        httpTransport.stop();
+        stdioTransport.stop();
+    }
+
+    /**
+     * Drive all transports concurrently for the given number of seconds and wait for in-flight requests
+     */
+    private Map<Driver, Stats> runPhase(List<Driver> drivers, int seconds) throws InterruptedException {
+        Map<Driver, Stats> results = new LinkedHashMap<>();
+        List<Thread> schedulers = new ArrayList<>();
+        for (Driver driver : drivers) {
+            Stats stats = new Stats();
+            results.put(driver, stats);
+            driver.stats = stats;
+            Thread scheduler = new Thread(() -> schedule(driver, seconds), "MCP-Load-" + driver.name);
+            scheduler.start();
+            schedulers.add(scheduler);
+        }
+        for (Thread scheduler : schedulers) {
+            scheduler.join();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (Driver driver : drivers) {
+            while (driver.inFlight() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            driver.stats.timedOut.add(driver.inFlight());
+        }
+        return results;
+    }
+
+    /**
+     * Issue requests at a fixed rate until the phase ends
+     */
+    private void schedule(Driver driver, int seconds) {
+        long interval = 1_000_000_000L / driver.rate;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        for (long i = 0; ; i++) {
+            long scheduledAt = start + i * interval;
+            if (scheduledAt >= end) {
+                break;
+            }
+            long delay = scheduledAt - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            RequestKind kind = weightedMix.get(random.nextInt(weightedMix.size()));
+            driver.send(kind, idCounter.getAndIncrement(), scheduledAt);
+        }
+    }
+
+    private void report(Map<Driver, Stats> results, double elapsedSeconds, GcSnapshot before, GcSnapshot after) {
+        System.out.println();
+        System.out.printf("%-8s %-18s %9s %10s %8s %9s %9s %9s %9s %9s%n",
+            "TRANSPORT", "REQUEST", "COUNT", "REQ/S", "ERRORS", "P50 ms", "P90 ms", "P99 ms", "P99.9 ms", "MAX ms");
+
+        for (Map.Entry<Driver, Stats> entry : results.entrySet()) {
+            Stats stats = entry.getValue();
+            for (Map.Entry<RequestKind, LatencyHistogram> kind : new TreeMap<>(stats.byKind).entrySet()) {
+                printRow(entry.getKey().name, kind.getKey().name(), kind.getValue(),
+                    stats.errorsByKind.getOrDefault(kind.getKey(), new LongAdder()).sum(), elapsedSeconds);
+            }
+            printRow(entry.getKey().name, "ALL", stats.overall, stats.errors.sum(), elapsedSeconds);
+            if (stats.rejected.sum() > 0 || stats.timedOut.sum() > 0) {
+                System.out.printf("%-8s rejected (max in flight): %d, unanswered at end: %d%n",
+                    entry.getKey().name, stats.rejected.sum(), stats.timedOut.sum());
+            }
+        }
+
+        System.out.println();
+        System.out.printf("GC: %d collections, %.1f ms total pause/collection time%n",
+            after.collections - before.collections, (double) (after.collectionTimeMs - before.collectionTimeMs));
+        if (before.allocatedBytes >= 0 && after.allocatedBytes >= 0) {
+            double allocatedMb = (after.allocatedBytes - before.allocatedBytes) / (1024.0 * 1024.0);
+            long totalRequests = results.values().stream().mapToLong(stats -> stats.overall.getCount()).sum();
+            System.out.printf("Allocation (whole JVM, client included): %.1f MB, %.1f MB/s, %.1f KB/request%n",
+                allocatedMb, allocatedMb / elapsedSeconds,
+                totalRequests > 0 ? allocatedMb * 1024 / totalRequests : 0.0);
+        }
+        System.out.printf("Heap used at end: %.1f MB%n",
+            ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024.0 * 1024.0));
+    }
+
+    /**
+     * Show how well HTTP connections were reused across the whole run, warmup included
+     */
+    private static void reportConnections(McpMetrics metrics) {
+        long connections = metrics.counter("mcp_http_connections_total", "HTTP connections opened by clients").sum();
+        long exchanges = metrics.counter("mcp_http_exchanges_total", "HTTP requests received on any endpoint").sum();
+        System.out.printf("HTTP connections: %d opened for %d requests (%.1f requests/connection)%n",
+            connections, exchanges, connections > 0 ? (double) exchanges / connections : 0.0);
+    }
+
+    private static void printRow(String transport, String kind, LatencyHistogram histogram, long errors,
+            double elapsedSeconds) {
+        System.out.printf("%-8s %-18s %9d %10.1f %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+            transport, kind, histogram.getCount(), histogram.getCount() / elapsedSeconds, errors,
+            millis(histogram.getValueAtQuantile(0.5)), millis(histogram.getValueAtQuantile(0.9)),
+            millis(histogram.getValueAtQuantile(0.99)), millis(histogram.getValueAtQuantile(0.999)),
+            millis(histogram.getValueAtQuantile(1.0)));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    /**
+     * Results of one transport during one phase
+     */
+    static class Stats {
+        final LatencyHistogram overall = new LatencyHistogram();
+        final Map<RequestKind, LatencyHistogram> byKind = new ConcurrentHashMap<>();
+        final Map<RequestKind, LongAdder> errorsByKind = new ConcurrentHashMap<>();
+        final LongAdder errors = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder timedOut = new LongAdder();
+
+        void complete(RequestKind kind, long scheduledAt, boolean error) {
+            long latency = System.nanoTime() - scheduledAt;
+            overall.record(latency);
+            byKind.computeIfAbsent(kind, k -> new LatencyHistogram()).record(latency);
+            if (error) {
+                errors.increment();
+                errorsByKind.computeIfAbsent(kind, k -> new LongAdder()).increment();
+            }
+        }
+
+        static boolean isError(String body) {
+            return body == null || body.contains("\"error\":{") || body.contains("\"isError\":true");
+        }
+    }
+
+    /**
+     * Sends requests through one transport
+     */
+    abstract static class Driver {
+        final String name;
+        final int rate;
+        volatile Stats stats;
+
+        Driver(String name, int rate) {
+            this.name = name;
+            this.rate = rate;
+        }
+
+        abstract void send(RequestKind kind, long id, long scheduledAt);
+
+        abstract int inFlight();
+    }
+
+    /**
+     * Drives the HTTP transport through a shared keep-alive client
+     */
+    static class HttpDriver extends Driver {
+        private final HttpClient client;
+        private final URI endpoint;
+        private final Semaphore inFlightPermits;
+        private final int maxInFlight;
+
+        HttpDriver(String name, int rate, int port, int maxInFlight) {
+            super(name, rate);
+            this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(8))
+                .build();
+            this.endpoint = URI.create("http://localhost:" + port + "/mcp");
+            this.maxInFlight = maxInFlight;
+            this.inFlightPermits = new Semaphore(maxInFlight);
+        }
+
+        @Override
+        void send(RequestKind kind, long id, long scheduledAt) {
+            Stats phaseStats = stats;
+            if (!inFlightPermits.tryAcquire()) {
+                phaseStats.rejected.increment();
+                return;
+            }
+
+            HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(kind.toJson(id)))
+                .build();
+
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    inFlightPermits.release();
+                    boolean failed = error != null || response.statusCode() != 200 || Stats.isError(response.body());
+                    phaseStats.complete(kind, scheduledAt, failed);
+                });
+        }
+
+        @Override
+        int inFlight() {
+            return maxInFlight - inFlightPermits.availablePermits();
+        }
+    }
+
+    /**
+     * Drives the stdio transport over pipes, matching responses to requests by id.
+     * Piped streams break when their writing thread dies, so requests are written
+     * by a dedicated long-lived thread rather than the per-phase scheduler.
+     */
+    static class StdioDriver extends Driver {
+        private final BlockingQueue<String> outgoing = new LinkedBlockingQueue<>();
+        private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+        private record Pending(RequestKind kind, long scheduledAt, Stats stats) {}
+
+        StdioDriver(String name, int rate, OutputStream toServer, InputStream fromServer) {
+            super(name, rate);
+
+            Thread writer = new Thread(() -> writeRequests(toServer), "MCP-Load-stdio-writer");
+            writer.setDaemon(true);
+            writer.start();
+
+            Thread reader = new Thread(() -> readResponses(fromServer), "MCP-Load-stdio-reader");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        @Override
+        void send(RequestKind kind, long id, long scheduledAt) {
+            pending.put(id, new Pending(kind, scheduledAt, stats));
+            outgoing.add(kind.toJson(id));
+        }
+
+        private void writeRequests(OutputStream toServer) {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(toServer, StandardCharsets.UTF_8))) {
+                while (true) {
+                    writer.write(outgoing.take());
+                    writer.write('\n');
+                    if (outgoing.isEmpty()) {
+                        writer.flush();
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                // Pipe closed when the run ends
+            }
+        }
+
+        private void readResponses(InputStream fromServer) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(fromServer, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Pending request = pending.remove(parseId(line));
+                    if (request != null) {
+                        request.stats.complete(request.kind, request.scheduledAt, Stats.isError(line));
+                    }
+                }
+            } catch (IOException ignored) {
+                // Pipe closed when the run ends
+            }
+        }
+
+        /**
+         * The id is serialized right after the jsonrpc field, so a scan avoids a full parse
+         */
+        private static long parseId(String line) {
+            int start = line.indexOf("\"id\":");
+            if (start < 0) {
+                return -1;
+            }
+            start += 5;
+            int end = start;
+            while (end < line.length() && Character.isDigit(line.charAt(end))) {
+                end++;
+            }
+            return end > start ? Long.parseLong(line.substring(start, end)) : -1;
+        }
+
+        @Override
+        int inFlight() {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Cumulative GC and allocation counters of this JVM
+     */
+    private record GcSnapshot(long collections, long collectionTimeMs, long allocatedBytes) {
+        static GcSnapshot take() {
+            long collections = 0;
+            long time = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                collections += Math.max(gc.getCollectionCount(), 0);
+                time += Math.max(gc.getCollectionTime(), 0);
+            }
+
+            long allocated = -1;
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                    && threads.isThreadAllocatedMemorySupported()) {
+                allocated = threads.getTotalThreadAllocatedBytes();
+            }
+            return new GcSnapshot(collections, time, allocated);
+        }
+    }
+}
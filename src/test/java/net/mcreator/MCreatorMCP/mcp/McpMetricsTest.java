@@ -0,0 +1,59 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+
+/**
+ * Tests for the MCP metrics registry and latency histogram
+ */
+public class McpMetricsTest {
+
+    @Test
+    public void testHistogramQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000_000L);
+        }
+
+        assertEquals(1000, histogram.getCount(), "All values should be counted");
+        assertEquals(500, histogram.getValueAtQuantile(0.5) / 1_000_000.0, 500 * 0.07, "p50 should be about 500 ms");
+        assertEquals(990, histogram.getValueAtQuantile(0.99) / 1_000_000.0, 990 * 0.07, "p99 should be about 990 ms");
+    }
+
+    @Test
+    public void testBucketBoundaries() {
+        for (long value : new long[] {0, 1, 15, 16, 17, 31, 32, 1000, 123_456_789L, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(LatencyHistogram.bucketLowerBound(index) <= value, "Bucket should start at or below " + value);
+        }
+    }
+
+    @Test
+    public void testPrometheusExport() {
+        McpMetrics metrics = new McpMetrics();
+        metrics.increment("mcp_requests_total", "Requests", "method", "tools/list");
+        metrics.histogram("mcp_request_duration_seconds", "Latency", "method", "tools/list").record(2_000_000L);
+
+        String text = metrics.toPrometheusText();
+        assertTrue(text.contains("# TYPE mcp_requests_total counter"), "Counter type should be exported");
+        assertTrue(text.contains("mcp_requests_total{method=\"tools/list\"} 1"), "Counter value should be exported");
+        assertTrue(text.contains("mcp_request_duration_seconds{method=\"tools/list\",quantile=\"0.99\"}"),
+            "Quantiles should be exported");
+        assertTrue(text.contains("mcp_request_duration_seconds_count{method=\"tools/list\"} 1"),
+            "Summary count should be exported");
+    }
+
+    @Test
+    public void testServerRecordsRequests() {
+        McpServer mcpServer = new McpServer("Test MCP Server", "1.0.0");
+        JsonRpcMessage request = new JsonRpcMessage("tools/list", new HashMap<>());
+        request.setId(1);
+        mcpServer.processMessage(request, new McpRequestContext("http", "127.0.0.1"));
+
+        String text = mcpServer.getMetrics().toPrometheusText();
+        assertTrue(text.contains("mcp_requests_total{method=\"tools/list\",transport=\"http\",outcome=\"ok\"} 1"),
+            "Processed request should be counted per method and transport");
+    }
+}
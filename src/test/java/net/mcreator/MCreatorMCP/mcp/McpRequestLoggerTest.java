@@ -0,0 +1,65 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for request log truncation and redaction and the audit log
+ */
+public class McpRequestLoggerTest {
+
+    private final McpRequestLogger logger = new McpRequestLogger(64, 1, List.of("password", "apiKey"), null);
+
+    @Test
+    public void testBodyRedactionAndTruncation() {
+        String body = "{\"name\":\"block\",\"password\":\"hunter2\",\"code\":\"" + "x".repeat(200) + "\"}";
+        String summary = logger.summarizeBody(body);
+
+        assertFalse(summary.contains("hunter2"), "Secret values should be redacted");
+        assertTrue(summary.contains("\"password\":\"***\""), "Redacted key should be kept");
+        assertTrue(summary.endsWith("more chars)"), "Long bodies should be truncated");
+        assertSame("{\"a\":1}", logger.summarizeBody("{\"a\":1}"), "Short bodies without secrets should not be copied");
+    }
+
+    @Test
+    public void testSecretCutByTheLimitIsRedacted() {
+        // The limit of 64 chars falls inside the password value
+        String body = "{\"jsonrpc\":\"2.0\",\"params\":{\"password\":\"hunter2-" + "s".repeat(40) + "\"}}";
+        String summary = logger.summarizeBody(body);
+
+        assertFalse(summary.contains("hunter2"), "A secret straddling the limit should be redacted: " + summary);
+        assertTrue(summary.contains("\"password\":\"***\""));
+    }
+
+    @Test
+    public void testBoundedArguments() {
+        StringBuilder summary = new StringBuilder();
+        logger.appendBounded(summary, Map.of("apikey", "abc", "code", "y".repeat(10_000)));
+
+        assertFalse(summary.toString().contains("abc"), "Secret arguments should be redacted regardless of case");
+        assertTrue(summary.length() < 200, "Large arguments should be cut at the length limit");
+    }
+
+    @Test
+    public void testAuditLogWritesJsonLines(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("audit.jsonl");
+        McpAuditLog auditLog = new McpAuditLog(file, McpAuditLog.Format.JSONL, 64, 1024, new McpMetrics());
+        McpRequestLogger auditingLogger = new McpRequestLogger(64, 1, List.of(), auditLog);
+
+        McpRequestContext context = new McpRequestContext("http", "127.0.0.1");
+        auditingLogger.inbound(context, "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"ping\"}");
+        auditingLogger.outbound(context, "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{}}");
+        auditingLogger.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size(), "Each message should be one line");
+        assertTrue(lines.get(0).contains("\"dir\":\"in\""), "Inbound message should be recorded first");
+        assertTrue(lines.get(1).contains("\\\"result\\\""), "Body should be stored as an escaped string");
+    }
+}
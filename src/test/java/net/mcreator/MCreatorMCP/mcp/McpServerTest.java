@@ -1,11 +1,22 @@
 package net.mcreator.MCreatorMCP.mcp;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Simple tests for the MCP server implementation
@@ -108,4 +119,392 @@ public class McpServerTest {
         assertNotNull(response.getError(), "Response should have error");
         assertEquals(-32601, response.getError().getCode(), "Error code should be method not found");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testToolCallWithoutStringNameIsInvalid() {
+        McpRequestContext client = new McpRequestContext("http", "127.0.0.1");
+        JsonRpcMessage numericName = toolCall(5, "countElements");
+        numericName.getParams().put("name", 5);
+        JsonRpcMessage response = mcpServer.processMessage(numericName, client);
+        assertNotNull(response.getError(), "A numeric tool name should be rejected");
+        assertEquals(-32602, response.getError().getCode(), "Error code should be invalid params");
+
+        JsonRpcMessage idempotent = idempotentToolCall(6, "countElements", "key-1", Map.of());
+        idempotent.getParams().put("name", List.of("countElements"));
+        assertEquals(-32602, mcpServer.processMessage(idempotent, client).getError().getCode(),
+            "Idempotent calls should validate the name too");
+
+        JsonRpcMessage textArguments = toolCall(7, "countElements");
+        textArguments.getParams().put("arguments", "all");
+        assertEquals(-32602, mcpServer.processMessage(textArguments, client).getError().getCode(),
+            "Arguments that are not an object should be rejected");
+    }
+
+    @Test
+    public void testReadsNotBlockedByHeavyTools() throws Exception {
+        CountDownLatch buildRunning = new CountDownLatch(1);
+        CountDownLatch finishBuild = new CountDownLatch(1);
+        mcpServer.registerHandler("slowBuild", McpToolClass.BUILD_RUN, params -> {
+            buildRunning.countDown();
+            finishBuild.await();
+            return new McpTypes.ToolResult(List.of(new McpTypes.ToolContent("text", "built")), false);
+        });
+        mcpServer.registerHandler("quickRead", McpToolClass.READ_ONLY,
+            params -> new McpTypes.ToolResult(List.of(new McpTypes.ToolContent("text", "read")), false));
+
+        CompletableFuture<JsonRpcMessage> build = mcpServer.processMessageAsync(toolCall(5, "slowBuild"),
+            McpRequestContext.DIRECT);
+        assertTrue(buildRunning.await(5, TimeUnit.SECONDS), "Build should start on the heavy lane");
+
+        JsonRpcMessage read = mcpServer.processMessage(toolCall(6, "quickRead"));
+        assertNull(read.getError(), "Read should complete while the build is running");
+        assertFalse(build.isDone(), "Build should still be running");
+
+        finishBuild.countDown();
+        assertNull(build.get(5, TimeUnit.SECONDS).getError(), "Build should complete once released");
+    }
+
+    @Test
+    public void testWaitingToolsLeaveTheTransportThread() throws Exception {
+        CountDownLatch ready = new CountDownLatch(1);
+        mcpServer.registerHandler("waitForRun", McpToolClass.WAITING, params -> {
+            ready.await();
+            return new McpTypes.ToolResult(List.of(new McpTypes.ToolContent("text", "ready")), false);
+        });
+
+        CompletableFuture<JsonRpcMessage> waiting = mcpServer.processMessageAsync(toolCall(5, "waitForRun"),
+            McpRequestContext.DIRECT);
+        assertFalse(waiting.isDone(), "A waiting tool should not hold the calling thread");
+
+        ready.countDown();
+        assertEquals("ready", toolText(waiting.get(5, TimeUnit.SECONDS)), "The waiting tool should answer once done");
+    }
+
+    @Test
+    public void testClosingAWorkspaceFailsItsQueuedWork() throws Exception {
+        mcpServer.addWorkspaceView("closing", new SyntheticWorkspace(1));
+        CountDownLatch started = new CountDownLatch(1);
+        mcpServer.registerHandler("slowChange", McpToolClass.MUTATING, params -> {
+            started.countDown();
+            new CountDownLatch(1).await();
+            return new McpTypes.ToolResult(List.of(new McpTypes.ToolContent("text", "changed")), false);
+        });
+
+        CompletableFuture<JsonRpcMessage> running = mcpServer.processMessageAsync(toolCall(1, "slowChange"),
+            McpRequestContext.DIRECT);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<JsonRpcMessage> queued = mcpServer.processMessageAsync(toolCall(2, "slowChange"),
+            McpRequestContext.DIRECT);
+        assertFalse(queued.isDone());
+
+        mcpServer.removeWorkspace("closing");
+        assertNotNull(queued.get(5, TimeUnit.SECONDS).getError(), "Queued work of a closed workspace should fail");
+        assertNotNull(running.get(5, TimeUnit.SECONDS), "Running work should be interrupted");
+
+        CompletableFuture<String> late = mcpServer.getScheduler().submit(McpToolClass.MUTATING, "closing", () -> "ran");
+        assertThrows(Exception.class, () -> late.get(5, TimeUnit.SECONDS),
+            "Work for a closed workspace should be rejected instead of recreating its lanes");
+        assertFalse(mcpServer.getScheduler().toHealth().containsKey("closing"));
+    }
+
+    @Test
+    public void testIdenticalReadsShareOneComputation() throws Exception {
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        mcpServer.registerHandler("slowRead", McpToolClass.READ_ONLY, params -> {
+            int computation = computations.incrementAndGet();
+            release.await();
+            return new McpTypes.ToolResult(List.of(new McpTypes.ToolContent("text", "read " + computation)), false);
+        });
+
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<JsonRpcMessage>> responses = new ArrayList<>();
+            for (int id = 1; id <= 4; id++) {
+                JsonRpcMessage request = toolCall(id, "slowRead");
+                responses.add(CompletableFuture.supplyAsync(() -> mcpServer.processMessage(request), clients));
+            }
+            LongAdder hits = mcpServer.getMetrics().counter("mcp_singleflight_hits_total",
+                "Requests answered by the computation of an identical request in flight", "method", "tools/call");
+            long deadline = System.currentTimeMillis() + 5000;
+            while (hits.sum() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (int i = 0; i < responses.size(); i++) {
+                JsonRpcMessage response = responses.get(i).get(5, TimeUnit.SECONDS);
+                assertEquals(i + 1, response.getId(), "Each request should get a response with its own id");
+                assertEquals("read 1", toolText(response));
+            }
+            assertEquals(1, computations.get(), "Identical concurrent reads should be computed once");
+            assertEquals(1, mcpServer.getMetrics().counter("mcp_singleflight_merges_total",
+                "Computations shared by more than one identical request", "method", "tools/call").sum());
+
+            assertEquals("read 2", toolText(mcpServer.processMessage(toolCall(5, "slowRead"))),
+                "Results should not be kept once the computation finished");
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRetriedToolCallsReplayTheFirstResponse() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        mcpServer.registerHandler("createThing", McpToolClass.MUTATING, params -> {
+            int execution = executions.incrementAndGet();
+            running.countDown();
+            release.await();
+            return new McpTypes.ToolResult(List.of(new McpTypes.ToolContent("text", "created " + execution)), false);
+        });
+
+        CompletableFuture<JsonRpcMessage> first = mcpServer.processMessageAsync(
+            idempotentToolCall(1, "createThing", "key-1", Map.of("name", "thing")), McpRequestContext.DIRECT);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<JsonRpcMessage> duplicate = mcpServer.processMessageAsync(
+            idempotentToolCall(2, "createThing", "key-1", Map.of("name", "thing")), McpRequestContext.DIRECT);
+        assertFalse(duplicate.isDone(), "A duplicate should wait for the first call");
+
+        release.countDown();
+        assertEquals("created 1", toolText(first.get(5, TimeUnit.SECONDS)));
+        JsonRpcMessage duplicateResponse = duplicate.get(5, TimeUnit.SECONDS);
+        assertEquals(2, duplicateResponse.getId());
+        assertEquals("created 1", toolText(duplicateResponse));
+
+        JsonRpcMessage retry = mcpServer.processMessage(idempotentToolCall(3, "createThing", "key-1", Map.of("name", "thing")));
+        assertEquals("created 1", toolText(retry), "A retry should replay the first response");
+        assertEquals(1, executions.get(), "The tool should run once per idempotency key");
+
+        JsonRpcMessage conflict = mcpServer.processMessage(idempotentToolCall(4, "createThing", "key-1", Map.of("name", "other")));
+        assertEquals(-32602, conflict.getError().getCode(), "Reusing a key for other arguments should be rejected");
+
+        assertEquals("created 2", toolText(mcpServer.processMessage(idempotentToolCall(5, "createThing", "key-2", Map.of("name", "thing")))));
+        assertEquals(2, executions.get(), "Another key should run the tool again");
+    }
+
+    @Test
+    public void testRetriesAfterReconnectingReplayTheFirstResponse() {
+        AtomicInteger executions = new AtomicInteger();
+        mcpServer.registerHandler("createThing", McpToolClass.MUTATING, params -> new McpTypes.ToolResult(
+            List.of(new McpTypes.ToolContent("text", "created " + executions.incrementAndGet())), false));
+        McpRequestContext firstConnection = new McpRequestContext("websocket", "127.0.0.1", "connection-1");
+        McpRequestContext secondConnection = new McpRequestContext("websocket", "127.0.0.1", "connection-2");
+        Map<String, Object> initParams = new HashMap<>();
+        initParams.put("protocolVersion", "2025-06-18");
+        initParams.put("clientInfo", Map.of("name", "agent"));
+        for (McpRequestContext connection : List.of(firstConnection, secondConnection)) {
+            JsonRpcMessage init = new JsonRpcMessage("initialize", initParams);
+            init.setId(1);
+            mcpServer.processMessage(init, connection);
+        }
+
+        assertEquals("created 1", toolText(mcpServer.processMessage(
+            idempotentToolCall(2, "createThing", "key-1", Map.of("name", "thing")), firstConnection)));
+        assertEquals("created 1", toolText(mcpServer.processMessage(
+            idempotentToolCall(2, "createThing", "key-1", Map.of("name", "thing")), secondConnection)),
+            "A retry over a new connection of the same client should replay the first response");
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void testStructuredToolOutput() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        mcpServer.registerHandler("listThings", McpToolClass.READ_ONLY, params -> new McpTypes.ToolResult(
+            List.of(new McpTypes.ToolContent("text", "Found 2 things")),
+            mcpServer.toCachedJson(Map.of("things", List.of("a", "b"), "count", 2)), false));
+
+        JsonNode result = objectMapper.readTree(objectMapper.writeValueAsString(
+            mcpServer.processMessage(toolCall(7, "listThings")))).path("result");
+        assertEquals(2, result.path("structuredContent").path("count").asInt(),
+            "Structured content should be embedded as JSON, not as a string");
+        assertEquals("Found 2 things", result.path("content").path(0).path("text").asText());
+        assertEquals(1, result.path("content").size(), "The structured result should not be duplicated as text");
+
+    }
+
+    @Test
+    public void testGeneratedToolDefinitionsAndBinding() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        McpServer syntheticServer = SyntheticWorkspace.createServer(20);
+
+        JsonRpcMessage toolsRequest = new JsonRpcMessage("tools/list", new HashMap<>());
+        toolsRequest.setId(8);
+        JsonNode tools = objectMapper.readTree(objectMapper.writeValueAsString(syntheticServer.processMessage(toolsRequest)))
+            .path("result").path("tools");
+        JsonNode listTool = null;
+        for (JsonNode tool : tools) {
+            if ("listModElements".equals(tool.path("name").asText())) {
+                listTool = tool;
+            }
+        }
+        assertNotNull(listTool, "Registered tools should be listed");
+        assertEquals("string", listTool.path("inputSchema").path("properties").path("elementType").path("type").asText(),
+            "Input schema should be generated from the argument record");
+        assertEquals("boolean", listTool.path("outputSchema").path("properties").path("elements")
+            .path("items").path("properties").path("isLocked").path("type").asText(),
+            "Output schema should be generated from the output record");
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("name", "listModElements");
+        params.put("arguments", Map.of("elementType", 42));
+        JsonRpcMessage invalid = new JsonRpcMessage("tools/call", params);
+        invalid.setId(9);
+        JsonRpcMessage response = syntheticServer.processMessage(invalid);
+        assertNotNull(response.getError(), "Arguments of the wrong type should be rejected");
+        assertEquals(-32602, response.getError().getCode());
+
+        params.put("arguments", Map.of("elementType", "block"));
+        JsonNode result = objectMapper.valueToTree(syntheticServer.processMessage(invalid).getResult());
+        assertEquals(2, result.path("structuredContent").path("count").asInt(), "Valid arguments should be bound");
+    }
+
+    @Test
+    public void testSessionsKeepTheirOwnProtocolState() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        McpRequestContext current = new McpRequestContext("test", "client-a");
+        McpRequestContext legacy = new McpRequestContext("test", "client-b");
+        mcpServer.registerHandler("listThings", McpToolClass.READ_ONLY, params -> new McpTypes.ToolResult(
+            List.of(new McpTypes.ToolContent("text", "Found 2 things")),
+            mcpServer.toCachedJson(Map.of("count", 2)), false));
+
+        assertEquals("2025-06-18", initialize(current, "2025-06-18").path("protocolVersion").asText());
+        assertEquals("2025-03-26", initialize(legacy, "2025-03-26").path("protocolVersion").asText(),
+            "Supported older versions should be accepted as requested");
+        assertEquals("2025-06-18", initialize(new McpRequestContext("test", "client-c"), "1999-01-01")
+            .path("protocolVersion").asText(), "Unknown versions should be answered with the latest one");
+
+        McpSession currentSession = mcpServer.getSessions().find("test", "client-a");
+        McpSession legacySession = mcpServer.getSessions().find("test", "client-b");
+        assertTrue(currentSession.isInitialized() && legacySession.isInitialized());
+        assertEquals("2025-03-26", legacySession.getProtocolVersion());
+        assertFalse(new McpSession(McpRequestContext.DIRECT).isInitialized(), "Other clients should not be initialized");
+
+        JsonNode currentResult = objectMapper.valueToTree(mcpServer.processMessage(toolCall(2, "listThings"), current).getResult());
+        JsonNode legacyResult = objectMapper.valueToTree(mcpServer.processMessage(toolCall(2, "listThings"), legacy).getResult());
+        assertEquals(2, currentResult.path("structuredContent").path("count").asInt());
+        assertEquals(1, currentResult.path("content").size(),
+            "Clients understanding structuredContent should not get it again as JSON text");
+        assertTrue(legacyResult.path("structuredContent").isMissingNode(), "Legacy clients should not get structuredContent");
+        assertEquals(2, legacyResult.path("content").size(),
+            "Clients predating structuredContent should also get it as text");
+
+        // A session that never negotiated a version, like a legacy HTTP client without a session header
+        JsonNode unversionedResult = objectMapper.valueToTree(mcpServer.processMessage(toolCall(2, "listThings"),
+            new McpRequestContext("test", "client-d")).getResult());
+        assertNull(mcpServer.getSessions().find("test", "client-d").getProtocolVersion());
+        assertEquals(2, objectMapper.readTree(unversionedResult.path("content").path(1).path("text").asText())
+            .path("count").asInt(), "Sessions without a version should get the data as JSON text");
+
+        JsonRpcMessage subscribe = new JsonRpcMessage("resources/subscribe", Map.of("uri", "workspace://elements"));
+        subscribe.setId(3);
+        assertNull(mcpServer.processMessage(subscribe, current).getError());
+        assertEquals(java.util.Set.of("workspace://elements"), currentSession.getSubscriptions());
+        assertTrue(legacySession.getSubscriptions().isEmpty(), "Subscriptions should be kept per session");
+    }
+
+    @Test
+    public void testSessionEviction() {
+        McpSessionStore store = new McpSessionStore(60_000, 2, new McpMetrics());
+        McpSession first = store.get(new McpRequestContext("test", "1"));
+        store.open(new McpRequestContext("test", "2"));
+        store.get(new McpRequestContext("test", "3"));
+        assertEquals(2, store.size(), "The store should not grow beyond its capacity");
+        assertNull(store.find("test", first.getId()), "The least recently active session should be evicted");
+        assertNotNull(store.find("test", "2"), "Connection-bound sessions should not be evicted");
+
+        store.evictIdle(System.nanoTime() + TimeUnit.MINUTES.toNanos(2));
+        assertNull(store.find("test", "3"), "Idle sessions should be evicted");
+        assertNotNull(store.find("test", "2"));
+        store.close(new McpRequestContext("test", "2"));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testUnchangedWorkspaceKeepsItsSnapshot() {
+        List<McpWorkspaceView.ElementInfo> elements = new ArrayList<>(new SyntheticWorkspace(5).getElements());
+        McpWorkspaceRegistry.Entry entry = mcpServer.addWorkspaceView("live", new SyntheticWorkspace(0) {
+            @Override public List<ElementInfo> getElements() { return elements; }
+        });
+        WorkspaceSnapshot first = entry.getSnapshot();
+
+        mcpServer.refreshWorkspaceSnapshots();
+        assertSame(first, entry.getSnapshot(), "An unchanged workspace should keep its snapshot and caches");
+
+        elements.set(2, new McpWorkspaceView.ElementInfo("Renamed", "item", false));
+        mcpServer.refreshWorkspaceSnapshots();
+        assertTrue(entry.getSnapshot().getSnapshotVersion() > first.getSnapshotVersion(),
+            "A change should publish a new snapshot");
+        assertEquals("Renamed", entry.getSnapshot().getElements().get(2).name());
+    }
+
+    @Test
+    public void testMultiWorkspaceRouting() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        mcpServer.addWorkspaceView("alpha", new SyntheticWorkspace(3));
+        mcpServer.addWorkspaceView("beta", new SyntheticWorkspace(7));
+        mcpServer.registerHandler("countElements", McpToolClass.READ_ONLY, params -> new McpTypes.ToolResult(
+            List.of(new McpTypes.ToolContent("text", String.valueOf(mcpServer.getWorkspaceView().getElements().size()))),
+            false));
+
+        assertEquals("7", toolText(mcpServer.processMessage(toolCall(1, "countElements"))),
+            "Calls without a workspace should go to the workspace added last");
+        Map<String, Object> arguments = new HashMap<>();
+        JsonRpcMessage scoped = new JsonRpcMessage("tools/call", Map.of("name", "countElements", "arguments", arguments));
+        scoped.setId(2);
+        arguments.put(McpServer.WORKSPACE_ARGUMENT, "alpha");
+        assertEquals("3", toolText(mcpServer.processMessage(scoped)));
+        arguments.put(McpServer.WORKSPACE_ARGUMENT, "gamma");
+        assertEquals(-32602, mcpServer.processMessage(scoped).getError().getCode(), "Unknown workspaces should be rejected");
+
+        JsonRpcMessage read = new JsonRpcMessage("resources/read", Map.of("uri", "workspace://alpha/elements"));
+        read.setId(3);
+        JsonNode contents = objectMapper.readTree(objectMapper.writeValueAsString(mcpServer.processMessage(read)))
+            .path("result").path("contents").path(0);
+        assertEquals("workspace://alpha/elements", contents.path("uri").asText());
+        assertEquals(3, objectMapper.readTree(contents.path("text").asText()).path("count").asInt(),
+            "Workspace-scoped URIs should read the named workspace");
+
+        JsonRpcMessage list = new JsonRpcMessage("resources/list", Map.of());
+        list.setId(4);
+        assertTrue(objectMapper.writeValueAsString(mcpServer.processMessage(list)).contains("workspace://beta/overview"),
+            "Resources of every open workspace should be listed");
+
+        mcpServer.getWorkspaces().setDefault("alpha");
+        assertEquals("3", toolText(mcpServer.processMessage(toolCall(5, "countElements"))));
+        mcpServer.removeWorkspace("alpha");
+        assertEquals("7", toolText(mcpServer.processMessage(toolCall(6, "countElements"))),
+            "Closing the default workspace should fall back to another open one");
+    }
+
+    private static String toolText(JsonRpcMessage response) {
+        return new ObjectMapper().valueToTree(response.getResult()).path("content").path(0).path("text").asText();
+    }
+
+    private JsonNode initialize(McpRequestContext context, String protocolVersion) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("protocolVersion", protocolVersion);
+        params.put("capabilities", new HashMap<>());
+        params.put("clientInfo", Map.of("name", context.getClientId(), "version", "1.0"));
+        JsonRpcMessage request = new JsonRpcMessage("initialize", params);
+        request.setId(1);
+        return new ObjectMapper().valueToTree(mcpServer.processMessage(request, context).getResult());
+    }
+
+    private static JsonRpcMessage idempotentToolCall(int id, String toolName, String key, Map<String, Object> arguments) {
+        JsonRpcMessage request = toolCall(id, toolName);
+        request.getParams().put("arguments", arguments);
+        request.getParams().put("_meta", Map.of(McpServer.IDEMPOTENCY_KEY, key));
+        return request;
+    }
+
+    private static JsonRpcMessage toolCall(int id, String toolName) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("name", toolName);
+        params.put("arguments", new HashMap<>());
+        JsonRpcMessage request = new JsonRpcMessage("tools/call", params);
+        request.setId(id);
+        return request;
+    }
+}
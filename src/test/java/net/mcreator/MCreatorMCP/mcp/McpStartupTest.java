@@ -0,0 +1,61 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the background startup and warm-up of the MCP server
+ */
+public class McpStartupTest {
+
+    @Test
+    public void testStepsRunInParallelAndReportFailures() throws Exception {
+        McpStartup startup = new McpStartup(new McpMetrics());
+        assertEquals(McpStartup.State.IDLE, startup.getState());
+
+        startup.begin();
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        for (String name : new String[] {"first", "second"}) {
+            startup.run(name, () -> {
+                bothRunning.countDown();
+                release.await();
+            });
+        }
+        startup.run("broken", () -> {
+            throw new IllegalStateException("port taken");
+        });
+
+        assertTrue(bothRunning.await(5, TimeUnit.SECONDS), "Steps should run at the same time");
+        assertEquals(McpStartup.State.STARTING, startup.getState());
+        assertFalse(startup.isDone());
+
+        release.countDown();
+        startup.whenDone().get(5, TimeUnit.SECONDS);
+        assertEquals(McpStartup.State.DEGRADED, startup.getState());
+        assertEquals(Map.of("broken", "port taken"), startup.getFailures());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> steps = (Map<String, Object>) startup.toHealth().get("steps");
+        assertEquals(3, steps.size());
+        assertEquals("degraded", startup.toHealth().get("state"));
+    }
+
+    @Test
+    public void testWarmUpFillsResourceCaches() throws Exception {
+        McpServer server = SyntheticWorkspace.createServer(100);
+        server.warmUp();
+
+        WorkspaceSnapshot snapshot = server.getWorkspaceView();
+        for (String section : new String[] {"overview", "elements", "structure"}) {
+            Object cached = snapshot.derive("resources/read workspace://" + section, s -> {
+                throw new AssertionError("Resource " + section + " should have been cached by the warm-up");
+            });
+            assertInstanceOf(CachedJson.class, cached);
+        }
+    }
+}
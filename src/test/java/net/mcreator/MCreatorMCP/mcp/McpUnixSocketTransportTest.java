@@ -0,0 +1,83 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Tests for the unix domain socket transport
+ */
+public class McpUnixSocketTransportTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testConcurrentClients() throws Exception {
+        Path socketPath = tempDir.resolve("mcp.sock");
+        McpUnixSocketTransport transport = new McpUnixSocketTransport(SyntheticWorkspace.createServer(100), socketPath);
+        transport.start();
+        try (SocketChannel first = SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+             SocketChannel second = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            BufferedReader firstReader = reader(first);
+            BufferedReader secondReader = reader(second);
+
+            // Both clients send before either reads its response
+            send(first, "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/list\"}");
+            send(second, "{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"resources/list\"}");
+
+            JsonNode secondResponse = objectMapper.readTree(secondReader.readLine());
+            JsonNode firstResponse = objectMapper.readTree(firstReader.readLine());
+            assertEquals(1, firstResponse.path("id").asInt());
+            assertTrue(firstResponse.path("result").path("tools").isArray());
+            assertEquals(2, secondResponse.path("id").asInt());
+            assertTrue(secondResponse.path("result").path("resources").isArray());
+            assertEquals(2, transport.getClientCount());
+        } finally {
+            transport.stop();
+        }
+        assertFalse(Files.exists(socketPath), "Socket file should be deleted on stop");
+    }
+
+    @Test
+    public void testStaleSocketFileReplaced() throws Exception {
+        Path socketPath = tempDir.resolve("stale.sock");
+        Files.createFile(socketPath);
+
+        McpServer mcpServer = SyntheticWorkspace.createServer(10);
+        McpUnixSocketTransport transport = new McpUnixSocketTransport(mcpServer, socketPath);
+        transport.start();
+        try {
+            McpUnixSocketTransport second = new McpUnixSocketTransport(mcpServer, socketPath);
+            assertThrows(IOException.class, second::start, "A live socket must not be taken over");
+        } finally {
+            transport.stop();
+        }
+    }
+
+    private static BufferedReader reader(SocketChannel channel) {
+        return new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+    }
+
+    private static void send(SocketChannel channel, String json) throws Exception {
+        Writer writer = new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8);
+        writer.write(json + "\n");
+        writer.flush();
+    }
+}
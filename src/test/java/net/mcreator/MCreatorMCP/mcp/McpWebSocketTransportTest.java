@@ -0,0 +1,150 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.net.http.WebSocketHandshakeException;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the WebSocket transport
+ */
+public class McpWebSocketTransportTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testMultiplexedRequestsAndNotifications() throws Exception {
+        McpWebSocketTransport transport = new McpWebSocketTransport(SyntheticWorkspace.createServer(100), 0);
+        transport.start();
+        BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        BlockingQueue<ByteBuffer> pongs = new LinkedBlockingQueue<>();
+        try {
+            WebSocket webSocket = HttpClient.newHttpClient().newWebSocketBuilder()
+                .buildAsync(URI.create("ws://localhost:" + transport.getPort() + McpWebSocketTransport.PATH),
+                    new WebSocket.Listener() {
+                        private final StringBuilder text = new StringBuilder();
+
+                        @Override
+                        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                            text.append(data);
+                            if (last) {
+                                messages.add(text.toString());
+                                text.setLength(0);
+                            }
+                            webSocket.request(1);
+                            return null;
+                        }
+
+                        @Override
+                        public CompletionStage<?> onPong(WebSocket webSocket, ByteBuffer message) {
+                            pongs.add(message);
+                            webSocket.request(1);
+                            return null;
+                        }
+                    })
+                .get(5, TimeUnit.SECONDS);
+
+            // Several requests in flight on one connection at once
+            for (int id = 1; id <= 5; id++) {
+                String method = id % 2 == 0 ? "resources/list" : "tools/list";
+                webSocket.sendText("{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"method\":\"" + method + "\"}", true).join();
+            }
+            Set<Integer> ids = new HashSet<>();
+            for (int i = 0; i < 5; i++) {
+                String message = messages.poll(5, TimeUnit.SECONDS);
+                assertNotNull(message, "Should receive a response for every request");
+                JsonNode response = objectMapper.readTree(message);
+                assertTrue(response.has("result"), "Request should succeed: " + message);
+                ids.add(response.path("id").asInt());
+            }
+            assertEquals(Set.of(1, 2, 3, 4, 5), ids);
+
+            transport.sendNotification("notifications/resources/list_changed", Map.of());
+            JsonNode notification = objectMapper.readTree(messages.poll(5, TimeUnit.SECONDS));
+            assertEquals("notifications/resources/list_changed", notification.path("method").asText());
+
+            webSocket.sendPing(ByteBuffer.wrap(new byte[] {1, 2, 3})).join();
+            ByteBuffer pong = pongs.poll(5, TimeUnit.SECONDS);
+            assertNotNull(pong, "Ping should be answered");
+            assertEquals(ByteBuffer.wrap(new byte[] {1, 2, 3}), pong);
+
+            webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "done").join();
+        } finally {
+            transport.stop();
+        }
+    }
+
+    @Test
+    public void testHandshakesFromForeignOriginsAreRejected() throws Exception {
+        McpWebSocketTransport transport = new McpWebSocketTransport(SyntheticWorkspace.createServer(10), 0);
+        assertTrue(transport.isOriginAllowed(null), "Clients other than browsers send no Origin");
+        assertTrue(transport.isOriginAllowed("http://localhost:3000"));
+        assertTrue(transport.isOriginAllowed("http://127.0.0.1"));
+        assertFalse(transport.isOriginAllowed("https://attacker.example"));
+        assertFalse(transport.isOriginAllowed("http://localhost.attacker.example"));
+        assertFalse(transport.isOriginAllowed("null"));
+
+        transport.start();
+        try {
+            URI uri = URI.create("ws://localhost:" + transport.getPort() + McpWebSocketTransport.PATH);
+            ExecutionException rejected = assertThrows(ExecutionException.class, () -> HttpClient.newHttpClient()
+                .newWebSocketBuilder().header("Origin", "https://attacker.example")
+                .buildAsync(uri, new WebSocket.Listener() {}).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(WebSocketHandshakeException.class, rejected.getCause());
+            assertEquals(403, ((WebSocketHandshakeException) rejected.getCause()).getResponse().statusCode());
+
+            WebSocket local = HttpClient.newHttpClient().newWebSocketBuilder().header("Origin", "http://localhost")
+                .buildAsync(uri, new WebSocket.Listener() {}).get(5, TimeUnit.SECONDS);
+            local.sendClose(WebSocket.NORMAL_CLOSURE, "done").join();
+        } finally {
+            transport.stop();
+        }
+    }
+
+    @Test
+    public void testConnectionLimit() throws Exception {
+        System.setProperty(McpSettings.PREFIX + "ws.maxConnections", "1");
+        McpWebSocketTransport transport;
+        try {
+            transport = new McpWebSocketTransport(SyntheticWorkspace.createServer(10), 0);
+        } finally {
+            System.clearProperty(McpSettings.PREFIX + "ws.maxConnections");
+        }
+        transport.start();
+        try {
+            URI uri = URI.create("ws://localhost:" + transport.getPort() + McpWebSocketTransport.PATH);
+            WebSocket first = HttpClient.newHttpClient().newWebSocketBuilder()
+                .buildAsync(uri, new WebSocket.Listener() {}).get(5, TimeUnit.SECONDS);
+            ExecutionException rejected = assertThrows(ExecutionException.class, () -> HttpClient.newHttpClient()
+                .newWebSocketBuilder().buildAsync(uri, new WebSocket.Listener() {}).get(5, TimeUnit.SECONDS),
+                "Connections beyond the limit should be turned away");
+            assertEquals(503, ((WebSocketHandshakeException) rejected.getCause()).getResponse().statusCode());
+            first.sendClose(WebSocket.NORMAL_CLOSURE, "done").join();
+        } finally {
+            transport.stop();
+        }
+    }
+
+    @Test
+    public void testFrameEncodingLengths() {
+        assertEquals(2 + 125, WebSocketCodec.encode(WebSocketCodec.OP_TEXT, new byte[125]).length);
+        assertEquals(4 + 126, WebSocketCodec.encode(WebSocketCodec.OP_TEXT, new byte[126]).length);
+        assertEquals(10 + 70000, WebSocketCodec.encode(WebSocketCodec.OP_TEXT, new byte[70000]).length);
+        // Example from RFC 6455 section 1.3
+        assertEquals("s3pPLMBiTxaQ9kYGzzhZRbK+xOo=", WebSocketCodec.acceptKey("dGhlIHNhbXBsZSBub25jZQ=="));
+    }
+}
@@ -0,0 +1,121 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Tests for wire format negotiation over HTTP and stdio
+ */
+public class McpWireFormatTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testNegotiation() {
+        assertEquals(McpWireFormat.JSON, McpWireFormat.fromContentType(null));
+        assertEquals(McpWireFormat.JSON, McpWireFormat.fromContentType("text/plain"));
+        assertEquals(McpWireFormat.CBOR, McpWireFormat.fromContentType("application/cbor"));
+        assertEquals(McpWireFormat.SMILE, McpWireFormat.negotiate("*/*", McpWireFormat.SMILE));
+        assertEquals(McpWireFormat.JSON, McpWireFormat.negotiate("application/json, text/event-stream", McpWireFormat.CBOR));
+        assertEquals(McpWireFormat.CBOR,
+            McpWireFormat.negotiate("application/json;q=0.5, application/cbor", McpWireFormat.JSON));
+    }
+
+    @Test
+    public void testBlobsAreRawInBinaryFormats() throws Exception {
+        McpTypes.ResourceContent content = new McpTypes.ResourceContent();
+        content.setUri("workspace://icon");
+        content.setBlob(new byte[] {0, 1, 2, (byte) 0xFF});
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsBytes(content));
+        assertEquals("AAEC/w==", json.path("blob").asText(), "JSON should carry blobs as base64");
+
+        for (McpWireFormat format : new McpWireFormat[] {McpWireFormat.SMILE, McpWireFormat.CBOR}) {
+            JsonNode binary = format.mapper().readTree(format.mapper().writeValueAsBytes(content));
+            assertTrue(binary.path("blob").isBinary(), format + " should carry blobs as raw bytes");
+            assertArrayEquals(content.getBlob(), binary.path("blob").binaryValue());
+        }
+    }
+
+    @Test
+    public void testHttpCborRequestAndResponse() throws Exception {
+        McpHttpTransport transport = new McpHttpTransport(SyntheticWorkspace.createServer(500), 0);
+        transport.start();
+        try {
+            byte[] request = McpWireFormat.CBOR.mapper().writeValueAsBytes(
+                Map.of("jsonrpc", "2.0", "id", 3, "method", "resources/read", "params", Map.of("uri", "workspace://elements")));
+            HttpResponse<byte[]> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + transport.getPort() + "/mcp"))
+                    .header("Content-Type", "application/cbor")
+                    .header("Accept", "application/cbor")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(request)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+            assertEquals("application/cbor", response.headers().firstValue("Content-Type").orElse(null));
+            JsonNode message = McpWireFormat.CBOR.mapper().readTree(response.body());
+            assertEquals(3, message.path("id").asInt());
+            assertEquals("workspace://elements", message.path("result").path("contents").path(0).path("uri").asText(),
+                "Cached resource results should be encoded in the negotiated format");
+        } finally {
+            transport.stop();
+        }
+    }
+
+    @Test
+    public void testStdioEncodingHandshake() throws Exception {
+        PipedOutputStream toServer = new PipedOutputStream();
+        PipedInputStream serverInput = new PipedInputStream(toServer, 1 << 16);
+        PipedInputStream fromServer = new PipedInputStream(1 << 16);
+        PrintStream serverOutput = new PrintStream(new PipedOutputStream(fromServer), false, StandardCharsets.UTF_8);
+        McpStdioTransport transport = new McpStdioTransport(SyntheticWorkspace.createServer(10), serverInput, serverOutput);
+        transport.start();
+        try {
+            toServer.write(("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"" + McpStdioTransport.SET_ENCODING_METHOD
+                + "\",\"params\":{\"encoding\":\"smile\"}}\n").getBytes(StandardCharsets.UTF_8));
+            toServer.flush();
+
+            DataInputStream in = new DataInputStream(fromServer);
+            JsonNode handshake = objectMapper.readTree(readLine(in));
+            assertEquals("smile", handshake.path("result").path("encoding").asText());
+
+            byte[] request = McpWireFormat.SMILE.mapper().writeValueAsBytes(
+                Map.of("jsonrpc", "2.0", "id", 2, "method", "tools/list"));
+            DataOutputStream out = new DataOutputStream(toServer);
+            out.writeInt(request.length);
+            out.write(request);
+            out.flush();
+
+            byte[] frame = new byte[in.readInt()];
+            in.readFully(frame);
+            JsonNode response = McpWireFormat.SMILE.mapper().readTree(frame);
+            assertEquals(2, response.path("id").asInt());
+            assertTrue(response.path("result").path("tools").isArray());
+        } finally {
+            transport.stop();
+        }
+    }
+
+    private static String readLine(DataInputStream in) throws Exception {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\n') {
+            assertTrue(b >= 0, "Stream ended before the line");
+            line.append((char) b);
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,217 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests for the MCP HTTP routes served by the NIO engine
+ */
+public class NioHttpEngineTest {
+
+    private McpServer server;
+    private McpTransportConfig config;
+    private McpHttpTransport transport;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        config = new McpTransportConfig();
+        config.setEngine("nio");
+        server = SyntheticWorkspace.createServer(100);
+        transport = new McpHttpTransport(server, 0, config);
+        transport.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        transport.stop();
+    }
+
+    @Test
+    public void testRoutes() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        String request = "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/list\",\"params\":{}}";
+
+        HttpResponse<String> mcp = client.send(HttpRequest.newBuilder(uri("/mcp"))
+            .POST(HttpRequest.BodyPublishers.ofString(request)).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, mcp.statusCode());
+        assertTrue(objectMapper.readTree(mcp.body()).path("result").path("tools").isArray(), "Should list tools");
+
+        HttpResponse<String> sse = client.send(HttpRequest.newBuilder(uri("/mcp/sse"))
+            .POST(HttpRequest.BodyPublishers.ofString(request)).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals("text/event-stream", sse.headers().firstValue("Content-Type").orElse(null));
+        assertTrue(sse.body().startsWith("data: {"), "SSE response should be a data event");
+
+        HttpResponse<String> health = client.send(HttpRequest.newBuilder(uri("/health")).build(),
+            HttpResponse.BodyHandlers.ofString());
+        assertEquals("healthy", objectMapper.readTree(health.body()).path("status").asText());
+
+        HttpResponse<String> missing = client.send(HttpRequest.newBuilder(uri("/missing")).build(),
+            HttpResponse.BodyHandlers.ofString());
+        assertEquals(404, missing.statusCode());
+    }
+
+    @Test
+    public void testPipelinedRequestsAnsweredInOrder() throws Exception {
+        StringBuilder requests = new StringBuilder();
+        for (int id = 1; id <= 3; id++) {
+            String body = "{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"method\":\"resources/list\"}";
+            requests.append("POST /mcp HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/json\r\n")
+                .append("Content-Length: ").append(body.length()).append("\r\n\r\n").append(body);
+        }
+
+        try (Socket socket = new Socket("localhost", transport.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(requests.toString().getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            InputStream in = socket.getInputStream();
+            for (int id = 1; id <= 3; id++) {
+                JsonNode response = objectMapper.readTree(readResponseBody(in));
+                assertEquals(id, response.path("id").asInt(), "Responses should come back in request order");
+                assertTrue(response.has("result"), "Pipelined request should succeed");
+            }
+        }
+    }
+
+    @Test
+    public void testSessionHeader() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpResponse<String> init = client.send(HttpRequest.newBuilder(uri("/mcp"))
+            .POST(HttpRequest.BodyPublishers.ofString("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"initialize\","
+                + "\"params\":{\"protocolVersion\":\"2025-03-26\",\"capabilities\":{}}}")).build(),
+            HttpResponse.BodyHandlers.ofString());
+        String sessionId = init.headers().firstValue(McpHttpTransport.SESSION_HEADER).orElse(null);
+        assertNotNull(sessionId, "Initialize should start a session");
+        assertEquals("2025-03-26", objectMapper.readTree(init.body()).path("result").path("protocolVersion").asText());
+
+        String request = "{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"tools/list\"}";
+        HttpResponse<String> inSession = client.send(HttpRequest.newBuilder(uri("/mcp"))
+            .header(McpHttpTransport.SESSION_HEADER, sessionId)
+            .POST(HttpRequest.BodyPublishers.ofString(request)).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, inSession.statusCode());
+
+        HttpResponse<String> deleted = client.send(HttpRequest.newBuilder(uri("/mcp"))
+            .header(McpHttpTransport.SESSION_HEADER, sessionId).DELETE().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(204, deleted.statusCode());
+
+        HttpResponse<String> expired = client.send(HttpRequest.newBuilder(uri("/mcp"))
+            .header(McpHttpTransport.SESSION_HEADER, sessionId)
+            .POST(HttpRequest.BodyPublishers.ofString(request)).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(404, expired.statusCode(), "Requests of ended sessions should be answered with 404");
+    }
+
+    @Test
+    public void testTakeOverKeepsServingThePort() throws Exception {
+        server.registerHandler("test/slow", params -> {
+            Thread.sleep(300);
+            return Map.of("done", true);
+        });
+        HttpClient client = HttpClient.newHttpClient();
+        int port = transport.getPort();
+
+        CompletableFuture<HttpResponse<String>> slow = client.sendAsync(HttpRequest.newBuilder(uri("/mcp"))
+            .POST(HttpRequest.BodyPublishers.ofString("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"test/slow\"}"))
+            .build(), HttpResponse.BodyHandlers.ofString());
+
+        // Keep a client busy on the port the whole time
+        AtomicBoolean handedOver = new AtomicBoolean();
+        List<Integer> statuses = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> traffic = CompletableFuture.runAsync(() -> {
+            try {
+                while (!handedOver.get()) {
+                    statuses.add(client.send(HttpRequest.newBuilder(uri("/health")).build(),
+                        HttpResponse.BodyHandlers.ofString()).statusCode());
+                }
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+        Thread.sleep(100);
+
+        McpHttpTransport next = new McpHttpTransport(server, port, config);
+        next.takeOver(transport);
+        transport = next;
+        Thread.sleep(100);
+        handedOver.set(true);
+
+        traffic.get(5, TimeUnit.SECONDS);
+        assertEquals(port, transport.getPort());
+        assertFalse(statuses.isEmpty());
+        assertTrue(statuses.stream().allMatch(status -> status == 200), "No request should fail: " + statuses);
+        HttpResponse<String> slowResponse = slow.get(5, TimeUnit.SECONDS);
+        assertTrue(objectMapper.readTree(slowResponse.body()).path("result").path("done").asBoolean(),
+            "The request in flight should complete on the old transport");
+    }
+
+    @Test
+    public void testStoppingRefusesNewConnectionsWhileDraining() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        server.registerHandler("test/slow", params -> {
+            started.countDown();
+            Thread.sleep(500);
+            return Map.of("done", true);
+        });
+        HttpClient client = HttpClient.newHttpClient();
+        int port = transport.getPort();
+        CompletableFuture<HttpResponse<String>> slow = client.sendAsync(HttpRequest.newBuilder(uri("/mcp"))
+            .POST(HttpRequest.BodyPublishers.ofString("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"test/slow\"}"))
+            .build(), HttpResponse.BodyHandlers.ofString());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> stopping = CompletableFuture.runAsync(transport::stop);
+        Thread.sleep(100);
+        assertFalse(stopping.isDone(), "Stopping should wait for the request in flight");
+        assertThrows(ConnectException.class, () -> new Socket("localhost", port).close(),
+            "A draining server should refuse new connections instead of accepting them");
+
+        assertEquals(200, slow.get(5, TimeUnit.SECONDS).statusCode(), "The request in flight should complete");
+        stopping.get(5, TimeUnit.SECONDS);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + transport.getPort() + path);
+    }
+
+    /**
+     * Read one HTTP response with a Content-Length and return its body
+     */
+    private static String readResponseBody(InputStream in) throws Exception {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        while (!head.toString(StandardCharsets.ISO_8859_1).endsWith("\r\n\r\n")) {
+            int b = in.read();
+            assertTrue(b >= 0, "Connection closed before the response ended");
+            head.write(b);
+        }
+        int length = 0;
+        for (String line : head.toString(StandardCharsets.ISO_8859_1).split("\r\n")) {
+            if (line.toLowerCase().startsWith("content-length:")) {
+                length = Integer.parseInt(line.substring(15).trim());
+            }
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,93 @@
+package net.mcreator.MCreatorMCP.mcp;
+
+import net.mcreator.MCreatorMCP.MCPToolsService;
+import net.mcreator.MCreatorMCP.WorkspaceHost;
+import net.mcreator.ui.MCreator;
+import net.mcreator.workspace.Workspace;
+
+import java.util.*;
+
+/**
+ * Synthetic workspace with a configurable number of mod elements, used to run the
+ * MCP server and its MCreator tools headless in benchmarks and load tests without
+ * loading an MCreator workspace.
+ */
+public class SyntheticWorkspace implements McpWorkspaceView {
+
+    private static final String[] ELEMENT_TYPES = {"item", "block", "recipe", "procedure", "tool", "armor",
+        "livingentity", "biome", "tab", "sound"};
+
+    private final List<ElementInfo> elements;
+
+    public SyntheticWorkspace(int elementCount) {
+        List<ElementInfo> generated = new ArrayList<>(elementCount);
+        for (int i = 0; i < elementCount; i++) {
+            generated.add(new ElementInfo("Element" + i, ELEMENT_TYPES[i % ELEMENT_TYPES.length], i % 50 == 0));
+        }
+        this.elements = Collections.unmodifiableList(generated);
+    }
+
+    @Override public String getModName() { return "Synthetic Mod"; }
+
+    @Override public String getVersion() { return "1.0.0"; }
+
+    @Override public String getAuthor() { return "MCreator MCP"; }
+
+    @Override public String getDescription() { return "Synthetic workspace with " + elements.size() + " elements"; }
+
+    @Override public String getMCreatorVersion() { return "2025002000000"; }
+
+    @Override public String getMinecraftDependencies() { return "[neoforge-1.21.1]"; }
+
+    @Override public String getWorkspaceFolder() { return "/tmp/synthetic-workspace"; }
+
+    @Override public List<ElementInfo> getElements() { return elements; }
+
+    /**
+     * Create a server with the MCreator tools registered, serving a synthetic workspace
+     * of the given size. Read tools run as in MCreator; tools that need a real workspace
+     * answer with an error.
+     */
+    public static McpServer createServer(int elementCount) {
+        McpServer mcpServer = new McpServer("Synthetic MCP Server", "1.0.0");
+        MCPToolsService toolsService = new MCPToolsService();
+        toolsService.registerTools(mcpServer);
+        toolsService.addWorkspace(new Host(new SyntheticWorkspace(elementCount)));
+        return mcpServer;
+    }
+
+    /**
+     * Headless host of a synthetic workspace, which has no MCreator workspace behind it
+     */
+    public static class Host implements WorkspaceHost {
+        private final SyntheticWorkspace view;
+
+        public Host(SyntheticWorkspace view) {
+            this.view = view;
+        }
+
+        @Override
+        public McpWorkspaceRegistry.Entry register(McpServer server) {
+            return server.addWorkspaceView(view.getModName(), view);
+        }
+
+        @Override public Workspace getWorkspace() { return null; }
+
+        @Override public MCreator getMCreator() { return null; }
+
+        @Override
+        public void apply(String tool, Runnable change) {
+            change.run();
+        }
+
+        @Override
+        public String build() {
+            throw new UnsupportedOperationException("A synthetic workspace cannot be built");
+        }
+
+        @Override
+        public String regenerateCode() {
+            throw new UnsupportedOperationException("A synthetic workspace has no code to regenerate");
+        }
+    }
+}